@@ -0,0 +1,21 @@
+package com.dentalcare.config;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import java.util.concurrent.Callable;
+
+// Lets a handler give its async body a timeout of its own instead of spring.mvc.async.request-timeout:
+// the handler stores it in the request under TIMEOUT_ATTRIBUTE, and it is set before the async request starts
+public class AsyncTimeoutInterceptor implements CallableProcessingInterceptor {
+    public static final String TIMEOUT_ATTRIBUTE = AsyncTimeoutInterceptor.class.getName() + ".timeout";
+    
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        if (request instanceof AsyncWebRequest asyncRequest
+                && request.getAttribute(TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Long timeout) {
+            asyncRequest.setTimeout(timeout);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.dentalcare.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import javax.sql.DataSource;
+import java.util.Map;
+
+// Three connection pools behind one DataSource: checkout and CRUD use the primary pool, report
+// queries use a small read-only pool so long aggregations cannot take the connections the till needs,
+// and exports stream through their own read-only pool
+@Configuration
+@Profile("!inmemory")
+public class DataSourceConfig {
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+    
+    // Defaults to the primary database; point reports.datasource.url at a replica to move the load off it
+    @Bean
+    @ConfigurationProperties("reports.datasource.hikari")
+    public HikariDataSource reportDataSource(
+            DataSourceProperties properties,
+            @Value("${reports.datasource.url:}") String url) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        if (!url.isBlank()) {
+            dataSource.setJdbcUrl(url);
+        }
+        dataSource.setPoolName("reports");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+    
+    // On MySQL these connections fetch through a server-side cursor, so an export holds one fetch-size
+    // batch in memory instead of the whole result. That makes Connector/J server-prepare every
+    // statement, an extra round trip the rest of the app should not pay, hence a pool of its own.
+    @Bean
+    @ConfigurationProperties("exports.datasource.hikari")
+    public HikariDataSource exportDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        if (dataSource.getJdbcUrl().startsWith("jdbc:mysql:")) {
+            dataSource.addDataSourceProperty("useCursorFetch", "true");
+        }
+        dataSource.setPoolName("exports");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+            @Qualifier("reportDataSource") HikariDataSource reportDataSource,
+            @Qualifier("exportDataSource") HikariDataSource exportDataSource) {
+        RoutingDataSource routing = new RoutingDataSource();
+        routing.setTargetDataSources(Map.of(
+                RoutingDataSource.PRIMARY, primaryDataSource,
+                RoutingDataSource.REPORTS, reportDataSource,
+                RoutingDataSource.EXPORTS, exportDataSource));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        return routing;
+    }
+}
@@ -0,0 +1,35 @@
+package com.dentalcare.config;
+
+import com.dentalcare.model.PharmacySaleItem;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+// pharmacy_sale_items used AUTO_INCREMENT ids before moving to the id_generators table;
+// start the generator past the existing rows so new ids cannot collide with them
+@Component
+@Profile("!inmemory")
+public class IdGeneratorAlignment {
+    private final JdbcTemplate jdbcTemplate;
+    
+    // Taking the EntityManagerFactory makes this run after Hibernate has updated the schema
+    public IdGeneratorAlignment(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @PostConstruct
+    public void alignSaleItemIds() {
+        int floor = PharmacySaleItem.ID_ALLOCATION_SIZE + 1;
+        int updated = jdbcTemplate.update(
+                "UPDATE id_generators SET next_val = GREATEST(next_val, " +
+                "(SELECT COALESCE(MAX(id), 0) FROM pharmacy_sale_items) + ?) " +
+                "WHERE sequence_name = 'pharmacy_sale_items'", floor);
+        if (updated == 0) {
+            jdbcTemplate.update(
+                    "INSERT INTO id_generators (sequence_name, next_val) " +
+                    "SELECT 'pharmacy_sale_items', COALESCE(MAX(id), 0) + ? FROM pharmacy_sale_items", floor);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.dentalcare.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+// The inmemory profile runs without a database. @Transactional and TransactionTemplate still need a
+// transaction manager, and after-commit callbacks (cache invalidation, change feed) still need to
+// fire, so this one manages synchronizations only. Writes apply immediately and are not rolled back.
+@Configuration
+@Profile("inmemory")
+public class InMemoryStoreConfig {
+    @Bean
+    public PlatformTransactionManager transactionManager() {
+        return new AbstractPlatformTransactionManager() {
+            @Override
+            protected Object doGetTransaction() {
+                return new Object();
+            }
+            
+            @Override
+            protected void doBegin(Object transaction, TransactionDefinition definition) {
+            }
+            
+            @Override
+            protected void doCommit(DefaultTransactionStatus status) {
+            }
+            
+            @Override
+            protected void doRollback(DefaultTransactionStatus status) {
+            }
+        };
+    }
+}
@@ -0,0 +1,207 @@
+package com.dentalcare.config;
+
+import com.dentalcare.model.*;
+import com.dentalcare.service.SyntheticDataSink;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Synthetic data into the database through batched JDBC inserts with the generated ids, one
+// transaction per chunk so concurrent chunks load over separate pooled connections. With
+// rewriteBatchedStatements on the MySQL URL each batch goes out as multi-row INSERTs.
+@Component
+@Profile("synthetic-data & !inmemory")
+public class JdbcSyntheticDataSink implements SyntheticDataSink {
+    private static final int BATCH_SIZE = 1000;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final IdGeneratorAlignment idGeneratorAlignment;
+    
+    public JdbcSyntheticDataSink(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            IdGeneratorAlignment idGeneratorAlignment) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.idGeneratorAlignment = idGeneratorAlignment;
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        for (String table : List.of("users", "patients", "appointments", "medicines", "pharmacy_customers", "pharmacy_sales")) {
+            if (!jdbcTemplate.queryForList("SELECT id FROM " + table + " LIMIT 1").isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    @Override
+    public void users(List<User> users) {
+        insert("INSERT INTO users (id, name, email, password, role, avatar) VALUES (?, ?, ?, ?, ?, ?)",
+                users, (ps, user) -> {
+                    ps.setLong(1, user.getId());
+                    ps.setString(2, user.getName());
+                    ps.setString(3, user.getEmail());
+                    ps.setString(4, user.getPassword());
+                    ps.setString(5, user.getRole());
+                    ps.setString(6, user.getAvatar());
+                });
+    }
+    
+    @Override
+    public void medicines(List<Medicine> medicines) {
+        insert("INSERT INTO medicines (id, name, type, description, manufacturer, stock, unit, price, " +
+                "created_at, updated_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                medicines, (ps, medicine) -> {
+                    ps.setLong(1, medicine.getId());
+                    ps.setString(2, medicine.getName());
+                    ps.setString(3, medicine.getType());
+                    ps.setString(4, medicine.getDescription());
+                    ps.setString(5, medicine.getManufacturer());
+                    ps.setInt(6, medicine.getStock());
+                    ps.setString(7, medicine.getUnit());
+                    ps.setDouble(8, medicine.getPrice());
+                    ps.setObject(9, medicine.getCreatedAt());
+                    ps.setObject(10, medicine.getUpdatedAt());
+                    ps.setLong(11, medicine.getVersion());
+                });
+    }
+    
+    @Override
+    public void patients(List<Patient> patients) {
+        insert("INSERT INTO patients (id, first_name, last_name, email, phone, date_of_birth, gender, address, " +
+                "medical_history, insurance_info, created_at, last_visit, first_name_key, last_name_key, phone_key) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                patients, (ps, patient) -> {
+                    ps.setLong(1, patient.getId());
+                    ps.setString(2, patient.getFirstName());
+                    ps.setString(3, patient.getLastName());
+                    ps.setString(4, patient.getEmail());
+                    ps.setString(5, patient.getPhone());
+                    ps.setObject(6, patient.getDateOfBirth());
+                    ps.setString(7, patient.getGender());
+                    ps.setString(8, patient.getAddress());
+                    ps.setString(9, patient.getMedicalHistory());
+                    ps.setString(10, patient.getInsuranceInfo());
+                    ps.setObject(11, patient.getCreatedAt());
+                    ps.setObject(12, patient.getLastVisit());
+                    ps.setString(13, patient.getFirstNameKey());
+                    ps.setString(14, patient.getLastNameKey());
+                    ps.setString(15, patient.getPhoneKey());
+                });
+    }
+    
+    @Override
+    public void pharmacyCustomers(List<PharmacyCustomer> customers) {
+        insert("INSERT INTO pharmacy_customers (id, name, phone, normalized_phone, email, address, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                customers, (ps, customer) -> {
+                    ps.setLong(1, customer.getId());
+                    ps.setString(2, customer.getName());
+                    ps.setString(3, customer.getPhone());
+                    ps.setString(4, customer.getNormalizedPhone());
+                    ps.setString(5, customer.getEmail());
+                    ps.setString(6, customer.getAddress());
+                    ps.setObject(7, customer.getCreatedAt());
+                });
+    }
+    
+    @Override
+    public void appointments(List<Appointment> appointments) {
+        insert("INSERT INTO appointments (id, patient_id, patient_name, dentist_id, dentist_name, date, start_time, " +
+                "end_time, status, type, notes, amount, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                appointments, (ps, appointment) -> {
+                    ps.setLong(1, appointment.getId());
+                    ps.setLong(2, appointment.getPatientId());
+                    ps.setString(3, appointment.getPatientName());
+                    ps.setLong(4, appointment.getDentistId());
+                    ps.setString(5, appointment.getDentistName());
+                    ps.setObject(6, appointment.getDate());
+                    ps.setObject(7, appointment.getStartTime());
+                    ps.setObject(8, appointment.getEndTime());
+                    ps.setString(9, appointment.getStatus());
+                    ps.setString(10, appointment.getType());
+                    ps.setString(11, appointment.getNotes());
+                    ps.setDouble(12, appointment.getAmount());
+                    ps.setObject(13, appointment.getCreatedAt());
+                });
+    }
+    
+    @Override
+    public void prescriptions(List<Prescription> prescriptions) {
+        List<Object[]> items = new ArrayList<>();
+        for (Prescription prescription : prescriptions) {
+            for (PrescriptionItem item : prescription.getItems()) {
+                items.add(new Object[] {item.getId(), prescription.getId(), item.getMedicineId(), item.getMedicineName(),
+                        item.getMedicineType(), item.getDosage(), item.getFrequency(), item.getDuration(),
+                        item.getInstructions()});
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate("INSERT INTO prescriptions (id, patient_id, patient_name, appointment_id, " +
+                    "dentist_id, dentist_name, notes, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                    prescriptions, BATCH_SIZE, (ps, prescription) -> {
+                        ps.setLong(1, prescription.getId());
+                        ps.setLong(2, prescription.getPatientId());
+                        ps.setString(3, prescription.getPatientName());
+                        ps.setLong(4, prescription.getAppointmentId());
+                        ps.setLong(5, prescription.getDentistId());
+                        ps.setString(6, prescription.getDentistName());
+                        ps.setString(7, prescription.getNotes());
+                        ps.setObject(8, prescription.getCreatedAt());
+                    });
+            batchInsert("INSERT INTO prescription_items (id, prescription_id, medicine_id, medicine_name, " +
+                    "medicine_type, dosage, frequency, duration, instructions) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", items);
+        });
+    }
+    
+    @Override
+    public void pharmacySales(List<PharmacySale> sales) {
+        List<Object[]> items = new ArrayList<>();
+        for (PharmacySale sale : sales) {
+            for (PharmacySaleItem item : sale.getItems()) {
+                items.add(new Object[] {item.getId(), sale.getId(), item.getMedicineId(), item.getMedicineName(),
+                        item.getQuantity(), item.getUnitPrice(), item.getTotalPrice()});
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate("INSERT INTO pharmacy_sales (id, customer_id, customer_name, customer_phone, " +
+                    "subtotal, sgst, cgst, discount, total, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                    sales, BATCH_SIZE, (ps, sale) -> {
+                        ps.setLong(1, sale.getId());
+                        ps.setLong(2, sale.getCustomerId());
+                        ps.setString(3, sale.getCustomerName());
+                        ps.setString(4, sale.getCustomerPhone());
+                        ps.setDouble(5, sale.getSubtotal());
+                        ps.setDouble(6, sale.getSgst());
+                        ps.setDouble(7, sale.getCgst());
+                        ps.setDouble(8, sale.getDiscount());
+                        ps.setDouble(9, sale.getTotal());
+                        ps.setObject(10, sale.getCreatedAt());
+                    });
+            batchInsert("INSERT INTO pharmacy_sale_items (id, sale_id, medicine_id, medicine_name, quantity, " +
+                    "unit_price, total_price) VALUES (?, ?, ?, ?, ?, ?, ?)", items);
+        });
+    }
+    
+    // Sale item ids come from the id_generators table, which has to start past the loaded rows
+    @Override
+    public void finish() {
+        idGeneratorAlignment.alignSaleItemIds();
+    }
+    
+    private <T> void insert(String sql, List<T> rows, ParameterizedPreparedStatementSetter<T> setter) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, rows, BATCH_SIZE, setter));
+    }
+    
+    private void batchInsert(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.dentalcare.config;
+
+import com.dentalcare.model.Patient;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import java.util.List;
+
+// Patients saved before the search key columns existed have them NULL; fill them in once,
+// using Patient's own normalization for the phone key
+@Component
+@Profile("!inmemory")
+public class PatientSearchKeyBackfill {
+    private static final int BATCH_SIZE = 1000;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    // Taking the EntityManagerFactory makes this run after Hibernate has updated the schema
+    public PatientSearchKeyBackfill(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @PostConstruct
+    public void backfillSearchKeys() {
+        jdbcTemplate.update(
+                "UPDATE patients SET first_name_key = LOWER(TRIM(first_name)), last_name_key = LOWER(TRIM(last_name)) " +
+                "WHERE first_name_key IS NULL OR last_name_key IS NULL");
+        
+        while (true) {
+            List<Object[]> rows = jdbcTemplate.query(
+                    "SELECT id, phone FROM patients WHERE phone_key IS NULL ORDER BY id LIMIT " + BATCH_SIZE,
+                    (rs, rowNum) -> {
+                        String key = Patient.phoneKey(rs.getString("phone"));
+                        return new Object[] {key != null ? key : "", rs.getLong("id")};
+                    });
+            if (rows.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.batchUpdate("UPDATE patients SET phone_key = ? WHERE id = ?", rows);
+        }
+    }
+}
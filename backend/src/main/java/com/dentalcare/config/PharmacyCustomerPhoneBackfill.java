@@ -0,0 +1,53 @@
+package com.dentalcare.config;
+
+import com.dentalcare.service.PhoneNumbers;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import java.util.List;
+import java.util.Map;
+
+// Customers saved before normalized_phone existed have it NULL. Fill it in once; rows whose
+// number collides with another customer's after normalization stay NULL and are logged
+@Component
+@Profile("!inmemory")
+public class PharmacyCustomerPhoneBackfill {
+    private static final Logger log = LoggerFactory.getLogger(PharmacyCustomerPhoneBackfill.class);
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final String defaultCountryCode;
+    
+    // Taking the EntityManagerFactory makes this run after Hibernate has updated the schema
+    public PharmacyCustomerPhoneBackfill(
+            JdbcTemplate jdbcTemplate,
+            EntityManagerFactory entityManagerFactory,
+            @Value("${pharmacy.customers.default-country-code:91}") String defaultCountryCode) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.defaultCountryCode = defaultCountryCode;
+    }
+    
+    @PostConstruct
+    public void backfillNormalizedPhones() {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, phone FROM pharmacy_customers WHERE normalized_phone IS NULL ORDER BY id");
+        for (Map<String, Object> row : rows) {
+            String normalized = PhoneNumbers.normalize((String) row.get("phone"), defaultCountryCode);
+            if (normalized == null) {
+                continue;
+            }
+            try {
+                jdbcTemplate.update("UPDATE pharmacy_customers SET normalized_phone = ? WHERE id = ?",
+                        normalized, row.get("id"));
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Pharmacy customer {} has the same phone as another customer ({}), left unnormalized",
+                        row.get("id"), normalized);
+            }
+        }
+    }
+}
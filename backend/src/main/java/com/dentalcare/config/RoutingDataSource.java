@@ -0,0 +1,46 @@
+package com.dentalcare.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import java.util.function.Supplier;
+
+// Hands out connections from the report pool while a thread is running report work, from the export
+// pool while it streams an export, and from the primary pool otherwise. The route is read when a
+// transaction or statement acquires its connection.
+public class RoutingDataSource extends AbstractRoutingDataSource {
+    static final String PRIMARY = "primary";
+    static final String REPORTS = "reports";
+    static final String EXPORTS = "exports";
+    
+    private static final ThreadLocal<String> ROUTE = new ThreadLocal<>();
+    
+    public static <T> T onReports(Supplier<T> work) {
+        return route(REPORTS, work);
+    }
+    
+    public static <T> T onExports(Supplier<T> work) {
+        return route(EXPORTS, work);
+    }
+    
+    public static <T> T onPrimary(Supplier<T> work) {
+        return route(PRIMARY, work);
+    }
+    
+    private static <T> T route(String target, Supplier<T> work) {
+        String previous = ROUTE.get();
+        ROUTE.set(target);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                ROUTE.remove();
+            } else {
+                ROUTE.set(previous);
+            }
+        }
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ROUTE.get();
+    }
+}
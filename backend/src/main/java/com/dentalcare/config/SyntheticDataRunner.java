@@ -0,0 +1,71 @@
+package com.dentalcare.config;
+
+import com.dentalcare.service.SyntheticDataGenerator;
+import com.dentalcare.service.SyntheticDataSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.Set;
+
+// Loads the synthetic-data profile's dataset once the app is up: into DataStore with inmemory,
+// into the database otherwise. A store that already has data is left alone, so a persistent
+// store or database is generated once and reused across restarts.
+@Component
+@Profile("synthetic-data")
+public class SyntheticDataRunner implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataRunner.class);
+    
+    private final SyntheticDataSink sink;
+    private final ConfigurableApplicationContext context;
+    private final SyntheticDataGenerator.Spec spec;
+    private final int threads;
+    private final boolean exitWhenDone;
+    
+    public SyntheticDataRunner(SyntheticDataSink sink, ConfigurableApplicationContext context,
+            @Value("${synthetic-data.seed:42}") long seed,
+            @Value("${synthetic-data.today:2025-12-31}") LocalDate today,
+            @Value("${synthetic-data.history-days:730}") int historyDays,
+            @Value("${synthetic-data.future-days:28}") int futureDays,
+            @Value("${synthetic-data.dentists:200}") int dentists,
+            @Value("${synthetic-data.occupancy:0.75}") double occupancy,
+            @Value("${synthetic-data.patients:1000000}") int patients,
+            @Value("${synthetic-data.medicines:5000}") int medicines,
+            @Value("${synthetic-data.customers:200000}") int customers,
+            @Value("${synthetic-data.sales-per-day:1000}") int salesPerDay,
+            @Value("${synthetic-data.threads:0}") int threads,
+            @Value("${synthetic-data.exit-when-done:false}") boolean exitWhenDone,
+            @Value("${appointments.working-hours.start:09:00}") LocalTime opensAt,
+            @Value("${appointments.working-hours.end:18:00}") LocalTime closesAt,
+            @Value("${appointments.working-days:MONDAY,TUESDAY,WEDNESDAY,THURSDAY,FRIDAY,SATURDAY}") Set<DayOfWeek> workingDays) {
+        this.sink = sink;
+        this.context = context;
+        this.spec = new SyntheticDataGenerator.Spec(seed, today, historyDays, futureDays, dentists, occupancy,
+                patients, medicines, customers, salesPerDay, workingDays, opensAt, closesAt);
+        this.threads = threads;
+        this.exitWhenDone = exitWhenDone;
+    }
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        if (sink.isEmpty()) {
+            log.info("Generating synthetic data: {}", spec);
+            Map<String, Object> counts = new SyntheticDataGenerator(spec, threads).generate(sink);
+            log.info("Synthetic data loaded: {}", counts);
+        } else {
+            log.info("Store already has data, skipping synthetic data generation");
+        }
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+}
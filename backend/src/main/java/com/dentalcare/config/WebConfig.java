@@ -5,6 +5,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
@@ -30,9 +31,21 @@ public class WebConfig implements WebMvcConfigurer {
         // Allow all headers
         config.addAllowedHeader("*");
         
+        // Expose paging headers set by the list endpoints
+        config.addExposedHeader("X-Total-Count");
+        config.addExposedHeader("X-Has-Next");
+        config.addExposedHeader("X-Next-After-Id");
+        config.addExposedHeader("X-Next-After-Created-At");
+        config.addExposedHeader("ETag");
+        
         // Apply CORS configuration to all paths
         source.registerCorsConfiguration("/**", config);
         
         return new CorsFilter(source);
     }
+    
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new AsyncTimeoutInterceptor());
+    }
 }
\ No newline at end of file
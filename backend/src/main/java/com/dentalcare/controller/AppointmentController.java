@@ -1,13 +1,21 @@
 package com.dentalcare.controller;
 
 import com.dentalcare.model.Appointment;
+import com.dentalcare.service.AppointmentConflictException;
 import com.dentalcare.service.AppointmentService;
+import com.dentalcare.service.FreeSlot;
+import com.dentalcare.service.PageQuery;
+import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/appointments")
@@ -19,8 +27,12 @@ public class AppointmentController {
     }
     
     @GetMapping
-    public List<Appointment> getAllAppointments() {
-        return appointmentService.getAllAppointments();
+    public ResponseEntity<List<Appointment>> getAllAppointments(
+            Pageable pageable,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterCreatedAt,
+            @RequestParam(required = false) Boolean count) {
+        return PageResponses.of(appointmentService.getAppointments(PageQuery.of(pageable, afterId, afterCreatedAt, count)));
     }
     
     @GetMapping("/date/{date}")
@@ -42,6 +54,34 @@ public class AppointmentController {
         return appointmentService.getAppointmentsByWeek(date);
     }
     
+    @GetMapping("/availability")
+    public ResponseEntity<List<FreeSlot>> getAvailability(
+            @RequestParam(required = false) Long dentistId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "30") int duration) {
+        if (to.isBefore(from) || from.plusDays(92).isBefore(to) || duration <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(appointmentService.findFreeSlots(dentistId, from, to, duration));
+    }
+    
+    // Server-sent created/updated/deleted events for appointments touching [from, to]; reconnecting clients
+    // resume from the Last-Event-ID header (or lastEventId for clients that cannot set headers)
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(required = false) String lastEventId) {
+        return appointmentService.streamChanges(from, to, lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+    
+    @GetMapping("/calendar-cache/stats")
+    public Map<String, Object> getCalendarCacheStats() {
+        return appointmentService.getCalendarCacheStats();
+    }
+    
     @GetMapping("/patient/{patientId}")
     public List<Appointment> getAppointmentsByPatientId(@PathVariable Long patientId) {
         return appointmentService.getAppointmentsByPatientId(patientId);
@@ -74,4 +114,16 @@ public class AppointmentController {
                 ? ResponseEntity.ok().build()
                 : ResponseEntity.notFound().build();
     }
+    
+    @ExceptionHandler(AppointmentConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleConflict(AppointmentConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "error", e.getMessage(),
+                "conflictingAppointmentId", e.getConflictingAppointmentId()));
+    }
+    
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
 }
\ No newline at end of file
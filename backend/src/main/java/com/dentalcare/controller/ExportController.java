@@ -0,0 +1,70 @@
+package com.dentalcare.controller;
+
+import com.dentalcare.config.AsyncTimeoutInterceptor;
+import com.dentalcare.service.ExportFormat;
+import com.dentalcare.service.ExportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/exports")
+public class ExportController {
+    private final ExportService exportService;
+    private final long requestTimeoutMs;
+    
+    public ExportController(
+            ExportService exportService,
+            @Value("${exports.request-timeout-ms:1800000}") long requestTimeoutMs) {
+        this.exportService = exportService;
+        this.requestTimeoutMs = requestTimeoutMs;
+    }
+    
+    @GetMapping("/appointments")
+    public ResponseEntity<StreamingResponseBody> exportAppointments(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        return stream("appointments", exportFormat,
+                out -> exportService.exportAppointments(startDate, endDate, exportFormat, out));
+    }
+    
+    @GetMapping("/patients")
+    public ResponseEntity<StreamingResponseBody> exportPatients(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        return stream("patients", exportFormat,
+                out -> exportService.exportPatients(startDate, endDate, exportFormat, out));
+    }
+    
+    @GetMapping("/pharmacy-sales")
+    public ResponseEntity<StreamingResponseBody> exportSales(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        return stream("pharmacy-sales", exportFormat,
+                out -> exportService.exportSales(startDate, endDate, exportFormat, out));
+    }
+    
+    // The body runs on an async thread, so the export's read-only transaction is opened there. Only
+    // exports get the long timeout; other async requests keep the default
+    private ResponseEntity<StreamingResponseBody> stream(String name, ExportFormat format, StreamingResponseBody body) {
+        RequestContextHolder.currentRequestAttributes().setAttribute(
+                AsyncTimeoutInterceptor.TIMEOUT_ATTRIBUTE, requestTimeoutMs, RequestAttributes.SCOPE_REQUEST);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, format.getContentType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + name + "." + format.getExtension() + "\"")
+                .body(body);
+    }
+}
@@ -1,10 +1,19 @@
 package com.dentalcare.controller;
 
 import com.dentalcare.model.Medicine;
+import com.dentalcare.repository.MedicineStock;
+import com.dentalcare.service.MedicineCatalog;
 import com.dentalcare.service.MedicineService;
+import com.dentalcare.service.PageQuery;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/medicines")
@@ -16,8 +25,39 @@ public class MedicineController {
     }
     
     @GetMapping
-    public List<Medicine> getAllMedicines() {
-        return medicineService.getAllMedicines();
+    public ResponseEntity<List<Medicine>> getAllMedicines(
+            Pageable pageable,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterCreatedAt,
+            @RequestParam(required = false) Boolean count) {
+        return PageResponses.of(medicineService.getMedicines(PageQuery.of(pageable, afterId, afterCreatedAt, count)));
+    }
+    
+    // Full catalog for the POS without stock, served from memory; unchanged catalogs answer 304 to
+    // If-None-Match. Sales leave it unchanged, so clients read stock from /stock.
+    @GetMapping("/catalog")
+    public ResponseEntity<List<Medicine>> getCatalog() {
+        MedicineCatalog catalog = medicineService.getCatalog();
+        return ResponseEntity.ok()
+                .eTag(catalog.etag())
+                .body(catalog.medicines());
+    }
+    
+    @GetMapping("/stock")
+    public List<MedicineStock> getStock() {
+        return medicineService.getStock();
+    }
+    
+    @GetMapping("/catalog/stats")
+    public Map<String, Object> getCatalogCacheStats() {
+        return medicineService.getCatalogCacheStats();
+    }
+    
+    @GetMapping("/search")
+    public List<Medicine> searchMedicines(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return medicineService.searchMedicines(q, Math.min(Math.max(limit, 1), 50));
     }
     
     @GetMapping("/{id}")
@@ -40,10 +80,28 @@ public class MedicineController {
                 .orElse(ResponseEntity.notFound().build());
     }
     
+    @PostMapping("/{id}/stock")
+    public ResponseEntity<Medicine> adjustStock(@PathVariable Long id, @RequestParam int delta) {
+        return medicineService.adjustStock(id, delta)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteMedicine(@PathVariable Long id) {
         return medicineService.deleteMedicine(id)
                 ? ResponseEntity.ok().build()
                 : ResponseEntity.notFound().build();
     }
+    
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, Object>> handleStaleVersion(ObjectOptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "error", "Medicine was changed by someone else; reload it and try again"));
+    }
+    
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
 }
\ No newline at end of file
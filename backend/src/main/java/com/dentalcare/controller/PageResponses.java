@@ -0,0 +1,30 @@
+package com.dentalcare.controller;
+
+import com.dentalcare.service.PageResult;
+import org.springframework.http.ResponseEntity;
+import java.util.List;
+
+final class PageResponses {
+    static final String TOTAL_COUNT = "X-Total-Count";
+    static final String HAS_NEXT = "X-Has-Next";
+    static final String NEXT_AFTER_ID = "X-Next-After-Id";
+    static final String NEXT_AFTER_CREATED_AT = "X-Next-After-Created-At";
+    
+    private PageResponses() {
+    }
+    
+    static <T> ResponseEntity<List<T>> of(PageResult<T> result) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HAS_NEXT, String.valueOf(result.hasNext()));
+        if (result.totalCount() != null) {
+            response.header(TOTAL_COUNT, String.valueOf(result.totalCount()));
+        }
+        if (result.nextAfterId() != null) {
+            response.header(NEXT_AFTER_ID, String.valueOf(result.nextAfterId()));
+        }
+        if (result.nextAfterCreatedAt() != null) {
+            response.header(NEXT_AFTER_CREATED_AT, result.nextAfterCreatedAt().toString());
+        }
+        return response.body(result.content());
+    }
+}
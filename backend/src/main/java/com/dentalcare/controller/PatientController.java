@@ -2,8 +2,12 @@ package com.dentalcare.controller;
 
 import com.dentalcare.model.Patient;
 import com.dentalcare.service.PatientService;
+import com.dentalcare.service.PageQuery;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -16,8 +20,17 @@ public class PatientController {
     }
     
     @GetMapping
-    public List<Patient> getAllPatients() {
-        return patientService.getAllPatients();
+    public ResponseEntity<List<Patient>> getAllPatients(
+            Pageable pageable,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterCreatedAt,
+            @RequestParam(required = false) Boolean count) {
+        return PageResponses.of(patientService.getPatients(PageQuery.of(pageable, afterId, afterCreatedAt, count)));
+    }
+    
+    @GetMapping("/search")
+    public ResponseEntity<List<Patient>> searchPatients(@RequestParam String q, Pageable pageable) {
+        return PageResponses.of(patientService.searchPatients(q, pageable));
     }
     
     @GetMapping("/{id}")
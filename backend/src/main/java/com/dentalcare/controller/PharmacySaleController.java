@@ -2,8 +2,15 @@ package com.dentalcare.controller;
 
 import com.dentalcare.model.PharmacySale;
 import com.dentalcare.service.PharmacySaleService;
+import com.dentalcare.service.PageQuery;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -16,8 +23,23 @@ public class PharmacySaleController {
     }
     
     @GetMapping
-    public List<PharmacySale> getAllSales() {
-        return pharmacySaleService.getAllSales();
+    public ResponseEntity<List<PharmacySale>> getAllSales(
+            Pageable pageable,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterCreatedAt,
+            @RequestParam(required = false) Boolean count) {
+        return PageResponses.of(pharmacySaleService.getSales(PageQuery.of(pageable, afterId, afterCreatedAt, count)));
+    }
+    
+    // Server-sent events for sales made on days in [from, to]; reconnecting clients
+    // resume from the Last-Event-ID header (or lastEventId for clients that cannot set headers)
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(required = false) String lastEventId) {
+        return pharmacySaleService.streamChanges(from, to, lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
     }
     
     @GetMapping("/{id}")
@@ -2,8 +2,12 @@ package com.dentalcare.controller;
 
 import com.dentalcare.model.Prescription;
 import com.dentalcare.service.PrescriptionService;
+import com.dentalcare.service.PageQuery;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -16,8 +20,12 @@ public class PrescriptionController {
     }
     
     @GetMapping
-    public List<Prescription> getAllPrescriptions() {
-        return prescriptionService.getAllPrescriptions();
+    public ResponseEntity<List<Prescription>> getAllPrescriptions(
+            Pageable pageable,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterCreatedAt,
+            @RequestParam(required = false) Boolean count) {
+        return PageResponses.of(prescriptionService.getPrescriptions(PageQuery.of(pageable, afterId, afterCreatedAt, count)));
     }
     
     @GetMapping("/patient/{patientId}")
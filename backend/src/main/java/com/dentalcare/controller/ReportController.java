@@ -1,50 +1,118 @@
 
 package com.dentalcare.controller;
 
+import com.dentalcare.service.ReportBulkhead;
+import com.dentalcare.service.ReportJob;
+import com.dentalcare.service.ReportJobService;
 import com.dentalcare.service.ReportService;
+import com.dentalcare.service.ReportsBusyException;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.time.LocalDate;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/reports")
 public class ReportController {
     private final ReportService reportService;
+    private final ReportBulkhead reportBulkhead;
+    private final ReportJobService reportJobService;
     
-    public ReportController(ReportService reportService) {
+    public ReportController(ReportService reportService, ReportBulkhead reportBulkhead, ReportJobService reportJobService) {
         this.reportService = reportService;
+        this.reportBulkhead = reportBulkhead;
+        this.reportJobService = reportJobService;
     }
     
     @GetMapping("/patients")
-    public Map<String, Object> getPatientStatistics(
+    public CompletableFuture<Map<String, Object>> getPatientStatistics(
             @RequestParam String period,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        return reportService.getPatientStatistics(period, startDate, endDate);
+        return reportBulkhead.submit(() -> reportService.getPatientStatistics(period, startDate, endDate));
     }
     
     @GetMapping("/appointments")
-    public Map<String, Object> getAppointmentStatistics(
+    public CompletableFuture<Map<String, Object>> getAppointmentStatistics(
             @RequestParam String period,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        return reportService.getAppointmentStatistics(period, startDate, endDate);
+        return reportBulkhead.submit(() -> reportService.getAppointmentStatistics(period, startDate, endDate));
     }
     
     @GetMapping("/financial")
-    public Map<String, Object> getFinancialStatistics(
+    public CompletableFuture<Map<String, Object>> getFinancialStatistics(
             @RequestParam String period,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        return reportService.getFinancialStatistics(period, startDate, endDate);
+        return reportBulkhead.submit(() -> reportService.getFinancialStatistics(period, startDate, endDate));
     }
     
     @GetMapping("/pharmacy")
-    public Map<String, Object> getPharmacyStatistics(
+    public CompletableFuture<Map<String, Object>> getPharmacyStatistics(
             @RequestParam String period,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        return reportService.getPharmacyStatistics(period, startDate, endDate);
+        return reportBulkhead.submit(() -> reportService.getPharmacyStatistics(period, startDate, endDate));
+    }
+    
+    // Starts (or joins) a background job; poll /jobs/{id} and fetch /jobs/{id}/result
+    @PostMapping("/jobs")
+    public ResponseEntity<Map<String, Object>> createJob(
+            @RequestParam String type,
+            @RequestParam String period,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        ReportJob job = reportJobService.submit(type, period, startDate, endDate);
+        return ResponseEntity.status(job.getStatus() == ReportJob.Status.PENDING ? HttpStatus.ACCEPTED : HttpStatus.OK)
+                .body(job.toStatus());
+    }
+    
+    @GetMapping("/jobs/stats")
+    public Map<String, Object> getJobStats() {
+        return reportJobService.getStats();
+    }
+    
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<Map<String, Object>> getJob(@PathVariable String id) {
+        return reportJobService.getJob(id)
+                .map(job -> ResponseEntity.ok(job.toStatus()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/jobs/{id}/result")
+    public ResponseEntity<Map<String, Object>> getJobResult(@PathVariable String id) {
+        return reportJobService.getJob(id)
+                .map(job -> switch (job.getStatus()) {
+                    case COMPLETED -> ResponseEntity.ok(job.getResult());
+                    case PENDING -> ResponseEntity.status(HttpStatus.ACCEPTED)
+                            .header(HttpHeaders.RETRY_AFTER, "1")
+                            .body(job.toStatus());
+                    case FAILED -> job.getError() instanceof ReportsBusyException busy
+                            ? handleBusy(busy)
+                            : ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(job.toStatus());
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/bulkhead/stats")
+    public Map<String, Object> getBulkheadStats() {
+        return reportBulkhead.getStats();
+    }
+    
+    @ExceptionHandler(ReportsBusyException.class)
+    public ResponseEntity<Map<String, Object>> handleBusy(ReportsBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("error", e.getMessage()));
+    }
+    
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
     }
 }
@@ -8,7 +8,10 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments", indexes = {
+    @Index(name = "idx_appointments_date_patient", columnList = "date, patient_id"),
+    @Index(name = "idx_appointments_dentist_date_start", columnList = "dentist_id, date, start_time")
+})
 public class Appointment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,27 @@
+package com.dentalcare.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+
+@Data
+@Entity
+@Table(name = "daily_appointment_type_summaries",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"summary_date", "type"}))
+public class DailyAppointmentTypeSummary {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "summary_date", nullable = false)
+    private LocalDate date;
+    
+    @Column(nullable = false)
+    private String type;
+    
+    @Column(nullable = false)
+    private long count;
+    
+    @Column(nullable = false)
+    private double revenue;
+}
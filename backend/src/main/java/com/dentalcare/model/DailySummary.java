@@ -0,0 +1,42 @@
+package com.dentalcare.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "daily_summaries")
+public class DailySummary {
+    @Id
+    @Column(name = "summary_date")
+    private LocalDate date;
+    
+    @Column(name = "new_patients", nullable = false)
+    private long newPatients;
+    
+    @Column(nullable = false)
+    private long appointments;
+    
+    @Column(name = "completed_appointments", nullable = false)
+    private long completedAppointments;
+    
+    @Column(name = "cancelled_appointments", nullable = false)
+    private long cancelledAppointments;
+    
+    @Column(name = "no_show_appointments", nullable = false)
+    private long noShowAppointments;
+    
+    @Column(name = "appointment_revenue", nullable = false)
+    private double appointmentRevenue;
+    
+    @Column(name = "pharmacy_sales", nullable = false)
+    private long pharmacySales;
+    
+    @Column(name = "pharmacy_revenue", nullable = false)
+    private double pharmacyRevenue;
+    
+    @Column(name = "refreshed_at", nullable = false)
+    private LocalDateTime refreshedAt;
+}
@@ -0,0 +1,19 @@
+package com.dentalcare.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+
+// A day whose rollup is behind its source rows. changes counts the writes since the last refresh,
+// so a refresh clears the mark only if no write arrived while it was running.
+@Data
+@Entity
+@Table(name = "daily_summary_marks")
+public class DailySummaryMark {
+    @Id
+    @Column(name = "summary_date")
+    private LocalDate date;
+    
+    @Column(nullable = false)
+    private long changes;
+}
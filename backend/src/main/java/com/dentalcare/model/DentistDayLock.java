@@ -0,0 +1,32 @@
+package com.dentalcare.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// One row per dentist and booked day. A booking locks the row before it checks for overlaps, so
+// instances sharing the database book any one dentist's day one at a time.
+@Data
+@Entity
+@Table(name = "dentist_day_locks")
+@IdClass(DentistDayLock.Key.class)
+public class DentistDayLock {
+    @Id
+    @Column(name = "dentist_id")
+    private Long dentistId;
+    
+    @Id
+    @Column(name = "lock_date")
+    private LocalDate date;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long dentistId;
+        private LocalDate date;
+    }
+}
@@ -23,7 +23,8 @@ public class Medicine {
     
     private String manufacturer;
     
-    @Column(nullable = false)
+    // Written only by the insert and by the stock updates in MedicineRepositoryImpl, never by a merge
+    @Column(nullable = false, updatable = false)
     private Integer stock;
     
     @Column(nullable = false)
@@ -37,4 +38,8 @@ public class Medicine {
     
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
+    
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
\ No newline at end of file
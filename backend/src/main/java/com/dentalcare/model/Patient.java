@@ -1,13 +1,19 @@
 package com.dentalcare.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Data
 @Entity
-@Table(name = "patients")
+@Table(name = "patients", indexes = {
+    @Index(name = "idx_patients_first_last_name_key", columnList = "first_name_key, last_name_key, id"),
+    @Index(name = "idx_patients_last_first_name_key", columnList = "last_name_key, first_name_key, id"),
+    @Index(name = "idx_patients_phone_key", columnList = "phone_key")
+})
 public class Patient {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -45,4 +51,42 @@ public class Patient {
     
     @Column(name = "last_visit")
     private LocalDateTime lastVisit;
+    
+    // Search keys: lower-cased names, and the phone digits reversed so a suffix search is an index prefix scan
+    @JsonIgnore
+    @Column(name = "first_name_key")
+    private String firstNameKey;
+    
+    @JsonIgnore
+    @Column(name = "last_name_key")
+    private String lastNameKey;
+    
+    @JsonIgnore
+    @Column(name = "phone_key", length = 32)
+    private String phoneKey;
+    
+    @PrePersist
+    @PreUpdate
+    public void updateSearchKeys() {
+        firstNameKey = nameKey(firstName);
+        lastNameKey = nameKey(lastName);
+        phoneKey = phoneKey(phone);
+    }
+    
+    public static String nameKey(String name) {
+        return name == null ? null : name.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    public static String phoneKey(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = phone.length() - 1; i >= 0; i--) {
+            if (Character.isDigit(phone.charAt(i))) {
+                digits.append(phone.charAt(i));
+            }
+        }
+        return digits.toString();
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 
 package com.dentalcare.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDateTime;
@@ -19,6 +20,11 @@ public class PharmacyCustomer {
     @Column(nullable = false, unique = true)
     private String phone;
     
+    // Canonical +<country><number> form of phone, what lookups match on
+    @JsonIgnore
+    @Column(name = "normalized_phone", unique = true, length = 20)
+    private String normalizedPhone;
+    
     private String email;
     
     @Column(columnDefinition = "TEXT")
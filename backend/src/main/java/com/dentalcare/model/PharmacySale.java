@@ -2,6 +2,7 @@ package com.dentalcare.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.BatchSize;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -23,7 +24,8 @@ public class PharmacySale {
     private String customerPhone;
     
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = "sale_id")
+    @JoinColumn(name = "sale_id", nullable = false, updatable = false)
+    @BatchSize(size = 1000)
     private List<PharmacySaleItem> items;
     
     @Column(nullable = false)
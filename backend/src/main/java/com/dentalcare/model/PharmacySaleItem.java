@@ -7,8 +7,14 @@ import lombok.Data;
 @Entity
 @Table(name = "pharmacy_sale_items")
 public class PharmacySaleItem {
+    public static final int ID_ALLOCATION_SIZE = 50;
+    
+    // Table-backed pooled ids (not IDENTITY) so Hibernate can batch the item inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "pharmacy_sale_items")
+    @TableGenerator(name = "pharmacy_sale_items", table = "id_generators",
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "pharmacy_sale_items", allocationSize = PharmacySaleItem.ID_ALLOCATION_SIZE)
     private Long id;
     
     @Column(name = "medicine_id", nullable = false)
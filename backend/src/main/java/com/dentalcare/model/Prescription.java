@@ -2,6 +2,7 @@ package com.dentalcare.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.BatchSize;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -30,6 +31,7 @@ public class Prescription {
     
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
     @JoinColumn(name = "prescription_id")
+    @BatchSize(size = 1000)
     private List<PrescriptionItem> items;
     
     @Column(columnDefinition = "TEXT")
@@ -0,0 +1,6 @@
+package com.dentalcare.repository;
+
+import java.time.LocalDate;
+
+public record AppointmentDailyStats(LocalDate date, String status, String type, Long count, Double revenue) {
+}
@@ -0,0 +1,21 @@
+package com.dentalcare.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+public record AppointmentExportRow(
+        Long id,
+        Long patientId,
+        String patientName,
+        Long dentistId,
+        String dentistName,
+        LocalDate date,
+        LocalTime startTime,
+        LocalTime endTime,
+        String status,
+        String type,
+        String notes,
+        Double amount,
+        LocalDateTime createdAt) {
+}
@@ -0,0 +1,6 @@
+package com.dentalcare.repository;
+
+import java.time.LocalTime;
+
+public record AppointmentInterval(Long id, LocalTime startTime, LocalTime endTime) {
+}
@@ -1,25 +1,74 @@
-
 package com.dentalcare.repository;
 
 import com.dentalcare.model.Appointment;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+public interface AppointmentRepository extends KeysetRepository<Appointment> {
     List<Appointment> findByDate(LocalDate date);
     List<Appointment> findByDateBetween(LocalDate startDate, LocalDate endDate);
     List<Appointment> findByPatientId(Long patientId);
     
-    @Query("SELECT COUNT(DISTINCT a.patientId) FROM Appointment a " +
+    @Query("SELECT new com.dentalcare.repository.AppointmentInterval(a.id, a.startTime, a.endTime) " +
+           "FROM Appointment a " +
+           "WHERE a.dentistId = ?1 AND a.date = ?2 AND LOWER(a.status) <> 'cancelled' " +
+           "ORDER BY a.startTime")
+    List<AppointmentInterval> findBookedIntervals(Long dentistId, LocalDate date);
+    
+    // Creates the dentist's lock row for the day if needed; either way the row stays locked until the
+    // surrounding transaction ends
+    @Modifying
+    @Query(value = "INSERT INTO dentist_day_locks (dentist_id, lock_date) VALUES (?1, ?2) " +
+                   "ON DUPLICATE KEY UPDATE dentist_id = dentist_id", nativeQuery = true)
+    void lockDentistDay(Long dentistId, LocalDate date);
+    
+    @Query("SELECT COUNT(*) FROM (" +
+           "SELECT a.patientId AS patientId FROM Appointment a " +
            "WHERE a.date BETWEEN ?1 AND ?2 " +
-           "GROUP BY a.patientId HAVING COUNT(a) > 1")
+           "GROUP BY a.patientId HAVING COUNT(a) > 1) returning")
     long countPatientsWithMultipleAppointments(LocalDate startDate, LocalDate endDate);
     
-    @Query("SELECT a.type, COUNT(a) as count, SUM(a.amount) as revenue " +
+    @Query("SELECT new com.dentalcare.repository.MonthlyCount(returning.visitYear, returning.visitMonth, COUNT(*)) FROM (" +
+           "SELECT YEAR(a.date) AS visitYear, MONTH(a.date) AS visitMonth, a.patientId AS patientId FROM Appointment a " +
+           "WHERE a.date BETWEEN ?1 AND ?2 " +
+           "GROUP BY YEAR(a.date), MONTH(a.date), a.patientId HAVING COUNT(a) > 1) returning " +
+           "GROUP BY returning.visitYear, returning.visitMonth")
+    List<MonthlyCount> countPatientsWithMultipleAppointmentsByMonth(LocalDate startDate, LocalDate endDate);
+    
+    @Query("SELECT new com.dentalcare.repository.PatientVisitCount(a.patientId, a.date, COUNT(a)) " +
+           "FROM Appointment a " +
+           "WHERE a.date BETWEEN ?1 AND ?2 " +
+           "GROUP BY a.patientId, a.date")
+    List<PatientVisitCount> countAppointmentsByPatientAndDate(LocalDate startDate, LocalDate endDate);
+    
+    @Query("SELECT new com.dentalcare.repository.AppointmentTypeStats(a.type, COUNT(a), COALESCE(SUM(a.amount), 0.0)) " +
            "FROM Appointment a " +
            "WHERE a.date BETWEEN ?1 AND ?2 " +
            "GROUP BY a.type")
-    List<Object[]> getAppointmentTypeStats(LocalDate startDate, LocalDate endDate);
+    List<AppointmentTypeStats> getAppointmentTypeStats(LocalDate startDate, LocalDate endDate);
+    
+    @Query("SELECT new com.dentalcare.repository.AppointmentDailyStats(" +
+           "a.date, a.status, a.type, COUNT(a), COALESCE(SUM(a.amount), 0.0)) " +
+           "FROM Appointment a " +
+           "WHERE a.date BETWEEN ?1 AND ?2 " +
+           "GROUP BY a.date, a.status, a.type")
+    List<AppointmentDailyStats> getDailyAppointmentStats(LocalDate startDate, LocalDate endDate);
+    
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.dentalcare.repository.AppointmentExportRow(" +
+           "a.id, a.patientId, a.patientName, a.dentistId, a.dentistName, a.date, a.startTime, a.endTime, " +
+           "a.status, a.type, a.notes, a.amount, a.createdAt) " +
+           "FROM Appointment a " +
+           "WHERE a.date BETWEEN ?1 AND ?2 " +
+           "ORDER BY a.date, a.startTime, a.id")
+    Stream<AppointmentExportRow> streamForExport(LocalDate startDate, LocalDate endDate);
 }
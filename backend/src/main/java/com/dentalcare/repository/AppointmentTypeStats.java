@@ -0,0 +1,4 @@
+package com.dentalcare.repository;
+
+public record AppointmentTypeStats(String type, Long count, Double revenue) {
+}
@@ -0,0 +1,20 @@
+package com.dentalcare.repository;
+
+import com.dentalcare.model.DailyAppointmentTypeSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyAppointmentTypeSummaryRepository extends JpaRepository<DailyAppointmentTypeSummary, Long> {
+    @Query("SELECT new com.dentalcare.repository.AppointmentTypeStats(t.type, SUM(t.count), SUM(t.revenue)) " +
+           "FROM DailyAppointmentTypeSummary t " +
+           "WHERE t.date BETWEEN ?1 AND ?2 " +
+           "GROUP BY t.type")
+    List<AppointmentTypeStats> sumByTypeBetween(LocalDate startDate, LocalDate endDate);
+    
+    @Modifying
+    @Query("DELETE FROM DailyAppointmentTypeSummary t WHERE t.date BETWEEN ?1 AND ?2")
+    void deleteByDateBetween(LocalDate startDate, LocalDate endDate);
+}
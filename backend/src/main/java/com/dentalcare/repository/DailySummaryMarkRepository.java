@@ -0,0 +1,21 @@
+package com.dentalcare.repository;
+
+import com.dentalcare.model.DailySummaryMark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailySummaryMarkRepository extends JpaRepository<DailySummaryMark, LocalDate> {
+    @Modifying
+    @Query(value = "INSERT INTO daily_summary_marks (summary_date, changes) VALUES (?1, 1) " +
+                   "ON DUPLICATE KEY UPDATE changes = changes + 1", nativeQuery = true)
+    void mark(LocalDate date);
+    
+    List<DailySummaryMark> findByDateBetween(LocalDate startDate, LocalDate endDate);
+    
+    @Modifying
+    @Query("DELETE FROM DailySummaryMark m WHERE m.date = ?1 AND m.changes = ?2")
+    int clear(LocalDate date, long changes);
+}
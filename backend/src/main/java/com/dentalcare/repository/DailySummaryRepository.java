@@ -0,0 +1,14 @@
+package com.dentalcare.repository;
+
+import com.dentalcare.model.DailySummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailySummaryRepository extends JpaRepository<DailySummary, LocalDate> {
+    List<DailySummary> findByDateBetweenOrderByDate(LocalDate startDate, LocalDate endDate);
+    
+    @Query("SELECT d.date FROM DailySummary d WHERE d.date BETWEEN ?1 AND ?2")
+    List<LocalDate> findDatesBetween(LocalDate startDate, LocalDate endDate);
+}
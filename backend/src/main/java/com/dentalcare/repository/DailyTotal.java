@@ -0,0 +1,6 @@
+package com.dentalcare.repository;
+
+import java.time.LocalDate;
+
+public record DailyTotal(LocalDate date, Long count, Double amount) {
+}
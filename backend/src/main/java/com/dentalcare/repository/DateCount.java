@@ -0,0 +1,6 @@
+package com.dentalcare.repository;
+
+import java.time.LocalDate;
+
+public record DateCount(LocalDate date, Long count) {
+}
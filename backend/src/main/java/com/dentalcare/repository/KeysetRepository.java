@@ -0,0 +1,23 @@
+package com.dentalcare.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.NoRepositoryBean;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@NoRepositoryBean
+public interface KeysetRepository<T> extends JpaRepository<T, Long> {
+    Slice<T> findAllBy(Pageable pageable);
+    
+    @Query("SELECT e FROM #{#entityName} e WHERE e.id > ?1 ORDER BY e.id")
+    List<T> findAfterId(Long afterId, Limit limit);
+    
+    @Query("SELECT e FROM #{#entityName} e " +
+           "WHERE e.createdAt < ?1 OR (e.createdAt = ?1 AND e.id < ?2) " +
+           "ORDER BY e.createdAt DESC, e.id DESC")
+    List<T> findCreatedBefore(LocalDateTime createdAt, Long beforeId, Limit limit);
+}
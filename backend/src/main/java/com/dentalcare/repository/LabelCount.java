@@ -0,0 +1,4 @@
+package com.dentalcare.repository;
+
+public record LabelCount(String label, Long count) {
+}
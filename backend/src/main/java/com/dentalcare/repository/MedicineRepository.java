@@ -1,7 +1,14 @@
 package com.dentalcare.repository;
 
 import com.dentalcare.model.Medicine;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import java.util.List;
 
-public interface MedicineRepository extends JpaRepository<Medicine, Long> {
-}
\ No newline at end of file
+public interface MedicineRepository extends KeysetRepository<Medicine>, MedicineRepositoryCustom {
+    @Query("SELECT new com.dentalcare.repository.StockLevel(m.id, m.name, m.stock) FROM Medicine m " +
+           "WHERE m.stock <= ?1")
+    List<StockLevel> findStockLevelsAtOrBelow(int threshold);
+    
+    @Query("SELECT new com.dentalcare.repository.MedicineStock(m.id, m.stock) FROM Medicine m ORDER BY m.id")
+    List<MedicineStock> findAllStock();
+}
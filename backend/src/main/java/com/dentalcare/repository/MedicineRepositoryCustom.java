@@ -0,0 +1,13 @@
+package com.dentalcare.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public interface MedicineRepositoryCustom {
+    // Returns the ids whose stock was missing or too low; those rows are left untouched
+    List<Long> decrementStocks(Map<Long, Integer> quantitiesById, LocalDateTime updatedAt);
+    
+    // Adds delta (negative to take stock off); false when the medicine is missing or would go below zero
+    boolean adjustStock(Long id, int delta, LocalDateTime updatedAt);
+}
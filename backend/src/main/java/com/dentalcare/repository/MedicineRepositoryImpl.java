@@ -0,0 +1,62 @@
+package com.dentalcare.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+class MedicineRepositoryImpl implements MedicineRepositoryCustom {
+    private static final String DECREMENT_STOCK =
+            "UPDATE medicines SET stock = stock - ?, version = version + 1, updated_at = ? " +
+            "WHERE id = ? AND stock >= ?";
+    private static final String ADJUST_STOCK =
+            "UPDATE medicines SET stock = stock + ?1, version = version + 1, updated_at = ?2 " +
+            "WHERE id = ?3 AND stock + ?1 >= 0";
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<Long> decrementStocks(Map<Long, Integer> quantitiesById, LocalDateTime updatedAt) {
+        // Sorted by id so concurrent sales lock the rows in the same order
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(new TreeMap<>(quantitiesById).entrySet());
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+        
+        // Runs on the transaction's connection, so a failed sale rolls the whole batch back
+        int[] updated = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(DECREMENT_STOCK)) {
+                Timestamp timestamp = Timestamp.valueOf(updatedAt);
+                for (Map.Entry<Long, Integer> entry : entries) {
+                    statement.setInt(1, entry.getValue());
+                    statement.setTimestamp(2, timestamp);
+                    statement.setLong(3, entry.getKey());
+                    statement.setInt(4, entry.getValue());
+                    statement.addBatch();
+                }
+                return statement.executeBatch();
+            }
+        });
+        
+        List<Long> failed = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            if (updated[i] == 0) {
+                failed.add(entries.get(i).getKey());
+            }
+        }
+        return failed;
+    }
+    
+    @Override
+    public boolean adjustStock(Long id, int delta, LocalDateTime updatedAt) {
+        return entityManager.createNativeQuery(ADJUST_STOCK)
+                .setParameter(1, delta)
+                .setParameter(2, Timestamp.valueOf(updatedAt))
+                .setParameter(3, id)
+                .executeUpdate() > 0;
+    }
+}
@@ -0,0 +1,4 @@
+package com.dentalcare.repository;
+
+public record MedicineSalesStats(Long medicineId, String medicineName, Long quantity, Double revenue) {
+}
@@ -0,0 +1,4 @@
+package com.dentalcare.repository;
+
+public record MedicineStock(Long id, Integer stock) {
+}
@@ -0,0 +1,4 @@
+package com.dentalcare.repository;
+
+public record MonthlyCount(Integer year, Integer month, Long count) {
+}
@@ -0,0 +1,19 @@
+package com.dentalcare.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record PatientExportRow(
+        Long id,
+        String firstName,
+        String lastName,
+        String email,
+        String phone,
+        LocalDate dateOfBirth,
+        String gender,
+        String address,
+        String medicalHistory,
+        String insuranceInfo,
+        LocalDateTime createdAt,
+        LocalDateTime lastVisit) {
+}
@@ -1,10 +1,58 @@
 package com.dentalcare.repository;
 
 import com.dentalcare.model.Patient;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface PatientRepository extends JpaRepository<Patient, Long> {
+public interface PatientRepository extends KeysetRepository<Patient> {
     List<Patient> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
-}
\ No newline at end of file
+    
+    // Search lookups, each served by an index on the normalized key columns; none of them counts
+    Slice<Patient> findByEmail(String email, Pageable pageable);
+    
+    Slice<Patient> findByPhoneKeyStartingWith(String phoneKey, Pageable pageable);
+    
+    List<Patient> findByFirstNameKeyStartingWith(String firstNamePrefix, Sort sort, Limit limit);
+    
+    List<Patient> findByLastNameKeyStartingWith(String lastNamePrefix, Sort sort, Limit limit);
+    
+    Slice<Patient> findByFirstNameKeyStartingWithAndLastNameKeyStartingWith(
+            String firstNamePrefix, String lastNamePrefix, Pageable pageable);
+    
+    @Query("SELECT new com.dentalcare.repository.DateCount(CAST(p.createdAt AS LocalDate), COUNT(p)) " +
+           "FROM Patient p " +
+           "WHERE p.createdAt BETWEEN ?1 AND ?2 " +
+           "GROUP BY CAST(p.createdAt AS LocalDate)")
+    List<DateCount> countCreatedByDay(LocalDateTime startDate, LocalDateTime endDate);
+    
+    @Query("SELECT new com.dentalcare.repository.LabelCount(p.gender, COUNT(p)) FROM Patient p " +
+           "WHERE p.createdAt BETWEEN ?1 AND ?2 " +
+           "GROUP BY p.gender")
+    List<LabelCount> countByGenderCreatedBetween(LocalDateTime startDate, LocalDateTime endDate);
+    
+    @Query("SELECT new com.dentalcare.repository.DateCount(p.dateOfBirth, COUNT(p)) FROM Patient p " +
+           "WHERE p.createdAt BETWEEN ?1 AND ?2 " +
+           "GROUP BY p.dateOfBirth")
+    List<DateCount> countByDateOfBirthCreatedBetween(LocalDateTime startDate, LocalDateTime endDate);
+    
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.dentalcare.repository.PatientExportRow(" +
+           "p.id, p.firstName, p.lastName, p.email, p.phone, p.dateOfBirth, p.gender, p.address, " +
+           "p.medicalHistory, p.insuranceInfo, p.createdAt, p.lastVisit) " +
+           "FROM Patient p " +
+           "WHERE p.createdAt BETWEEN ?1 AND ?2 " +
+           "ORDER BY p.createdAt, p.id")
+    Stream<PatientExportRow> streamForExport(LocalDateTime startDate, LocalDateTime endDate);
+}
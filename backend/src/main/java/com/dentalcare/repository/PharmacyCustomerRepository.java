@@ -7,4 +7,6 @@ import java.util.Optional;
 
 public interface PharmacyCustomerRepository extends JpaRepository<PharmacyCustomer, Long> {
     Optional<PharmacyCustomer> findByPhone(String phone);
+    
+    Optional<PharmacyCustomer> findByNormalizedPhone(String normalizedPhone);
 }
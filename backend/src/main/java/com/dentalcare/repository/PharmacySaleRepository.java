@@ -1,19 +1,48 @@
-
 package com.dentalcare.repository;
 
 import com.dentalcare.model.PharmacySale;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface PharmacySaleRepository extends JpaRepository<PharmacySale, Long> {
+public interface PharmacySaleRepository extends KeysetRepository<PharmacySale> {
+    @Override
+    @EntityGraph(attributePaths = "items")
+    Optional<PharmacySale> findById(Long id);
+    
+    @EntityGraph(attributePaths = "items")
     List<PharmacySale> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
     
-    @Query("SELECT i.medicineId, i.medicineName, SUM(i.quantity) as totalQuantity, SUM(i.totalPrice) as totalRevenue " +
+    @Query("SELECT new com.dentalcare.repository.MedicineSalesStats(" +
+           "i.medicineId, i.medicineName, SUM(i.quantity), SUM(i.totalPrice)) " +
            "FROM PharmacySale s JOIN s.items i " +
            "WHERE s.createdAt BETWEEN ?1 AND ?2 " +
            "GROUP BY i.medicineId, i.medicineName " +
-           "ORDER BY totalQuantity DESC")
-    List<Object[]> getTopSellingMedicines(LocalDateTime startDate, LocalDateTime endDate);
-}
\ No newline at end of file
+           "ORDER BY SUM(i.quantity) DESC")
+    List<MedicineSalesStats> getTopSellingMedicines(LocalDateTime startDate, LocalDateTime endDate);
+    
+    @Query("SELECT new com.dentalcare.repository.DailyTotal(CAST(s.createdAt AS LocalDate), COUNT(s), SUM(s.total)) " +
+           "FROM PharmacySale s " +
+           "WHERE s.createdAt BETWEEN ?1 AND ?2 " +
+           "GROUP BY CAST(s.createdAt AS LocalDate)")
+    List<DailyTotal> sumTotalsByDay(LocalDateTime startDate, LocalDateTime endDate);
+    
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.dentalcare.repository.SaleExportRow(" +
+           "s.id, s.createdAt, s.customerId, s.customerName, s.customerPhone, " +
+           "s.subtotal, s.sgst, s.cgst, s.discount, s.total, " +
+           "i.id, i.medicineId, i.medicineName, i.quantity, i.unitPrice, i.totalPrice) " +
+           "FROM PharmacySale s LEFT JOIN s.items i " +
+           "WHERE s.createdAt BETWEEN ?1 AND ?2 " +
+           "ORDER BY s.createdAt, s.id, i.id")
+    Stream<SaleExportRow> streamForExport(LocalDateTime startDate, LocalDateTime endDate);
+}
@@ -1,9 +1,15 @@
 package com.dentalcare.repository;
 
 import com.dentalcare.model.Prescription;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.EntityGraph;
 import java.util.List;
+import java.util.Optional;
 
-public interface PrescriptionRepository extends JpaRepository<Prescription, Long> {
+public interface PrescriptionRepository extends KeysetRepository<Prescription> {
+    @Override
+    @EntityGraph(attributePaths = "items")
+    Optional<Prescription> findById(Long id);
+    
+    @EntityGraph(attributePaths = "items")
     List<Prescription> findByPatientId(Long patientId);
-}
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+package com.dentalcare.repository;
+
+import java.time.LocalDateTime;
+
+// One row per sale item; a sale without items yields a single row with null item columns
+public record SaleExportRow(
+        Long saleId,
+        LocalDateTime createdAt,
+        Long customerId,
+        String customerName,
+        String customerPhone,
+        Double subtotal,
+        Double sgst,
+        Double cgst,
+        Double discount,
+        Double total,
+        Long itemId,
+        Long medicineId,
+        String medicineName,
+        Integer quantity,
+        Double unitPrice,
+        Double totalPrice) {
+}
@@ -0,0 +1,4 @@
+package com.dentalcare.repository;
+
+public record StockLevel(Long medicineId, String medicineName, Integer stock) {
+}
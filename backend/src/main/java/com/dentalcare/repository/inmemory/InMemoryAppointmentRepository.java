@@ -0,0 +1,131 @@
+package com.dentalcare.repository.inmemory;
+
+import com.dentalcare.model.Appointment;
+import com.dentalcare.repository.*;
+import com.dentalcare.service.DataStore;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Stream;
+
+@Repository
+@Profile("inmemory")
+public class InMemoryAppointmentRepository extends InMemoryKeysetRepository<Appointment> implements AppointmentRepository {
+    public InMemoryAppointmentRepository(DataStore dataStore) {
+        super(dataStore.getAppointments(), Appointment::getId);
+    }
+    
+    @Override
+    public List<Appointment> findByDate(LocalDate date) {
+        return table.select("date", date);
+    }
+    
+    @Override
+    public List<Appointment> findByDateBetween(LocalDate startDate, LocalDate endDate) {
+        return table.selectRange("date", startDate, endDate);
+    }
+    
+    @Override
+    public List<Appointment> findByPatientId(Long patientId) {
+        return table.select("patientId", patientId);
+    }
+    
+    @Override
+    public List<AppointmentInterval> findBookedIntervals(Long dentistId, LocalDate date) {
+        List<AppointmentInterval> intervals = new ArrayList<>();
+        table.visit("dentistDay", new DataStore.DentistDay(dentistId, date), a -> {
+            // LOWER(NULL) <> 'cancelled' is not true in SQL either
+            if (a.getStatus() != null && !a.getStatus().equalsIgnoreCase("cancelled")) {
+                intervals.add(new AppointmentInterval(a.getId(), a.getStartTime(), a.getEndTime()));
+            }
+        });
+        intervals.sort(Comparator.comparing(AppointmentInterval::startTime, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return intervals;
+    }
+    
+    @Override
+    public void lockDentistDay(Long dentistId, LocalDate date) {
+        // One process owns the store, and AppointmentService already books each dentist under a lock
+    }
+    
+    @Override
+    public long countPatientsWithMultipleAppointments(LocalDate startDate, LocalDate endDate) {
+        Map<Long, Integer> visits = new HashMap<>();
+        table.visitRange("date", startDate, endDate, a -> visits.merge(a.getPatientId(), 1, Integer::sum));
+        return visits.values().stream().filter(count -> count > 1).count();
+    }
+    
+    @Override
+    public List<MonthlyCount> countPatientsWithMultipleAppointmentsByMonth(LocalDate startDate, LocalDate endDate) {
+        Map<YearMonthPatient, Integer> visits = new HashMap<>();
+        table.visitRange("date", startDate, endDate, a -> visits.merge(
+                new YearMonthPatient(a.getDate().getYear(), a.getDate().getMonthValue(), a.getPatientId()), 1, Integer::sum));
+        Map<List<Integer>, Long> returning = new LinkedHashMap<>();
+        visits.forEach((key, count) -> {
+            if (count > 1) {
+                returning.merge(List.of(key.year(), key.month()), 1L, Long::sum);
+            }
+        });
+        List<MonthlyCount> counts = new ArrayList<>();
+        returning.forEach((month, count) -> counts.add(new MonthlyCount(month.get(0), month.get(1), count)));
+        return counts;
+    }
+    
+    @Override
+    public List<PatientVisitCount> countAppointmentsByPatientAndDate(LocalDate startDate, LocalDate endDate) {
+        Map<PatientDay, Long> visits = new LinkedHashMap<>();
+        table.visitRange("date", startDate, endDate,
+                a -> visits.merge(new PatientDay(a.getPatientId(), a.getDate()), 1L, Long::sum));
+        List<PatientVisitCount> counts = new ArrayList<>(visits.size());
+        visits.forEach((key, count) -> counts.add(new PatientVisitCount(key.patientId(), key.date(), count)));
+        return counts;
+    }
+    
+    @Override
+    public List<AppointmentTypeStats> getAppointmentTypeStats(LocalDate startDate, LocalDate endDate) {
+        Map<String, double[]> totals = new LinkedHashMap<>();
+        table.visitRange("date", startDate, endDate, a -> {
+            double[] total = totals.computeIfAbsent(a.getType(), type -> new double[2]);
+            total[0]++;
+            total[1] += a.getAmount() != null ? a.getAmount() : 0.0;
+        });
+        List<AppointmentTypeStats> stats = new ArrayList<>(totals.size());
+        totals.forEach((type, total) -> stats.add(new AppointmentTypeStats(type, (long) total[0], total[1])));
+        return stats;
+    }
+    
+    @Override
+    public List<AppointmentDailyStats> getDailyAppointmentStats(LocalDate startDate, LocalDate endDate) {
+        Map<DayStatusType, double[]> totals = new LinkedHashMap<>();
+        table.visitRange("date", startDate, endDate, a -> {
+            double[] total = totals.computeIfAbsent(
+                    new DayStatusType(a.getDate(), a.getStatus(), a.getType()), key -> new double[2]);
+            total[0]++;
+            total[1] += a.getAmount() != null ? a.getAmount() : 0.0;
+        });
+        List<AppointmentDailyStats> stats = new ArrayList<>(totals.size());
+        totals.forEach((key, total) -> stats.add(
+                new AppointmentDailyStats(key.date(), key.status(), key.type(), (long) total[0], total[1])));
+        return stats;
+    }
+    
+    @Override
+    public Stream<AppointmentExportRow> streamForExport(LocalDate startDate, LocalDate endDate) {
+        List<AppointmentExportRow> rows = new ArrayList<>();
+        table.visitRange("date", startDate, endDate, a -> rows.add(new AppointmentExportRow(
+                a.getId(), a.getPatientId(), a.getPatientName(), a.getDentistId(), a.getDentistName(), a.getDate(),
+                a.getStartTime(), a.getEndTime(), a.getStatus(), a.getType(), a.getNotes(), a.getAmount(),
+                a.getCreatedAt())));
+        rows.sort(Comparator.comparing(AppointmentExportRow::date)
+                .thenComparing(AppointmentExportRow::startTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(AppointmentExportRow::id));
+        return rows.stream();
+    }
+    
+    private record YearMonthPatient(int year, int month, Long patientId) { }
+    
+    private record PatientDay(Long patientId, LocalDate date) { }
+    
+    private record DayStatusType(LocalDate date, String status, String type) { }
+}
@@ -0,0 +1,52 @@
+package com.dentalcare.repository.inmemory;
+
+import com.dentalcare.model.DailyAppointmentTypeSummary;
+import com.dentalcare.repository.AppointmentTypeStats;
+import com.dentalcare.repository.DailyAppointmentTypeSummaryRepository;
+import com.dentalcare.service.DataStore;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.*;
+
+@Repository
+@Profile("inmemory")
+public class InMemoryDailyAppointmentTypeSummaryRepository extends InMemoryRepository<DailyAppointmentTypeSummary, Long>
+        implements DailyAppointmentTypeSummaryRepository {
+    public InMemoryDailyAppointmentTypeSummaryRepository(DataStore dataStore) {
+        super(dataStore.getAppointmentTypeSummaries());
+    }
+    
+    @Override
+    protected long key(Long id) {
+        return id;
+    }
+    
+    @Override
+    protected Long idOf(DailyAppointmentTypeSummary summary) {
+        return summary.getId();
+    }
+    
+    @Override
+    public List<AppointmentTypeStats> sumByTypeBetween(LocalDate startDate, LocalDate endDate) {
+        Map<String, double[]> totals = new LinkedHashMap<>();
+        table.visitRange("date", startDate, endDate, summary -> {
+            double[] total = totals.computeIfAbsent(summary.getType(), type -> new double[2]);
+            total[0] += summary.getCount();
+            total[1] += summary.getRevenue();
+        });
+        List<AppointmentTypeStats> stats = new ArrayList<>(totals.size());
+        totals.forEach((type, total) -> stats.add(new AppointmentTypeStats(type, (long) total[0], total[1])));
+        return stats;
+    }
+    
+    @Override
+    public void deleteByDateBetween(LocalDate startDate, LocalDate endDate) {
+        table.inWriteLock(() -> {
+            List<Long> ids = new ArrayList<>();
+            table.visitRange("date", startDate, endDate, summary -> ids.add(summary.getId()));
+            ids.forEach(table::delete);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,55 @@
+package com.dentalcare.repository.inmemory;
+
+import com.dentalcare.model.DailySummaryMark;
+import com.dentalcare.repository.DailySummaryMarkRepository;
+import com.dentalcare.service.DataStore;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.List;
+
+// Keyed by epoch day, like the summaries themselves
+@Repository
+@Profile("inmemory")
+public class InMemoryDailySummaryMarkRepository extends InMemoryRepository<DailySummaryMark, LocalDate>
+        implements DailySummaryMarkRepository {
+    public InMemoryDailySummaryMarkRepository(DataStore dataStore) {
+        super(dataStore.getDailySummaryMarks());
+    }
+    
+    @Override
+    protected long key(LocalDate date) {
+        return date.toEpochDay();
+    }
+    
+    @Override
+    protected LocalDate idOf(DailySummaryMark mark) {
+        return mark.getDate();
+    }
+    
+    @Override
+    public void mark(LocalDate date) {
+        table.inWriteLock(() -> {
+            DailySummaryMark mark = table.get(date.toEpochDay()).orElseGet(() -> {
+                DailySummaryMark created = new DailySummaryMark();
+                created.setDate(date);
+                return created;
+            });
+            mark.setChanges(mark.getChanges() + 1);
+            return table.save(mark);
+        });
+    }
+    
+    @Override
+    public List<DailySummaryMark> findByDateBetween(LocalDate startDate, LocalDate endDate) {
+        return table.keyRange(startDate.toEpochDay(), endDate.toEpochDay());
+    }
+    
+    @Override
+    public int clear(LocalDate date, long changes) {
+        return table.inWriteLock(() -> {
+            boolean current = table.get(date.toEpochDay()).map(mark -> mark.getChanges() == changes).orElse(false);
+            return current && table.delete(date.toEpochDay()) ? 1 : 0;
+        });
+    }
+}
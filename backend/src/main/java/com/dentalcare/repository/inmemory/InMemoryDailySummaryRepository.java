@@ -0,0 +1,42 @@
+package com.dentalcare.repository.inmemory;
+
+import com.dentalcare.model.DailySummary;
+import com.dentalcare.repository.DailySummaryRepository;
+import com.dentalcare.service.DataStore;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Rows are keyed by epoch day, so key order is date order
+@Repository
+@Profile("inmemory")
+public class InMemoryDailySummaryRepository extends InMemoryRepository<DailySummary, LocalDate>
+        implements DailySummaryRepository {
+    public InMemoryDailySummaryRepository(DataStore dataStore) {
+        super(dataStore.getDailySummaries());
+    }
+    
+    @Override
+    protected long key(LocalDate date) {
+        return date.toEpochDay();
+    }
+    
+    @Override
+    protected LocalDate idOf(DailySummary summary) {
+        return summary.getDate();
+    }
+    
+    @Override
+    public List<DailySummary> findByDateBetweenOrderByDate(LocalDate startDate, LocalDate endDate) {
+        return table.keyRange(startDate.toEpochDay(), endDate.toEpochDay());
+    }
+    
+    @Override
+    public List<LocalDate> findDatesBetween(LocalDate startDate, LocalDate endDate) {
+        List<LocalDate> dates = new ArrayList<>();
+        findByDateBetweenOrderByDate(startDate, endDate).forEach(summary -> dates.add(summary.getDate()));
+        return dates;
+    }
+}
@@ -0,0 +1,48 @@
+package com.dentalcare.repository.inmemory;
+
+import com.dentalcare.repository.KeysetRepository;
+import com.dentalcare.service.StoreTable;
+import org.springframework.data.domain.*;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+// Keyset paging over the id order of the table and its createdAt index
+abstract class InMemoryKeysetRepository<T> extends InMemoryRepository<T, Long> implements KeysetRepository<T> {
+    private final Function<T, Long> idOf;
+    
+    protected InMemoryKeysetRepository(StoreTable<T> table, Function<T, Long> idOf) {
+        super(table);
+        this.idOf = idOf;
+    }
+    
+    @Override
+    protected long key(Long id) {
+        return id;
+    }
+    
+    @Override
+    protected Long idOf(T entity) {
+        return idOf.apply(entity);
+    }
+    
+    @Override
+    public Slice<T> findAllBy(Pageable pageable) {
+        Page<T> page = findAll(pageable);
+        return new SliceImpl<>(page.getContent(), pageable, page.hasNext());
+    }
+    
+    @Override
+    public List<T> findAfterId(Long afterId, Limit limit) {
+        return table.after(afterId, max(limit));
+    }
+    
+    @Override
+    public List<T> findCreatedBefore(LocalDateTime createdAt, Long beforeId, Limit limit) {
+        return table.seekBefore("createdAt", createdAt, beforeId, max(limit));
+    }
+    
+    private static int max(Limit limit) {
+        return limit.isLimited() ? limit.max() : Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,85 @@
+package com.dentalcare.repository.inmemory;
+
+import com.dentalcare.model.Medicine;
+import com.dentalcare.repository.MedicineRepository;
+import com.dentalcare.repository.MedicineStock;
+import com.dentalcare.repository.StockLevel;
+import com.dentalcare.service.DataStore;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Repository
+@Profile("inmemory")
+public class InMemoryMedicineRepository extends InMemoryKeysetRepository<Medicine> implements MedicineRepository {
+    public InMemoryMedicineRepository(DataStore dataStore) {
+        super(dataStore.getMedicines(), Medicine::getId);
+    }
+    
+    @Override
+    public List<StockLevel> findStockLevelsAtOrBelow(int threshold) {
+        List<StockLevel> levels = new ArrayList<>();
+        table.visitAll(m -> {
+            if (m.getStock() != null && m.getStock() <= threshold) {
+                levels.add(new StockLevel(m.getId(), m.getName(), m.getStock()));
+            }
+        });
+        return levels;
+    }
+    
+    @Override
+    public List<MedicineStock> findAllStock() {
+        List<MedicineStock> stock = new ArrayList<>();
+        table.visitAll(m -> stock.add(new MedicineStock(m.getId(), m.getStock())));
+        return stock;
+    }
+    
+    // Like the JPA mapping, an update keeps the stored stock; it only moves through decrementStocks and adjustStock
+    @Override
+    public <S extends Medicine> S save(S medicine) {
+        return table.inWriteLock(() -> {
+            if (medicine.getId() != null) {
+                table.get(medicine.getId()).ifPresent(current -> medicine.setStock(current.getStock()));
+            }
+            return super.save(medicine);
+        });
+    }
+    
+    // All or nothing under the table lock: there is no transaction to roll back a partial sale
+    @Override
+    public List<Long> decrementStocks(Map<Long, Integer> quantitiesById, LocalDateTime updatedAt) {
+        return table.inWriteLock(() -> {
+            List<Long> failed = new ArrayList<>();
+            List<Medicine> updated = new ArrayList<>();
+            new TreeMap<>(quantitiesById).forEach((id, quantity) -> {
+                Optional<Medicine> medicine = table.get(id);
+                if (medicine.isEmpty() || medicine.get().getStock() == null || medicine.get().getStock() < quantity) {
+                    failed.add(id);
+                } else {
+                    medicine.get().setStock(medicine.get().getStock() - quantity);
+                    medicine.get().setUpdatedAt(updatedAt);
+                    updated.add(medicine.get());
+                }
+            });
+            if (failed.isEmpty()) {
+                table.saveAll(updated);
+            }
+            return failed;
+        });
+    }
+    
+    @Override
+    public boolean adjustStock(Long id, int delta, LocalDateTime updatedAt) {
+        return table.inWriteLock(() -> {
+            Optional<Medicine> medicine = table.get(id);
+            if (medicine.isEmpty() || medicine.get().getStock() == null || medicine.get().getStock() + delta < 0) {
+                return false;
+            }
+            medicine.get().setStock(medicine.get().getStock() + delta);
+            medicine.get().setUpdatedAt(updatedAt);
+            table.save(medicine.get());
+            return true;
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,101 @@
+package com.dentalcare.repository.inmemory;
+
+import com.dentalcare.model.Patient;
+import com.dentalcare.repository.*;
+import com.dentalcare.service.DataStore;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+@Repository
+@Profile("inmemory")
+public class InMemoryPatientRepository extends InMemoryKeysetRepository<Patient> implements PatientRepository {
+    public InMemoryPatientRepository(DataStore dataStore) {
+        super(dataStore.getPatients(), Patient::getId);
+    }
+    
+    @Override
+    public List<Patient> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        return table.selectRange("createdAt", startDate, endDate);
+    }
+    
+    @Override
+    public Slice<Patient> findByEmail(String email, Pageable pageable) {
+        return page(table.select("email", email), pageable);
+    }
+    
+    @Override
+    public Slice<Patient> findByPhoneKeyStartingWith(String phoneKey, Pageable pageable) {
+        return page(table.selectPrefix("phoneKey", phoneKey), pageable);
+    }
+    
+    @Override
+    public List<Patient> findByFirstNameKeyStartingWith(String firstNamePrefix, Sort sort, Limit limit) {
+        return page(table.selectPrefix("firstNameKey", firstNamePrefix), PageRequest.of(0, limit.max(), sort)).getContent();
+    }
+    
+    @Override
+    public List<Patient> findByLastNameKeyStartingWith(String lastNamePrefix, Sort sort, Limit limit) {
+        return page(table.selectPrefix("lastNameKey", lastNamePrefix), PageRequest.of(0, limit.max(), sort)).getContent();
+    }
+    
+    @Override
+    public Slice<Patient> findByFirstNameKeyStartingWithAndLastNameKeyStartingWith(
+            String firstNamePrefix, String lastNamePrefix, Pageable pageable) {
+        List<Patient> matches = new ArrayList<>();
+        table.visitRange("firstNameKey", firstNamePrefix, firstNamePrefix + Character.MAX_VALUE, p -> {
+            if (p.getLastNameKey() != null && p.getLastNameKey().startsWith(lastNamePrefix)) {
+                matches.add(p);
+            }
+        });
+        return page(copies(matches), pageable);
+    }
+    
+    @Override
+    public List<DateCount> countCreatedByDay(LocalDateTime startDate, LocalDateTime endDate) {
+        Map<LocalDate, Long> counts = new LinkedHashMap<>();
+        table.visitRange("createdAt", startDate, endDate, p -> counts.merge(p.getCreatedAt().toLocalDate(), 1L, Long::sum));
+        return counts.entrySet().stream().map(e -> new DateCount(e.getKey(), e.getValue())).toList();
+    }
+    
+    @Override
+    public List<LabelCount> countByGenderCreatedBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        table.visitRange("createdAt", startDate, endDate, p -> counts.merge(p.getGender(), 1L, Long::sum));
+        List<LabelCount> rows = new ArrayList<>(counts.size());
+        counts.forEach((gender, count) -> rows.add(new LabelCount(gender, count)));
+        return rows;
+    }
+    
+    @Override
+    public List<DateCount> countByDateOfBirthCreatedBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        Map<LocalDate, Long> counts = new LinkedHashMap<>();
+        table.visitRange("createdAt", startDate, endDate, p -> counts.merge(p.getDateOfBirth(), 1L, Long::sum));
+        List<DateCount> rows = new ArrayList<>(counts.size());
+        counts.forEach((date, count) -> rows.add(new DateCount(date, count)));
+        return rows;
+    }
+    
+    @Override
+    public Stream<PatientExportRow> streamForExport(LocalDateTime startDate, LocalDateTime endDate) {
+        // The createdAt index already yields createdAt, then id order
+        List<PatientExportRow> rows = new ArrayList<>();
+        table.visitRange("createdAt", startDate, endDate, p -> rows.add(new PatientExportRow(
+                p.getId(), p.getFirstName(), p.getLastName(), p.getEmail(), p.getPhone(), p.getDateOfBirth(),
+                p.getGender(), p.getAddress(), p.getMedicalHistory(), p.getInsuranceInfo(), p.getCreatedAt(),
+                p.getLastVisit())));
+        return rows.stream();
+    }
+    
+    private List<Patient> copies(List<Patient> rows) {
+        return table.getAll(rows.stream().map(Patient::getId).toList());
+    }
+}
@@ -0,0 +1,37 @@
+package com.dentalcare.repository.inmemory;
+
+import com.dentalcare.model.PharmacyCustomer;
+import com.dentalcare.repository.PharmacyCustomerRepository;
+import com.dentalcare.service.DataStore;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import java.util.Optional;
+
+@Repository
+@Profile("inmemory")
+public class InMemoryPharmacyCustomerRepository extends InMemoryRepository<PharmacyCustomer, Long>
+        implements PharmacyCustomerRepository {
+    public InMemoryPharmacyCustomerRepository(DataStore dataStore) {
+        super(dataStore.getPharmacyCustomers());
+    }
+    
+    @Override
+    protected long key(Long id) {
+        return id;
+    }
+    
+    @Override
+    protected Long idOf(PharmacyCustomer customer) {
+        return customer.getId();
+    }
+    
+    @Override
+    public Optional<PharmacyCustomer> findByPhone(String phone) {
+        return table.select("phone", phone).stream().findFirst();
+    }
+    
+    @Override
+    public Optional<PharmacyCustomer> findByNormalizedPhone(String normalizedPhone) {
+        return table.select("normalizedPhone", normalizedPhone).stream().findFirst();
+    }
+}
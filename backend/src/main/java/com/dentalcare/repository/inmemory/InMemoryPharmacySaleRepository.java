@@ -0,0 +1,82 @@
+package com.dentalcare.repository.inmemory;
+
+import com.dentalcare.model.PharmacySale;
+import com.dentalcare.model.PharmacySaleItem;
+import com.dentalcare.repository.*;
+import com.dentalcare.service.DataStore;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+@Repository
+@Profile("inmemory")
+public class InMemoryPharmacySaleRepository extends InMemoryKeysetRepository<PharmacySale> implements PharmacySaleRepository {
+    public InMemoryPharmacySaleRepository(DataStore dataStore) {
+        super(dataStore.getPharmacySales(), PharmacySale::getId);
+    }
+    
+    @Override
+    public List<PharmacySale> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        return table.selectRange("createdAt", startDate, endDate);
+    }
+    
+    @Override
+    public List<MedicineSalesStats> getTopSellingMedicines(LocalDateTime startDate, LocalDateTime endDate) {
+        Map<List<Object>, double[]> totals = new LinkedHashMap<>();
+        table.visitRange("createdAt", startDate, endDate, sale -> {
+            for (PharmacySaleItem item : items(sale)) {
+                double[] total = totals.computeIfAbsent(
+                        Arrays.asList(item.getMedicineId(), item.getMedicineName()), key -> new double[2]);
+                total[0] += item.getQuantity() != null ? item.getQuantity() : 0;
+                total[1] += item.getTotalPrice() != null ? item.getTotalPrice() : 0.0;
+            }
+        });
+        List<MedicineSalesStats> stats = new ArrayList<>(totals.size());
+        totals.forEach((key, total) -> stats.add(
+                new MedicineSalesStats((Long) key.get(0), (String) key.get(1), (long) total[0], total[1])));
+        stats.sort(Comparator.comparing(MedicineSalesStats::quantity).reversed());
+        return stats;
+    }
+    
+    @Override
+    public List<DailyTotal> sumTotalsByDay(LocalDateTime startDate, LocalDateTime endDate) {
+        Map<LocalDate, double[]> totals = new LinkedHashMap<>();
+        table.visitRange("createdAt", startDate, endDate, sale -> {
+            double[] total = totals.computeIfAbsent(sale.getCreatedAt().toLocalDate(), day -> new double[2]);
+            total[0]++;
+            total[1] += sale.getTotal() != null ? sale.getTotal() : 0.0;
+        });
+        List<DailyTotal> rows = new ArrayList<>(totals.size());
+        totals.forEach((day, total) -> rows.add(new DailyTotal(day, (long) total[0], total[1])));
+        return rows;
+    }
+    
+    @Override
+    public Stream<SaleExportRow> streamForExport(LocalDateTime startDate, LocalDateTime endDate) {
+        // One row per item, or a single row with null item columns for a sale without items
+        List<SaleExportRow> rows = new ArrayList<>();
+        table.visitRange("createdAt", startDate, endDate, sale -> {
+            List<PharmacySaleItem> items = new ArrayList<>(items(sale));
+            items.sort(Comparator.comparing(PharmacySaleItem::getId, Comparator.nullsFirst(Comparator.naturalOrder())));
+            if (items.isEmpty()) {
+                rows.add(new SaleExportRow(sale.getId(), sale.getCreatedAt(), sale.getCustomerId(), sale.getCustomerName(),
+                        sale.getCustomerPhone(), sale.getSubtotal(), sale.getSgst(), sale.getCgst(), sale.getDiscount(),
+                        sale.getTotal(), null, null, null, null, null, null));
+            }
+            for (PharmacySaleItem item : items) {
+                rows.add(new SaleExportRow(sale.getId(), sale.getCreatedAt(), sale.getCustomerId(), sale.getCustomerName(),
+                        sale.getCustomerPhone(), sale.getSubtotal(), sale.getSgst(), sale.getCgst(), sale.getDiscount(),
+                        sale.getTotal(), item.getId(), item.getMedicineId(), item.getMedicineName(), item.getQuantity(),
+                        item.getUnitPrice(), item.getTotalPrice()));
+            }
+        });
+        return rows.stream();
+    }
+    
+    private static List<PharmacySaleItem> items(PharmacySale sale) {
+        return sale.getItems() != null ? sale.getItems() : List.of();
+    }
+}
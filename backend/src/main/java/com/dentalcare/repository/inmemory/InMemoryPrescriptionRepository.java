@@ -0,0 +1,21 @@
+package com.dentalcare.repository.inmemory;
+
+import com.dentalcare.model.Prescription;
+import com.dentalcare.repository.PrescriptionRepository;
+import com.dentalcare.service.DataStore;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+@Profile("inmemory")
+public class InMemoryPrescriptionRepository extends InMemoryKeysetRepository<Prescription> implements PrescriptionRepository {
+    public InMemoryPrescriptionRepository(DataStore dataStore) {
+        super(dataStore.getPrescriptions(), Prescription::getId);
+    }
+    
+    @Override
+    public List<Prescription> findByPatientId(Long patientId) {
+        return table.select("patientId", patientId);
+    }
+}
@@ -0,0 +1,209 @@
+package com.dentalcare.repository.inmemory;
+
+import com.dentalcare.service.StoreTable;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.*;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.query.FluentQuery;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.StreamSupport;
+
+// JpaRepository over a StoreTable. Query-by-example is not supported; nothing in the services uses it.
+abstract class InMemoryRepository<T, ID> implements JpaRepository<T, ID> {
+    protected final StoreTable<T> table;
+    
+    protected InMemoryRepository(StoreTable<T> table) {
+        this.table = table;
+    }
+    
+    protected abstract long key(ID id);
+    
+    protected abstract ID idOf(T entity);
+    
+    // Sorts and pages an already filtered result the way the JPA query would
+    protected Page<T> page(List<T> rows, Pageable pageable) {
+        if (pageable.getSort().isSorted()) {
+            rows.sort(table.order(pageable.getSort()));
+        }
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(rows, pageable, rows.size());
+        }
+        int from = (int) Math.min(pageable.getOffset(), rows.size());
+        int to = Math.min(from + pageable.getPageSize(), rows.size());
+        return new PageImpl<>(new ArrayList<>(rows.subList(from, to)), pageable, rows.size());
+    }
+    
+    @Override
+    public <S extends T> S save(S entity) {
+        table.save(entity);
+        return entity;
+    }
+    
+    // Goes through save() so subclasses' save rules apply; inWriteLock makes the batch wait for the log once
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        table.inWriteLock(() -> {
+            entities.forEach(entity -> saved.add(save(entity)));
+            return null;
+        });
+        return saved;
+    }
+    
+    @Override
+    public <S extends T> S saveAndFlush(S entity) {
+        return save(entity);
+    }
+    
+    @Override
+    public <S extends T> List<S> saveAllAndFlush(Iterable<S> entities) {
+        return saveAll(entities);
+    }
+    
+    @Override
+    public void flush() {
+        // Writes are applied as they are made
+    }
+    
+    @Override
+    public Optional<T> findById(ID id) {
+        return table.get(key(id));
+    }
+    
+    @Override
+    public boolean existsById(ID id) {
+        return table.contains(key(id));
+    }
+    
+    @Override
+    @Deprecated
+    public T getOne(ID id) {
+        return getReferenceById(id);
+    }
+    
+    @Override
+    @Deprecated
+    public T getById(ID id) {
+        return getReferenceById(id);
+    }
+    
+    @Override
+    public T getReferenceById(ID id) {
+        return findById(id).orElseThrow(() -> new EntityNotFoundException(
+                "Unable to find " + table.type().getSimpleName() + " with id " + id));
+    }
+    
+    @Override
+    public List<T> findAll() {
+        return table.all();
+    }
+    
+    @Override
+    public List<T> findAllById(Iterable<ID> ids) {
+        return table.getAll(StreamSupport.stream(ids.spliterator(), false).map(this::key).toList());
+    }
+    
+    @Override
+    public List<T> findAll(Sort sort) {
+        List<T> all = table.all();
+        all.sort(table.order(sort));
+        return all;
+    }
+    
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(findAll(pageable.getSort()));
+        }
+        long total = table.size();
+        return new PageImpl<>(table.slice(pageable.getSort(), pageable.getOffset(), pageable.getPageSize()), pageable, total);
+    }
+    
+    @Override
+    public long count() {
+        return table.size();
+    }
+    
+    @Override
+    public void deleteById(ID id) {
+        table.delete(key(id));
+    }
+    
+    @Override
+    public void delete(T entity) {
+        ID id = idOf(entity);
+        if (id != null) {
+            table.delete(key(id));
+        }
+    }
+    
+    @Override
+    public void deleteAllById(Iterable<? extends ID> ids) {
+        ids.forEach(this::deleteById);
+    }
+    
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        entities.forEach(this::delete);
+    }
+    
+    @Override
+    public void deleteAll() {
+        table.clear();
+    }
+    
+    @Override
+    public void deleteAllInBatch(Iterable<T> entities) {
+        deleteAll(entities);
+    }
+    
+    @Override
+    public void deleteAllByIdInBatch(Iterable<ID> ids) {
+        ids.forEach(this::deleteById);
+    }
+    
+    @Override
+    public void deleteAllInBatch() {
+        table.clear();
+    }
+    
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        throw unsupported();
+    }
+    
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        throw unsupported();
+    }
+    
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        throw unsupported();
+    }
+    
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw unsupported();
+    }
+    
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        throw unsupported();
+    }
+    
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        throw unsupported();
+    }
+    
+    @Override
+    public <S extends T, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw unsupported();
+    }
+    
+    private UnsupportedOperationException unsupported() {
+        return new UnsupportedOperationException("Query by example is not supported by the in-memory store");
+    }
+}
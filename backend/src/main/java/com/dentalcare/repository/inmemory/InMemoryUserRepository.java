@@ -0,0 +1,40 @@
+package com.dentalcare.repository.inmemory;
+
+import com.dentalcare.model.User;
+import com.dentalcare.repository.UserRepository;
+import com.dentalcare.service.DataStore;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Repository
+@Profile("inmemory")
+public class InMemoryUserRepository extends InMemoryRepository<User, Long> implements UserRepository {
+    public InMemoryUserRepository(DataStore dataStore) {
+        super(dataStore.getUsers());
+    }
+    
+    @Override
+    protected long key(Long id) {
+        return id;
+    }
+    
+    @Override
+    protected Long idOf(User user) {
+        return user.getId();
+    }
+    
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return table.select("email", email).stream().findFirst();
+    }
+    
+    @Override
+    public List<User> findByRoleIn(List<String> roles) {
+        Set<String> wanted = new HashSet<>(roles);
+        return table.selectWhere(user -> wanted.contains(user.getRole()));
+    }
+}
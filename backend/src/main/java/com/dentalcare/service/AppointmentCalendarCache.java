@@ -0,0 +1,105 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.Appointment;
+import com.dentalcare.repository.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Appointments bucketed by day for the calendar views; week and month views are assembled from
+// day buckets, and only the days missing from the cache are read, in a single range query
+@Component
+public class AppointmentCalendarCache {
+    private static final Comparator<Appointment> CALENDAR_ORDER = Comparator
+            .comparing(Appointment::getStartTime, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Appointment::getId);
+    
+    private final AppointmentRepository appointmentRepository;
+    private final int maxDays;
+    private final Map<LocalDate, List<Appointment>> days = new ConcurrentHashMap<>();
+    // Bumped on every eviction so a load that raced with a write is not cached
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    
+    public AppointmentCalendarCache(
+            AppointmentRepository appointmentRepository,
+            @Value("${appointments.calendar-cache.max-days:400}") int maxDays) {
+        this.appointmentRepository = appointmentRepository;
+        this.maxDays = maxDays;
+    }
+    
+    public List<Appointment> getRange(LocalDate from, LocalDate to) {
+        Map<LocalDate, List<Appointment>> buckets = new HashMap<>();
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            List<Appointment> day = days.get(date);
+            if (day != null) {
+                hits.incrementAndGet();
+                buckets.put(date, day);
+            } else {
+                misses.incrementAndGet();
+                firstMissing = firstMissing == null ? date : firstMissing;
+                lastMissing = date;
+            }
+        }
+        if (firstMissing != null) {
+            buckets.putAll(load(firstMissing, lastMissing));
+        }
+        
+        List<Appointment> appointments = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            appointments.addAll(buckets.get(date));
+        }
+        return appointments;
+    }
+    
+    public void evict(LocalDate date) {
+        AfterCommit.run(() -> {
+            generation.incrementAndGet();
+            days.remove(date);
+        });
+    }
+    
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "days", days.size(),
+                "maxDays", maxDays,
+                "hits", hits.get(),
+                "misses", misses.get());
+    }
+    
+    private Map<LocalDate, List<Appointment>> load(LocalDate from, LocalDate to) {
+        long loadedAt = generation.get();
+        Map<LocalDate, List<Appointment>> loaded = new HashMap<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            loaded.put(date, new ArrayList<>());
+        }
+        for (Appointment appointment : appointmentRepository.findByDateBetween(from, to)) {
+            loaded.get(appointment.getDate()).add(appointment);
+        }
+        loaded.replaceAll((date, day) -> {
+            day.sort(CALENDAR_ORDER);
+            return List.copyOf(day);
+        });
+        
+        if (days.size() + loaded.size() > maxDays) {
+            days.clear();
+        }
+        if (generation.get() == loadedAt) {
+            loaded.forEach(days::putIfAbsent);
+            if (generation.get() != loadedAt) {
+                loaded.keySet().forEach(days::remove);
+            }
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,14 @@
+package com.dentalcare.service;
+
+public class AppointmentConflictException extends RuntimeException {
+    private final Long conflictingAppointmentId;
+    
+    public AppointmentConflictException(Long conflictingAppointmentId) {
+        super("Dentist is already booked by appointment " + conflictingAppointmentId);
+        this.conflictingAppointmentId = conflictingAppointmentId;
+    }
+    
+    public Long getConflictingAppointmentId() {
+        return conflictingAppointmentId;
+    }
+}
@@ -0,0 +1,178 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.Appointment;
+import com.dentalcare.repository.AppointmentInterval;
+import com.dentalcare.repository.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Booked [start, end) intervals per dentist and day, loaded from the database on first use
+// and kept current by AppointmentService. The database stays the source of truth.
+@Component
+public class AppointmentScheduleIndex {
+    private final AppointmentRepository appointmentRepository;
+    private final int maxEntries;
+    private final Map<DayKey, DaySchedule> days = new ConcurrentHashMap<>();
+    
+    public AppointmentScheduleIndex(
+            AppointmentRepository appointmentRepository,
+            @Value("${appointments.schedule-index.max-entries:20000}") int maxEntries) {
+        this.appointmentRepository = appointmentRepository;
+        this.maxEntries = maxEntries;
+    }
+    
+    // Id of a booked appointment other than excludeId overlapping [start, end), or null
+    public Long findConflict(Long dentistId, LocalDate date, LocalTime start, LocalTime end, Long excludeId) {
+        return day(dentistId, date).findOverlap(start.toSecondOfDay(), end.toSecondOfDay(), excludeId);
+    }
+    
+    public void remove(Long dentistId, LocalDate date, Long appointmentId) {
+        days.computeIfPresent(new DayKey(dentistId, date), (key, schedule) -> schedule.without(appointmentId));
+    }
+    
+    public void add(Appointment appointment) {
+        if (!blocksSchedule(appointment)) {
+            return;
+        }
+        days.computeIfPresent(new DayKey(appointment.getDentistId(), appointment.getDate()), (key, schedule) -> schedule.with(
+                appointment.getId(), appointment.getStartTime().toSecondOfDay(), appointment.getEndTime().toSecondOfDay()));
+    }
+    
+    // Drops a day so it is reloaded from the database, for writes whose outcome is unknown
+    public void evict(Long dentistId, LocalDate date) {
+        days.remove(new DayKey(dentistId, date));
+    }
+    
+    public static boolean blocksSchedule(Appointment appointment) {
+        return !"cancelled".equalsIgnoreCase(appointment.getStatus());
+    }
+    
+    // Loaded outside computeIfAbsent, whose bin lock would otherwise be held across the query;
+    // callers hold the dentist's booking lock, so two loads of one day do not race
+    private DaySchedule day(Long dentistId, LocalDate date) {
+        DayKey key = new DayKey(dentistId, date);
+        DaySchedule schedule = days.get(key);
+        if (schedule == null) {
+            if (days.size() >= maxEntries) {
+                trim();
+            }
+            schedule = DaySchedule.of(appointmentRepository.findBookedIntervals(dentistId, date));
+            DaySchedule raced = days.putIfAbsent(key, schedule);
+            schedule = raced != null ? raced : schedule;
+        }
+        return schedule;
+    }
+    
+    // Days behind us are rarely booked into again, so they go first; if that is not enough the index
+    // starts over. Dropped days are simply reloaded, so this is safe under any one dentist's lock.
+    private void trim() {
+        LocalDate today = LocalDate.now();
+        days.keySet().removeIf(key -> key.date().isBefore(today));
+        if (days.size() >= maxEntries) {
+            days.clear();
+        }
+    }
+    
+    private record DayKey(Long dentistId, LocalDate date) {
+    }
+    
+    // Intervals sorted by start, with a running maximum of the end times so an overlap query is a
+    // binary search for the last interval starting before the query ends plus a check of its max end
+    private record DaySchedule(long[] ids, int[] starts, int[] ends, int[] maxEnds) {
+        static DaySchedule of(List<AppointmentInterval> intervals) {
+            int size = intervals.size();
+            long[] ids = new long[size];
+            int[] starts = new int[size];
+            int[] ends = new int[size];
+            for (int i = 0; i < size; i++) {
+                AppointmentInterval interval = intervals.get(i);
+                ids[i] = interval.id();
+                starts[i] = interval.startTime().toSecondOfDay();
+                ends[i] = interval.endTime().toSecondOfDay();
+            }
+            return sorted(ids, starts, ends);
+        }
+        
+        Long findOverlap(int start, int end, Long excludeId) {
+            // Last interval starting before the query ends
+            int lo = 0;
+            int hi = starts.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (starts[mid] < end) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            for (int i = lo - 1; i >= 0 && maxEnds[i] > start; i--) {
+                if (ends[i] > start && (excludeId == null || ids[i] != excludeId)) {
+                    return ids[i];
+                }
+            }
+            return null;
+        }
+        
+        DaySchedule with(long id, int start, int end) {
+            DaySchedule base = without(id);
+            int size = base.ids.length;
+            long[] ids = Arrays.copyOf(base.ids, size + 1);
+            int[] starts = Arrays.copyOf(base.starts, size + 1);
+            int[] ends = Arrays.copyOf(base.ends, size + 1);
+            ids[size] = id;
+            starts[size] = start;
+            ends[size] = end;
+            return sorted(ids, starts, ends);
+        }
+        
+        DaySchedule without(long id) {
+            int index = -1;
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                return this;
+            }
+            long[] keptIds = new long[ids.length - 1];
+            int[] keptStarts = new int[ids.length - 1];
+            int[] keptEnds = new int[ids.length - 1];
+            for (int i = 0, j = 0; i < ids.length; i++) {
+                if (i != index) {
+                    keptIds[j] = ids[i];
+                    keptStarts[j] = starts[i];
+                    keptEnds[j] = ends[i];
+                    j++;
+                }
+            }
+            return sorted(keptIds, keptStarts, keptEnds);
+        }
+        
+        private static DaySchedule sorted(long[] ids, int[] starts, int[] ends) {
+            Integer[] order = new Integer[ids.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Integer.compare(starts[a], starts[b]));
+            long[] sortedIds = new long[ids.length];
+            int[] sortedStarts = new int[ids.length];
+            int[] sortedEnds = new int[ids.length];
+            int[] maxEnds = new int[ids.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedIds[i] = ids[order[i]];
+                sortedStarts[i] = starts[order[i]];
+                sortedEnds[i] = ends[order[i]];
+                maxEnds[i] = i == 0 ? sortedEnds[i] : Math.max(maxEnds[i - 1], sortedEnds[i]);
+            }
+            return new DaySchedule(sortedIds, sortedStarts, sortedEnds, maxEnds);
+        }
+    }
+}
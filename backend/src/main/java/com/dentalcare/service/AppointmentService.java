@@ -3,64 +3,208 @@ package com.dentalcare.service;
 import com.dentalcare.model.Appointment;
 import com.dentalcare.repository.AppointmentRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class AppointmentService {
     private final AppointmentRepository appointmentRepository;
+    private final AppointmentScheduleIndex scheduleIndex;
+    private final AvailabilityService availabilityService;
+    private final AppointmentCalendarCache calendarCache;
+    private final ChangeFeedService changeFeedService;
+    private final ReportRollupService reportRollupService;
+    private final TransactionTemplate transactionTemplate;
+    // Booking checks and saves for one dentist run one at a time, striped by dentist id.
+    // ReentrantLocks rather than synchronized, which would pin a virtual thread's carrier during the save.
+    // They keep the schedule index consistent; across instances the dentist's day row in the database
+    // is what serializes bookings.
+    private final ReentrantLock[] bookingLocks = new ReentrantLock[64];
     
-    public AppointmentService(AppointmentRepository appointmentRepository) {
+    public AppointmentService(
+            AppointmentRepository appointmentRepository,
+            AppointmentScheduleIndex scheduleIndex,
+            AvailabilityService availabilityService,
+            AppointmentCalendarCache calendarCache,
+            ChangeFeedService changeFeedService,
+            ReportRollupService reportRollupService,
+            PlatformTransactionManager transactionManager) {
         this.appointmentRepository = appointmentRepository;
+        this.scheduleIndex = scheduleIndex;
+        this.availabilityService = availabilityService;
+        this.calendarCache = calendarCache;
+        this.changeFeedService = changeFeedService;
+        this.reportRollupService = reportRollupService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < bookingLocks.length; i++) {
+            bookingLocks[i] = new ReentrantLock();
+        }
     }
     
     public List<Appointment> getAllAppointments() {
         return appointmentRepository.findAll();
     }
     
+    public PageResult<Appointment> getAppointments(PageQuery query) {
+        return query.fetch(appointmentRepository, Appointment::getId, Appointment::getCreatedAt);
+    }
+    
     public List<Appointment> getAppointmentsByDate(LocalDate date) {
-        return appointmentRepository.findByDate(date);
+        return calendarCache.getRange(date, date);
     }
     
     public List<Appointment> getAppointmentsByMonth(int year, int month) {
         YearMonth yearMonth = YearMonth.of(year, month);
         LocalDate startDate = yearMonth.atDay(1);
         LocalDate endDate = yearMonth.atEndOfMonth();
-        return appointmentRepository.findByDateBetween(startDate, endDate);
+        return calendarCache.getRange(startDate, endDate);
     }
     
     public List<Appointment> getAppointmentsByWeek(LocalDate weekStart) {
         LocalDate weekEnd = weekStart.plusDays(6);
-        return appointmentRepository.findByDateBetween(weekStart, weekEnd);
+        return calendarCache.getRange(weekStart, weekEnd);
+    }
+    
+    public SseEmitter streamChanges(LocalDate from, LocalDate to, String lastEventId) {
+        return changeFeedService.subscribe(ChangeFeedService.APPOINTMENT, from, to, lastEventId);
+    }
+    
+    public Map<String, Object> getCalendarCacheStats() {
+        return calendarCache.getStats();
     }
     
     public List<Appointment> getAppointmentsByPatientId(Long patientId) {
         return appointmentRepository.findByPatientId(patientId);
     }
     
+    public List<FreeSlot> findFreeSlots(Long dentistId, LocalDate from, LocalDate to, int durationMinutes) {
+        return availabilityService.findFreeSlots(dentistId, from, to, durationMinutes);
+    }
+    
     public Optional<Appointment> getAppointmentById(Long id) {
         return appointmentRepository.findById(id);
     }
     
     public Appointment createAppointment(Appointment appointment) {
-        return appointmentRepository.save(appointment);
+        checkTimes(appointment);
+        ReentrantLock lock = bookingLocks[bookingLock(appointment.getDentistId())];
+        lock.lock();
+        try {
+            Appointment saved = book(appointment, null);
+            scheduleIndex.add(saved);
+            dayChanged(saved.getDate());
+            changeFeedService.publish(ChangeFeedService.APPOINTMENT, "created", saved.getId(), saved.getDate(), null, saved);
+            return saved;
+        } finally {
+            lock.unlock();
+        }
     }
     
     public Optional<Appointment> updateAppointment(Long id, Appointment appointment) {
-        if (appointmentRepository.existsById(id)) {
-            appointment.setId(id);
-            return Optional.of(appointmentRepository.save(appointment));
-        }
-        return Optional.empty();
+        checkTimes(appointment);
+        return appointmentRepository.findById(id).map(existing -> {
+            // Take both dentists' locks in a fixed order when an appointment changes dentist
+            int previousLock = bookingLock(existing.getDentistId());
+            int nextLock = bookingLock(appointment.getDentistId());
+            ReentrantLock first = bookingLocks[Math.min(previousLock, nextLock)];
+            ReentrantLock second = bookingLocks[Math.max(previousLock, nextLock)];
+            first.lock();
+            second.lock();
+            try {
+                // existing is the managed instance save() merges into, so read its old values first
+                Long previousDentistId = existing.getDentistId();
+                LocalDate previousDate = existing.getDate();
+                appointment.setId(id);
+                Appointment saved = book(appointment, id);
+                scheduleIndex.remove(previousDentistId, previousDate, id);
+                scheduleIndex.add(saved);
+                dayChanged(previousDate);
+                dayChanged(saved.getDate());
+                changeFeedService.publish(ChangeFeedService.APPOINTMENT, "updated", id, saved.getDate(), previousDate, saved);
+                return saved;
+            } finally {
+                second.unlock();
+                first.unlock();
+            }
+        });
     }
     
     public boolean deleteAppointment(Long id) {
-        if (appointmentRepository.existsById(id)) {
-            appointmentRepository.deleteById(id);
-            return true;
+        return appointmentRepository.findById(id).map(existing -> {
+            // Under the dentist's lock like a booking, so a concurrent create cannot load the day
+            // before the delete and cache it after the index update
+            ReentrantLock lock = bookingLocks[bookingLock(existing.getDentistId())];
+            lock.lock();
+            try {
+                try {
+                    appointmentRepository.delete(existing);
+                } catch (RuntimeException e) {
+                    scheduleIndex.evict(existing.getDentistId(), existing.getDate());
+                    throw e;
+                }
+                scheduleIndex.remove(existing.getDentistId(), existing.getDate(), id);
+                dayChanged(existing.getDate());
+                changeFeedService.publish(ChangeFeedService.APPOINTMENT, "deleted", id, existing.getDate(), null, null);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }).orElse(false);
+    }
+    
+    // Every cache derived from a day's appointments is refreshed from here
+    private void dayChanged(LocalDate date) {
+        reportRollupService.markDirty(date);
+        calendarCache.evict(date);
+        availabilityService.evict(date);
+    }
+    
+    // A zero-length or inverted interval overlaps nothing, so it would pass the conflict check
+    private static void checkTimes(Appointment appointment) {
+        if (appointment.getStartTime() != null && appointment.getEndTime() != null
+                && !appointment.getEndTime().isAfter(appointment.getStartTime())) {
+            throw new IllegalArgumentException("Appointment must end after it starts");
+        }
+    }
+    
+    // Locks the dentist's day in the database, checks it for overlaps and saves, all in one transaction
+    private Appointment book(Appointment appointment, Long excludeId) {
+        try {
+            return transactionTemplate.execute(status -> {
+                if (appointment.getDentistId() != null && appointment.getDate() != null) {
+                    appointmentRepository.lockDentistDay(appointment.getDentistId(), appointment.getDate());
+                }
+                checkConflicts(appointment, excludeId);
+                return appointmentRepository.save(appointment);
+            });
+        } catch (RuntimeException e) {
+            scheduleIndex.evict(appointment.getDentistId(), appointment.getDate());
+            throw e;
         }
-        return false;
+    }
+    
+    private void checkConflicts(Appointment appointment, Long excludeId) {
+        if (!AppointmentScheduleIndex.blocksSchedule(appointment)
+                || appointment.getStartTime() == null || appointment.getEndTime() == null) {
+            return;
+        }
+        // Reloaded under the day lock, so bookings made by other instances are seen
+        scheduleIndex.evict(appointment.getDentistId(), appointment.getDate());
+        Long conflict = scheduleIndex.findConflict(appointment.getDentistId(), appointment.getDate(),
+                appointment.getStartTime(), appointment.getEndTime(), excludeId);
+        if (conflict != null) {
+            throw new AppointmentConflictException(conflict);
+        }
+    }
+    
+    private int bookingLock(Long dentistId) {
+        return Math.floorMod(dentistId == null ? 0 : dentistId.hashCode(), bookingLocks.length);
     }
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.Appointment;
+import com.dentalcare.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Free time per dentist from working hours minus booked appointments. Each day is cached as one
+// bitset per dentist with a bit per slot (5 minutes by default) that any appointment touches.
+@Service
+public class AvailabilityService {
+    private final AppointmentCalendarCache calendarCache;
+    private final UserService userService;
+    private final int slotMinutes;
+    private final Set<DayOfWeek> workingDays;
+    private final BitSet workingSlots;
+    private final int maxCachedDays;
+    
+    private final Map<LocalDate, Map<Long, BitSet>> bookedByDay = new ConcurrentHashMap<>();
+    // Bumped on every eviction so a load that raced with a write is not cached
+    private final AtomicLong generation = new AtomicLong();
+    
+    public AvailabilityService(
+            AppointmentCalendarCache calendarCache,
+            UserService userService,
+            @Value("${appointments.slot-minutes:5}") int slotMinutes,
+            @Value("${appointments.working-hours.start:09:00}") LocalTime workStart,
+            @Value("${appointments.working-hours.end:18:00}") LocalTime workEnd,
+            @Value("${appointments.working-days:MONDAY,TUESDAY,WEDNESDAY,THURSDAY,FRIDAY,SATURDAY}") Set<DayOfWeek> workingDays,
+            @Value("${appointments.availability-cache.max-days:400}") int maxCachedDays) {
+        this.calendarCache = calendarCache;
+        this.userService = userService;
+        this.slotMinutes = slotMinutes;
+        this.workingDays = Set.copyOf(workingDays);
+        this.workingSlots = new BitSet();
+        workingSlots.set(workStart.toSecondOfDay() / 60 / slotMinutes, workEnd.toSecondOfDay() / 60 / slotMinutes);
+        this.maxCachedDays = maxCachedDays;
+    }
+    
+    // Free windows of at least durationMinutes inside working hours, for one dentist or all of them
+    public List<FreeSlot> findFreeSlots(Long dentistId, LocalDate from, LocalDate to, int durationMinutes) {
+        List<Long> dentistIds = dentistId != null
+                ? List.of(dentistId)
+                : userService.getDentists().stream().map(User::getId).toList();
+        int neededSlots = (durationMinutes + slotMinutes - 1) / slotMinutes;
+        Map<LocalDate, Map<Long, BitSet>> booked = bookedSlots(from, to);
+        
+        List<FreeSlot> slots = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            if (!workingDays.contains(date.getDayOfWeek())) {
+                continue;
+            }
+            Map<Long, BitSet> day = booked.get(date);
+            for (Long id : dentistIds) {
+                BitSet free = (BitSet) workingSlots.clone();
+                BitSet busy = day.get(id);
+                if (busy != null) {
+                    free.andNot(busy);
+                }
+                for (int start = free.nextSetBit(0); start >= 0; start = free.nextSetBit(start)) {
+                    int end = free.nextClearBit(start);
+                    if (end - start >= neededSlots) {
+                        slots.add(new FreeSlot(id, date, timeOfSlot(start), timeOfSlot(end)));
+                    }
+                    start = end;
+                }
+            }
+        }
+        return slots;
+    }
+    
+    // Called for every day an appointment write touches
+    public void evict(LocalDate date) {
+        AfterCommit.run(() -> {
+            generation.incrementAndGet();
+            bookedByDay.remove(date);
+        });
+    }
+    
+    private Map<LocalDate, Map<Long, BitSet>> bookedSlots(LocalDate from, LocalDate to) {
+        Map<LocalDate, Map<Long, BitSet>> result = new HashMap<>();
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            Map<Long, BitSet> day = bookedByDay.get(date);
+            if (day != null) {
+                result.put(date, day);
+            } else {
+                firstMissing = firstMissing == null ? date : firstMissing;
+                lastMissing = date;
+            }
+        }
+        if (firstMissing == null) {
+            return result;
+        }
+        
+        // The calendar cache reads every day it does not hold in one range query
+        long loadedAt = generation.get();
+        Map<LocalDate, Map<Long, BitSet>> loaded = new HashMap<>();
+        for (LocalDate date = firstMissing; !date.isAfter(lastMissing); date = date.plusDays(1)) {
+            loaded.put(date, new HashMap<>());
+        }
+        for (Appointment appointment : calendarCache.getRange(firstMissing, lastMissing)) {
+            if (!AppointmentScheduleIndex.blocksSchedule(appointment)
+                    || appointment.getStartTime() == null || appointment.getEndTime() == null) {
+                continue;
+            }
+            int startSlot = appointment.getStartTime().toSecondOfDay() / 60 / slotMinutes;
+            int endSlot = (appointment.getEndTime().toSecondOfDay() / 60 + slotMinutes - 1) / slotMinutes;
+            if (endSlot > startSlot) {
+                loaded.get(appointment.getDate())
+                        .computeIfAbsent(appointment.getDentistId(), id -> new BitSet())
+                        .set(startSlot, endSlot);
+            }
+        }
+        
+        if (bookedByDay.size() + loaded.size() > maxCachedDays) {
+            bookedByDay.clear();
+        }
+        if (generation.get() == loadedAt) {
+            loaded.forEach((date, day) -> bookedByDay.putIfAbsent(date, Map.copyOf(day)));
+            if (generation.get() != loadedAt) {
+                loaded.keySet().forEach(bookedByDay::remove);
+            }
+        }
+        result.putAll(loaded);
+        return result;
+    }
+    
+    private LocalTime timeOfSlot(int slot) {
+        int minutes = slot * slotMinutes;
+        return minutes >= 24 * 60 ? LocalTime.MAX : LocalTime.of(minutes / 60, minutes % 60);
+    }
+}
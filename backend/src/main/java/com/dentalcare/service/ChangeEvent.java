@@ -0,0 +1,22 @@
+package com.dentalcare.service;
+
+import java.time.LocalDate;
+
+// One committed change. previousDate is set when an update moved the entity to another day,
+// and data is the entity after the change (null for deletes).
+public record ChangeEvent(
+        String id,
+        String type,
+        String action,
+        Long entityId,
+        LocalDate date,
+        LocalDate previousDate,
+        Object data) {
+    public boolean touches(LocalDate from, LocalDate to) {
+        return inRange(date, from, to) || (previousDate != null && inRange(previousDate, from, to));
+    }
+    
+    private static boolean inRange(LocalDate day, LocalDate from, LocalDate to) {
+        return day != null && (from == null || !day.isBefore(from)) && (to == null || !day.isAfter(to));
+    }
+}
@@ -0,0 +1,244 @@
+package com.dentalcare.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Server-sent change feed for the calendar and dashboard screens. Committed writes are numbered
+// and fanned out on a single thread, which also owns the replay buffer, so subscribers see events
+// in order without locking. The fan-out only queues events: each subscriber's queue is written out
+// by one task on a bounded sender pool while it has events, so a slow client holds up one sender
+// rather than the fan-out, and a client whose queue fills is disconnected to resume from
+// Last-Event-ID. Idle subscribers are parked async requests and hold no thread.
+@Service
+public class ChangeFeedService {
+    public static final String APPOINTMENT = "appointment";
+    public static final String PHARMACY_SALE = "pharmacy-sale";
+    
+    // Event ids carry the process epoch so ids from before a restart ask the client to reload
+    private final long epoch = System.currentTimeMillis();
+    private final int bufferSize;
+    private final long subscriberTimeoutMs;
+    private final int subscriberQueueSize;
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "change-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // At most one task per subscriber with queued events, so the queue is bounded by the subscribers
+    private final ThreadPoolExecutor senders;
+    private final Deque<Sequenced> buffer = new ArrayDeque<>();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private long sequence;
+    
+    public ChangeFeedService(
+            @Value("${changes.buffer-size:10000}") int bufferSize,
+            @Value("${changes.subscriber-timeout-ms:1800000}") long subscriberTimeoutMs,
+            @Value("${changes.subscriber-queue-size:1000}") int subscriberQueueSize,
+            @Value("${changes.sender-threads:16}") int senderThreads) {
+        this.bufferSize = bufferSize;
+        this.subscriberTimeoutMs = subscriberTimeoutMs;
+        this.subscriberQueueSize = subscriberQueueSize;
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "change-feed-sender");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        senders.allowCoreThreadTimeOut(true);
+    }
+    
+    public void publish(String type, String action, Long entityId, LocalDate date, LocalDate previousDate, Object data) {
+        AfterCommit.run(() -> dispatcher.execute(() -> {
+            long seq = ++sequence;
+            String id = epoch + "-" + seq;
+            LocalDate movedFrom = previousDate != null && !previousDate.equals(date) ? previousDate : null;
+            ChangeEvent event = new ChangeEvent(id, type, action, entityId, date, movedFrom, data);
+            buffer.addLast(new Sequenced(seq, event));
+            if (buffer.size() > bufferSize) {
+                buffer.removeFirst();
+            }
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.wants(event)) {
+                    subscriber.send(event, true);
+                }
+            }
+        }));
+    }
+    
+    // Events of one type touching [from, to] (either bound may be open), resuming after lastEventId
+    public SseEmitter subscribe(String type, LocalDate from, LocalDate to, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(subscriberTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, type, from, to);
+        emitter.onCompletion(subscriber::detach);
+        emitter.onTimeout(subscriber::detach);
+        emitter.onError(error -> subscriber.detach());
+        
+        dispatcher.execute(() -> {
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                Long after = sequenceOf(lastEventId);
+                long oldest = buffer.isEmpty() ? sequence + 1 : buffer.peekFirst().sequence();
+                if (after == null || after > sequence || after < oldest - 1) {
+                    // The client missed events that are no longer buffered; it has to reload
+                    subscriber.sendReset();
+                } else {
+                    // A replay may run past the queue limit; only live events count against it
+                    for (Sequenced buffered : buffer) {
+                        if (buffered.sequence() > after && subscriber.wants(buffered.event())) {
+                            subscriber.send(buffered.event(), false);
+                        }
+                    }
+                }
+            }
+            if (subscriber.open) {
+                subscribers.add(subscriber);
+            }
+        });
+        return emitter;
+    }
+    
+    @Scheduled(fixedRateString = "${changes.heartbeat-interval-ms:25000}")
+    public void sendHeartbeats() {
+        dispatcher.execute(() -> subscribers.forEach(Subscriber::sendHeartbeat));
+    }
+    
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+    }
+    
+    private Long sequenceOf(String eventId) {
+        int dash = eventId.indexOf('-');
+        if (dash < 0 || !eventId.substring(0, dash).equals(String.valueOf(epoch))) {
+            return null;
+        }
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    private record Sequenced(long sequence, ChangeEvent event) {
+    }
+    
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final String type;
+        private final LocalDate from;
+        private final LocalDate to;
+        private final Queue<SseEmitter.SseEventBuilder> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile boolean open = true;
+        private volatile boolean behind;
+        
+        Subscriber(SseEmitter emitter, String type, LocalDate from, LocalDate to) {
+            this.emitter = emitter;
+            this.type = type;
+            this.from = from;
+            this.to = to;
+        }
+        
+        boolean wants(ChangeEvent event) {
+            return event.type().equals(type) && event.touches(from, to);
+        }
+        
+        void send(ChangeEvent event, boolean live) {
+            enqueue(SseEmitter.event()
+                    .id(event.id())
+                    .name(event.type() + "." + event.action())
+                    .data(event, MediaType.APPLICATION_JSON), live);
+        }
+        
+        void sendReset() {
+            enqueue(SseEmitter.event()
+                    .id(epoch + "-" + sequence)
+                    .name("reset")
+                    .data(Map.of(), MediaType.APPLICATION_JSON), false);
+        }
+        
+        void sendHeartbeat() {
+            enqueue(SseEmitter.event().comment("keepalive"), true);
+        }
+        
+        void detach() {
+            open = false;
+            subscribers.remove(this);
+        }
+        
+        // Called on the dispatcher, which never waits on the client
+        private void enqueue(SseEmitter.SseEventBuilder event, boolean live) {
+            if (!open) {
+                return;
+            }
+            if (live && queued.get() >= subscriberQueueSize) {
+                // Too far behind: the sender completes the stream once its current write returns,
+                // and the client reconnects with its Last-Event-ID
+                behind = true;
+                detach();
+            } else {
+                queue.add(event);
+                queued.incrementAndGet();
+            }
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+        
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                while (open && (event = queue.poll()) != null) {
+                    queued.decrementAndGet();
+                    write(event);
+                }
+                if (!open) {
+                    queue.clear();
+                    if (behind) {
+                        emitter.complete();
+                    }
+                    return;
+                }
+                sending.set(false);
+                // An event queued after the last poll but before the flag was cleared found a sender running
+                if (queue.isEmpty() || !sending.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        }
+        
+        private void write(SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                detach();
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
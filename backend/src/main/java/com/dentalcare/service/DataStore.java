@@ -1,90 +1,208 @@
 package com.dentalcare.service;
 
 import com.dentalcare.model.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.*;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
+// Storage engine behind the inmemory profile: one StoreTable per entity with the secondary
+// indexes the repositories query by, so reads never scan a whole table. With
+// inmemory.persistence.enabled the tables are journaled and snapshotted to disk (StorePersistence)
+// and recovered from there at startup; otherwise data lives only as long as the process.
 @Component
+@Profile("inmemory")
 public class DataStore {
-    private final Map<Long, User> users = new ConcurrentHashMap<>();
-    private final Map<Long, Patient> patients = new ConcurrentHashMap<>();
-    private final Map<Long, Appointment> appointments = new ConcurrentHashMap<>();
-    private final Map<Long, Medicine> medicines = new ConcurrentHashMap<>();
-    private final Map<Long, Prescription> prescriptions = new ConcurrentHashMap<>();
-    
-    private final AtomicLong userIdSequence = new AtomicLong(1);
-    private final AtomicLong patientIdSequence = new AtomicLong(1);
-    private final AtomicLong appointmentIdSequence = new AtomicLong(1);
-    private final AtomicLong medicineIdSequence = new AtomicLong(1);
-    private final AtomicLong prescriptionIdSequence = new AtomicLong(1);
+    // Appointments are looked up per dentist and day when checking for double bookings
+    public record DentistDay(Long dentistId, LocalDate date) { }
+    
+    private final AtomicLong saleItemSequence = new AtomicLong(1);
+    private final AtomicLong prescriptionItemSequence = new AtomicLong(1);
+    
+    private final StoreTable<User> users = new StoreTable<>(User.class, User::getId, User::setId)
+            .index("email", User::getEmail);
+    
+    private final StoreTable<Patient> patients = new StoreTable<>(Patient.class, Patient::getId, Patient::setId)
+            .index("email", Patient::getEmail)
+            .sortedIndex("firstNameKey", Patient::getFirstNameKey)
+            .sortedIndex("lastNameKey", Patient::getLastNameKey)
+            .sortedIndex("phoneKey", Patient::getPhoneKey)
+            .sortedIndex("createdAt", Patient::getCreatedAt);
+    
+    private final StoreTable<Appointment> appointments = new StoreTable<>(Appointment.class, Appointment::getId, Appointment::setId)
+            .sortedIndex("date", Appointment::getDate)
+            .index("dentistId", Appointment::getDentistId)
+            .index("dentistDay", a -> a.getDentistId() == null || a.getDate() == null
+                    ? null : new DentistDay(a.getDentistId(), a.getDate()))
+            .index("patientId", Appointment::getPatientId)
+            .sortedIndex("createdAt", Appointment::getCreatedAt);
+    
+    private final StoreTable<Medicine> medicines = new StoreTable<>(Medicine.class, Medicine::getId, Medicine::setId)
+            .sortedIndex("createdAt", Medicine::getCreatedAt);
+    
+    private final StoreTable<Prescription> prescriptions = new StoreTable<>(Prescription.class, Prescription::getId, Prescription::setId)
+            .index("patientId", Prescription::getPatientId)
+            .sortedIndex("createdAt", Prescription::getCreatedAt)
+            .beforeWrite(prescription -> {
+                if (prescription.getItems() != null) {
+                    // Items loaded with their ids already set move the sequence past them
+                    prescription.getItems().forEach(item -> {
+                        if (item.getId() == null) {
+                            item.setId(prescriptionItemSequence.getAndIncrement());
+                        } else {
+                            prescriptionItemSequence.accumulateAndGet(item.getId() + 1, Math::max);
+                        }
+                    });
+                }
+            });
+    
+    private final StoreTable<PharmacySale> pharmacySales = new StoreTable<>(PharmacySale.class, PharmacySale::getId, PharmacySale::setId)
+            .sortedIndex("createdAt", PharmacySale::getCreatedAt)
+            .beforeWrite(sale -> {
+                if (sale.getItems() != null) {
+                    sale.getItems().forEach(item -> {
+                        if (item.getId() == null) {
+                            item.setId(saleItemSequence.getAndIncrement());
+                        } else {
+                            saleItemSequence.accumulateAndGet(item.getId() + 1, Math::max);
+                        }
+                    });
+                }
+            });
+    
+    private final StoreTable<PharmacyCustomer> pharmacyCustomers = new StoreTable<>(PharmacyCustomer.class, PharmacyCustomer::getId, PharmacyCustomer::setId)
+            .index("phone", PharmacyCustomer::getPhone)
+            .index("normalizedPhone", PharmacyCustomer::getNormalizedPhone);
+    
+    // Keyed by the day itself (epoch day), the same natural key as the daily_summaries table
+    private final StoreTable<DailySummary> dailySummaries = new StoreTable<>(DailySummary.class,
+            summary -> summary.getDate() == null ? null : summary.getDate().toEpochDay(), null);
+    
+    private final StoreTable<DailySummaryMark> dailySummaryMarks = new StoreTable<>(DailySummaryMark.class,
+            mark -> mark.getDate() == null ? null : mark.getDate().toEpochDay(), null);
+    
+    private final StoreTable<DailyAppointmentTypeSummary> appointmentTypeSummaries = new StoreTable<>(
+            DailyAppointmentTypeSummary.class, DailyAppointmentTypeSummary::getId, DailyAppointmentTypeSummary::setId)
+            .sortedIndex("date", DailyAppointmentTypeSummary::getDate);
+    
+    private final List<StoreTable<?>> tables = List.of(users, patients, appointments, medicines, prescriptions,
+            pharmacySales, pharmacyCustomers, dailySummaries, appointmentTypeSummaries, dailySummaryMarks);
+    
+    private final boolean seedSampleData;
+    private final StorePersistence persistence;
+    
+    public DataStore(@Value("${inmemory.seed-sample-data:true}") boolean seedSampleData,
+            @Value("${inmemory.persistence.enabled:false}") boolean persistenceEnabled,
+            @Value("${inmemory.persistence.dir:data/store}") Path persistenceDir,
+            @Value("${inmemory.persistence.fsync:group}") String fsync,
+            @Value("${inmemory.persistence.fsync-interval-ms:10}") long fsyncIntervalMs,
+            @Value("${inmemory.persistence.snapshot-after-bytes:268435456}") long snapshotAfterBytes) {
+        this.seedSampleData = seedSampleData;
+        if (!fsync.equals("group") && !fsync.equals("interval")) {
+            throw new IllegalArgumentException("inmemory.persistence.fsync must be group or interval, not " + fsync);
+        }
+        this.persistence = persistenceEnabled
+                ? new StorePersistence(persistenceDir, tables, fsync.equals("group"), fsyncIntervalMs, snapshotAfterBytes)
+                : null;
+    }
     
     @PostConstruct
     public void initializeData() {
+        if (persistence != null) {
+            boolean recovered = persistence.recover();
+            saleItemSequence.set(nextItemId(pharmacySales, PharmacySale::getItems, PharmacySaleItem::getId));
+            prescriptionItemSequence.set(nextItemId(prescriptions, Prescription::getItems, PrescriptionItem::getId));
+            tables.forEach(table -> table.attach(persistence));
+            if (recovered) {
+                return;
+            }
+        }
+        if (!seedSampleData) {
+            return;
+        }
+        
         // Initialize Users
-        User admin = new User();
-        admin.setId(userIdSequence.getAndIncrement());
-        admin.setName("Dr. John Smith");
-        admin.setEmail("admin@example.com");
-        admin.setPassword("password123");
-        admin.setRole("admin");
-        admin.setAvatar("https://randomuser.me/api/portraits/men/32.jpg");
-        users.put(admin.getId(), admin);
-
-        User dentist = new User();
-        dentist.setId(userIdSequence.getAndIncrement());
-        dentist.setName("Dr. Sarah Johnson");
-        dentist.setEmail("dentist@example.com");
-        dentist.setPassword("password123");
-        dentist.setRole("dentist");
-        dentist.setAvatar("https://randomuser.me/api/portraits/women/44.jpg");
-        users.put(dentist.getId(), dentist);
-
-        User receptionist = new User();
-        receptionist.setId(userIdSequence.getAndIncrement());
-        receptionist.setName("Emma Davis");
-        receptionist.setEmail("receptionist@example.com");
-        receptionist.setPassword("password123");
-        receptionist.setRole("receptionist");
-        receptionist.setAvatar("https://randomuser.me/api/portraits/women/68.jpg");
-        users.put(receptionist.getId(), receptionist);
-
+        users.save(createUser("Dr. John Smith", "admin@example.com", "admin",
+            "https://randomuser.me/api/portraits/men/32.jpg"));
+        users.save(createUser("Dr. Sarah Johnson", "dentist@example.com", "dentist",
+            "https://randomuser.me/api/portraits/women/44.jpg"));
+        users.save(createUser("Emma Davis", "receptionist@example.com", "receptionist",
+            "https://randomuser.me/api/portraits/women/68.jpg"));
+        
         // Initialize Patients
         Patient[] samplePatients = {
-            createPatient("Michael", "Brown", "michael.brown@example.com", "(555) 123-4567", 
-                LocalDate.of(1985, 6, 15), "male", "123 Main St, Anytown, CA 12345"),
+            createPatient("Michael", "Brown", "michael.brown@example.com", "(555) 123-4567",
+                LocalDate.of(1985, 6, 15), "male", "123 Main St, Anytown, CA 12345", 5),
             createPatient("Jessica", "Miller", "jessica.miller@example.com", "(555) 987-6543",
-                LocalDate.of(1990, 3, 22), "female", "456 Oak Ave, Somewhere, NY 67890"),
+                LocalDate.of(1990, 3, 22), "female", "456 Oak Ave, Somewhere, NY 67890", 4),
             createPatient("David", "Wilson", "david.wilson@example.com", "(555) 456-7890",
-                LocalDate.of(1978, 11, 30), "male", "789 Pine St, Elsewhere, TX 54321"),
+                LocalDate.of(1978, 11, 30), "male", "789 Pine St, Elsewhere, TX 54321", 3),
             createPatient("Emily", "Taylor", "emily.taylor@example.com", "(555) 789-0123",
-                LocalDate.of(1995, 9, 8), "female", "101 Maple Dr, Nowhere, FL 98765"),
+                LocalDate.of(1995, 9, 8), "female", "101 Maple Dr, Nowhere, FL 98765", 2),
             createPatient("Robert", "Anderson", "robert.anderson@example.com", "(555) 234-5678",
-                LocalDate.of(1982, 7, 17), "male", "202 Cedar Ln, Anyplace, WA 13579")
+                LocalDate.of(1982, 7, 17), "male", "202 Cedar Ln, Anyplace, WA 13579", 1)
         };
-
+        Arrays.stream(samplePatients).forEach(patients::save);
+        
         // Initialize Medicines
         Medicine[] sampleMedicines = {
-            createMedicine("Amoxicillin", "tablet", "Antibiotic for bacterial infections", 
+            createMedicine("Amoxicillin", "tablet", "Antibiotic for bacterial infections",
                 "PharmaCorp", 500, "tablets", 0.5),
-            createMedicine("Ibuprofen", "tablet", "Pain reliever and anti-inflammatory", 
+            createMedicine("Ibuprofen", "tablet", "Pain reliever and anti-inflammatory",
                 "MediCo", 1000, "tablets", 0.3),
-            createMedicine("Lidocaine", "injection", "Local anesthetic", 
+            createMedicine("Lidocaine", "injection", "Local anesthetic",
                 "AnestheCare", 200, "vials", 5.0),
-            createMedicine("Chlorhexidine", "solution", "Oral antiseptic", 
+            createMedicine("Chlorhexidine", "solution", "Oral antiseptic",
                 "DentalPharma", 150, "bottles", 8.0),
-            createMedicine("Fluoride Gel", "gel", "Cavity prevention", 
+            createMedicine("Fluoride Gel", "gel", "Cavity prevention",
                 "OralCare", 100, "tubes", 12.0)
         };
+        Arrays.stream(sampleMedicines).forEach(medicines::save);
     }
-
+    
+    @PreDestroy
+    public void close() throws IOException {
+        if (persistence != null) {
+            persistence.close();
+        }
+    }
+    
+    // Child rows are numbered by DataStore, so after recovery numbering resumes past the highest stored id
+    private static <T, I> long nextItemId(StoreTable<T> table, Function<T, List<I>> items,
+            Function<I, Long> id) {
+        long[] max = {0};
+        table.visitAll(row -> {
+            if (items.apply(row) != null) {
+                for (I item : items.apply(row)) {
+                    if (id.apply(item) != null) {
+                        max[0] = Math.max(max[0], id.apply(item));
+                    }
+                }
+            }
+        });
+        return max[0] + 1;
+    }
+    
+    private User createUser(String name, String email, String role, String avatar) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(email);
+        user.setPassword("password123");
+        user.setRole(role);
+        user.setAvatar(avatar);
+        return user;
+    }
+    
     private Patient createPatient(String firstName, String lastName, String email, String phone,
-            LocalDate dateOfBirth, String gender, String address) {
+            LocalDate dateOfBirth, String gender, String address, int monthsAgo) {
         Patient patient = new Patient();
-        patient.setId(patientIdSequence.getAndIncrement());
         patient.setFirstName(firstName);
         patient.setLastName(lastName);
         patient.setEmail(email);
@@ -92,15 +210,13 @@ public class DataStore {
         patient.setDateOfBirth(dateOfBirth);
         patient.setGender(gender);
         patient.setAddress(address);
-        patient.setCreatedAt(LocalDateTime.now().minusMonths((long) (Math.random() * 6)));
-        patients.put(patient.getId(), patient);
+        patient.setCreatedAt(LocalDateTime.now().minusMonths(monthsAgo));
         return patient;
     }
-
+    
     private Medicine createMedicine(String name, String type, String description,
             String manufacturer, int stock, String unit, double price) {
         Medicine medicine = new Medicine();
-        medicine.setId(medicineIdSequence.getAndIncrement());
         medicine.setName(name);
         medicine.setType(type);
         medicine.setDescription(description);
@@ -110,47 +226,46 @@ public class DataStore {
         medicine.setPrice(price);
         medicine.setCreatedAt(LocalDateTime.now().minusMonths(1));
         medicine.setUpdatedAt(LocalDateTime.now());
-        medicines.put(medicine.getId(), medicine);
         return medicine;
     }
     
-    public Map<Long, User> getUsers() {
+    public StoreTable<User> getUsers() {
         return users;
     }
     
-    public Map<Long, Patient> getPatients() {
+    public StoreTable<Patient> getPatients() {
         return patients;
     }
     
-    public Map<Long, Appointment> getAppointments() {
+    public StoreTable<Appointment> getAppointments() {
         return appointments;
     }
     
-    public Map<Long, Medicine> getMedicines() {
+    public StoreTable<Medicine> getMedicines() {
         return medicines;
     }
     
-    public Map<Long, Prescription> getPrescriptions() {
+    public StoreTable<Prescription> getPrescriptions() {
         return prescriptions;
     }
     
-    public long nextUserId() {
-        return userIdSequence.getAndIncrement();
+    public StoreTable<PharmacySale> getPharmacySales() {
+        return pharmacySales;
     }
     
-    public long nextPatientId() {
-        return patientIdSequence.getAndIncrement();
+    public StoreTable<PharmacyCustomer> getPharmacyCustomers() {
+        return pharmacyCustomers;
     }
     
-    public long nextAppointmentId() {
-        return appointmentIdSequence.getAndIncrement();
+    public StoreTable<DailySummary> getDailySummaries() {
+        return dailySummaries;
     }
     
-    public long nextMedicineId() {
-        return medicineIdSequence.getAndIncrement();
+    public StoreTable<DailySummaryMark> getDailySummaryMarks() {
+        return dailySummaryMarks;
     }
     
-    public long nextPrescriptionId() {
-        return prescriptionIdSequence.getAndIncrement();
+    public StoreTable<DailyAppointmentTypeSummary> getAppointmentTypeSummaries() {
+        return appointmentTypeSummaries;
     }
-}
\ No newline at end of file
+}
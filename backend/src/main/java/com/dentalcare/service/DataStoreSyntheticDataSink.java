@@ -0,0 +1,60 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.*;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import java.util.List;
+
+// Synthetic data straight into the inmemory tables, a chunk per lock acquisition (and per fsync
+// when persistence is on)
+@Component
+@Profile("synthetic-data & inmemory")
+public class DataStoreSyntheticDataSink implements SyntheticDataSink {
+    private final DataStore store;
+    
+    public DataStoreSyntheticDataSink(DataStore store) {
+        this.store = store;
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return store.getUsers().size() == 0 && store.getPatients().size() == 0
+                && store.getAppointments().size() == 0 && store.getMedicines().size() == 0
+                && store.getPharmacyCustomers().size() == 0 && store.getPharmacySales().size() == 0;
+    }
+    
+    @Override
+    public void users(List<User> users) {
+        store.getUsers().saveAll(users);
+    }
+    
+    @Override
+    public void medicines(List<Medicine> medicines) {
+        store.getMedicines().saveAll(medicines);
+    }
+    
+    @Override
+    public void patients(List<Patient> patients) {
+        store.getPatients().saveAll(patients);
+    }
+    
+    @Override
+    public void pharmacyCustomers(List<PharmacyCustomer> customers) {
+        store.getPharmacyCustomers().saveAll(customers);
+    }
+    
+    @Override
+    public void appointments(List<Appointment> appointments) {
+        store.getAppointments().saveAll(appointments);
+    }
+    
+    @Override
+    public void prescriptions(List<Prescription> prescriptions) {
+        store.getPrescriptions().saveAll(prescriptions);
+    }
+    
+    @Override
+    public void pharmacySales(List<PharmacySale> sales) {
+        store.getPharmacySales().saveAll(sales);
+    }
+}
@@ -0,0 +1,192 @@
+package com.dentalcare.service;
+
+import com.dentalcare.config.RoutingDataSource;
+import com.dentalcare.repository.*;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Service
+public class ExportService {
+    // Rows written between explicit flushes, so the client receives the export in chunks
+    private static final int FLUSH_EVERY = 500;
+    
+    private final AppointmentRepository appointmentRepository;
+    private final PatientRepository patientRepository;
+    private final PharmacySaleRepository pharmacySaleRepository;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper;
+    private final TransactionTemplate transactionTemplate;
+    
+    public ExportService(
+            AppointmentRepository appointmentRepository,
+            PatientRepository patientRepository,
+            PharmacySaleRepository pharmacySaleRepository,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager) {
+        this.appointmentRepository = appointmentRepository;
+        this.patientRepository = patientRepository;
+        this.pharmacySaleRepository = pharmacySaleRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.csvMapper = CsvMapper.builder()
+                .findAndAddModules()
+                .disable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+    
+    public void exportAppointments(LocalDate startDate, LocalDate endDate, ExportFormat format, OutputStream out)
+            throws IOException {
+        inExportTransaction(() -> {
+            try (Stream<AppointmentExportRow> rows = appointmentRepository.streamForExport(startDate, endDate)) {
+                writeRows(rows, AppointmentExportRow.class, format, out);
+            }
+        });
+    }
+    
+    public void exportPatients(LocalDate startDate, LocalDate endDate, ExportFormat format, OutputStream out)
+            throws IOException {
+        inExportTransaction(() -> {
+            try (Stream<PatientExportRow> rows = patientRepository.streamForExport(
+                    startDate.atStartOfDay(), endDate.atTime(23, 59, 59))) {
+                writeRows(rows, PatientExportRow.class, format, out);
+            }
+        });
+    }
+    
+    public void exportSales(LocalDate startDate, LocalDate endDate, ExportFormat format, OutputStream out)
+            throws IOException {
+        inExportTransaction(() -> {
+            try (Stream<SaleExportRow> rows = pharmacySaleRepository.streamForExport(
+                    startDate.atStartOfDay(), endDate.atTime(23, 59, 59))) {
+                if (format == ExportFormat.CSV) {
+                    writeRows(rows, SaleExportRow.class, format, out);
+                } else {
+                    writeSaleDocuments(rows, out);
+                }
+            }
+        });
+    }
+    
+    // A read-only transaction on the export pool; the route has to be set before the transaction
+    // takes its connection, so this replaces @Transactional
+    private void inExportTransaction(ExportWork work) throws IOException {
+        try {
+            RoutingDataSource.onExports(() -> transactionTemplate.execute(status -> {
+                try {
+                    work.run();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    private <T> void writeRows(Stream<T> rows, Class<T> type, ExportFormat format, OutputStream out)
+            throws IOException {
+        ObjectWriter writer = format == ExportFormat.CSV
+                ? csvMapper.writerFor(type).with(csvMapper.schemaFor(type).withHeader())
+                : objectMapper.writerFor(type).withRootValueSeparator("\n");
+        
+        try (SequenceWriter sequence = writer.writeValues(out)) {
+            int[] written = {0};
+            rows.forEach(row -> write(sequence, row, ++written[0]));
+            if (format == ExportFormat.NDJSON && written[0] > 0) {
+                sequence.flush();
+                out.write('\n');
+            }
+        }
+    }
+    
+    // Items arrive ordered by sale, so each sale is assembled and written before the next one is read
+    private void writeSaleDocuments(Stream<SaleExportRow> rows, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(SaleDocument.class).withRootValueSeparator("\n");
+        
+        try (SequenceWriter sequence = writer.writeValues(out)) {
+            SaleDocument[] current = {null};
+            int[] written = {0};
+            rows.forEach(row -> {
+                if (current[0] == null || !current[0].id().equals(row.saleId())) {
+                    if (current[0] != null) {
+                        write(sequence, current[0], ++written[0]);
+                    }
+                    current[0] = SaleDocument.from(row);
+                }
+                if (row.itemId() != null) {
+                    current[0].items().add(SaleItemDocument.from(row));
+                }
+            });
+            if (current[0] != null) {
+                write(sequence, current[0], ++written[0]);
+                sequence.flush();
+                out.write('\n');
+            }
+        }
+    }
+    
+    private static void write(SequenceWriter sequence, Object value, int written) {
+        try {
+            sequence.write(value);
+            if (written % FLUSH_EVERY == 0) {
+                sequence.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private interface ExportWork {
+        void run() throws IOException;
+    }
+    
+    private record SaleDocument(
+            Long id,
+            Long customerId,
+            String customerName,
+            String customerPhone,
+            List<SaleItemDocument> items,
+            Double subtotal,
+            Double sgst,
+            Double cgst,
+            Double discount,
+            Double total,
+            LocalDateTime createdAt) {
+        static SaleDocument from(SaleExportRow row) {
+            return new SaleDocument(row.saleId(), row.customerId(), row.customerName(), row.customerPhone(),
+                    new ArrayList<>(), row.subtotal(), row.sgst(), row.cgst(), row.discount(), row.total(),
+                    row.createdAt());
+        }
+    }
+    
+    private record SaleItemDocument(
+            Long id,
+            Long medicineId,
+            String medicineName,
+            Integer quantity,
+            Double unitPrice,
+            Double totalPrice) {
+        static SaleItemDocument from(SaleExportRow row) {
+            return new SaleItemDocument(row.itemId(), row.medicineId(), row.medicineName(), row.quantity(),
+                    row.unitPrice(), row.totalPrice());
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.dentalcare.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public record FreeSlot(Long dentistId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+}
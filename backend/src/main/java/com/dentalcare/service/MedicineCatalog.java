@@ -0,0 +1,26 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.Medicine;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+public record MedicineCatalog(String etag, long version, List<Medicine> medicines) {
+
+    // Entries are in id order, so one written medicine is replaced, inserted or removed in place
+    public MedicineCatalog withChange(String etag, long version, Long id, Medicine entry) {
+        List<Medicine> changed = new ArrayList<>(medicines);
+        Medicine key = new Medicine();
+        key.setId(id);
+        int index = Collections.binarySearch(changed, key, Comparator.comparing(Medicine::getId));
+        if (index >= 0 && entry != null) {
+            changed.set(index, entry);
+        } else if (index >= 0) {
+            changed.remove(index);
+        } else if (entry != null) {
+            changed.add(-index - 1, entry);
+        }
+        return new MedicineCatalog(etag, version, List.copyOf(changed));
+    }
+}
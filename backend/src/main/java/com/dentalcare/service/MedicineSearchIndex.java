@@ -0,0 +1,453 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.Medicine;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+// Immutable prefix index over medicine name, type and manufacturer tokens.
+// Tokens are kept sorted so every token starting with a prefix is one contiguous range of token ids,
+// and documents are numbered shortest name first so ties and early termination fall out of doc order.
+// Writes are layered on top by id: a changed or deleted medicine is masked in the base and changed ones
+// go into a small overlay index, until the overlay grows enough that one rebuild is cheaper.
+public class MedicineSearchIndex {
+    private static final int NAME_WEIGHT = 8;
+    private static final int TYPE_WEIGHT = 3;
+    private static final int MANUFACTURER_WEIGHT = 2;
+    private static final int NAME_START_BONUS = 20;
+    private static final int MIN_OVERLAY = 256;
+    private static final Comparator<Hit> HIT_ORDER = Comparator.comparingInt(Hit::score).reversed()
+            .thenComparingInt((Hit hit) -> hit.name().length())
+            .thenComparing(Hit::name);
+
+    private final long version;
+    private final List<Medicine> medicines;
+    private final Map<Long, Integer> positions;
+    // Positions in medicines that a later write replaced or deleted
+    private final BitSet masked;
+    private final MedicineSearchIndex overlay;
+    // Index into medicines for each document, in rank order
+    private final int[] docMedicine;
+    // Token ids of each document with the best field weight the token has in it
+    private final int[][] docTokens;
+    private final int[][] docWeights;
+    private final int[] firstNameToken;
+    private final String[] tokens;
+    private final int[] tokenMaxWeight;
+    private final boolean[] tokenStartsName;
+    private final int[][] postings;
+
+    public MedicineSearchIndex(long version, List<Medicine> medicines) {
+        this.version = version;
+        this.medicines = List.copyOf(medicines);
+        this.masked = new BitSet();
+        this.overlay = null;
+        int size = this.medicines.size();
+
+        Integer[] order = new Integer[size];
+        String[] names = new String[size];
+        this.positions = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+            names[i] = normalize(this.medicines.get(i).getName());
+            positions.put(this.medicines.get(i).getId(), i);
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> names[i].length()).thenComparing(i -> names[i]));
+        this.docMedicine = Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+
+        String[][][] docFields = new String[size][][];
+        Map<String, Integer> tokenIds = new HashMap<>();
+        for (int doc = 0; doc < size; doc++) {
+            Medicine medicine = this.medicines.get(docMedicine[doc]);
+            docFields[doc] = new String[][] {
+                tokenize(medicine.getName()),
+                tokenize(medicine.getType()),
+                tokenize(medicine.getManufacturer())
+            };
+            for (String[] field : docFields[doc]) {
+                for (String token : field) {
+                    tokenIds.putIfAbsent(token, 0);
+                }
+            }
+        }
+        this.tokens = tokenIds.keySet().toArray(new String[0]);
+        Arrays.sort(tokens);
+        for (int i = 0; i < tokens.length; i++) {
+            tokenIds.put(tokens[i], i);
+        }
+
+        int[] fieldWeights = {NAME_WEIGHT, TYPE_WEIGHT, MANUFACTURER_WEIGHT};
+        this.docTokens = new int[size][];
+        this.docWeights = new int[size][];
+        this.firstNameToken = new int[size];
+        this.tokenMaxWeight = new int[tokens.length];
+        this.tokenStartsName = new boolean[tokens.length];
+        int[] postingCounts = new int[tokens.length];
+        for (int doc = 0; doc < size; doc++) {
+            int[] ids = new int[8];
+            int[] weights = new int[8];
+            int count = 0;
+            for (int field = 0; field < fieldWeights.length; field++) {
+                for (String token : docFields[doc][field]) {
+                    int id = tokenIds.get(token);
+                    int existing = indexOf(ids, count, id);
+                    if (existing >= 0) {
+                        weights[existing] = Math.max(weights[existing], fieldWeights[field]);
+                        continue;
+                    }
+                    if (count == ids.length) {
+                        ids = Arrays.copyOf(ids, count * 2);
+                        weights = Arrays.copyOf(weights, count * 2);
+                    }
+                    ids[count] = id;
+                    weights[count] = fieldWeights[field];
+                    count++;
+                    postingCounts[id]++;
+                }
+            }
+            docTokens[doc] = Arrays.copyOf(ids, count);
+            docWeights[doc] = Arrays.copyOf(weights, count);
+            for (int i = 0; i < count; i++) {
+                tokenMaxWeight[ids[i]] = Math.max(tokenMaxWeight[ids[i]], weights[i]);
+            }
+            String[] nameTokens = docFields[doc][0];
+            firstNameToken[doc] = nameTokens.length > 0 ? tokenIds.get(nameTokens[0]) : -1;
+            if (firstNameToken[doc] >= 0) {
+                tokenStartsName[firstNameToken[doc]] = true;
+            }
+        }
+
+        // Documents are visited in rank order, so every posting list comes out sorted
+        this.postings = new int[tokens.length][];
+        for (int i = 0; i < tokens.length; i++) {
+            postings[i] = new int[postingCounts[i]];
+        }
+        int[] filled = new int[tokens.length];
+        for (int doc = 0; doc < size; doc++) {
+            for (int id : docTokens[doc]) {
+                postings[id][filled[id]++] = doc;
+            }
+        }
+    }
+
+    private MedicineSearchIndex(MedicineSearchIndex base, long version, BitSet masked, MedicineSearchIndex overlay) {
+        this.version = version;
+        this.medicines = base.medicines;
+        this.positions = base.positions;
+        this.masked = masked;
+        this.overlay = overlay;
+        this.docMedicine = base.docMedicine;
+        this.docTokens = base.docTokens;
+        this.docWeights = base.docWeights;
+        this.firstNameToken = base.firstNameToken;
+        this.tokens = base.tokens;
+        this.tokenMaxWeight = base.tokenMaxWeight;
+        this.tokenStartsName = base.tokenStartsName;
+        this.postings = base.postings;
+    }
+
+    // Applies one written medicine, or a deletion when medicine is null. Edits that leave the searchable
+    // text alone share everything, since hits are read back by id for their other fields.
+    public MedicineSearchIndex withChange(long version, Long id, Medicine medicine) {
+        Medicine current = find(id);
+        if (medicine != null && current != null && sameText(current, medicine)) {
+            return new MedicineSearchIndex(this, version, masked, overlay);
+        }
+
+        BitSet nextMasked = masked;
+        Integer position = positions.get(id);
+        if (position != null && !masked.get(position)) {
+            nextMasked = (BitSet) masked.clone();
+            nextMasked.set(position);
+        }
+        List<Medicine> changed = new ArrayList<>();
+        if (overlay != null) {
+            overlay.medicines.stream().filter(m -> !Objects.equals(m.getId(), id)).forEach(changed::add);
+        }
+        if (medicine != null) {
+            changed.add(medicine);
+        }
+
+        if (changed.size() + nextMasked.cardinality() > Math.max(MIN_OVERLAY, medicines.size() / 16)) {
+            List<Medicine> live = new ArrayList<>(medicines.size() + changed.size());
+            for (int i = 0; i < medicines.size(); i++) {
+                if (!nextMasked.get(i)) {
+                    live.add(medicines.get(i));
+                }
+            }
+            live.addAll(changed);
+            return new MedicineSearchIndex(version, live);
+        }
+        return new MedicineSearchIndex(this, version, nextMasked,
+                changed.isEmpty() ? null : new MedicineSearchIndex(version, changed));
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return medicines.size() - masked.cardinality() + (overlay != null ? overlay.size() : 0);
+    }
+
+    // Every query term has to prefix some token of the medicine; exact tokens, name matches
+    // and names starting with the first term rank higher, then shorter names
+    public List<Medicine> search(String query, int limit) {
+        String[] terms = tokenize(query);
+        if (terms.length == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        List<Hit> hits = hits(terms, limit);
+        if (overlay != null) {
+            hits.addAll(overlay.hits(terms, limit));
+            hits.sort(HIT_ORDER);
+        }
+        return hits.stream().limit(limit).map(Hit::medicine).toList();
+    }
+
+    private List<Hit> hits(String[] terms, int limit) {
+        int[] from = new int[terms.length];
+        int[] to = new int[terms.length];
+        int[] exact = new int[terms.length];
+        int rarest = 0;
+        long rarestCount = Long.MAX_VALUE;
+        int bestPossible = 0;
+        for (int i = 0; i < terms.length; i++) {
+            from[i] = lowerBound(terms[i]);
+            to[i] = from[i];
+            long count = 0;
+            int best = 0;
+            while (to[i] < tokens.length && tokens[to[i]].startsWith(terms[i])) {
+                count += postings[to[i]].length;
+                best = Math.max(best, tokenMaxWeight[to[i]]);
+                to[i]++;
+            }
+            if (count == 0) {
+                return new ArrayList<>();
+            }
+            exact[i] = tokens[from[i]].equals(terms[i]) ? from[i] : -1;
+            if (exact[i] >= 0) {
+                best = Math.max(best, tokenMaxWeight[exact[i]] * 2);
+            }
+            bestPossible += best;
+            if (count < rarestCount) {
+                rarestCount = count;
+                rarest = i;
+            }
+        }
+        for (int t = from[0]; t < to[0]; t++) {
+            if (tokenStartsName[t]) {
+                bestPossible += NAME_START_BONUS;
+                break;
+            }
+        }
+
+        TopHits top = new TopHits(limit);
+        if (rarestCount * 8 < docTokens.length) {
+            BitSet seen = new BitSet(docTokens.length);
+            for (int t = from[rarest]; t < to[rarest]; t++) {
+                for (int doc : postings[t]) {
+                    if (!seen.get(doc)) {
+                        seen.set(doc);
+                        top.offer(doc, score(doc, from, to, exact));
+                    }
+                }
+            }
+        } else {
+            // Broad prefixes match most of the catalog: walk it in rank order and stop
+            // once the k best hits can no longer be beaten
+            for (int doc = 0; doc < docTokens.length; doc++) {
+                top.offer(doc, score(doc, from, to, exact));
+                if (top.isFull() && top.worstScore() >= bestPossible) {
+                    break;
+                }
+            }
+        }
+
+        List<Hit> results = new ArrayList<>(top.size);
+        for (long key : top.keysBestFirst()) {
+            int doc = Integer.MAX_VALUE - (int) key;
+            Medicine medicine = medicines.get(docMedicine[doc]);
+            results.add(new Hit(medicine, (int) (key >>> 32), normalize(medicine.getName())));
+        }
+        return results;
+    }
+
+    private int score(int doc, int[] from, int[] to, int[] exact) {
+        if (masked.get(docMedicine[doc])) {
+            return 0;
+        }
+        int[] ids = docTokens[doc];
+        int[] weights = docWeights[doc];
+        int score = 0;
+        for (int term = 0; term < from.length; term++) {
+            int best = 0;
+            for (int i = 0; i < ids.length; i++) {
+                int id = ids[i];
+                if (id >= from[term] && id < to[term]) {
+                    best = Math.max(best, id == exact[term] ? weights[i] * 2 : weights[i]);
+                }
+            }
+            if (best == 0) {
+                return 0;
+            }
+            score += best;
+        }
+        int first = firstNameToken[doc];
+        if (first >= from[0] && first < to[0]) {
+            score += NAME_START_BONUS;
+        }
+        return score;
+    }
+
+    private int lowerBound(String key) {
+        int lo = 0;
+        int hi = tokens.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (tokens[mid].compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private Medicine find(Long id) {
+        if (overlay != null) {
+            Medicine changed = overlay.find(id);
+            if (changed != null) {
+                return changed;
+            }
+        }
+        Integer position = positions.get(id);
+        return position != null && !masked.get(position) ? medicines.get(position) : null;
+    }
+
+    private static boolean sameText(Medicine a, Medicine b) {
+        return Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getType(), b.getType())
+                && Objects.equals(a.getManufacturer(), b.getManufacturer());
+    }
+
+    private static int indexOf(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT).trim();
+    }
+
+    private static String[] tokenize(String value) {
+        String normalized = normalize(value);
+        List<String> tokens = new ArrayList<>(4);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean word = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                String token = normalized.substring(start, i);
+                if (!tokens.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    private record Hit(Medicine medicine, int score, String name) {
+    }
+
+    // Bounded min-heap of (score, doc) packed into longs; a lower doc wins ties since docs are in rank order
+    private static final class TopHits {
+        private final long[] heap;
+        private int size;
+
+        TopHits(int limit) {
+            this.heap = new long[limit];
+        }
+
+        void offer(int doc, int score) {
+            if (score <= 0) {
+                return;
+            }
+            long key = ((long) score << 32) | (Integer.MAX_VALUE - doc);
+            if (size < heap.length) {
+                heap[size] = key;
+                siftUp(size++);
+            } else if (key > heap[0]) {
+                heap[0] = key;
+                siftDown(0);
+            }
+        }
+
+        boolean isFull() {
+            return size == heap.length;
+        }
+
+        int worstScore() {
+            return (int) (heap[0] >>> 32);
+        }
+
+        long[] keysBestFirst() {
+            long[] sorted = Arrays.copyOf(heap, size);
+            Arrays.sort(sorted);
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = sorted[size - 1 - i];
+            }
+            return keys;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] <= heap[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && heap[left] < heap[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && heap[right] < heap[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long tmp = heap[a];
+            heap[a] = heap[b];
+            heap[b] = tmp;
+        }
+    }
+}
@@ -2,20 +2,143 @@ package com.dentalcare.service;
 
 import com.dentalcare.model.Medicine;
 import com.dentalcare.repository.MedicineRepository;
+import com.dentalcare.repository.MedicineStock;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class MedicineService {
     private final MedicineRepository medicineRepository;
     
+    // The epoch keeps ETags from a previous process from matching this one's versions
+    private final long catalogEpoch = System.currentTimeMillis();
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final AtomicLong catalogHits = new AtomicLong();
+    private final AtomicLong catalogMisses = new AtomicLong();
+    private final AtomicLong catalogInvalidations = new AtomicLong();
+    private volatile MedicineCatalog catalog;
+    private volatile MedicineSearchIndex searchIndex;
+    // Orders installing a loaded catalog or index against applying a write to them
+    private final ReentrantLock cacheLock = new ReentrantLock();
+    
     public MedicineService(MedicineRepository medicineRepository) {
         this.medicineRepository = medicineRepository;
     }
     
     public List<Medicine> getAllMedicines() {
-        return medicineRepository.findAll();
+        return getCatalog().medicines();
+    }
+    
+    public PageResult<Medicine> getMedicines(PageQuery query) {
+        return query.fetch(medicineRepository, Medicine::getId, Medicine::getCreatedAt);
+    }
+    
+    // The catalog holds what changes rarely; stock moves with every sale and is read from here instead
+    public MedicineCatalog getCatalog() {
+        long version = catalogVersion.get();
+        MedicineCatalog cached = catalog;
+        if (cached != null && cached.version() == version) {
+            catalogHits.incrementAndGet();
+            return cached;
+        }
+        
+        catalogMisses.incrementAndGet();
+        List<Medicine> medicines = List.copyOf(medicineRepository.findAll(Sort.by("id")));
+        medicines.forEach(medicine -> medicine.setStock(null));
+        MedicineCatalog loaded = new MedicineCatalog(etag(version), version, medicines);
+        // Only keep it if nothing was written while loading
+        cacheLock.lock();
+        try {
+            if (catalogVersion.get() == version) {
+                catalog = loaded;
+            }
+        } finally {
+            cacheLock.unlock();
+        }
+        return loaded;
+    }
+    
+    public List<MedicineStock> getStock() {
+        return medicineRepository.findAllStock();
+    }
+    
+    // Typeahead over the catalog. The index is built once and then follows writes by id; the hits
+    // are read back by id so they carry current stock.
+    public List<Medicine> searchMedicines(String query, int limit) {
+        MedicineSearchIndex index = searchIndex;
+        if (index == null || index.version() != catalogVersion.get()) {
+            MedicineCatalog current = getCatalog();
+            index = new MedicineSearchIndex(current.version(), current.medicines());
+            cacheLock.lock();
+            try {
+                if (catalogVersion.get() == current.version()) {
+                    searchIndex = index;
+                }
+            } finally {
+                cacheLock.unlock();
+            }
+        }
+        List<Long> ids = index.search(query, limit).stream().map(Medicine::getId).toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Medicine> current = medicineRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Medicine::getId, Function.identity()));
+        return ids.stream().map(current::get).filter(Objects::nonNull).toList();
+    }
+    
+    // Applies one committed write, or a deletion when medicine is null, to the cached catalog and index
+    // instead of dropping them. Either one that is already behind is dropped and rebuilt on next use.
+    private void applyChange(Long id, Medicine medicine) {
+        AfterCommit.run(() -> {
+            Medicine entry = null;
+            if (medicine != null) {
+                entry = new Medicine();
+                BeanUtils.copyProperties(medicine, entry, "stock");
+            }
+            cacheLock.lock();
+            try {
+                long previous = catalogVersion.getAndIncrement();
+                long version = previous + 1;
+                catalogInvalidations.incrementAndGet();
+                MedicineCatalog cached = catalog;
+                catalog = cached != null && cached.version() == previous
+                        ? cached.withChange(etag(version), version, id, entry)
+                        : null;
+                MedicineSearchIndex index = searchIndex;
+                searchIndex = index != null && index.version() == previous
+                        ? index.withChange(version, id, entry)
+                        : null;
+            } finally {
+                cacheLock.unlock();
+            }
+        });
+    }
+    
+    private String etag(long version) {
+        return "\"catalog-" + catalogEpoch + "-" + version + "\"";
+    }
+    
+    public Map<String, Object> getCatalogCacheStats() {
+        MedicineCatalog cached = catalog;
+        return Map.of(
+                "version", catalogVersion.get(),
+                "cached", cached != null,
+                "entries", cached != null ? cached.medicines().size() : 0,
+                "hits", catalogHits.get(),
+                "misses", catalogMisses.get(),
+                "invalidations", catalogInvalidations.get());
     }
     
     public Optional<Medicine> getMedicineById(Long id) {
@@ -23,22 +146,45 @@ public class MedicineService {
     }
     
     public Medicine createMedicine(Medicine medicine) {
-        return medicineRepository.save(medicine);
+        Medicine saved = medicineRepository.save(medicine);
+        applyChange(saved.getId(), saved);
+        return saved;
     }
     
     public Optional<Medicine> updateMedicine(Long id, Medicine medicine) {
-        if (medicineRepository.existsById(id)) {
+        return medicineRepository.findById(id).map(existing -> {
             medicine.setId(id);
-            return Optional.of(medicineRepository.save(medicine));
+            // Stock is not part of an edit: sales and adjustments may have moved it since the form loaded
+            medicine.setStock(existing.getStock());
+            // Clients that do not send a version overwrite the other fields; a stale one fails with 409
+            if (medicine.getVersion() == null) {
+                medicine.setVersion(existing.getVersion());
+            }
+            Medicine saved = medicineRepository.save(medicine);
+            applyChange(id, saved);
+            return saved;
+        });
+    }
+    
+    // Receiving a delivery or writing off stock; applied in the database, so it cannot undo a sale
+    @Transactional
+    public Optional<Medicine> adjustStock(Long id, int delta) {
+        if (!medicineRepository.adjustStock(id, delta, LocalDateTime.now())) {
+            Medicine medicine = medicineRepository.findById(id).orElse(null);
+            if (medicine == null) {
+                return Optional.empty();
+            }
+            throw new IllegalArgumentException("Stock of " + medicine.getName() + " cannot go below zero");
         }
-        return Optional.empty();
+        return medicineRepository.findById(id);
     }
     
     public boolean deleteMedicine(Long id) {
         if (medicineRepository.existsById(id)) {
             medicineRepository.deleteById(id);
+            applyChange(id, null);
             return true;
         }
         return false;
     }
-}
\ No newline at end of file
+}
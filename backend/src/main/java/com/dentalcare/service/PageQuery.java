@@ -0,0 +1,74 @@
+package com.dentalcare.service;
+
+import com.dentalcare.repository.KeysetRepository;
+import org.springframework.data.domain.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+// Either an offset page (page, size, sort) or a keyset seek after afterId (ascending ids)
+// or after afterCreatedAt/afterId (newest first)
+public record PageQuery(Pageable pageable, Long afterId, LocalDateTime afterCreatedAt, boolean withCount) {
+    private static final Sort BY_ID = Sort.by("id");
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+    
+    private enum Cursor { NONE, ID, CREATED_AT }
+    
+    // A count scans the whole table, so cursor pages only run it when asked; offset pages keep it by default
+    public static PageQuery of(Pageable pageable, Long afterId, LocalDateTime afterCreatedAt, Boolean count) {
+        boolean keyset = afterId != null || afterCreatedAt != null;
+        return new PageQuery(pageable, afterId, afterCreatedAt, count != null ? count : !keyset);
+    }
+    
+    public <T> PageResult<T> fetch(
+            KeysetRepository<T> repository, Function<T, Long> idOf, Function<T, LocalDateTime> createdAtOf) {
+        int size = pageable.getPageSize();
+        
+        // Keyset seeks count separately; the offset path gets its count from the Page
+        if (afterCreatedAt != null) {
+            Long beforeId = afterId != null ? afterId : Long.MAX_VALUE;
+            List<T> rows = repository.findCreatedBefore(afterCreatedAt, beforeId, Limit.of(size + 1));
+            return trim(rows, size, withCount ? repository.count() : null, Cursor.CREATED_AT, idOf, createdAtOf);
+        }
+        if (afterId != null) {
+            List<T> rows = repository.findAfterId(afterId, Limit.of(size + 1));
+            return trim(rows, size, withCount ? repository.count() : null, Cursor.ID, idOf, createdAtOf);
+        }
+        
+        // Always order by id last, in the direction of the last sort key, so offset pages are stable
+        Sort sort = pageable.getSort();
+        if (sort.getOrderFor("id") == null) {
+            Sort.Direction direction = sort.stream().reduce((first, second) -> second)
+                    .map(Sort.Order::getDirection)
+                    .orElse(Sort.Direction.ASC);
+            sort = sort.and(Sort.by(direction, "id"));
+        }
+        Pageable ordered = PageRequest.of(pageable.getPageNumber(), size, sort);
+        Cursor cursor = sort.equals(BY_ID) ? Cursor.ID : sort.equals(NEWEST_FIRST) ? Cursor.CREATED_AT : Cursor.NONE;
+        
+        if (withCount) {
+            Page<T> page = repository.findAll(ordered);
+            return toResult(page.getContent(), page.hasNext(), page.getTotalElements(), cursor, idOf, createdAtOf);
+        }
+        Slice<T> slice = repository.findAllBy(ordered);
+        return toResult(slice.getContent(), slice.hasNext(), null, cursor, idOf, createdAtOf);
+    }
+    
+    private static <T> PageResult<T> trim(List<T> rows, int size, Long totalCount, Cursor cursor,
+            Function<T, Long> idOf, Function<T, LocalDateTime> createdAtOf) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? new ArrayList<>(rows.subList(0, size)) : rows;
+        return toResult(content, hasNext, totalCount, cursor, idOf, createdAtOf);
+    }
+    
+    private static <T> PageResult<T> toResult(List<T> content, boolean hasNext, Long totalCount, Cursor cursor,
+            Function<T, Long> idOf, Function<T, LocalDateTime> createdAtOf) {
+        if (content.isEmpty() || cursor == Cursor.NONE) {
+            return new PageResult<>(content, totalCount, hasNext, null, null);
+        }
+        T last = content.get(content.size() - 1);
+        return new PageResult<>(content, totalCount, hasNext, idOf.apply(last),
+                cursor == Cursor.CREATED_AT ? createdAtOf.apply(last) : null);
+    }
+}
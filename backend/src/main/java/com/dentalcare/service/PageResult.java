@@ -0,0 +1,12 @@
+package com.dentalcare.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record PageResult<T>(
+        List<T> content,
+        Long totalCount,
+        boolean hasNext,
+        Long nextAfterId,
+        LocalDateTime nextAfterCreatedAt) {
+}
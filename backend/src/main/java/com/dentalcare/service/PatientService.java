@@ -2,43 +2,125 @@ package com.dentalcare.service;
 
 import com.dentalcare.model.Patient;
 import com.dentalcare.repository.PatientRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class PatientService {
     private final PatientRepository patientRepository;
+    private final ReportRollupService reportRollupService;
     
-    public PatientService(PatientRepository patientRepository) {
+    public PatientService(PatientRepository patientRepository, ReportRollupService reportRollupService) {
         this.patientRepository = patientRepository;
+        this.reportRollupService = reportRollupService;
     }
     
     public List<Patient> getAllPatients() {
         return patientRepository.findAll();
     }
     
+    public PageResult<Patient> getPatients(PageQuery query) {
+        return query.fetch(patientRepository, Patient::getId, Patient::getCreatedAt);
+    }
+    
+    // An email when q contains '@', the trailing digits of a phone number when q is only digits
+    // and phone punctuation, otherwise a name prefix ("jo", "john sm", "smith, jo")
+    public PageResult<Patient> searchPatients(String q, Pageable pageable) {
+        String query = q == null ? "" : q.trim();
+        if (query.isEmpty()) {
+            return new PageResult<>(List.of(), 0L, false, null, null);
+        }
+        
+        Sort sort = pageable.getSort().isSorted()
+                ? pageable.getSort().and(Sort.by("id"))
+                : Sort.by("lastNameKey", "firstNameKey", "id");
+        Pageable ordered = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+        
+        Slice<Patient> page;
+        if (query.contains("@")) {
+            page = patientRepository.findByEmail(query, ordered);
+        } else if (query.matches("[0-9()+\\-.\\s]+") && Patient.phoneKey(query).length() >= 3) {
+            page = patientRepository.findByPhoneKeyStartingWith(Patient.phoneKey(query), ordered);
+        } else if (query.contains(",")) {
+            String[] parts = query.split(",", 2);
+            page = patientRepository.findByFirstNameKeyStartingWithAndLastNameKeyStartingWith(
+                    Patient.nameKey(parts[1]), Patient.nameKey(parts[0]), ordered);
+        } else {
+            String[] parts = query.split("\\s+", 2);
+            String first = Patient.nameKey(parts[0]);
+            if (parts.length == 1) {
+                return searchEitherName(first, pageable);
+            }
+            page = patientRepository.findByFirstNameKeyStartingWithAndLastNameKeyStartingWith(
+                    first, Patient.nameKey(parts[1]), ordered);
+        }
+        return new PageResult<>(page.getContent(), null, page.hasNext(), null, null);
+    }
+    
+    // An OR across the two name columns cannot be read from either index in order. Surname matches
+    // come first, in surname order by default, then the first-name-only matches, in first-name order
+    // by default; each is an index range scan cut off after the rows the page needs
+    private PageResult<Patient> searchEitherName(String prefix, Pageable pageable) {
+        int size = pageable.getPageSize();
+        int needed = (int) pageable.getOffset() + size + 1;
+        Sort byLastName = pageable.getSort().isSorted()
+                ? pageable.getSort().and(Sort.by("id"))
+                : Sort.by("lastNameKey", "firstNameKey", "id");
+        Sort byFirstName = pageable.getSort().isSorted() ? byLastName : Sort.by("firstNameKey", "lastNameKey", "id");
+        
+        List<Patient> matches = new ArrayList<>(
+                patientRepository.findByLastNameKeyStartingWith(prefix, byLastName, Limit.of(needed)));
+        if (matches.size() < needed) {
+            // Every surname match is in hand, so no more first-name rows than that can be repeats
+            patientRepository.findByFirstNameKeyStartingWith(prefix, byFirstName, Limit.of(needed + matches.size()))
+                    .stream()
+                    .filter(patient -> patient.getLastNameKey() == null || !patient.getLastNameKey().startsWith(prefix))
+                    .limit(needed - matches.size())
+                    .forEach(matches::add);
+        }
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + size, matches.size());
+        return new PageResult<>(new ArrayList<>(matches.subList(from, to)), null, matches.size() > to, null, null);
+    }
+    
     public Optional<Patient> getPatientById(Long id) {
         return patientRepository.findById(id);
     }
     
     public Patient createPatient(Patient patient) {
-        return patientRepository.save(patient);
+        Patient saved = patientRepository.save(patient);
+        markDirty(saved);
+        return saved;
     }
     
     public Optional<Patient> updatePatient(Long id, Patient patient) {
-        if (patientRepository.existsById(id)) {
+        return patientRepository.findById(id).map(existing -> {
+            markDirty(existing);
             patient.setId(id);
-            return Optional.of(patientRepository.save(patient));
-        }
-        return Optional.empty();
+            Patient saved = patientRepository.save(patient);
+            markDirty(saved);
+            return saved;
+        });
     }
     
     public boolean deletePatient(Long id) {
-        if (patientRepository.existsById(id)) {
-            patientRepository.deleteById(id);
+        return patientRepository.findById(id).map(existing -> {
+            patientRepository.delete(existing);
+            markDirty(existing);
             return true;
+        }).orElse(false);
+    }
+    
+    private void markDirty(Patient patient) {
+        if (patient.getCreatedAt() != null) {
+            reportRollupService.markDirty(patient.getCreatedAt().toLocalDate());
         }
-        return false;
     }
 }
\ No newline at end of file
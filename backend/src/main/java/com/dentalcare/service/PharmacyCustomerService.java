@@ -1,24 +1,74 @@
-
 package com.dentalcare.service;
 
 import com.dentalcare.model.PharmacyCustomer;
 import com.dentalcare.repository.PharmacyCustomerRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class PharmacyCustomerService {
     private final PharmacyCustomerRepository pharmacyCustomerRepository;
+    private final String defaultCountryCode;
+    // Most recently used customers by normalized phone; the POS looks the same customer up
+    // for the counter screen and again when the sale is submitted
+    private final Map<String, PharmacyCustomer> recentCustomers;
     
-    public PharmacyCustomerService(PharmacyCustomerRepository pharmacyCustomerRepository) {
+    public PharmacyCustomerService(
+            PharmacyCustomerRepository pharmacyCustomerRepository,
+            @Value("${pharmacy.customers.default-country-code:91}") String defaultCountryCode,
+            @Value("${pharmacy.customers.cache-size:1000}") int cacheSize) {
         this.pharmacyCustomerRepository = pharmacyCustomerRepository;
+        this.defaultCountryCode = defaultCountryCode;
+        this.recentCustomers = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PharmacyCustomer> eldest) {
+                return size() > cacheSize;
+            }
+        };
     }
     
     public Optional<PharmacyCustomer> getByPhone(String phone) {
-        return pharmacyCustomerRepository.findByPhone(phone);
+        String normalized = normalizePhone(phone);
+        if (normalized == null) {
+            return Optional.empty();
+        }
+        synchronized (recentCustomers) {
+            PharmacyCustomer cached = recentCustomers.get(normalized);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+        }
+        Optional<PharmacyCustomer> customer = pharmacyCustomerRepository.findByNormalizedPhone(normalized);
+        customer.ifPresent(found -> {
+            synchronized (recentCustomers) {
+                recentCustomers.put(normalized, found);
+            }
+        });
+        return customer;
     }
     
     public PharmacyCustomer createCustomer(PharmacyCustomer customer) {
-        return pharmacyCustomerRepository.save(customer);
+        String normalized = normalizePhone(customer.getPhone());
+        if (normalized == null) {
+            throw new RuntimeException("Invalid phone number");
+        }
+        if (pharmacyCustomerRepository.findByNormalizedPhone(normalized).isPresent()) {
+            throw new RuntimeException("Customer with this phone number already exists");
+        }
+        customer.setNormalizedPhone(normalized);
+        PharmacyCustomer saved = pharmacyCustomerRepository.save(customer);
+        AfterCommit.run(() -> {
+            synchronized (recentCustomers) {
+                recentCustomers.remove(normalized);
+            }
+        });
+        return saved;
+    }
+    
+    public String normalizePhone(String phone) {
+        return PhoneNumbers.normalize(phone, defaultCountryCode);
     }
 }
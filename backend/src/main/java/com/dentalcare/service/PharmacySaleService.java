@@ -1,57 +1,86 @@
 package com.dentalcare.service;
 
+import com.dentalcare.model.PharmacyCustomer;
 import com.dentalcare.model.PharmacySale;
 import com.dentalcare.model.Medicine;
 import com.dentalcare.repository.PharmacySaleRepository;
 import com.dentalcare.repository.MedicineRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Service
 public class PharmacySaleService {
     private final PharmacySaleRepository pharmacySaleRepository;
     private final MedicineRepository medicineRepository;
     private final PharmacyCustomerService pharmacyCustomerService;
+    private final ReportRollupService reportRollupService;
+    private final ChangeFeedService changeFeedService;
     
     public PharmacySaleService(
         PharmacySaleRepository pharmacySaleRepository, 
         MedicineRepository medicineRepository,
-        PharmacyCustomerService pharmacyCustomerService
+        PharmacyCustomerService pharmacyCustomerService,
+        ReportRollupService reportRollupService,
+        ChangeFeedService changeFeedService
     ) {
         this.pharmacySaleRepository = pharmacySaleRepository;
         this.medicineRepository = medicineRepository;
         this.pharmacyCustomerService = pharmacyCustomerService;
+        this.reportRollupService = reportRollupService;
+        this.changeFeedService = changeFeedService;
     }
     
     public List<PharmacySale> getAllSales() {
         return pharmacySaleRepository.findAll();
     }
     
+    public PageResult<PharmacySale> getSales(PageQuery query) {
+        return query.fetch(pharmacySaleRepository, PharmacySale::getId, PharmacySale::getCreatedAt);
+    }
+    
+    public SseEmitter streamChanges(LocalDate from, LocalDate to, String lastEventId) {
+        return changeFeedService.subscribe(ChangeFeedService.PHARMACY_SALE, from, to, lastEventId);
+    }
+    
     public Optional<PharmacySale> getSaleById(Long id) {
         return pharmacySaleRepository.findById(id);
     }
     
     @Transactional
     public PharmacySale createSale(PharmacySale sale) {
-        // Verify customer exists
-        pharmacyCustomerService.getByPhone(sale.getCustomerPhone())
+        // Verify customer exists; the counter's lookup of the same phone has usually cached it
+        PharmacyCustomer customer = pharmacyCustomerService.getByPhone(sale.getCustomerPhone())
             .orElseThrow(() -> new RuntimeException("Customer not found"));
+        sale.setCustomerId(customer.getId());
+        sale.setCustomerPhone(customer.getPhone());
+        
+        // Decrement stock for every line in one JDBC batch of conditional updates
+        Map<Long, Integer> quantities = new TreeMap<>();
+        sale.getItems().forEach(item -> quantities.merge(item.getMedicineId(), item.getQuantity(), Integer::sum));
         
-        // Update medicine stock
-        sale.getItems().forEach(item -> {
-            Medicine medicine = medicineRepository.findById(item.getMedicineId())
-                .orElseThrow(() -> new RuntimeException("Medicine not found"));
-            
-            if (medicine.getStock() < item.getQuantity()) {
-                throw new RuntimeException("Insufficient stock for " + medicine.getName());
+        List<Long> failed = medicineRepository.decrementStocks(quantities, LocalDateTime.now());
+        if (!failed.isEmpty()) {
+            List<Medicine> found = medicineRepository.findAllById(failed);
+            if (found.size() < failed.size()) {
+                throw new RuntimeException("Medicine not found");
             }
-            
-            medicine.setStock(medicine.getStock() - item.getQuantity());
-            medicineRepository.save(medicine);
-        });
+            throw new RuntimeException("Insufficient stock for " + found.stream()
+                .map(Medicine::getName)
+                .collect(Collectors.joining(", ")));
+        }
         
-        return pharmacySaleRepository.save(sale);
+        PharmacySale saved = pharmacySaleRepository.save(sale);
+        reportRollupService.markDirty(saved.getCreatedAt().toLocalDate());
+        changeFeedService.publish(ChangeFeedService.PHARMACY_SALE, "created", saved.getId(),
+            saved.getCreatedAt().toLocalDate(), null, saved);
+        return saved;
     }
 }
\ No newline at end of file
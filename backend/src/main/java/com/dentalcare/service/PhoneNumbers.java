@@ -0,0 +1,33 @@
+package com.dentalcare.service;
+
+public final class PhoneNumbers {
+    private PhoneNumbers() {
+    }
+    
+    // E.164-style canonical form: '+', country code, subscriber number, digits only.
+    // Numbers without an international prefix get the default country code,
+    // dropping a single trunk '0' ("098765 43210" -> "+919876543210").
+    public static String normalize(String phone, String defaultCountryCode) {
+        if (phone == null) {
+            return null;
+        }
+        String trimmed = phone.trim();
+        String digits = trimmed.replaceAll("[^0-9]", "");
+        if (digits.isEmpty()) {
+            return null;
+        }
+        if (trimmed.startsWith("+")) {
+            return "+" + digits;
+        }
+        if (digits.startsWith("00")) {
+            return "+" + digits.substring(2);
+        }
+        if (digits.length() == 11 && digits.startsWith("0")) {
+            return "+" + defaultCountryCode + digits.substring(1);
+        }
+        if (digits.length() <= 10) {
+            return "+" + defaultCountryCode + digits;
+        }
+        return "+" + digits;
+    }
+}
@@ -18,6 +18,10 @@ public class PrescriptionService {
         return prescriptionRepository.findAll();
     }
     
+    public PageResult<Prescription> getPrescriptions(PageQuery query) {
+        return query.fetch(prescriptionRepository, Prescription::getId, Prescription::getCreatedAt);
+    }
+    
     public List<Prescription> getPrescriptionsByPatientId(Long patientId) {
         return prescriptionRepository.findByPatientId(patientId);
     }
@@ -0,0 +1,108 @@
+package com.dentalcare.service;
+
+import com.dentalcare.config.RoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Runs report queries on their own bounded thread pool against the report connection pool.
+// Requests queue up to a limit and wait up to a timeout; past either the caller gets a
+// ReportsBusyException (503) instead of a request thread or a checkout connection.
+@Service
+public class ReportBulkhead {
+    private final ThreadPoolExecutor executor;
+    // Absent under the inmemory profile, which has no connection pools
+    private final HikariDataSource reportDataSource;
+    private final long timeoutMs;
+    private final int retryAfterSeconds;
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    
+    public ReportBulkhead(
+            @Qualifier("reportDataSource") ObjectProvider<HikariDataSource> reportDataSource,
+            @Value("${reports.bulkhead.threads:4}") int threads,
+            @Value("${reports.bulkhead.queue-size:16}") int queueSize,
+            @Value("${reports.bulkhead.timeout-ms:30000}") long timeoutMs,
+            @Value("${reports.bulkhead.retry-after-seconds:5}") int retryAfterSeconds) {
+        this.reportDataSource = reportDataSource.getIfAvailable();
+        this.timeoutMs = timeoutMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "reports-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+    
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        return submit(work, timeoutMs);
+    }
+    
+    public <T> CompletableFuture<T> submit(Supplier<T> work, long timeoutMs) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                // The caller already got its 503 while this sat in the queue
+                if (result.isDone()) {
+                    return;
+                }
+                try {
+                    result.complete(RoutingDataSource.onReports(work));
+                    completed.incrementAndGet();
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new ReportsBusyException("Report capacity is exhausted, try again shortly", retryAfterSeconds);
+        }
+        CompletableFuture.delayedExecutor(timeoutMs, TimeUnit.MILLISECONDS).execute(() -> {
+            if (result.completeExceptionally(new ReportsBusyException(
+                    "Report did not finish within " + timeoutMs + " ms", retryAfterSeconds))) {
+                timedOut.incrementAndGet();
+            }
+        });
+        return result;
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("queueCapacity", executor.getQueue().size() + executor.getQueue().remainingCapacity());
+        stats.put("completed", completed.get());
+        stats.put("rejected", rejected.get());
+        stats.put("timedOut", timedOut.get());
+        if (reportDataSource != null) {
+            HikariPoolMXBean pool = reportDataSource.getHikariPoolMXBean();
+            stats.put("connectionsMax", reportDataSource.getMaximumPoolSize());
+            stats.put("connectionsActive", pool != null ? pool.getActiveConnections() : 0);
+            stats.put("connectionsWaiting", pool != null ? pool.getThreadsAwaitingConnection() : 0);
+        }
+        return stats;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
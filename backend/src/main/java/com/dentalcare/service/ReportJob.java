@@ -0,0 +1,114 @@
+package com.dentalcare.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+// One background report computation. Fields written on completion are volatile so pollers on
+// request threads see them without locking.
+public class ReportJob {
+    public enum Status { PENDING, COMPLETED, FAILED }
+    
+    public record Key(String type, ReportPeriod period, LocalDate startDate, LocalDate endDate) {
+        boolean covers(LocalDate date) {
+            return !date.isBefore(startDate) && !date.isAfter(endDate);
+        }
+    }
+    
+    private final String id;
+    private final Key key;
+    private final Instant createdAt = Instant.now();
+    private volatile Status status = Status.PENDING;
+    private volatile Map<String, Object> result;
+    private volatile RuntimeException error;
+    private volatile Instant completedAt;
+    private volatile long expiresAtMillis = Long.MAX_VALUE;
+    private volatile boolean stale;
+    
+    ReportJob(String id, Key key) {
+        this.id = id;
+        this.key = key;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public Key getKey() {
+        return key;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public Map<String, Object> getResult() {
+        return result;
+    }
+    
+    public RuntimeException getError() {
+        return error;
+    }
+    
+    Instant getCompletedAt() {
+        return completedAt;
+    }
+    
+    boolean isDone() {
+        return status != Status.PENDING;
+    }
+    
+    boolean isExpired(long nowMillis) {
+        return isDone() && nowMillis >= expiresAtMillis;
+    }
+    
+    // A running job is shared as well, which is what coalesces concurrent duplicate requests
+    boolean isReusable(long nowMillis) {
+        return status != Status.FAILED && !stale && !isExpired(nowMillis);
+    }
+    
+    void markStale() {
+        stale = true;
+    }
+    
+    boolean isStale() {
+        return stale;
+    }
+    
+    void complete(Map<String, Object> result, long expiresAtMillis) {
+        this.result = result;
+        finish(Status.COMPLETED, expiresAtMillis);
+    }
+    
+    void fail(RuntimeException error, long expiresAtMillis) {
+        this.error = error;
+        finish(Status.FAILED, expiresAtMillis);
+    }
+    
+    void expireBy(long expiresAtMillis) {
+        this.expiresAtMillis = Math.min(this.expiresAtMillis, expiresAtMillis);
+    }
+    
+    private void finish(Status status, long expiresAtMillis) {
+        this.completedAt = Instant.now();
+        this.expiresAtMillis = expiresAtMillis;
+        this.status = status;
+    }
+    
+    public Map<String, Object> toStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("id", id);
+        status.put("type", key.type());
+        status.put("period", key.period().name().toLowerCase());
+        status.put("startDate", key.startDate());
+        status.put("endDate", key.endDate());
+        status.put("status", this.status.name().toLowerCase());
+        status.put("createdAt", createdAt);
+        status.put("completedAt", completedAt);
+        if (error != null) {
+            status.put("error", error.getMessage());
+        }
+        return status;
+    }
+}
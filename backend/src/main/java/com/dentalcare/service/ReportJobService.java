@@ -0,0 +1,161 @@
+package com.dentalcare.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Background report jobs keyed by what they compute. Requests for a key that is already running
+// or finished share that job, so a burst of refreshes costs one computation. Ranges that ended
+// before today keep their result until a write lands inside the range; ranges that reach today
+// are only reused for a short TTL.
+@Service
+public class ReportJobService {
+    private static final Set<String> TYPES = Set.of("patients", "appointments", "financial", "pharmacy");
+    
+    private final ReportService reportService;
+    private final ReportBulkhead reportBulkhead;
+    private final long openRangeTtlMs;
+    private final long timeoutMs;
+    private final int maxEntries;
+    private final Map<String, ReportJob> jobsById = new ConcurrentHashMap<>();
+    private final Map<ReportJob.Key, ReportJob> jobsByKey = new ConcurrentHashMap<>();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong computed = new AtomicLong();
+    private final AtomicLong invalidated = new AtomicLong();
+    
+    public ReportJobService(
+            ReportService reportService,
+            ReportBulkhead reportBulkhead,
+            ReportRollupService reportRollupService,
+            @Value("${reports.jobs.open-range-ttl-ms:60000}") long openRangeTtlMs,
+            @Value("${reports.jobs.timeout-ms:600000}") long timeoutMs,
+            @Value("${reports.jobs.max-entries:1000}") int maxEntries) {
+        this.reportService = reportService;
+        this.reportBulkhead = reportBulkhead;
+        this.openRangeTtlMs = openRangeTtlMs;
+        this.timeoutMs = timeoutMs;
+        this.maxEntries = maxEntries;
+        reportRollupService.addDirtyListener(this::invalidate);
+    }
+    
+    public ReportJob submit(String type, String period, LocalDate startDate, LocalDate endDate) {
+        if (!TYPES.contains(type)) {
+            throw new IllegalArgumentException("Unknown report type: " + type);
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("endDate is before startDate");
+        }
+        ReportJob.Key key = new ReportJob.Key(type, ReportPeriod.parse(period), startDate, endDate);
+        ReportJob created = new ReportJob(UUID.randomUUID().toString(), key);
+        long now = System.currentTimeMillis();
+        ReportJob job = jobsByKey.compute(key,
+                (k, existing) -> existing != null && existing.isReusable(now) ? existing : created);
+        if (job != created) {
+            reused.incrementAndGet();
+            return job;
+        }
+        
+        jobsById.put(created.getId(), created);
+        try {
+            reportBulkhead.submit(report(key), timeoutMs).whenComplete((result, error) -> finish(created, result, error));
+        } catch (ReportsBusyException e) {
+            jobsByKey.remove(key, created);
+            jobsById.remove(created.getId());
+            throw e;
+        }
+        computed.incrementAndGet();
+        evictOverflow();
+        return created;
+    }
+    
+    public Optional<ReportJob> getJob(String id) {
+        return Optional.ofNullable(jobsById.get(id));
+    }
+    
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "jobs", jobsById.size(),
+                "reusable", jobsByKey.size(),
+                "maxEntries", maxEntries,
+                "reused", reused.get(),
+                "computed", computed.get(),
+                "invalidated", invalidated.get());
+    }
+    
+    @Scheduled(fixedDelayString = "${reports.jobs.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        jobsById.values().removeIf(job -> {
+            if (!job.isExpired(now)) {
+                return false;
+            }
+            jobsByKey.remove(job.getKey(), job);
+            return true;
+        });
+    }
+    
+    private Supplier<Map<String, Object>> report(ReportJob.Key key) {
+        String period = key.period().name();
+        return switch (key.type()) {
+            case "patients" -> () -> reportService.getPatientStatistics(period, key.startDate(), key.endDate());
+            case "appointments" -> () -> reportService.getAppointmentStatistics(period, key.startDate(), key.endDate());
+            case "financial" -> () -> reportService.getFinancialStatistics(period, key.startDate(), key.endDate());
+            default -> () -> reportService.getPharmacyStatistics(period, key.startDate(), key.endDate());
+        };
+    }
+    
+    private void finish(ReportJob job, Map<String, Object> result, Throwable error) {
+        long now = System.currentTimeMillis();
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            job.fail(cause instanceof RuntimeException runtime ? runtime : new RuntimeException(cause), now + openRangeTtlMs);
+            jobsByKey.remove(job.getKey(), job);
+            return;
+        }
+        boolean closed = job.getKey().endDate().isBefore(LocalDate.now());
+        job.complete(result, closed ? Long.MAX_VALUE : now + openRangeTtlMs);
+        // A write inside the range landed while this was computing
+        if (job.isStale()) {
+            job.expireBy(now + openRangeTtlMs);
+        }
+    }
+    
+    // Jobs over the changed day are no longer handed to new requests; pollers that already
+    // hold the id can still fetch what was computed for a little while
+    private void invalidate(LocalDate date) {
+        long expiresAt = System.currentTimeMillis() + openRangeTtlMs;
+        for (ReportJob job : jobsByKey.values()) {
+            if (job.getKey().covers(date) && jobsByKey.remove(job.getKey(), job)) {
+                job.markStale();
+                job.expireBy(expiresAt);
+                invalidated.incrementAndGet();
+            }
+        }
+    }
+    
+    private void evictOverflow() {
+        int excess = jobsById.size() - maxEntries;
+        if (excess <= 0) {
+            return;
+        }
+        jobsById.values().stream()
+                .filter(ReportJob::isDone)
+                .sorted(Comparator.comparing(ReportJob::getCompletedAt))
+                .limit(excess)
+                .toList()
+                .forEach(job -> {
+                    jobsById.remove(job.getId());
+                    jobsByKey.remove(job.getKey(), job);
+                });
+    }
+}
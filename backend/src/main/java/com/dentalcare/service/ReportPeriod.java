@@ -0,0 +1,93 @@
+package com.dentalcare.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+
+public enum ReportPeriod {
+    DAY {
+        @Override
+        public LocalDate bucketStart(LocalDate date) {
+            return date;
+        }
+        
+        @Override
+        public LocalDate nextBucket(LocalDate bucketStart) {
+            return bucketStart.plusDays(1);
+        }
+        
+        @Override
+        public String label(LocalDate bucketStart) {
+            return bucketStart.toString();
+        }
+    },
+    WEEK {
+        @Override
+        public LocalDate bucketStart(LocalDate date) {
+            return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+        
+        @Override
+        public LocalDate nextBucket(LocalDate bucketStart) {
+            return bucketStart.plusWeeks(1);
+        }
+        
+        @Override
+        public String label(LocalDate bucketStart) {
+            return bucketStart.toString();
+        }
+    },
+    MONTH {
+        @Override
+        public LocalDate bucketStart(LocalDate date) {
+            return date.withDayOfMonth(1);
+        }
+        
+        @Override
+        public LocalDate nextBucket(LocalDate bucketStart) {
+            return bucketStart.plusMonths(1);
+        }
+        
+        @Override
+        public String label(LocalDate bucketStart) {
+            return YearMonth.from(bucketStart).toString();
+        }
+    },
+    QUARTER {
+        @Override
+        public LocalDate bucketStart(LocalDate date) {
+            return date.withDayOfMonth(1).withMonth((date.get(IsoFields.QUARTER_OF_YEAR) - 1) * 3 + 1);
+        }
+        
+        @Override
+        public LocalDate nextBucket(LocalDate bucketStart) {
+            return bucketStart.plusMonths(3);
+        }
+        
+        @Override
+        public String label(LocalDate bucketStart) {
+            return bucketStart.getYear() + "-Q" + bucketStart.get(IsoFields.QUARTER_OF_YEAR);
+        }
+    };
+    
+    public abstract LocalDate bucketStart(LocalDate date);
+    
+    public abstract LocalDate nextBucket(LocalDate bucketStart);
+    
+    public abstract String label(LocalDate bucketStart);
+    
+    // Accepts both bucket names ("week") and the report filter names ("weekly"); anything else buckets by month
+    public static ReportPeriod parse(String period) {
+        if (period == null) {
+            return MONTH;
+        }
+        return switch (period.trim().toLowerCase()) {
+            case "day", "daily" -> DAY;
+            case "week", "weekly" -> WEEK;
+            case "quarter", "quarterly" -> QUARTER;
+            default -> MONTH;
+        };
+    }
+}
@@ -0,0 +1,215 @@
+package com.dentalcare.service;
+
+import com.dentalcare.config.RoutingDataSource;
+import com.dentalcare.model.*;
+import com.dentalcare.repository.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// Days whose rollup is behind are marked in daily_summary_marks, so the marks survive a failed refresh,
+// a restart and writes made on another instance. A refresh clears only the marks it read before
+// recomputing, in the same transaction as the rows it writes.
+@Service
+public class ReportRollupService {
+    private final DailySummaryRepository dailySummaryRepository;
+    private final DailySummaryMarkRepository markRepository;
+    private final DailyAppointmentTypeSummaryRepository typeSummaryRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final PharmacySaleRepository pharmacySaleRepository;
+    private final PatientRepository patientRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate markTemplate;
+    private final int maxRefreshDays;
+    
+    private final List<Consumer<LocalDate>> dirtyListeners = new CopyOnWriteArrayList<>();
+    // A ReentrantLock rather than synchronized, which would pin a virtual thread's carrier during JDBC
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    
+    public ReportRollupService(
+            DailySummaryRepository dailySummaryRepository,
+            DailySummaryMarkRepository markRepository,
+            DailyAppointmentTypeSummaryRepository typeSummaryRepository,
+            AppointmentRepository appointmentRepository,
+            PharmacySaleRepository pharmacySaleRepository,
+            PatientRepository patientRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${reports.rollup.max-refresh-days:31}") int maxRefreshDays) {
+        this.dailySummaryRepository = dailySummaryRepository;
+        this.markRepository = markRepository;
+        this.typeSummaryRepository = typeSummaryRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.pharmacySaleRepository = pharmacySaleRepository;
+        this.patientRepository = patientRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Marks are written from after-commit callbacks, where only a new transaction can still write
+        this.markTemplate = new TransactionTemplate(transactionManager);
+        markTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxRefreshDays = maxRefreshDays;
+    }
+    
+    public void markDirty(LocalDate date) {
+        if (date == null) {
+            return;
+        }
+        // Deferred until commit: a refresh that read the pre-write rows has then already read the
+        // old change count, so it leaves this mark in place
+        AfterCommit.run(() -> {
+            RoutingDataSource.onPrimary(() -> markTemplate.execute(status -> {
+                markRepository.mark(date);
+                return null;
+            }));
+            dirtyListeners.forEach(listener -> listener.accept(date));
+        });
+    }
+    
+    // Notified after commit with each day whose report figures a write has changed
+    public void addDirtyListener(Consumer<LocalDate> listener) {
+        dirtyListeners.add(listener);
+    }
+    
+    @Scheduled(fixedDelayString = "${reports.rollup.refresh-interval-ms:60000}")
+    public void refreshDirtyDays() {
+        List<LocalDate> days = new ArrayList<>();
+        RoutingDataSource.onPrimary(() -> markRepository.findAll()).forEach(mark -> days.add(mark.getDate()));
+        refreshDays(days);
+    }
+    
+    public List<DailySummary> getDailySummaries(LocalDate startDate, LocalDate endDate) {
+        ensureCurrent(startDate, endDate);
+        return dailySummaryRepository.findByDateBetweenOrderByDate(startDate, endDate);
+    }
+    
+    public List<AppointmentTypeStats> getAppointmentTypeTotals(LocalDate startDate, LocalDate endDate) {
+        ensureCurrent(startDate, endDate);
+        return typeSummaryRepository.sumByTypeBetween(startDate, endDate);
+    }
+    
+    private void ensureCurrent(LocalDate startDate, LocalDate endDate) {
+        Set<LocalDate> stale = new TreeSet<>();
+        markRepository.findByDateBetween(startDate, endDate).forEach(mark -> stale.add(mark.getDate()));
+        
+        // A missing future day has nothing to report until a write marks it, so only past days are built
+        LocalDate lastPast = endDate.isAfter(LocalDate.now()) ? LocalDate.now() : endDate;
+        if (!startDate.isAfter(lastPast)) {
+            Set<LocalDate> present = new HashSet<>(dailySummaryRepository.findDatesBetween(startDate, lastPast));
+            for (LocalDate day = startDate; !day.isAfter(lastPast); day = day.plusDays(1)) {
+                if (!present.contains(day)) {
+                    stale.add(day);
+                }
+            }
+        }
+        
+        refreshDays(stale);
+    }
+    
+    private void refreshDays(Collection<LocalDate> days) {
+        if (days.isEmpty()) {
+            return;
+        }
+        
+        // Recompute contiguous runs with one range query each instead of one query per day, cut into
+        // chunks so a first report over years of history does not hold one transaction for all of it
+        List<LocalDate> sorted = new ArrayList<>(new TreeSet<>(days));
+        LocalDate runStart = sorted.get(0);
+        LocalDate previous = runStart;
+        for (LocalDate day : sorted.subList(1, sorted.size())) {
+            if (!day.equals(previous.plusDays(1)) || !day.isBefore(runStart.plusDays(maxRefreshDays))) {
+                refreshRange(runStart, previous);
+                runStart = day;
+            }
+            previous = day;
+        }
+        refreshRange(runStart, previous);
+    }
+    
+    private void refreshRange(LocalDate startDate, LocalDate endDate) {
+        // Rollup rows are written, so this goes to the primary pool even from a report thread;
+        // the lock keeps that to one primary connection at a time
+        refreshLock.lock();
+        try {
+            RoutingDataSource.onPrimary(() -> transactionTemplate.execute(status -> {
+                // Read before the source rows, so a write that commits from here on keeps its mark
+                List<DailySummaryMark> marks = markRepository.findByDateBetween(startDate, endDate);
+                LocalDateTime now = LocalDateTime.now();
+                Map<LocalDate, DailySummary> summaries = new TreeMap<>();
+                for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+                    DailySummary summary = new DailySummary();
+                    summary.setDate(day);
+                    summary.setRefreshedAt(now);
+                    summaries.put(day, summary);
+                }
+                
+                Map<LocalDate, Map<String, DailyAppointmentTypeSummary>> types = new HashMap<>();
+                for (AppointmentDailyStats row : appointmentRepository.getDailyAppointmentStats(startDate, endDate)) {
+                    DailySummary summary = summaries.get(row.date());
+                    summary.setAppointments(summary.getAppointments() + row.count());
+                    summary.setAppointmentRevenue(summary.getAppointmentRevenue() + row.revenue());
+                    // Rows written outside the app can lack a status; they count toward the totals only
+                    switch (String.valueOf(row.status())) {
+                        case "completed" -> summary.setCompletedAppointments(summary.getCompletedAppointments() + row.count());
+                        case "cancelled" -> summary.setCancelledAppointments(summary.getCancelledAppointments() + row.count());
+                        case "no-show" -> summary.setNoShowAppointments(summary.getNoShowAppointments() + row.count());
+                        default -> { }
+                    }
+                    
+                    DailyAppointmentTypeSummary typeSummary = types
+                            .computeIfAbsent(row.date(), d -> new HashMap<>())
+                            .computeIfAbsent(row.type(), type -> {
+                                DailyAppointmentTypeSummary created = new DailyAppointmentTypeSummary();
+                                created.setDate(row.date());
+                                created.setType(type);
+                                return created;
+                            });
+                    typeSummary.setCount(typeSummary.getCount() + row.count());
+                    typeSummary.setRevenue(typeSummary.getRevenue() + row.revenue());
+                }
+                
+                LocalDateTime rangeStart = startDate.atStartOfDay();
+                LocalDateTime rangeEnd = endDate.atTime(23, 59, 59);
+                for (DailyTotal row : pharmacySaleRepository.sumTotalsByDay(rangeStart, rangeEnd)) {
+                    DailySummary summary = summaries.get(row.date());
+                    summary.setPharmacySales(row.count());
+                    summary.setPharmacyRevenue(row.amount());
+                }
+                
+                for (DateCount row : patientRepository.countCreatedByDay(rangeStart, rangeEnd)) {
+                    summaries.get(row.date()).setNewPatients(row.count());
+                }
+                
+                // Future days are kept only while something is booked on them
+                List<DailySummary> kept = new ArrayList<>();
+                List<LocalDate> emptyFuture = new ArrayList<>();
+                for (DailySummary summary : summaries.values()) {
+                    if (summary.getDate().isAfter(now.toLocalDate()) && isEmpty(summary)) {
+                        emptyFuture.add(summary.getDate());
+                    } else {
+                        kept.add(summary);
+                    }
+                }
+                dailySummaryRepository.saveAll(kept);
+                dailySummaryRepository.deleteAllById(emptyFuture);
+                typeSummaryRepository.deleteByDateBetween(startDate, endDate);
+                typeSummaryRepository.flush();
+                types.values().forEach(byType -> typeSummaryRepository.saveAll(byType.values()));
+                marks.forEach(mark -> markRepository.clear(mark.getDate(), mark.getChanges()));
+                return null;
+            }));
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+    
+    private static boolean isEmpty(DailySummary summary) {
+        return summary.getAppointments() == 0 && summary.getPharmacySales() == 0 && summary.getNewPatients() == 0;
+    }
+}
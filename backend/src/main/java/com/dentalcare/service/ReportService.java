@@ -15,46 +15,56 @@ public class ReportService {
     private final AppointmentRepository appointmentRepository;
     private final PharmacySaleRepository pharmacySaleRepository;
     private final MedicineRepository medicineRepository;
+    private final ReportRollupService reportRollupService;
     
     public ReportService(
             PatientRepository patientRepository,
             AppointmentRepository appointmentRepository,
             PharmacySaleRepository pharmacySaleRepository,
-            MedicineRepository medicineRepository) {
+            MedicineRepository medicineRepository,
+            ReportRollupService reportRollupService) {
         this.patientRepository = patientRepository;
         this.appointmentRepository = appointmentRepository;
         this.pharmacySaleRepository = pharmacySaleRepository;
         this.medicineRepository = medicineRepository;
+        this.reportRollupService = reportRollupService;
     }
     
     public Map<String, Object> getPatientStatistics(String period, LocalDate startDate, LocalDate endDate) {
         Map<String, Object> stats = new HashMap<>();
+        LocalDateTime rangeStart = startDate.atStartOfDay();
+        LocalDateTime rangeEnd = endDate.atTime(23, 59, 59);
         
-        // Get all patients within the date range
-        List<Patient> patients = patientRepository.findByCreatedAtBetween(startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
+        ReportPeriod bucket = ReportPeriod.parse(period);
+        List<DailySummary> summaries = reportRollupService.getDailySummaries(startDate, endDate);
+        DailySummary totals = sum(summaries);
         
         // Calculate basic stats
         stats.put("totalPatients", patientRepository.count());
-        stats.put("newPatients", patients.size());
+        stats.put("newPatients", totals.getNewPatients());
         
         // Calculate returning patients (patients with more than one appointment)
         long returningPatients = appointmentRepository.countPatientsWithMultipleAppointments(startDate, endDate);
         stats.put("returningPatients", returningPatients);
         
-        // Calculate average age
-        double averageAge = patients.stream()
-                .mapToLong(p -> ChronoUnit.YEARS.between(p.getDateOfBirth(), LocalDate.now()))
-                .average()
-                .orElse(0);
-        stats.put("averageAge", averageAge);
+        // Calculate average age from the birth date histogram of new patients
+        LocalDate today = LocalDate.now();
+        long ageTotal = 0;
+        long patientCount = 0;
+        for (DateCount row : patientRepository.countByDateOfBirthCreatedBetween(rangeStart, rangeEnd)) {
+            ageTotal += ChronoUnit.YEARS.between(row.date(), today) * row.count();
+            patientCount += row.count();
+        }
+        stats.put("averageAge", patientCount == 0 ? 0.0 : (double) ageTotal / patientCount);
         
         // Calculate gender distribution
-        Map<String, Long> genderDistribution = patients.stream()
-                .collect(Collectors.groupingBy(Patient::getGender, Collectors.counting()));
+        Map<String, Long> genderDistribution = patientRepository.countByGenderCreatedBetween(rangeStart, rangeEnd)
+                .stream()
+                .collect(Collectors.toMap(LabelCount::label, LabelCount::count));
         stats.put("genderDistribution", genderDistribution);
         
         // Calculate monthly trends
-        List<Map<String, Object>> monthlyTrends = calculateMonthlyTrends(startDate, endDate);
+        List<Map<String, Object>> monthlyTrends = calculatePatientTrends(summaries, bucket, startDate, endDate);
         stats.put("monthlyTrends", monthlyTrends);
         
         return stats;
@@ -63,27 +73,24 @@ public class ReportService {
     public Map<String, Object> getAppointmentStatistics(String period, LocalDate startDate, LocalDate endDate) {
         Map<String, Object> stats = new HashMap<>();
         
-        // Get all appointments within the date range
-        List<Appointment> appointments = appointmentRepository.findByDateBetween(startDate, endDate);
+        ReportPeriod bucket = ReportPeriod.parse(period);
+        List<DailySummary> summaries = reportRollupService.getDailySummaries(startDate, endDate);
+        DailySummary totals = sum(summaries);
         
         // Calculate basic stats
-        stats.put("totalAppointments", appointments.size());
-        
-        // Calculate status distribution
-        Map<String, Long> statusCounts = appointments.stream()
-                .collect(Collectors.groupingBy(Appointment::getStatus, Collectors.counting()));
-        
-        stats.put("completedAppointments", statusCounts.getOrDefault("completed", 0L));
-        stats.put("cancelledAppointments", statusCounts.getOrDefault("cancelled", 0L));
-        stats.put("noShowAppointments", statusCounts.getOrDefault("no-show", 0L));
+        stats.put("totalAppointments", totals.getAppointments());
+        stats.put("completedAppointments", totals.getCompletedAppointments());
+        stats.put("cancelledAppointments", totals.getCancelledAppointments());
+        stats.put("noShowAppointments", totals.getNoShowAppointments());
         
         // Calculate type distribution
-        Map<String, Long> typeDistribution = appointments.stream()
-                .collect(Collectors.groupingBy(Appointment::getType, Collectors.counting()));
+        Map<String, Long> typeDistribution = reportRollupService.getAppointmentTypeTotals(startDate, endDate)
+                .stream()
+                .collect(Collectors.toMap(AppointmentTypeStats::type, AppointmentTypeStats::count));
         stats.put("typeDistribution", typeDistribution);
         
         // Calculate monthly trends
-        List<Map<String, Object>> monthlyTrends = calculateAppointmentTrends(startDate, endDate);
+        List<Map<String, Object>> monthlyTrends = calculateAppointmentTrends(summaries, bucket, startDate, endDate);
         stats.put("monthlyTrends", monthlyTrends);
         
         return stats;
@@ -92,36 +99,30 @@ public class ReportService {
     public Map<String, Object> getFinancialStatistics(String period, LocalDate startDate, LocalDate endDate) {
         Map<String, Object> stats = new HashMap<>();
         
-        // Get all appointments and pharmacy sales within the date range
-        List<Appointment> appointments = appointmentRepository.findByDateBetween(startDate, endDate);
-        List<PharmacySale> pharmacySales = pharmacySaleRepository.findByCreatedAtBetween(
-                startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
+        ReportPeriod bucket = ReportPeriod.parse(period);
+        List<DailySummary> summaries = reportRollupService.getDailySummaries(startDate, endDate);
+        DailySummary totals = sum(summaries);
         
         // Calculate revenue
-        double appointmentRevenue = appointments.stream()
-                .mapToDouble(a -> a.getAmount() != null ? a.getAmount() : 0.0)
-                .sum();
-        
-        double pharmacyRevenue = pharmacySales.stream()
-                .mapToDouble(PharmacySale::getTotal)
-                .sum();
+        double appointmentRevenue = totals.getAppointmentRevenue();
+        double pharmacyRevenue = totals.getPharmacyRevenue();
         
         stats.put("totalRevenue", appointmentRevenue + pharmacyRevenue);
         stats.put("appointmentRevenue", appointmentRevenue);
         stats.put("pharmacyRevenue", pharmacyRevenue);
         
         // Calculate average values
-        stats.put("averageAppointmentValue", appointments.isEmpty() ? 0 :
-                appointmentRevenue / appointments.size());
-        stats.put("averagePharmacySale", pharmacySales.isEmpty() ? 0 :
-                pharmacyRevenue / pharmacySales.size());
+        stats.put("averageAppointmentValue", totals.getAppointments() == 0 ? 0 :
+                appointmentRevenue / totals.getAppointments());
+        stats.put("averagePharmacySale", totals.getPharmacySales() == 0 ? 0 :
+                pharmacyRevenue / totals.getPharmacySales());
         
         // Calculate monthly trends
-        List<Map<String, Object>> monthlyTrends = calculateFinancialTrends(startDate, endDate);
+        List<Map<String, Object>> monthlyTrends = calculateFinancialTrends(summaries, bucket, startDate, endDate);
         stats.put("monthlyTrends", monthlyTrends);
         
         // Calculate top procedures
-        List<Map<String, Object>> topProcedures = calculateTopProcedures(appointments);
+        List<Map<String, Object>> topProcedures = calculateTopProcedures(startDate, endDate);
         stats.put("topProcedures", topProcedures);
         
         return stats;
@@ -130,27 +131,27 @@ public class ReportService {
     public Map<String, Object> getPharmacyStatistics(String period, LocalDate startDate, LocalDate endDate) {
         Map<String, Object> stats = new HashMap<>();
         
-        // Get all pharmacy sales within the date range
-        List<PharmacySale> sales = pharmacySaleRepository.findByCreatedAtBetween(
-                startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
+        ReportPeriod bucket = ReportPeriod.parse(period);
+        List<DailySummary> summaries = reportRollupService.getDailySummaries(startDate, endDate);
+        DailySummary totals = sum(summaries);
         
         // Calculate basic stats
-        stats.put("totalSales", sales.size());
-        double totalRevenue = sales.stream().mapToDouble(PharmacySale::getTotal).sum();
+        stats.put("totalSales", totals.getPharmacySales());
+        double totalRevenue = totals.getPharmacyRevenue();
         stats.put("totalRevenue", totalRevenue);
-        stats.put("averageSaleValue", sales.isEmpty() ? 0 : totalRevenue / sales.size());
+        stats.put("averageSaleValue", totals.getPharmacySales() == 0 ? 0 : totalRevenue / totals.getPharmacySales());
         
         // Calculate top selling medicines
-        List<Object[]> topMedicines = pharmacySaleRepository.getTopSellingMedicines(
+        List<MedicineSalesStats> topMedicines = pharmacySaleRepository.getTopSellingMedicines(
                 startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
         
         List<Map<String, Object>> topSellingMedicines = topMedicines.stream()
                 .map(row -> {
                     Map<String, Object> medicine = new HashMap<>();
-                    medicine.put("medicineId", row[0]);
-                    medicine.put("medicineName", row[1]);
-                    medicine.put("quantity", row[2]);
-                    medicine.put("revenue", row[3]);
+                    medicine.put("medicineId", row.medicineId());
+                    medicine.put("medicineName", row.medicineName());
+                    medicine.put("quantity", row.quantity());
+                    medicine.put("revenue", row.revenue());
                     return medicine;
                 })
                 .collect(Collectors.toList());
@@ -159,36 +160,23 @@ public class ReportService {
         
         // Calculate monthly trends
         List<Map<String, Object>> monthlyTrends = new ArrayList<>();
-        YearMonth start = YearMonth.from(startDate);
-        YearMonth end = YearMonth.from(endDate);
-        
-        while (!start.isAfter(end)) {
-            LocalDateTime monthStart = start.atDay(1).atStartOfDay();
-            LocalDateTime monthEnd = start.atEndOfMonth().atTime(23, 59, 59);
-            
-            List<PharmacySale> monthlySales = sales.stream()
-                    .filter(sale -> !sale.getCreatedAt().isBefore(monthStart) && !sale.getCreatedAt().isAfter(monthEnd))
-                    .collect(Collectors.toList());
-            
-            Map<String, Object> monthData = new HashMap<>();
-            monthData.put("date", start.toString());
-            monthData.put("sales", monthlySales.size());
-            monthData.put("revenue", monthlySales.stream().mapToDouble(PharmacySale::getTotal).sum());
-            monthlyTrends.add(monthData);
-            
-            start = start.plusMonths(1);
-        }
+        sumByPeriod(summaries, bucket, startDate, endDate).forEach((bucketStart, bucketTotals) -> {
+            Map<String, Object> bucketData = new HashMap<>();
+            bucketData.put("date", bucket.label(bucketStart));
+            bucketData.put("sales", bucketTotals.getPharmacySales());
+            bucketData.put("revenue", bucketTotals.getPharmacyRevenue());
+            monthlyTrends.add(bucketData);
+        });
         stats.put("monthlyTrends", monthlyTrends);
         
         // Get stock alerts
-        List<Medicine> medicines = medicineRepository.findAll();
-        List<Map<String, Object>> stockAlerts = medicines.stream()
-                .filter(m -> m.getStock() <= 20) // Alert threshold
+        List<StockLevel> lowStock = medicineRepository.findStockLevelsAtOrBelow(20); // Alert threshold
+        List<Map<String, Object>> stockAlerts = lowStock.stream()
                 .map(m -> {
                     Map<String, Object> alert = new HashMap<>();
-                    alert.put("medicineId", m.getId());
-                    alert.put("medicineName", m.getName());
-                    alert.put("currentStock", m.getStock());
+                    alert.put("medicineId", m.medicineId());
+                    alert.put("medicineName", m.medicineName());
+                    alert.put("currentStock", m.stock());
                     alert.put("reorderPoint", 20); // Reorder threshold
                     return alert;
                 })
@@ -199,116 +187,120 @@ public class ReportService {
         return stats;
     }
     
-    private List<Map<String, Object>> calculateMonthlyTrends(LocalDate startDate, LocalDate endDate) {
+    private List<Map<String, Object>> calculatePatientTrends(
+            List<DailySummary> summaries, ReportPeriod bucket, LocalDate startDate, LocalDate endDate) {
         List<Map<String, Object>> trends = new ArrayList<>();
-        YearMonth start = YearMonth.from(startDate);
-        YearMonth end = YearMonth.from(endDate);
+        Map<LocalDate, Long> returningByBucket = countReturningPatients(bucket, startDate, endDate);
         
-        while (!start.isAfter(end)) {
-            LocalDateTime monthStart = start.atDay(1).atStartOfDay();
-            LocalDateTime monthEnd = start.atEndOfMonth().atTime(23, 59, 59);
-            
-            List<Patient> newPatients = patientRepository.findByCreatedAtBetween(monthStart, monthEnd);
-            long returningPatients = appointmentRepository.countPatientsWithMultipleAppointments(
-                    start.atDay(1), start.atEndOfMonth());
-            
-            Map<String, Object> monthData = new HashMap<>();
-            monthData.put("date", start.toString());
-            monthData.put("newPatients", newPatients.size());
-            monthData.put("returningPatients", returningPatients);
-            trends.add(monthData);
-            
-            start = start.plusMonths(1);
-        }
+        sumByPeriod(summaries, bucket, startDate, endDate).forEach((bucketStart, bucketTotals) -> {
+            Map<String, Object> bucketData = new HashMap<>();
+            bucketData.put("date", bucket.label(bucketStart));
+            bucketData.put("newPatients", bucketTotals.getNewPatients());
+            bucketData.put("returningPatients", returningByBucket.getOrDefault(bucketStart, 0L));
+            trends.add(bucketData);
+        });
         
         return trends;
     }
     
-    private List<Map<String, Object>> calculateAppointmentTrends(LocalDate startDate, LocalDate endDate) {
+    private List<Map<String, Object>> calculateAppointmentTrends(
+            List<DailySummary> summaries, ReportPeriod bucket, LocalDate startDate, LocalDate endDate) {
         List<Map<String, Object>> trends = new ArrayList<>();
-        YearMonth start = YearMonth.from(startDate);
-        YearMonth end = YearMonth.from(endDate);
         
-        while (!start.isAfter(end)) {
-            LocalDate monthStart = start.atDay(1);
-            LocalDate monthEnd = start.atEndOfMonth();
-            
-            List<Appointment> monthlyAppointments = appointmentRepository.findByDateBetween(monthStart, monthEnd);
-            
-            Map<String, Object> monthData = new HashMap<>();
-            monthData.put("date", start.toString());
-            monthData.put("total", monthlyAppointments.size());
-            monthData.put("completed", monthlyAppointments.stream()
-                    .filter(a -> "completed".equals(a.getStatus()))
-                    .count());
-            monthData.put("cancelled", monthlyAppointments.stream()
-                    .filter(a -> "cancelled".equals(a.getStatus()))
-                    .count());
-            monthData.put("noShow", monthlyAppointments.stream()
-                    .filter(a -> "no-show".equals(a.getStatus()))
-                    .count());
-            
-            trends.add(monthData);
-            start = start.plusMonths(1);
-        }
+        sumByPeriod(summaries, bucket, startDate, endDate).forEach((bucketStart, bucketTotals) -> {
+            Map<String, Object> bucketData = new HashMap<>();
+            bucketData.put("date", bucket.label(bucketStart));
+            bucketData.put("total", bucketTotals.getAppointments());
+            bucketData.put("completed", bucketTotals.getCompletedAppointments());
+            bucketData.put("cancelled", bucketTotals.getCancelledAppointments());
+            bucketData.put("noShow", bucketTotals.getNoShowAppointments());
+            trends.add(bucketData);
+        });
         
         return trends;
     }
     
-    private List<Map<String, Object>> calculateFinancialTrends(LocalDate startDate, LocalDate endDate) {
+    private List<Map<String, Object>> calculateFinancialTrends(
+            List<DailySummary> summaries, ReportPeriod bucket, LocalDate startDate, LocalDate endDate) {
         List<Map<String, Object>> trends = new ArrayList<>();
-        YearMonth start = YearMonth.from(startDate);
-        YearMonth end = YearMonth.from(endDate);
-        
-        while (!start.isAfter(end)) {
-            LocalDate monthStart = start.atDay(1);
-            LocalDate monthEnd = start.atEndOfMonth();
-            LocalDateTime monthStartTime = monthStart.atStartOfDay();
-            LocalDateTime monthEndTime = monthEnd.atTime(23, 59, 59);
-            
-            List<Appointment> appointments = appointmentRepository.findByDateBetween(monthStart, monthEnd);
-            List<PharmacySale> sales = pharmacySaleRepository.findByCreatedAtBetween(monthStartTime, monthEndTime);
-            
-            double appointmentRevenue = appointments.stream()
-                    .mapToDouble(a -> a.getAmount() != null ? a.getAmount() : 0.0)
-                    .sum();
-            double pharmacyRevenue = sales.stream()
-                    .mapToDouble(PharmacySale::getTotal)
-                    .sum();
-            
-            Map<String, Object> monthData = new HashMap<>();
-            monthData.put("date", start.toString());
-            monthData.put("totalRevenue", appointmentRevenue + pharmacyRevenue);
-            monthData.put("appointmentRevenue", appointmentRevenue);
-            monthData.put("pharmacyRevenue", pharmacyRevenue);
+        
+        sumByPeriod(summaries, bucket, startDate, endDate).forEach((bucketStart, bucketTotals) -> {
+            double appointmentRevenue = bucketTotals.getAppointmentRevenue();
+            double pharmacyRevenue = bucketTotals.getPharmacyRevenue();
             
-            trends.add(monthData);
-            start = start.plusMonths(1);
-        }
+            Map<String, Object> bucketData = new HashMap<>();
+            bucketData.put("date", bucket.label(bucketStart));
+            bucketData.put("totalRevenue", appointmentRevenue + pharmacyRevenue);
+            bucketData.put("appointmentRevenue", appointmentRevenue);
+            bucketData.put("pharmacyRevenue", pharmacyRevenue);
+            trends.add(bucketData);
+        });
         
         return trends;
     }
     
-    private List<Map<String, Object>> calculateTopProcedures(List<Appointment> appointments) {
-        return appointments.stream()
-                .collect(Collectors.groupingBy(
-                        Appointment::getType,
-                        Collectors.collectingAndThen(
-                                Collectors.toList(),
-                                list -> {
-                                    Map<String, Object> stats = new HashMap<>();
-                                    stats.put("type", list.get(0).getType());
-                                    stats.put("count", list.size());
-                                    stats.put("revenue", list.stream()
-                                            .mapToDouble(a -> a.getAmount() != null ? a.getAmount() : 0.0)
-                                            .sum());
-                                    return stats;
-                                }
-                        )
-                ))
-                .values()
-                .stream()
-                .sorted((a, b) -> Double.compare((Double) b.get("revenue"), (Double) a.get("revenue")))
+    private List<Map<String, Object>> calculateTopProcedures(LocalDate startDate, LocalDate endDate) {
+        return reportRollupService.getAppointmentTypeTotals(startDate, endDate).stream()
+                .sorted(Comparator.comparing(AppointmentTypeStats::revenue).reversed())
+                .map(row -> {
+                    Map<String, Object> stats = new HashMap<>();
+                    stats.put("type", row.type());
+                    stats.put("count", row.count());
+                    stats.put("revenue", row.revenue());
+                    return stats;
+                })
                 .collect(Collectors.toList());
     }
+    
+    private Map<LocalDate, Long> countReturningPatients(ReportPeriod bucket, LocalDate startDate, LocalDate endDate) {
+        if (bucket == ReportPeriod.MONTH) {
+            Map<LocalDate, Long> returning = new HashMap<>();
+            for (MonthlyCount row : appointmentRepository.countPatientsWithMultipleAppointmentsByMonth(startDate, endDate)) {
+                returning.put(LocalDate.of(row.year(), row.month(), 1), row.count());
+            }
+            return returning;
+        }
+        
+        // Other bucket sizes fold per-patient visit counts from one grouped query
+        Map<LocalDate, Map<Long, Long>> visitsByBucket = new HashMap<>();
+        for (PatientVisitCount row : appointmentRepository.countAppointmentsByPatientAndDate(startDate, endDate)) {
+            visitsByBucket
+                    .computeIfAbsent(bucket.bucketStart(row.date()), b -> new HashMap<>())
+                    .merge(row.patientId(), row.count(), Long::sum);
+        }
+        
+        Map<LocalDate, Long> returning = new HashMap<>();
+        visitsByBucket.forEach((bucketStart, visits) -> returning.put(bucketStart,
+                visits.values().stream().filter(count -> count > 1).count()));
+        return returning;
+    }
+    
+    private Map<LocalDate, DailySummary> sumByPeriod(
+            List<DailySummary> summaries, ReportPeriod bucket, LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, List<DailySummary>> byBucket = new TreeMap<>();
+        for (LocalDate bucketStart = bucket.bucketStart(startDate); !bucketStart.isAfter(endDate);
+                bucketStart = bucket.nextBucket(bucketStart)) {
+            byBucket.put(bucketStart, new ArrayList<>());
+        }
+        summaries.forEach(summary -> byBucket.get(bucket.bucketStart(summary.getDate())).add(summary));
+        
+        Map<LocalDate, DailySummary> totals = new LinkedHashMap<>();
+        byBucket.forEach((bucketStart, days) -> totals.put(bucketStart, sum(days)));
+        return totals;
+    }
+    
+    private DailySummary sum(List<DailySummary> summaries) {
+        DailySummary total = new DailySummary();
+        for (DailySummary summary : summaries) {
+            total.setNewPatients(total.getNewPatients() + summary.getNewPatients());
+            total.setAppointments(total.getAppointments() + summary.getAppointments());
+            total.setCompletedAppointments(total.getCompletedAppointments() + summary.getCompletedAppointments());
+            total.setCancelledAppointments(total.getCancelledAppointments() + summary.getCancelledAppointments());
+            total.setNoShowAppointments(total.getNoShowAppointments() + summary.getNoShowAppointments());
+            total.setAppointmentRevenue(total.getAppointmentRevenue() + summary.getAppointmentRevenue());
+            total.setPharmacySales(total.getPharmacySales() + summary.getPharmacySales());
+            total.setPharmacyRevenue(total.getPharmacyRevenue() + summary.getPharmacyRevenue());
+        }
+        return total;
+    }
 }
@@ -0,0 +1,14 @@
+package com.dentalcare.service;
+
+public class ReportsBusyException extends RuntimeException {
+    private final int retryAfterSeconds;
+    
+    public ReportsBusyException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
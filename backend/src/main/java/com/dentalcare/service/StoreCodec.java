@@ -0,0 +1,356 @@
+package com.dentalcare.service;
+
+import jakarta.persistence.Entity;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Compact binary encoding of store entities for the write-ahead log and snapshots: a null bitmap,
+// then each non-null field in name order as zigzag varints, raw doubles, length-prefixed UTF-8 or
+// nested child entities. Files carry the field list they were written with, and decoding maps
+// fields by name, so adding or removing an entity field does not strand existing data.
+final class StoreCodec {
+    static final byte LONG = 1;
+    static final byte INT = 2;
+    static final byte DOUBLE = 3;
+    static final byte STRING = 4;
+    static final byte BOOLEAN = 5;
+    static final byte DATE = 6;
+    static final byte TIME = 7;
+    static final byte DATE_TIME = 8;
+    static final byte LIST = 9;
+    
+    private static final Map<Class<?>, StoreCodec> CODECS = new ConcurrentHashMap<>();
+    
+    private final Class<?> type;
+    private final Field[] fields;
+    private final byte[] types;
+    private final Class<?>[] elementTypes;
+    
+    static StoreCodec of(Class<?> type) {
+        StoreCodec codec = CODECS.get(type);
+        if (codec == null) {
+            codec = new StoreCodec(type);
+            CODECS.putIfAbsent(type, codec);
+        }
+        return codec;
+    }
+    
+    private StoreCodec(Class<?> type) {
+        this.type = type;
+        List<Field> all = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())) {
+                    field.setAccessible(true);
+                    all.add(field);
+                }
+            }
+        }
+        all.sort(Comparator.comparing(Field::getName));
+        this.fields = all.toArray(new Field[0]);
+        this.types = new byte[fields.length];
+        this.elementTypes = new Class<?>[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            types[i] = typeCode(fields[i]);
+            if (types[i] == LIST) {
+                elementTypes[i] = (Class<?>) ((ParameterizedType) fields[i].getGenericType()).getActualTypeArguments()[0];
+            }
+        }
+    }
+    
+    private static byte typeCode(Field field) {
+        Class<?> t = field.getType();
+        if (t == Long.class || t == long.class) return LONG;
+        if (t == Integer.class || t == int.class) return INT;
+        if (t == Double.class || t == double.class) return DOUBLE;
+        if (t == String.class) return STRING;
+        if (t == Boolean.class || t == boolean.class) return BOOLEAN;
+        if (t == LocalDate.class) return DATE;
+        if (t == LocalTime.class) return TIME;
+        if (t == LocalDateTime.class) return DATE_TIME;
+        if (t == List.class && field.getGenericType() instanceof ParameterizedType generic
+                && generic.getActualTypeArguments()[0] instanceof Class<?> element
+                && element.isAnnotationPresent(Entity.class)) {
+            return LIST;
+        }
+        throw new IllegalArgumentException("Cannot persist " + field.getDeclaringClass().getSimpleName() + "."
+                + field.getName() + " of type " + field.getGenericType());
+    }
+    
+    // Every class reachable from the tables, child entity types included
+    static Set<Class<?>> reachable(Collection<Class<?>> roots) {
+        Set<Class<?>> found = new LinkedHashSet<>();
+        Deque<Class<?>> pending = new ArrayDeque<>(roots);
+        while (!pending.isEmpty()) {
+            Class<?> next = pending.poll();
+            if (found.add(next)) {
+                for (Class<?> element : of(next).elementTypes) {
+                    if (element != null) {
+                        pending.add(element);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+    
+    void writeSchema(DataOutputStream out) throws IOException {
+        out.writeUTF(type.getName());
+        out.writeShort(fields.length);
+        for (int i = 0; i < fields.length; i++) {
+            out.writeUTF(fields[i].getName());
+            out.writeByte(types[i]);
+            out.writeUTF(elementTypes[i] != null ? elementTypes[i].getName() : "");
+        }
+    }
+    
+    // Field layout a file was written with, bound to the current classes
+    static Map<String, Layout> readSchemas(DataInputStream in) throws IOException {
+        int count = in.readShort();
+        Map<String, Layout> layouts = new HashMap<>();
+        for (int c = 0; c < count; c++) {
+            String className = in.readUTF();
+            int fieldCount = in.readShort();
+            String[] names = new String[fieldCount];
+            byte[] types = new byte[fieldCount];
+            String[] elements = new String[fieldCount];
+            for (int i = 0; i < fieldCount; i++) {
+                names[i] = in.readUTF();
+                types[i] = in.readByte();
+                elements[i] = in.readUTF();
+            }
+            layouts.put(className, new Layout(className, names, types, elements));
+        }
+        layouts.values().forEach(layout -> layout.bind(layouts));
+        return layouts;
+    }
+    
+    static void writeSchemas(Collection<Class<?>> classes, DataOutputStream out) throws IOException {
+        out.writeShort(classes.size());
+        for (Class<?> c : classes) {
+            of(c).writeSchema(out);
+        }
+    }
+    
+    void encode(Object entity, Output out) {
+        try {
+            int bitmapAt = out.reserve((fields.length + 7) / 8);
+            for (int i = 0; i < fields.length; i++) {
+                Object value = fields[i].get(entity);
+                if (value == null) {
+                    out.setBit(bitmapAt, i);
+                    continue;
+                }
+                switch (types[i]) {
+                    case LONG -> out.varLong((Long) value);
+                    case INT -> out.varLong((Integer) value);
+                    case DOUBLE -> out.doubleValue((Double) value);
+                    case STRING -> out.string((String) value);
+                    case BOOLEAN -> out.byteValue((Boolean) value ? 1 : 0);
+                    case DATE -> out.varLong(((LocalDate) value).toEpochDay());
+                    case TIME -> out.varLong(((LocalTime) value).toNanoOfDay());
+                    case DATE_TIME -> {
+                        out.varLong(((LocalDateTime) value).toLocalDate().toEpochDay());
+                        out.varLong(((LocalDateTime) value).toLocalTime().toNanoOfDay());
+                    }
+                    default -> {
+                        List<?> list = (List<?>) value;
+                        StoreCodec element = of(elementTypes[i]);
+                        out.varLong(list.size());
+                        for (Object item : list) {
+                            element.encode(item, out);
+                        }
+                    }
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    // A class's fields as one file recorded them, with each bound to the current field of that name
+    static final class Layout {
+        private final String className;
+        private final String[] names;
+        private final byte[] types;
+        private final String[] elementNames;
+        private final Layout[] elements;
+        private Constructor<?> constructor;
+        private Field[] targets;
+        
+        Layout(String className, String[] names, byte[] types, String[] elementNames) {
+            this.className = className;
+            this.names = names;
+            this.types = types;
+            this.elementNames = elementNames;
+            this.elements = new Layout[names.length];
+        }
+        
+        private void bind(Map<String, Layout> layouts) {
+            Class<?> type;
+            try {
+                type = Class.forName(className);
+                constructor = type.getDeclaredConstructor();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Stored entity class " + className + " no longer exists", e);
+            }
+            StoreCodec current = of(type);
+            targets = new Field[names.length];
+            for (int i = 0; i < names.length; i++) {
+                for (int f = 0; f < current.fields.length; f++) {
+                    // A field whose type changed is dropped rather than misread
+                    if (current.fields[f].getName().equals(names[i]) && current.types[f] == types[i]) {
+                        targets[i] = current.fields[f];
+                    }
+                }
+                if (!elementNames[i].isEmpty()) {
+                    elements[i] = layouts.get(elementNames[i]);
+                }
+            }
+        }
+        
+        Object decode(ByteBuffer in) {
+            try {
+                Object entity = constructor.newInstance();
+                int bitmapAt = in.position();
+                in.position(bitmapAt + (names.length + 7) / 8);
+                for (int i = 0; i < names.length; i++) {
+                    if ((in.get(bitmapAt + (i >>> 3)) & (1 << (i & 7))) != 0) {
+                        continue;
+                    }
+                    Object value = switch (types[i]) {
+                        case LONG -> readVarLong(in);
+                        case INT -> (int) readVarLong(in);
+                        case DOUBLE -> in.getDouble();
+                        case STRING -> readString(in);
+                        case BOOLEAN -> in.get() != 0;
+                        case DATE -> LocalDate.ofEpochDay(readVarLong(in));
+                        case TIME -> LocalTime.ofNanoOfDay(readVarLong(in));
+                        case DATE_TIME -> LocalDateTime.of(
+                                LocalDate.ofEpochDay(readVarLong(in)), LocalTime.ofNanoOfDay(readVarLong(in)));
+                        case LIST -> {
+                            int size = (int) readVarLong(in);
+                            List<Object> list = new ArrayList<>(size);
+                            for (int j = 0; j < size; j++) {
+                                list.add(elements[i].decode(in));
+                            }
+                            yield list;
+                        }
+                        default -> throw new IllegalStateException("Unknown field type " + types[i]);
+                    };
+                    if (targets[i] != null) {
+                        targets[i].set(entity, value);
+                    }
+                }
+                return entity;
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot decode " + className, e);
+            }
+        }
+    }
+    
+    static long readVarLong(ByteBuffer in) {
+        long raw = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            raw |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+    
+    private static String readString(ByteBuffer in) {
+        int length = (int) readVarLong(in);
+        String value;
+        if (in.hasArray()) {
+            value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(in.position(), bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        in.position(in.position() + length);
+        return value;
+    }
+    
+    // Growable byte buffer reused by one writer
+    static final class Output {
+        private byte[] bytes = new byte[256];
+        private int size;
+        
+        int size() {
+            return size;
+        }
+        
+        byte[] bytes() {
+            return bytes;
+        }
+        
+        void reset() {
+            size = 0;
+        }
+        
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+        
+        int reserve(int count) {
+            ensure(count);
+            Arrays.fill(bytes, size, size + count, (byte) 0);
+            int at = size;
+            size += count;
+            return at;
+        }
+        
+        void setBit(int at, int bit) {
+            bytes[at + (bit >>> 3)] |= (byte) (1 << (bit & 7));
+        }
+        
+        void byteValue(int value) {
+            ensure(1);
+            bytes[size++] = (byte) value;
+        }
+        
+        void varLong(long value) {
+            ensure(10);
+            long zigzag = (value << 1) ^ (value >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            bytes[size++] = (byte) zigzag;
+        }
+        
+        void doubleValue(double value) {
+            ensure(8);
+            long bits = Double.doubleToRawLongBits(value);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (bits >>> shift);
+            }
+        }
+        
+        void string(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            varLong(utf8.length);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, bytes, size, utf8.length);
+            size += utf8.length;
+        }
+    }
+}
@@ -0,0 +1,453 @@
+package com.dentalcare.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32C;
+
+// Durability for the inmemory profile. Every table mutation is journaled to a write-ahead log
+// (wal-<generation>.log) as one full-row put, delete or clear record; a snapshot switches writes to
+// a new generation, writes every table to snapshot-<generation>.dat and then drops the files it
+// supersedes. Recovery loads the newest snapshot and replays the logs of that generation onwards.
+// Replaying a row that the snapshot already holds is harmless, since each record carries the whole
+// row, so snapshots never have to pause writers.
+final class StorePersistence implements StoreTable.Journal, Closeable {
+    private static final Logger log = LoggerFactory.getLogger(StorePersistence.class);
+    private static final int LOG_MAGIC = 0x44434c31;
+    private static final int SNAPSHOT_MAGIC = 0x44435331;
+    private static final int FORMAT_VERSION = 1;
+    private static final int BLOCK_ROWS = 8192;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final byte CLEAR = 3;
+    private static final Pattern LOG_FILE = Pattern.compile("wal-(\\d+)\\.log");
+    private static final Pattern SNAPSHOT_FILE = Pattern.compile("snapshot-(\\d+)\\.dat");
+    
+    private final Path dir;
+    private final List<StoreTable<?>> tables;
+    private final Map<StoreTable<?>, Integer> tableIds = new IdentityHashMap<>();
+    private final Set<Class<?>> entityClasses;
+    private final boolean waitForSync;
+    private final long syncIntervalMs;
+    private final long snapshotAfterBytes;
+    private final ThreadLocal<StoreCodec.Output> buffers = ThreadLocal.withInitial(StoreCodec.Output::new);
+    // Appends hold the read side; switching to a new log file takes the write side
+    private final ReentrantReadWriteLock rotation = new ReentrantReadWriteLock();
+    private final AtomicBoolean snapshotPending = new AtomicBoolean();
+    private final ExecutorService snapshots = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "store-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile WriteAheadLog wal;
+    private long generation;
+    
+    StorePersistence(Path dir, List<StoreTable<?>> tables, boolean waitForSync, long syncIntervalMs, long snapshotAfterBytes) {
+        this.dir = dir;
+        this.tables = tables;
+        this.waitForSync = waitForSync;
+        this.syncIntervalMs = syncIntervalMs;
+        this.snapshotAfterBytes = snapshotAfterBytes;
+        for (int i = 0; i < tables.size(); i++) {
+            tableIds.put(tables.get(i), i);
+        }
+        this.entityClasses = StoreCodec.reachable(tables.stream().<Class<?>>map(StoreTable::type).toList());
+    }
+    
+    // Loads whatever the directory holds, then opens a fresh log for new writes.
+    // Returns false when there was nothing to recover.
+    boolean recover() {
+        try {
+            Files.createDirectories(dir);
+            long started = System.nanoTime();
+            TreeMap<Long, Path> logs = list(LOG_FILE);
+            TreeMap<Long, Path> snapshotFiles = list(SNAPSHOT_FILE);
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(dir, "*.tmp")) {
+                for (Path leftover : leftovers) {
+                    Files.delete(leftover);
+                }
+            }
+            long from = 0;
+            long rows = 0;
+            if (!snapshotFiles.isEmpty()) {
+                from = snapshotFiles.lastKey();
+                rows = loadSnapshot(snapshotFiles.lastEntry().getValue());
+            }
+            long records = 0;
+            for (Path file : logs.tailMap(from, true).values()) {
+                records += replay(file);
+            }
+            generation = Math.max(from, logs.isEmpty() ? 0 : logs.lastKey()) + 1;
+            wal = openLog(generation, 0);
+            boolean recovered = !snapshotFiles.isEmpty() || !logs.isEmpty();
+            if (recovered) {
+                log.info("Recovered {} snapshot rows and {} log records from {} in {} ms",
+                        rows, records, dir, (System.nanoTime() - started) / 1_000_000);
+            }
+            if (records > 0) {
+                // Folds the replayed logs into a snapshot so the next start does not replay them again
+                requestSnapshot();
+            }
+            return recovered;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot recover store from " + dir, e);
+        }
+    }
+    
+    @Override
+    public long put(StoreTable<?> table, long key, Object row) {
+        StoreCodec.Output out = record(PUT, table, key);
+        StoreCodec.of(table.type()).encode(row, out);
+        return append(out);
+    }
+    
+    @Override
+    public long delete(StoreTable<?> table, long key) {
+        return append(record(DELETE, table, key));
+    }
+    
+    @Override
+    public long clear(StoreTable<?> table) {
+        return append(record(CLEAR, table, 0));
+    }
+    
+    @Override
+    public void awaitDurable(long lsn) {
+        wal.awaitDurable(lsn);
+    }
+    
+    private StoreCodec.Output record(byte op, StoreTable<?> table, long key) {
+        StoreCodec.Output out = buffers.get();
+        out.reset();
+        out.byteValue(op);
+        out.byteValue(tableIds.get(table));
+        out.varLong(key);
+        return out;
+    }
+    
+    private long append(StoreCodec.Output out) {
+        long lsn;
+        boolean full;
+        rotation.readLock().lock();
+        try {
+            lsn = wal.append(out.bytes(), out.size());
+            full = wal.size() >= snapshotAfterBytes;
+        } finally {
+            rotation.readLock().unlock();
+        }
+        if (full) {
+            requestSnapshot();
+        }
+        return lsn;
+    }
+    
+    void requestSnapshot() {
+        if (snapshotPending.compareAndSet(false, true)) {
+            snapshots.execute(() -> {
+                try {
+                    snapshot();
+                } catch (RuntimeException e) {
+                    log.error("Store snapshot failed", e);
+                } finally {
+                    snapshotPending.set(false);
+                }
+            });
+        }
+    }
+    
+    // Switches writes to a new log, writes every table and drops the files the snapshot covers.
+    // Tables are read one at a time while writers carry on into the new log.
+    void snapshot() {
+        long started = System.nanoTime();
+        long snapshotGeneration;
+        WriteAheadLog previous;
+        rotation.writeLock().lock();
+        try {
+            previous = wal;
+            snapshotGeneration = generation + 1;
+            WriteAheadLog next = openLog(snapshotGeneration, previous.appended());
+            // The new log starts out durable up to the old one's end, so the old file is forced and
+            // closed before writers can see the new log and return on its durable mark
+            previous.close();
+            wal = next;
+            generation = snapshotGeneration;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot start a new store log", e);
+        } finally {
+            rotation.writeLock().unlock();
+        }
+        try {
+            Path target = dir.resolve("snapshot-" + snapshotGeneration + ".dat");
+            Path temp = dir.resolve(target.getFileName() + ".tmp");
+            long rows = writeSnapshot(temp, snapshotGeneration);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory();
+            for (Path old : list(SNAPSHOT_FILE).headMap(snapshotGeneration).values()) {
+                Files.deleteIfExists(old);
+            }
+            for (Path old : list(LOG_FILE).headMap(snapshotGeneration).values()) {
+                Files.deleteIfExists(old);
+            }
+            log.info("Wrote store snapshot {} with {} rows in {} ms",
+                    snapshotGeneration, rows, (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write store snapshot", e);
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        snapshots.shutdown();
+        try {
+            snapshots.awaitTermination(1, java.util.concurrent.TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rotation.writeLock().lock();
+        try {
+            if (wal != null) {
+                wal.close();
+            }
+        } finally {
+            rotation.writeLock().unlock();
+        }
+    }
+    
+    private WriteAheadLog openLog(long logGeneration, long lsnBase) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeHeader(out, LOG_MAGIC, logGeneration);
+        }
+        WriteAheadLog opened = new WriteAheadLog(dir.resolve("wal-" + logGeneration + ".log"),
+                bytes.toByteArray(), lsnBase, waitForSync, syncIntervalMs);
+        syncDirectory();
+        return opened;
+    }
+    
+    private void writeHeader(DataOutputStream out, int magic, long fileGeneration) throws IOException {
+        out.writeInt(magic);
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(fileGeneration);
+        StoreCodec.writeSchemas(entityClasses, out);
+        out.writeShort(tables.size());
+        for (StoreTable<?> table : tables) {
+            out.writeUTF(table.type().getName());
+        }
+    }
+    
+    // Table of each id in a file, or null where the file names a table this build no longer has
+    private StoreTable<?>[] readHeader(DataInputStream in, int magic, Path file, Map<String, StoreCodec.Layout> layoutsOut)
+            throws IOException {
+        if (in.readInt() != magic || in.readInt() != FORMAT_VERSION) {
+            throw new IllegalStateException(file + " is not a store file this version can read");
+        }
+        in.readLong();
+        layoutsOut.putAll(StoreCodec.readSchemas(in));
+        StoreTable<?>[] byId = new StoreTable<?>[in.readShort()];
+        for (int i = 0; i < byId.length; i++) {
+            String typeName = in.readUTF();
+            for (StoreTable<?> table : tables) {
+                if (table.type().getName().equals(typeName)) {
+                    byId[i] = table;
+                }
+            }
+        }
+        return byId;
+    }
+    
+    // Per table: [utf type][long next key] then blocks of [int rows][int length][int crc][bytes],
+    // ending with a zero row count; each row is a varint key and the encoded entity
+    private long writeSnapshot(Path file, long snapshotGeneration) throws IOException {
+        long total = 0;
+        try (FileOutputStream stream = new FileOutputStream(file.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 20))) {
+            writeHeader(out, SNAPSHOT_MAGIC, snapshotGeneration);
+            StoreCodec.Output block = new StoreCodec.Output();
+            CRC32C crc = new CRC32C();
+            for (StoreTable<?> table : tables) {
+                StoreTable.Rows rows = table.snapshotRows();
+                StoreCodec codec = StoreCodec.of(table.type());
+                out.writeUTF(table.type().getName());
+                out.writeLong(rows.nextKey());
+                for (int start = 0; start < rows.keys().length; start += BLOCK_ROWS) {
+                    int end = Math.min(start + BLOCK_ROWS, rows.keys().length);
+                    block.reset();
+                    for (int i = start; i < end; i++) {
+                        block.varLong(rows.keys()[i]);
+                        codec.encode(rows.values()[i], block);
+                    }
+                    crc.reset();
+                    crc.update(block.bytes(), 0, block.size());
+                    out.writeInt(end - start);
+                    out.writeInt(block.size());
+                    out.writeInt((int) crc.getValue());
+                    out.write(block.bytes(), 0, block.size());
+                }
+                out.writeInt(0);
+                total += rows.keys().length;
+            }
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.flush();
+            stream.getFD().sync();
+        }
+        return total;
+    }
+    
+    // Blocks are read in order and then decoded in parallel; each table is filled by one thread
+    private long loadSnapshot(Path file) throws IOException {
+        Map<String, StoreCodec.Layout> layouts = new HashMap<>();
+        List<Block> blocks = new ArrayList<>();
+        Map<StoreTable<?>, Long> nextKeys = new LinkedHashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 20))) {
+            StoreTable<?>[] byId = readHeader(in, SNAPSHOT_MAGIC, file, layouts);
+            CRC32C crc = new CRC32C();
+            for (StoreTable<?> table : byId) {
+                String typeName = in.readUTF();
+                long nextKey = in.readLong();
+                if (table != null) {
+                    nextKeys.put(table, nextKey);
+                }
+                int rowCount;
+                while ((rowCount = in.readInt()) > 0) {
+                    byte[] bytes = new byte[in.readInt()];
+                    int expected = in.readInt();
+                    in.readFully(bytes);
+                    crc.reset();
+                    crc.update(bytes);
+                    if ((int) crc.getValue() != expected) {
+                        throw new IllegalStateException("Store snapshot " + file + " is corrupt");
+                    }
+                    if (table != null) {
+                        blocks.add(new Block(table, layouts.get(typeName), rowCount, bytes));
+                    }
+                }
+            }
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IllegalStateException("Store snapshot " + file + " is incomplete");
+            }
+        }
+        blocks.parallelStream().forEach(Block::decode);
+        nextKeys.keySet().parallelStream().forEach(table -> {
+            List<Block> tableBlocks = blocks.stream().filter(block -> block.table == table).toList();
+            int count = tableBlocks.stream().mapToInt(block -> block.rowCount).sum();
+            long[] keys = new long[count];
+            Object[] rows = new Object[count];
+            int at = 0;
+            for (Block block : tableBlocks) {
+                System.arraycopy(block.keys, 0, keys, at, block.rowCount);
+                System.arraycopy(block.rows, 0, rows, at, block.rowCount);
+                at += block.rowCount;
+            }
+            table.restoreAll(keys, rows);
+            table.restoreNextKey(nextKeys.get(table));
+        });
+        return blocks.stream().mapToLong(block -> block.rowCount).sum();
+    }
+    
+    // Records are split per table in log order, decoded in parallel, then each table applies its own in order
+    private long replay(Path file) throws IOException {
+        Map<String, StoreCodec.Layout> layouts = new HashMap<>();
+        StoreTable<?>[][] byId = new StoreTable<?>[1][];
+        Map<StoreTable<?>, List<Entry>> entries = new LinkedHashMap<>();
+        long records = WriteAheadLog.read(file, header -> {
+            byte[] bytes = new byte[header.remaining()];
+            header.get(bytes);
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+                byId[0] = readHeader(in, LOG_MAGIC, file, layouts);
+            }
+        }, payload -> {
+            byte op = payload.get();
+            StoreTable<?> table = byId[0][payload.get()];
+            long key = StoreCodec.readVarLong(payload);
+            if (table != null) {
+                entries.computeIfAbsent(table, t -> new ArrayList<>()).add(new Entry(op, key, payload));
+            }
+        });
+        entries.entrySet().parallelStream().forEach(tableEntries -> {
+            StoreTable<?> table = tableEntries.getKey();
+            StoreCodec.Layout layout = layouts.get(table.type().getName());
+            List<Entry> list = tableEntries.getValue();
+            Object[] rows = new Object[list.size()];
+            IntStream.range(0, list.size()).parallel().forEach(i -> {
+                if (list.get(i).op == PUT) {
+                    rows[i] = layout.decode(list.get(i).payload);
+                }
+            });
+            for (int i = 0; i < rows.length; i++) {
+                Entry entry = list.get(i);
+                switch (entry.op) {
+                    case PUT, DELETE -> restore(table, entry.key, rows[i]);
+                    case CLEAR -> table.restoreClear();
+                    default -> throw new IllegalStateException("Unknown store log record " + entry.op + " in " + file);
+                }
+            }
+        });
+        return records;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> void restore(StoreTable<T> table, long key, Object row) {
+        table.restore(key, (T) row);
+    }
+    
+    private TreeMap<Long, Path> list(Pattern pattern) throws IOException {
+        TreeMap<Long, Path> found = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                Matcher matcher = pattern.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    found.put(Long.parseLong(matcher.group(1)), file);
+                }
+            }
+        }
+        return found;
+    }
+    
+    // Makes a created or renamed file's directory entry durable
+    private void syncDirectory() {
+        try (FileChannel directory = FileChannel.open(dir, StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            // Not every platform can open a directory for syncing
+        }
+    }
+    
+    private record Entry(byte op, long key, ByteBuffer payload) { }
+    
+    private static final class Block {
+        private final StoreTable<?> table;
+        private final StoreCodec.Layout layout;
+        private final int rowCount;
+        private final byte[] bytes;
+        private long[] keys;
+        private Object[] rows;
+        
+        Block(StoreTable<?> table, StoreCodec.Layout layout, int rowCount, byte[] bytes) {
+            this.table = table;
+            this.layout = layout;
+            this.rowCount = rowCount;
+            this.bytes = bytes;
+        }
+        
+        void decode() {
+            ByteBuffer in = ByteBuffer.wrap(bytes);
+            keys = new long[rowCount];
+            rows = new Object[rowCount];
+            for (int i = 0; i < rowCount; i++) {
+                keys[i] = StoreCodec.readVarLong(in);
+                rows[i] = layout.decode(in);
+            }
+        }
+    }
+}
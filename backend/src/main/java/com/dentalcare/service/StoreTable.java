@@ -0,0 +1,817 @@
+package com.dentalcare.service;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Version;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// One in-memory table: rows in a long-keyed map kept in key order, plus secondary indexes from a
+// column value to the sorted ids holding it, all behind one read-write lock. Rows are copied on
+// the way in and out, so a caller changing an entity it read leaves the table alone until it
+// saves, the same as a detached JPA entity. Entity @PrePersist/@PreUpdate callbacks and @Version
+// checks run on save. With a journal attached, writes return once their log record is durable;
+// writes made inside inWriteLock wait once, for the last of them, after the lock is released.
+public class StoreTable<T> {
+    private final Class<T> type;
+    private final Function<T, Long> keyOf;
+    private final ObjLongConsumer<T> assignKey;
+    private final AtomicLong sequence = new AtomicLong(1);
+    private final LongMap<T> rows = new LongMap<>();
+    private final Map<String, Index<T>> indexes = new HashMap<>();
+    private final List<Consumer<T>> beforeWrite = new ArrayList<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final EntityType<T> entityType;
+    private volatile Journal journal;
+    // Last log position written inside inWriteLock and not yet waited for; guarded by the write lock
+    private long deferredLsn;
+    
+    // assignKey is null for tables keyed by a natural key the caller always sets
+    public StoreTable(Class<T> type, Function<T, Long> keyOf, ObjLongConsumer<T> assignKey) {
+        this.type = type;
+        this.keyOf = keyOf;
+        this.assignKey = assignKey;
+        this.entityType = EntityType.of(type);
+    }
+    
+    // Hash index for equality lookups
+    public StoreTable<T> index(String name, Function<T, ?> column) {
+        indexes.put(name, new Index<>(column, new HashMap<>()));
+        return this;
+    }
+    
+    // Sorted index for equality, range and (on strings) prefix lookups
+    public <K extends Comparable<? super K>> StoreTable<T> sortedIndex(String name, Function<T, K> column) {
+        indexes.put(name, new Index<>(column, new TreeMap<>()));
+        return this;
+    }
+    
+    // Runs on the caller's entity before it is copied in, e.g. to number child rows
+    public StoreTable<T> beforeWrite(Consumer<T> hook) {
+        beforeWrite.add(hook);
+        return this;
+    }
+    
+    // Mutations are journaled under the write lock, in the order they are applied
+    void attach(Journal journal) {
+        this.journal = journal;
+    }
+    
+    public Class<T> type() {
+        return type;
+    }
+    
+    public long nextKey() {
+        return sequence.getAndIncrement();
+    }
+    
+    public int size() {
+        return read(rows::size);
+    }
+    
+    public boolean contains(long key) {
+        return read(() -> rows.get(key) != null);
+    }
+    
+    public Optional<T> get(long key) {
+        return read(() -> Optional.ofNullable(rows.get(key)).map(entityType::copy));
+    }
+    
+    public List<T> getAll(Iterable<Long> keys) {
+        return read(() -> {
+            List<T> found = new ArrayList<>();
+            for (Long key : keys) {
+                T row = key == null ? null : rows.get(key);
+                if (row != null) {
+                    found.add(entityType.copy(row));
+                }
+            }
+            return found;
+        });
+    }
+    
+    public List<T> all() {
+        return read(() -> {
+            List<T> all = new ArrayList<>(rows.size());
+            rows.forEach(row -> all.add(entityType.copy(row)));
+            return all;
+        });
+    }
+    
+    // Rows with from <= key <= to in key order
+    public List<T> keyRange(long from, long to) {
+        return read(() -> {
+            List<T> found = new ArrayList<>();
+            for (int i = rows.ceilingIndex(from); i < rows.size() && rows.keyAt(i) <= to; i++) {
+                found.add(entityType.copy(rows.valueAt(i)));
+            }
+            return found;
+        });
+    }
+    
+    // Rows with key > afterKey in key order
+    public List<T> after(long afterKey, int limit) {
+        return read(() -> {
+            List<T> found = new ArrayList<>(Math.min(limit, 1024));
+            for (int i = rows.ceilingIndex(afterKey + 1); i < rows.size() && found.size() < limit; i++) {
+                found.add(entityType.copy(rows.valueAt(i)));
+            }
+            return found;
+        });
+    }
+    
+    // Rows in sort order (key order when unsorted), copying only the requested slice. Key order, and a
+    // sort on a property with a sorted index of its name optionally followed by id the same way, are
+    // walked in place
+    public List<T> slice(Sort sort, long offset, int limit) {
+        return read(() -> {
+            List<T> found = new ArrayList<>(Math.min(limit, 1024));
+            List<Sort.Order> orders = sort.toList();
+            if (orders.isEmpty() || orders.size() == 1 && orders.get(0).getProperty().equals("id")) {
+                boolean descending = !orders.isEmpty() && orders.get(0).isDescending();
+                for (long i = offset; i < rows.size() && found.size() < limit; i++) {
+                    found.add(entityType.copy(rows.valueAt((int) (descending ? rows.size() - 1 - i : i))));
+                }
+                return found;
+            }
+            
+            Sort.Order first = orders.get(0);
+            Index<T> index = indexes.get(first.getProperty());
+            boolean thenId = orders.size() == 2 && orders.get(1).getProperty().equals("id")
+                    && orders.get(1).getDirection() == first.getDirection();
+            // Rows left out of the index for a null value would sort first, so those tables are sorted
+            if ((orders.size() == 1 || thenId) && index != null && index.entries instanceof NavigableMap<?, ?>
+                    && index.size == rows.size()) {
+                NavigableMap<Object, IdSet> entries = sorted(first.getProperty());
+                // A sort without id keeps equal values in key order, as the stable sort below does
+                boolean idsDescending = thenId && first.isDescending();
+                long skip = offset;
+                for (IdSet ids : (first.isDescending() ? entries.descendingMap() : entries).values()) {
+                    if (skip >= ids.size()) {
+                        skip -= ids.size();
+                        continue;
+                    }
+                    for (int i = (int) skip; i < ids.size() && found.size() < limit; i++) {
+                        found.add(entityType.copy(rows.get(ids.get(idsDescending ? ids.size() - 1 - i : i))));
+                    }
+                    skip = 0;
+                    if (found.size() >= limit) {
+                        break;
+                    }
+                }
+                return found;
+            }
+            
+            List<T> ordered = new ArrayList<>(rows.size());
+            rows.forEach(ordered::add);
+            ordered.sort(order(sort));
+            int from = (int) Math.min(offset, ordered.size());
+            int to = (int) Math.min((long) from + limit, ordered.size());
+            for (T row : ordered.subList(from, to)) {
+                found.add(entityType.copy(row));
+            }
+            return found;
+        });
+    }
+    
+    public List<T> select(String index, Object value) {
+        List<T> found = new ArrayList<>();
+        visit(index, value, row -> found.add(entityType.copy(row)));
+        return found;
+    }
+    
+    public <K extends Comparable<? super K>> List<T> selectRange(String index, K from, K to) {
+        List<T> found = new ArrayList<>();
+        visitRange(index, from, to, row -> found.add(entityType.copy(row)));
+        return found;
+    }
+    
+    public List<T> selectPrefix(String index, String prefix) {
+        List<T> found = new ArrayList<>();
+        visitRange(index, prefix, prefix + Character.MAX_VALUE, row -> found.add(entityType.copy(row)));
+        return found;
+    }
+    
+    public List<T> selectWhere(Predicate<T> filter) {
+        return read(() -> {
+            List<T> found = new ArrayList<>();
+            rows.forEach(row -> {
+                if (filter.test(row)) {
+                    found.add(entityType.copy(row));
+                }
+            });
+            return found;
+        });
+    }
+    
+    // Visitors see the stored rows without copying them and must not modify them
+    public void visit(String index, Object value, Consumer<T> visitor) {
+        read(() -> {
+            IdSet ids = index(index).entries.get(value);
+            if (ids != null) {
+                ids.forEach(id -> visitor.accept(rows.get(id)));
+            }
+            return null;
+        });
+    }
+    
+    // Inclusive range in index order, ids ascending within one value
+    public <K extends Comparable<? super K>> void visitRange(String index, K from, K to, Consumer<T> visitor) {
+        read(() -> {
+            if (from.compareTo(to) > 0) {
+                return null;
+            }
+            for (IdSet ids : sorted(index).subMap(from, true, to, true).values()) {
+                ids.forEach(id -> visitor.accept(rows.get(id)));
+            }
+            return null;
+        });
+    }
+    
+    public void visitAll(Consumer<T> visitor) {
+        read(() -> {
+            rows.forEach(visitor);
+            return null;
+        });
+    }
+    
+    // Newest-first keyset seek: rows whose index value is below value, or equal with key < beforeKey
+    public <K extends Comparable<? super K>> List<T> seekBefore(String index, K value, long beforeKey, int limit) {
+        return read(() -> {
+            List<T> found = new ArrayList<>(Math.min(limit, 1024));
+            for (Map.Entry<Object, IdSet> entry : sorted(index).headMap(value, true).descendingMap().entrySet()) {
+                IdSet ids = entry.getValue();
+                boolean same = entry.getKey().equals(value);
+                for (int i = ids.size() - 1; i >= 0 && found.size() < limit; i--) {
+                    long id = ids.get(i);
+                    if (!same || id < beforeKey) {
+                        found.add(entityType.copy(rows.get(id)));
+                    }
+                }
+                if (found.size() >= limit) {
+                    break;
+                }
+            }
+            return found;
+        });
+    }
+    
+    public T save(T entity) {
+        sync(write(() -> put(entity)));
+        return entity;
+    }
+    
+    // Bulk load: one write lock and one durability wait for the whole batch, so readers are held
+    // off for as long as the batch takes
+    public void saveAll(Collection<T> entities) {
+        sync(write(() -> {
+            long lsn = 0;
+            for (T entity : entities) {
+                lsn = put(entity);
+            }
+            return lsn;
+        }));
+    }
+    
+    public boolean delete(long key) {
+        long lsn = write(() -> {
+            T stored = rows.get(key);
+            if (stored == null) {
+                return -1L;
+            }
+            long logged = journal != null ? journal.delete(this, key) : 0;
+            rows.remove(key);
+            unindex(key, stored);
+            return logged;
+        });
+        sync(lsn);
+        return lsn >= 0;
+    }
+    
+    public void clear() {
+        sync(write(() -> {
+            long lsn = journal != null ? journal.clear(this) : 0;
+            rows.clear();
+            indexes.values().forEach(Index::clear);
+            return lsn;
+        }));
+    }
+    
+    // Recovery path: applies a logged row (null for a delete) as is, without callbacks,
+    // version checks or journaling
+    void restore(long key, T row) {
+        write(() -> {
+            T stored = row == null ? rows.remove(key) : rows.get(key);
+            if (stored != null) {
+                unindex(key, stored);
+            }
+            if (row != null) {
+                rows.put(key, row);
+                reindex(key, row);
+            }
+            sequence.accumulateAndGet(key + 1, Math::max);
+            return null;
+        });
+    }
+    
+    // Bulk load of a snapshot in key order: rows go in first, then each index is built by its own thread
+    @SuppressWarnings("unchecked")
+    void restoreAll(long[] keys, Object[] values) {
+        write(() -> {
+            if (rows.size() > 0) {
+                for (int i = 0; i < keys.length; i++) {
+                    restore(keys[i], (T) values[i]);
+                }
+                return null;
+            }
+            for (int i = 0; i < keys.length; i++) {
+                rows.put(keys[i], (T) values[i]);
+            }
+            indexes.values().parallelStream().forEach(index -> {
+                for (int i = 0; i < keys.length; i++) {
+                    Object value = index.column.apply((T) values[i]);
+                    if (value != null) {
+                        index.add(value, keys[i]);
+                    }
+                }
+            });
+            if (keys.length > 0) {
+                sequence.accumulateAndGet(keys[keys.length - 1] + 1, Math::max);
+            }
+            return null;
+        });
+    }
+    
+    void restoreClear() {
+        write(() -> {
+            rows.clear();
+            indexes.values().forEach(Index::clear);
+            return null;
+        });
+    }
+    
+    void restoreNextKey(long nextKey) {
+        sequence.accumulateAndGet(nextKey, Math::max);
+    }
+    
+    // The stored rows as of one instant, for a snapshot to encode outside the lock
+    Rows snapshotRows() {
+        return read(() -> {
+            long[] keys = new long[rows.size()];
+            Object[] values = new Object[rows.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = rows.keyAt(i);
+                values[i] = rows.valueAt(i);
+            }
+            return new Rows(keys, values, sequence.get());
+        });
+    }
+    
+    // Runs work holding the write lock so several reads and saves apply as one step. The saves do
+    // not wait for the log inside the lock; the outermost call waits once after releasing it.
+    public <R> R inWriteLock(Supplier<R> work) {
+        long lsn = 0;
+        lock.writeLock().lock();
+        try {
+            return work.get();
+        } finally {
+            if (lock.writeLock().getHoldCount() == 1) {
+                lsn = deferredLsn;
+                deferredLsn = 0;
+            }
+            lock.writeLock().unlock();
+            awaitDurable(lsn);
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    public Comparator<T> order(Sort sort) {
+        Comparator<T> comparator = null;
+        for (Sort.Order order : sort) {
+            Field field = entityType.field(order.getProperty());
+            Comparator<T> byField = Comparator.comparing(
+                    row -> (Comparable<Object>) entityType.read(field, row),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            if (order.isDescending()) {
+                byField = byField.reversed();
+            }
+            comparator = comparator == null ? byField : comparator.thenComparing(byField);
+        }
+        return comparator != null ? comparator : (a, b) -> 0;
+    }
+    
+    private void reindex(long key, T row) {
+        for (Index<T> index : indexes.values()) {
+            Object value = index.column.apply(row);
+            if (value != null) {
+                index.add(value, key);
+            }
+        }
+    }
+    
+    private void unindex(long key, T row) {
+        for (Index<T> index : indexes.values()) {
+            Object value = index.column.apply(row);
+            IdSet ids = value == null ? null : index.entries.get(value);
+            if (ids != null && ids.remove(key)) {
+                index.size--;
+                if (ids.size() == 0) {
+                    index.entries.remove(value);
+                }
+            }
+        }
+    }
+    
+    private long put(T entity) {
+        Long key = keyOf.apply(entity);
+        T stored = key == null ? null : rows.get(key);
+        if (stored == null) {
+            entityType.prePersist(entity);
+            if (keyOf.apply(entity) == null) {
+                if (assignKey == null) {
+                    throw new IllegalArgumentException(type.getSimpleName() + " needs its key set before saving");
+                }
+                assignKey.accept(entity, sequence.getAndIncrement());
+            } else {
+                sequence.accumulateAndGet(keyOf.apply(entity) + 1, Math::max);
+            }
+            entityType.initVersion(entity);
+        } else {
+            entityType.checkAndBumpVersion(entity, stored, key);
+            entityType.preUpdate(entity);
+        }
+        beforeWrite.forEach(hook -> hook.accept(entity));
+        T copy = entityType.copy(entity);
+        long newKey = keyOf.apply(copy);
+        // Journaled before the table changes, so a failed append leaves the table as it was
+        long lsn = journal != null ? journal.put(this, newKey, copy) : 0;
+        if (stored != null) {
+            unindex(newKey, stored);
+        }
+        rows.put(newKey, copy);
+        reindex(newKey, copy);
+        return lsn;
+    }
+    
+    private Index<T> index(String name) {
+        Index<T> index = indexes.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("No index " + name + " on " + type.getSimpleName());
+        }
+        return index;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private NavigableMap<Object, IdSet> sorted(String name) {
+        if (!(index(name).entries instanceof NavigableMap<?, ?> sorted)) {
+            throw new IllegalArgumentException("Index " + name + " on " + type.getSimpleName() + " is not sorted");
+        }
+        return (NavigableMap<Object, IdSet>) sorted;
+    }
+    
+    private void sync(long lsn) {
+        if (lock.isWriteLockedByCurrentThread()) {
+            deferredLsn = Math.max(deferredLsn, lsn);
+        } else {
+            awaitDurable(lsn);
+        }
+    }
+    
+    private void awaitDurable(long lsn) {
+        Journal current = journal;
+        if (current != null && lsn > 0) {
+            current.awaitDurable(lsn);
+        }
+    }
+    
+    private <R> R read(Supplier<R> work) {
+        lock.readLock().lock();
+        try {
+            return work.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private <R> R write(Supplier<R> work) {
+        lock.writeLock().lock();
+        try {
+            return work.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private static final class Index<T> {
+        private final Function<T, ?> column;
+        private final Map<Object, IdSet> entries;
+        // Ids indexed; rows whose column is null are left out
+        private long size;
+        
+        Index(Function<T, ?> column, Map<Object, IdSet> entries) {
+            this.column = column;
+            this.entries = entries;
+        }
+        
+        void add(Object value, long key) {
+            entries.computeIfAbsent(value, v -> new IdSet()).add(key);
+            size++;
+        }
+        
+        void clear() {
+            entries.clear();
+            size = 0;
+        }
+    }
+    
+    record Rows(long[] keys, Object[] values, long nextKey) { }
+    
+    // Where mutations go to be made durable; each call returns a sequence number to wait on
+    interface Journal {
+        long put(StoreTable<?> table, long key, Object row);
+        
+        long delete(StoreTable<?> table, long key);
+        
+        long clear(StoreTable<?> table);
+        
+        void awaitDurable(long lsn);
+    }
+    
+    // Sorted, growable long[]; ids are mostly handed out in increasing order, so adds append
+    static final class IdSet {
+        private long[] ids = new long[2];
+        private int size;
+        
+        int size() {
+            return size;
+        }
+        
+        long get(int i) {
+            return ids[i];
+        }
+        
+        void add(long id) {
+            int at = size > 0 && ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0 && at < size) {
+                return;
+            }
+            int insert = at == size ? size : -at - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, insert, ids, insert + 1, size - insert);
+            ids[insert] = id;
+            size++;
+        }
+        
+        boolean remove(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+        
+        void forEach(LongConsumer action) {
+            for (int i = 0; i < size; i++) {
+                action.accept(ids[i]);
+            }
+        }
+    }
+    
+    // Primitive long keys in sorted parallel arrays: binary-search lookups, in-order iteration
+    // and appends at the end for sequence-assigned keys
+    static final class LongMap<V> {
+        private long[] keys = new long[16];
+        private Object[] values = new Object[16];
+        private int size;
+        
+        int size() {
+            return size;
+        }
+        
+        @SuppressWarnings("unchecked")
+        V get(long key) {
+            int at = Arrays.binarySearch(keys, 0, size, key);
+            return at >= 0 ? (V) values[at] : null;
+        }
+        
+        long keyAt(int i) {
+            return keys[i];
+        }
+        
+        @SuppressWarnings("unchecked")
+        V valueAt(int i) {
+            return (V) values[i];
+        }
+        
+        int ceilingIndex(long key) {
+            int at = Arrays.binarySearch(keys, 0, size, key);
+            return at >= 0 ? at : -at - 1;
+        }
+        
+        void put(long key, V value) {
+            int at = size > 0 && keys[size - 1] < key ? -size - 1 : Arrays.binarySearch(keys, 0, size, key);
+            if (at >= 0) {
+                values[at] = value;
+                return;
+            }
+            int insert = -at - 1;
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(keys, insert, keys, insert + 1, size - insert);
+            System.arraycopy(values, insert, values, insert + 1, size - insert);
+            keys[insert] = key;
+            values[insert] = value;
+            size++;
+        }
+        
+        @SuppressWarnings("unchecked")
+        V remove(long key) {
+            int at = Arrays.binarySearch(keys, 0, size, key);
+            if (at < 0) {
+                return null;
+            }
+            V removed = (V) values[at];
+            System.arraycopy(keys, at + 1, keys, at, size - at - 1);
+            System.arraycopy(values, at + 1, values, at, size - at - 1);
+            values[--size] = null;
+            return removed;
+        }
+        
+        void clear() {
+            Arrays.fill(values, 0, size, null);
+            size = 0;
+        }
+        
+        @SuppressWarnings("unchecked")
+        void forEach(Consumer<V> action) {
+            for (int i = 0; i < size; i++) {
+                action.accept((V) values[i]);
+            }
+        }
+    }
+    
+    // Reflective field copy and JPA callback/version handling for one entity class
+    static final class EntityType<T> {
+        private static final Map<Class<?>, EntityType<?>> TYPES = new ConcurrentHashMap<>();
+        
+        private final Class<T> type;
+        private final Field[] fields;
+        private final Map<String, Field> byName = new HashMap<>();
+        private final List<Method> prePersist = new ArrayList<>();
+        private final List<Method> preUpdate = new ArrayList<>();
+        private final Field version;
+        
+        @SuppressWarnings("unchecked")
+        static <T> EntityType<T> of(Class<T> type) {
+            return (EntityType<T>) TYPES.computeIfAbsent(type, EntityType::new);
+        }
+        
+        private EntityType(Class<T> type) {
+            this.type = type;
+            List<Field> all = new ArrayList<>();
+            Field versionField = null;
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    all.add(field);
+                    byName.putIfAbsent(field.getName(), field);
+                    if (field.isAnnotationPresent(Version.class)) {
+                        versionField = field;
+                    }
+                }
+                for (Method method : c.getDeclaredMethods()) {
+                    if (method.isAnnotationPresent(PrePersist.class)) {
+                        method.setAccessible(true);
+                        prePersist.add(method);
+                    }
+                    if (method.isAnnotationPresent(PreUpdate.class)) {
+                        method.setAccessible(true);
+                        preUpdate.add(method);
+                    }
+                }
+            }
+            this.fields = all.toArray(new Field[0]);
+            this.version = versionField;
+        }
+        
+        T copy(T source) {
+            try {
+                T target = type.getDeclaredConstructor().newInstance();
+                for (Field field : fields) {
+                    field.set(target, copyValue(field.get(source)));
+                }
+                return target;
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot copy " + type.getSimpleName(), e);
+            }
+        }
+        
+        // Child entities (sale and prescription items) are copied with their parent
+        @SuppressWarnings("unchecked")
+        private static Object copyValue(Object value) {
+            if (value instanceof List<?> list) {
+                List<Object> copied = new ArrayList<>(list.size());
+                for (Object element : list) {
+                    copied.add(element != null && element.getClass().isAnnotationPresent(Entity.class)
+                            ? of((Class<Object>) element.getClass()).copy(element)
+                            : element);
+                }
+                return copied;
+            }
+            return value;
+        }
+        
+        Field field(String name) {
+            Field field = byName.get(name);
+            if (field == null) {
+                throw new IllegalArgumentException("No property " + name + " on " + type.getSimpleName());
+            }
+            return field;
+        }
+        
+        Object read(Field field, Object row) {
+            try {
+                return field.get(row);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        
+        void prePersist(T entity) {
+            invoke(prePersist, entity);
+        }
+        
+        void preUpdate(T entity) {
+            invoke(preUpdate, entity);
+        }
+        
+        void initVersion(T entity) {
+            if (version != null && read(version, entity) == null) {
+                writeVersion(entity, 0);
+            }
+        }
+        
+        // Same contract as a JPA merge: a stale version fails, a matching one is bumped
+        void checkAndBumpVersion(T entity, T stored, long key) {
+            if (version == null) {
+                return;
+            }
+            Number current = (Number) read(version, stored);
+            Number given = (Number) read(version, entity);
+            long currentVersion = current == null ? 0 : current.longValue();
+            if (given != null && given.longValue() != currentVersion) {
+                throw new ObjectOptimisticLockingFailureException(type, key);
+            }
+            writeVersion(entity, currentVersion + 1);
+        }
+        
+        private void writeVersion(T entity, long value) {
+            try {
+                Class<?> versionType = version.getType();
+                if (versionType == Integer.class || versionType == int.class) {
+                    version.set(entity, (int) value);
+                } else {
+                    version.set(entity, value);
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        
+        private void invoke(List<Method> callbacks, T entity) {
+            for (Method callback : callbacks) {
+                try {
+                    callback.invoke(entity);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
+}
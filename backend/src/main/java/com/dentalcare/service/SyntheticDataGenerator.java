@@ -0,0 +1,475 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+// A clinic at production scale for load tests and benchmarks: dentists working full-day schedules
+// over a history window and a few weeks ahead, patients, prescriptions for a share of completed
+// visits, a medicine catalog, pharmacy customers and a day's worth of POS sales for every past day.
+// Every row is a function of the seed and its chunk (a block of ids, or a day), chunks are generated
+// in parallel and ids are handed out in chunk order, so a Spec always produces the same dataset
+// whatever the thread count.
+public class SyntheticDataGenerator {
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+    
+    public record Spec(long seed, LocalDate today, int historyDays, int futureDays, int dentists,
+            double occupancy, int patients, int medicines, int customers, int salesPerDay,
+            Set<DayOfWeek> workingDays, LocalTime opensAt, LocalTime closesAt) { }
+    
+    private static final int ID_CHUNK = 10_000;
+    
+    // Random streams, one per kind of chunk
+    private static final long PATIENTS = 1;
+    private static final long CUSTOMERS = 2;
+    private static final long APPOINTMENTS = 3;
+    private static final long SALES = 4;
+    
+    private static final String[] FIRST_NAMES = {
+        "Aarav", "Priya", "Michael", "Jessica", "David", "Emily", "Robert", "Ananya", "Rahul", "Sara",
+        "James", "Meera", "Daniel", "Olivia", "Vikram", "Sophia", "Arjun", "Isha", "Thomas", "Nisha",
+        "Karan", "Laura", "Rohan", "Grace", "Aditya", "Chloe", "Sanjay", "Hannah", "Kavya", "Lucas",
+        "Neha", "Ethan", "Divya", "Mia", "Farhan", "Zoe", "Pooja", "Noah", "Lakshmi", "Ryan"
+    };
+    private static final String[] LAST_NAMES = {
+        "Sharma", "Brown", "Miller", "Wilson", "Taylor", "Patel", "Anderson", "Iyer", "Singh", "Davis",
+        "Reddy", "Clark", "Nair", "Lewis", "Gupta", "Walker", "Menon", "Hall", "Kapoor", "Young",
+        "Rao", "King", "Joshi", "Wright", "Verma", "Scott", "Pillai", "Green", "Bose", "Baker",
+        "Chopra", "Adams", "Mehta", "Nelson", "Das", "Hill", "Kumar", "Campbell", "Shah", "Mitchell"
+    };
+    private static final String[] STREETS = {
+        "Main St", "Oak Ave", "Pine St", "Maple Dr", "Cedar Ln", "MG Road", "Park Street", "Lake View Rd",
+        "Church St", "Station Rd", "Hill Rd", "Residency Rd"
+    };
+    
+    // Visit types with their share of bookings (percent), chair time and fee
+    private static final String[] TYPES = {"checkup", "cleaning", "filling", "extraction", "whitening", "root canal"};
+    private static final int[] TYPE_SHARES = {30, 25, 20, 10, 8, 7};
+    private static final int[] TYPE_MINUTES = {30, 45, 60, 45, 60, 90};
+    private static final double[] TYPE_FEES = {50, 80, 150, 200, 300, 600};
+    
+    // Share of completed visits that leave with a prescription (percent)
+    private static final int PRESCRIPTION_SHARE = 30;
+    private static final String[] FREQUENCIES = {"once daily", "twice daily", "three times daily", "as needed"};
+    private static final String[] DURATIONS = {"3 days", "5 days", "7 days", "10 days"};
+    private static final String[] INSTRUCTIONS = {"After meals", "Before meals", "At bedtime", null};
+    
+    private static final String[] SYLLABLES = {
+        "am", "ox", "ci", "lin", "ibu", "pro", "fen", "para", "ce", "ta", "mol", "met", "ro",
+        "ni", "da", "zole", "clo", "xa", "cil", "dox", "cy", "line", "lido", "caine", "ben", "zo"
+    };
+    private static final String[] MEDICINE_TYPES = {
+        "tablet", "capsule", "syrup", "gel", "mouthwash", "injection", "ointment", "drops"
+    };
+    private static final String[] MANUFACTURERS = {
+        "Cipla", "Sun Pharma", "Dr. Reddy's", "Lupin", "Abbott", "GSK", "Pfizer", "Colgate",
+        "Mankind", "Alkem", "Torrent", "Glenmark", "Zydus", "Intas", "Septodont", "3M ESPE"
+    };
+    private static final int[] STRENGTHS = {5, 10, 25, 50, 100, 200, 250, 400, 500, 650, 1000};
+    
+    private final Spec spec;
+    private final int threads;
+    private final LocalDate firstDay;
+    private final LocalDateTime epoch;
+    private List<Medicine> catalog;
+    
+    public SyntheticDataGenerator(Spec spec, int threads) {
+        if (spec.dentists() < 1 || spec.patients() < 1 || spec.medicines() < 1 || spec.customers() < 1) {
+            throw new IllegalArgumentException("Synthetic data needs at least one dentist, patient, medicine and customer");
+        }
+        if (spec.occupancy() <= 0 || spec.occupancy() > 1) {
+            throw new IllegalArgumentException("Occupancy must be in (0, 1], not " + spec.occupancy());
+        }
+        this.spec = spec;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.firstDay = spec.today().minusDays(spec.historyDays());
+        // Patients and customers registered over the three years before the first appointment
+        this.epoch = firstDay.minusYears(3).atStartOfDay();
+    }
+    
+    public Map<String, Object> generate(SyntheticDataSink sink) {
+        if (!sink.isEmpty()) {
+            throw new IllegalStateException("Synthetic data is only generated into an empty store");
+        }
+        long started = System.nanoTime();
+        Map<String, Object> counts = new LinkedHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<User> users = users();
+            sink.users(users);
+            counts.put("users", users.size());
+            
+            catalog = medicines(spec.medicines(), spec.seed(), epoch);
+            sink.medicines(catalog);
+            counts.put("medicines", catalog.size());
+            
+            counts.put("patients", run(executor, "patients", chunks(spec.patients()),
+                    this::patients, rows -> { }, sink::patients, List::size));
+            counts.put("pharmacyCustomers", run(executor, "pharmacy customers", chunks(spec.customers()),
+                    this::customers, rows -> { }, sink::pharmacyCustomers, List::size));
+            
+            // Next appointment, prescription, prescription item, sale and sale item ids
+            long[] next = {1, 1, 1, 1, 1};
+            counts.put("appointments", run(executor, "appointments", spec.historyDays() + spec.futureDays() + 1,
+                    this::appointmentDay, day -> {
+                        for (Appointment appointment : day.appointments()) {
+                            appointment.setId(next[0]++);
+                        }
+                        for (int i = 0; i < day.prescriptions().size(); i++) {
+                            Prescription prescription = day.prescriptions().get(i);
+                            prescription.setId(next[1]++);
+                            prescription.setAppointmentId(day.prescribedAt().get(i).getId());
+                            prescription.getItems().forEach(item -> item.setId(next[2]++));
+                        }
+                    }, day -> {
+                        sink.appointments(day.appointments());
+                        sink.prescriptions(day.prescriptions());
+                    }, day -> day.appointments().size()));
+            counts.put("prescriptions", next[1] - 1);
+            
+            counts.put("pharmacySales", run(executor, "pharmacy sales", spec.historyDays() + 1,
+                    this::salesDay, sales -> {
+                        for (PharmacySale sale : sales) {
+                            sale.setId(next[3]++);
+                            sale.getItems().forEach(item -> item.setId(next[4]++));
+                        }
+                    }, sink::pharmacySales, List::size));
+            
+            sink.finish();
+        } finally {
+            executor.shutdownNow();
+        }
+        counts.put("elapsedMs", (System.nanoTime() - started) / 1_000_000);
+        return counts;
+    }
+    
+    // Generates chunks on the pool a window ahead of the one being numbered, numbers them in order
+    // (the only sequential step) and writes them on the pool; the window bounds the chunks held in memory
+    private <C> long run(ExecutorService executor, String table, int chunks, IntFunction<C> generate,
+            Consumer<C> number, Consumer<C> write, ToIntFunction<C> size) {
+        long started = System.nanoTime();
+        int window = threads * 2;
+        Semaphore unwritten = new Semaphore(window);
+        ArrayDeque<Future<C>> generated = new ArrayDeque<>();
+        List<Future<?>> written = new ArrayList<>();
+        long rows = 0;
+        int next = 0;
+        try {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                while (next < chunks && next < chunk + window) {
+                    int index = next++;
+                    generated.add(executor.submit(() -> generate.apply(index)));
+                }
+                C rowsOfChunk = generated.poll().get();
+                number.accept(rowsOfChunk);
+                rows += size.applyAsInt(rowsOfChunk);
+                unwritten.acquire();
+                written.add(executor.submit(() -> {
+                    try {
+                        write.accept(rowsOfChunk);
+                    } finally {
+                        unwritten.release();
+                    }
+                }));
+            }
+            for (Future<?> done : written) {
+                done.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating " + table, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to generate " + table, e.getCause());
+        }
+        log.info("Generated {} {} in {} ms", rows, table, (System.nanoTime() - started) / 1_000_000);
+        return rows;
+    }
+    
+    private static int chunks(int rows) {
+        return (rows + ID_CHUNK - 1) / ID_CHUNK;
+    }
+    
+    // Dentists first (ids 1..dentists, the dentist ids appointments refer to), then an admin and a receptionist
+    private List<User> users() {
+        List<User> users = new ArrayList<>(spec.dentists() + 2);
+        for (int d = 1; d <= spec.dentists(); d++) {
+            users.add(user(d, dentistName(d), "dentist" + d + "@example.com", "dentist"));
+        }
+        users.add(user(spec.dentists() + 1, "Clinic Admin", "admin@example.com", "admin"));
+        users.add(user(spec.dentists() + 2, "Front Desk", "receptionist@example.com", "receptionist"));
+        return users;
+    }
+    
+    private static User user(long id, String name, String email, String role) {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        user.setEmail(email);
+        user.setPassword("password123");
+        user.setRole(role);
+        return user;
+    }
+    
+    private String dentistName(long dentistId) {
+        long hash = mix(spec.seed(), 0, dentistId);
+        return "Dr. " + pick(FIRST_NAMES, hash) + " " + pick(LAST_NAMES, hash >>> 32);
+    }
+    
+    // Appointment rows carry the patient's name, so it is derived from the id rather than looked up
+    private String patientName(long patientId) {
+        long hash = mix(spec.seed(), PATIENTS, patientId);
+        return pick(FIRST_NAMES, hash) + " " + pick(LAST_NAMES, hash >>> 32);
+    }
+    
+    private List<Patient> patients(int chunk) {
+        SplittableRandom random = new SplittableRandom(mix(spec.seed(), PATIENTS, -chunk - 1));
+        long first = (long) chunk * ID_CHUNK + 1;
+        long last = Math.min(first + ID_CHUNK - 1, spec.patients());
+        long registrationMinutes = Duration.between(epoch, spec.today().atStartOfDay()).toMinutes();
+        List<Patient> patients = new ArrayList<>((int) (last - first + 1));
+        for (long id = first; id <= last; id++) {
+            long hash = mix(spec.seed(), PATIENTS, id);
+            Patient patient = new Patient();
+            patient.setId(id);
+            patient.setFirstName(pick(FIRST_NAMES, hash));
+            patient.setLastName(pick(LAST_NAMES, hash >>> 32));
+            patient.setEmail(patient.getFirstName().toLowerCase(Locale.ROOT) + "."
+                    + patient.getLastName().toLowerCase(Locale.ROOT) + "." + id + "@example.com");
+            patient.setPhone(String.format("(%03d) %03d-%04d", 200 + id / 10_000_000 % 800, id / 10_000 % 1000, id % 10_000));
+            patient.setDateOfBirth(spec.today().minusYears(5 + random.nextInt(80)).minusDays(random.nextInt(365)));
+            patient.setGender(random.nextBoolean() ? "male" : "female");
+            patient.setAddress((1 + random.nextInt(999)) + " " + STREETS[random.nextInt(STREETS.length)]);
+            if (random.nextInt(10) == 0) {
+                patient.setMedicalHistory(random.nextBoolean() ? "Diabetic" : "Allergic to penicillin");
+            }
+            if (random.nextInt(3) == 0) {
+                patient.setInsuranceInfo("POL-" + (100_000 + random.nextInt(900_000)));
+            }
+            patient.setCreatedAt(epoch.plusMinutes(random.nextLong(registrationMinutes)));
+            patient.updateSearchKeys();
+            patients.add(patient);
+        }
+        return patients;
+    }
+    
+    private List<PharmacyCustomer> customers(int chunk) {
+        SplittableRandom random = new SplittableRandom(mix(spec.seed(), CUSTOMERS, -chunk - 1));
+        long first = (long) chunk * ID_CHUNK + 1;
+        long last = Math.min(first + ID_CHUNK - 1, spec.customers());
+        long registrationMinutes = Duration.between(epoch, spec.today().atStartOfDay()).toMinutes();
+        List<PharmacyCustomer> customers = new ArrayList<>((int) (last - first + 1));
+        for (long id = first; id <= last; id++) {
+            long hash = mix(spec.seed(), CUSTOMERS, id);
+            PharmacyCustomer customer = new PharmacyCustomer();
+            customer.setId(id);
+            customer.setName(pick(FIRST_NAMES, hash) + " " + pick(LAST_NAMES, hash >>> 32));
+            customer.setPhone(customerPhone(id));
+            customer.setNormalizedPhone(PhoneNumbers.normalize(customer.getPhone(), "91"));
+            customer.setCreatedAt(epoch.plusMinutes(random.nextLong(registrationMinutes)));
+            customers.add(customer);
+        }
+        return customers;
+    }
+    
+    private record AppointmentDay(List<Appointment> appointments, List<Prescription> prescriptions,
+            List<Appointment> prescribedAt) { }
+    
+    // Each working dentist fills the day from opening time: a booking of a random type where it
+    // still fits before closing, or a free half hour, in proportion to the occupancy. Clinics open
+    // more than five days give every dentist a weekly day off, and the weeks ahead are booked more
+    // thinly the further out they are. Days before today are settled (mostly completed); today and
+    // later are still scheduled, a few cancelled.
+    private AppointmentDay appointmentDay(int dayIndex) {
+        LocalDate date = firstDay.plusDays(dayIndex);
+        List<Appointment> appointments = new ArrayList<>();
+        List<Prescription> prescriptions = new ArrayList<>();
+        List<Appointment> prescribedAt = new ArrayList<>();
+        if (!spec.workingDays().contains(date.getDayOfWeek())) {
+            return new AppointmentDay(appointments, prescriptions, prescribedAt);
+        }
+        SplittableRandom random = new SplittableRandom(mix(spec.seed(), APPOINTMENTS, date.toEpochDay()));
+        boolean settled = date.isBefore(spec.today());
+        long daysAhead = ChronoUnit.DAYS.between(spec.today(), date);
+        double occupancy = daysAhead <= 0 ? spec.occupancy()
+                : spec.occupancy() * Math.max(0.2, 1 - (double) daysAhead / (spec.futureDays() + 1));
+        List<DayOfWeek> days = new ArrayList<>(new TreeSet<>(spec.workingDays()));
+        for (long dentistId = 1; dentistId <= spec.dentists(); dentistId++) {
+            if (days.size() > 5 && days.get(Math.floorMod(mix(spec.seed(), 0, -dentistId), days.size())) == date.getDayOfWeek()) {
+                continue;
+            }
+            String dentistName = dentistName(dentistId);
+            LocalTime time = spec.opensAt();
+            while (time.isBefore(spec.closesAt())) {
+                if (random.nextDouble() >= occupancy) {
+                    time = time.plusMinutes(30);
+                    continue;
+                }
+                int type = type(random.nextInt(100));
+                LocalTime end = time.plusMinutes(TYPE_MINUTES[type]);
+                if (end.isAfter(spec.closesAt()) || end.isBefore(time)) {
+                    break;
+                }
+                long patientId = 1 + random.nextInt(spec.patients());
+                Appointment appointment = new Appointment();
+                appointment.setPatientId(patientId);
+                appointment.setPatientName(patientName(patientId));
+                appointment.setDentistId(dentistId);
+                appointment.setDentistName(dentistName);
+                appointment.setDate(date);
+                appointment.setStartTime(time);
+                appointment.setEndTime(end);
+                appointment.setStatus(status(random.nextInt(100), settled));
+                appointment.setType(TYPES[type]);
+                appointment.setAmount(TYPE_FEES[type]);
+                appointment.setCreatedAt(date.minusDays(random.nextInt(60)).atTime(8, 0).plusMinutes(random.nextInt(600)));
+                appointments.add(appointment);
+                
+                if (appointment.getStatus().equals("completed") && random.nextInt(100) < PRESCRIPTION_SHARE) {
+                    prescriptions.add(prescription(random, appointment));
+                    prescribedAt.add(appointment);
+                }
+                time = end;
+            }
+        }
+        return new AppointmentDay(appointments, prescriptions, prescribedAt);
+    }
+    
+    private static int type(int roll) {
+        int type = 0;
+        while (roll >= TYPE_SHARES[type]) {
+            roll -= TYPE_SHARES[type++];
+        }
+        return type;
+    }
+    
+    private static String status(int roll, boolean settled) {
+        if (settled) {
+            return roll < 82 ? "completed" : roll < 94 ? "cancelled" : "no-show";
+        }
+        return roll < 92 ? "scheduled" : "cancelled";
+    }
+    
+    private Prescription prescription(SplittableRandom random, Appointment appointment) {
+        Prescription prescription = new Prescription();
+        prescription.setPatientId(appointment.getPatientId());
+        prescription.setPatientName(appointment.getPatientName());
+        prescription.setDentistId(appointment.getDentistId());
+        prescription.setDentistName(appointment.getDentistName());
+        prescription.setCreatedAt(appointment.getDate().atTime(appointment.getEndTime()));
+        List<PrescriptionItem> items = new ArrayList<>(3);
+        for (int line = 1 + random.nextInt(3); line > 0; line--) {
+            Medicine medicine = catalog.get(random.nextInt(catalog.size()));
+            PrescriptionItem item = new PrescriptionItem();
+            item.setMedicineId(medicine.getId());
+            item.setMedicineName(medicine.getName());
+            item.setMedicineType(medicine.getType());
+            item.setDosage("1 " + medicine.getType());
+            item.setFrequency(FREQUENCIES[random.nextInt(FREQUENCIES.length)]);
+            item.setDuration(DURATIONS[random.nextInt(DURATIONS.length)]);
+            item.setInstructions(INSTRUCTIONS[random.nextInt(INSTRUCTIONS.length)]);
+            items.add(item);
+        }
+        prescription.setItems(items);
+        return prescription;
+    }
+    
+    // The till is open every day of the history, today included: salesPerDay give or take 20%
+    // (half on Sundays), one to five lines of one to three units, CGST and SGST at 6% each and the
+    // odd 5% discount
+    private List<PharmacySale> salesDay(int dayIndex) {
+        LocalDate date = firstDay.plusDays(dayIndex);
+        SplittableRandom random = new SplittableRandom(mix(spec.seed(), SALES, date.toEpochDay()));
+        int count = (int) Math.round(spec.salesPerDay() * (0.8 + 0.4 * random.nextDouble())
+                * (date.getDayOfWeek() == DayOfWeek.SUNDAY ? 0.5 : 1));
+        List<PharmacySale> sales = new ArrayList<>(count);
+        for (int s = 0; s < count; s++) {
+            long customerId = 1 + random.nextInt(spec.customers());
+            long hash = mix(spec.seed(), CUSTOMERS, customerId);
+            PharmacySale sale = new PharmacySale();
+            sale.setCustomerId(customerId);
+            sale.setCustomerName(pick(FIRST_NAMES, hash) + " " + pick(LAST_NAMES, hash >>> 32));
+            sale.setCustomerPhone(customerPhone(customerId));
+            
+            int lines = 1 + random.nextInt(5);
+            List<PharmacySaleItem> items = new ArrayList<>(lines);
+            double subtotal = 0;
+            for (int line = 0; line < lines; line++) {
+                Medicine medicine = catalog.get(random.nextInt(catalog.size()));
+                PharmacySaleItem item = new PharmacySaleItem();
+                item.setMedicineId(medicine.getId());
+                item.setMedicineName(medicine.getName());
+                item.setQuantity(1 + random.nextInt(3));
+                item.setUnitPrice(medicine.getPrice());
+                item.setTotalPrice(round(medicine.getPrice() * item.getQuantity()));
+                items.add(item);
+                subtotal += item.getTotalPrice();
+            }
+            sale.setItems(items);
+            sale.setSubtotal(round(subtotal));
+            sale.setSgst(round(subtotal * 0.06));
+            sale.setCgst(round(subtotal * 0.06));
+            sale.setDiscount(random.nextInt(10) == 0 ? round(subtotal * 0.05) : 0.0);
+            sale.setTotal(round(sale.getSubtotal() + sale.getSgst() + sale.getCgst() - sale.getDiscount()));
+            sale.setCreatedAt(date.atTime(9, 0).plusMinutes(random.nextInt(12 * 60)).plusSeconds(random.nextInt(60)));
+            sales.add(sale);
+        }
+        return sales;
+    }
+    
+    // The POS finds customers by phone, so load drivers need the generated numbers
+    public static String customerPhone(long customerId) {
+        return String.valueOf(9_000_000_000L + customerId);
+    }
+    
+    // Formulary-like catalog: generated names with a strength, real-world dosage forms and manufacturers
+    public static List<Medicine> medicines(int size, long seed, LocalDateTime createdAt) {
+        Random random = new Random(seed);
+        List<Medicine> medicines = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            StringBuilder name = new StringBuilder();
+            int syllables = 2 + random.nextInt(3);
+            for (int s = 0; s < syllables; s++) {
+                name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+            name.append(' ').append(STRENGTHS[random.nextInt(STRENGTHS.length)]).append("mg");
+            
+            Medicine medicine = new Medicine();
+            medicine.setId((long) i + 1);
+            medicine.setName(name.toString());
+            medicine.setType(MEDICINE_TYPES[random.nextInt(MEDICINE_TYPES.length)]);
+            medicine.setManufacturer(MANUFACTURERS[random.nextInt(MANUFACTURERS.length)]);
+            medicine.setStock(random.nextInt(500));
+            medicine.setUnit("units");
+            medicine.setPrice(1 + random.nextInt(50_000) / 100.0);
+            medicine.setCreatedAt(createdAt);
+            medicine.setUpdatedAt(createdAt);
+            medicine.setVersion(0L);
+            medicines.add(medicine);
+        }
+        return medicines;
+    }
+    
+    private static String pick(String[] values, long hash) {
+        return values[(int) Math.floorMod(hash, (long) values.length)];
+    }
+    
+    private static double round(double amount) {
+        return Math.round(amount * 100) / 100.0;
+    }
+    
+    // SplitMix64 finalizer over the seed, the stream and the index within it
+    private static long mix(long seed, long stream, long index) {
+        long z = seed * 0x9E3779B97F4A7C15L + stream * 0xBF58476D1CE4E5B9L + index * 0x94D049BB133111EBL;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,30 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.*;
+import java.util.List;
+
+// Where SyntheticDataGenerator puts its rows: DataStore on the inmemory profile, the database
+// otherwise. Rows arrive with their ids (and their items' ids) already set, and chunks of the same
+// table may be written concurrently.
+public interface SyntheticDataSink {
+    // The generator only writes into an empty store, so ids can be assigned up front
+    boolean isEmpty();
+    
+    void users(List<User> users);
+    
+    void medicines(List<Medicine> medicines);
+    
+    void patients(List<Patient> patients);
+    
+    void pharmacyCustomers(List<PharmacyCustomer> customers);
+    
+    void appointments(List<Appointment> appointments);
+    
+    void prescriptions(List<Prescription> prescriptions);
+    
+    void pharmacySales(List<PharmacySale> sales);
+    
+    // Called once every chunk is written
+    default void finish() {
+    }
+}
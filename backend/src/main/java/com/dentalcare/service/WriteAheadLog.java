@@ -0,0 +1,289 @@
+package com.dentalcare.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+// Append-only log file written through memory-mapped regions. A record is
+// [int length][int crc32c][payload] and never straddles a region; a length of -1 pads to the next
+// region and 0 marks the end, since the file grows zero-filled. A crash mid-append leaves a record
+// whose length or checksum does not hold, and reading stops there.
+//
+// Group commit: appends only copy into the mapping and hand out a log sequence number; one flusher
+// thread forces everything appended so far in one msync and wakes every writer it covered, so
+// concurrent saves share an fsync instead of queueing for one each.
+final class WriteAheadLog implements Closeable {
+    static final int REGION_SIZE = 64 << 20;
+    static final int HEADER_SIZE = 4096;
+    private static final int RECORD_HEADER = 8;
+    private static final int PAD = -1;
+    
+    private final Path path;
+    private final FileChannel channel;
+    private final boolean waitForSync;
+    private final long syncIntervalMs;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition syncRequested = syncLock.newCondition();
+    private final Condition synced = syncLock.newCondition();
+    private final CRC32C crc = new CRC32C();
+    private final Thread flusher;
+    private MappedByteBuffer region;
+    private long regionStart;
+    // Bytes appended and bytes known durable, counted across every file this process has written
+    private final long lsnBase;
+    private volatile long appended;
+    private volatile long durable;
+    private volatile boolean open = true;
+    private volatile IOException syncFailure;
+    
+    WriteAheadLog(Path path, byte[] header, long lsnBase, boolean waitForSync, long syncIntervalMs) throws IOException {
+        if (header.length > HEADER_SIZE) {
+            throw new IllegalArgumentException("Log header too large: " + header.length + " bytes");
+        }
+        this.path = path;
+        this.lsnBase = lsnBase;
+        this.appended = lsnBase;
+        this.durable = lsnBase;
+        this.waitForSync = waitForSync;
+        this.syncIntervalMs = syncIntervalMs;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.region = channel.map(FileChannel.MapMode.READ_WRITE, 0, REGION_SIZE);
+        region.putInt(header.length);
+        region.put(header);
+        region.position(HEADER_SIZE);
+        region.force();
+        channel.force(true);
+        this.flusher = new Thread(this::flushLoop, "store-wal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+    
+    Path path() {
+        return path;
+    }
+    
+    // Bytes written to this file so far
+    long size() {
+        return appended - lsnBase;
+    }
+    
+    long appended() {
+        return appended;
+    }
+    
+    // Copies one record into the mapping and returns the sequence number to wait on for durability
+    long append(byte[] payload, int length) {
+        if (length + RECORD_HEADER > REGION_SIZE - HEADER_SIZE) {
+            throw new IllegalArgumentException("Log record too large: " + length + " bytes");
+        }
+        long lsn;
+        appendLock.lock();
+        try {
+            if (!open) {
+                throw new IllegalStateException("Write-ahead log " + path + " is closed");
+            }
+            if (syncFailure != null) {
+                throw new IllegalStateException("Write-ahead log sync failed", syncFailure);
+            }
+            long before = regionStart + region.position();
+            if (region.remaining() < length + RECORD_HEADER) {
+                nextRegion();
+            }
+            crc.reset();
+            crc.update(payload, 0, length);
+            int at = region.position();
+            // Length goes in last, so a reader never sees a length whose bytes are still missing
+            region.putInt(at + 4, (int) crc.getValue());
+            region.put(at + RECORD_HEADER, payload, 0, length);
+            region.putInt(at, length);
+            region.position(at + RECORD_HEADER + length);
+            appended += regionStart + region.position() - before;
+            lsn = appended;
+        } finally {
+            appendLock.unlock();
+        }
+        if (waitForSync) {
+            syncLock.lock();
+            try {
+                syncRequested.signal();
+            } finally {
+                syncLock.unlock();
+            }
+        }
+        return lsn;
+    }
+    
+    // Blocks until the record at lsn has been forced to disk; a no-op in interval mode
+    void awaitDurable(long lsn) {
+        if (!waitForSync || durable >= lsn) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            while (durable < lsn) {
+                if (syncFailure != null) {
+                    throw new IllegalStateException("Write-ahead log sync failed", syncFailure);
+                }
+                if (!open) {
+                    throw new IllegalStateException("Write-ahead log " + path + " closed before sync");
+                }
+                synced.awaitUninterruptibly();
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+    
+    private void nextRegion() {
+        if (region.remaining() >= 4) {
+            region.putInt(region.position(), PAD);
+        }
+        // The old region is forced here, so the flusher only ever owes the current one
+        region.force();
+        try {
+            regionStart += REGION_SIZE;
+            region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, REGION_SIZE);
+            // Mapping grew the file; the new length has to be durable before records land in it
+            channel.force(true);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot extend write-ahead log " + path, e);
+        }
+    }
+    
+    private void flushLoop() {
+        while (true) {
+            syncLock.lock();
+            try {
+                while (open && appended == durable) {
+                    syncRequested.await(syncIntervalMs, TimeUnit.MILLISECONDS);
+                }
+                if (!open && appended == durable || syncFailure != null) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                syncLock.unlock();
+            }
+            sync();
+        }
+    }
+    
+    private void sync() {
+        long target;
+        MappedByteBuffer current;
+        appendLock.lock();
+        try {
+            target = appended;
+            current = region;
+        } finally {
+            appendLock.unlock();
+        }
+        IOException failure = null;
+        try {
+            current.force();
+        } catch (RuntimeException e) {
+            failure = new IOException(e);
+        }
+        syncLock.lock();
+        try {
+            if (failure != null) {
+                syncFailure = failure;
+            } else if (target > durable) {
+                durable = target;
+            }
+            synced.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        appendLock.lock();
+        try {
+            if (!open) {
+                return;
+            }
+            region.force();
+            syncLock.lock();
+            try {
+                open = false;
+                durable = appended;
+                syncRequested.signalAll();
+                synced.signalAll();
+            } finally {
+                syncLock.unlock();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+    
+    // Reads the header back and hands each intact record to the reader, stopping at the end of the
+    // log or at the first torn record. Returns the number of records read.
+    static long read(Path path, HeaderReader headerReader, RecordReader reader) throws IOException {
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = file.size();
+            if (size < HEADER_SIZE) {
+                return 0;
+            }
+            long records = 0;
+            CRC32C check = new CRC32C();
+            for (long start = 0; start < size; start += REGION_SIZE) {
+                ByteBuffer mapped = file.map(FileChannel.MapMode.READ_ONLY, start, Math.min(REGION_SIZE, size - start));
+                if (start == 0) {
+                    int headerLength = mapped.getInt();
+                    headerReader.read(mapped.slice(4, headerLength));
+                    mapped.position(HEADER_SIZE);
+                }
+                while (true) {
+                    if (mapped.remaining() < RECORD_HEADER) {
+                        break;
+                    }
+                    int at = mapped.position();
+                    int length = mapped.getInt(at);
+                    if (length == PAD) {
+                        break;
+                    }
+                    if (length <= 0 || length > mapped.remaining() - RECORD_HEADER) {
+                        return records;
+                    }
+                    ByteBuffer payload = mapped.slice(at + RECORD_HEADER, length);
+                    check.reset();
+                    check.update(payload.duplicate());
+                    if ((int) check.getValue() != mapped.getInt(at + 4)) {
+                        return records;
+                    }
+                    reader.read(payload);
+                    records++;
+                    mapped.position(at + RECORD_HEADER + length);
+                }
+            }
+            return records;
+        }
+    }
+    
+    interface HeaderReader {
+        void read(ByteBuffer header) throws IOException;
+    }
+    
+    interface RecordReader {
+        void read(ByteBuffer payload);
+    }
+}
@@ -0,0 +1,195 @@
+package com.dentalcare.repository;
+
+import com.dentalcare.model.PharmacySale;
+import com.dentalcare.model.PharmacySaleItem;
+import com.dentalcare.model.Prescription;
+import com.dentalcare.model.PrescriptionItem;
+import com.dentalcare.service.PageQuery;
+import com.dentalcare.service.PageResult;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Reading parents with their items costs the same number of statements however many parents there
+// are: one joined select for the unpaged reads, page select plus one batched item select for pages
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class ItemFetchStatementCountTest {
+    private static final int MANY = 40;
+    private static final LocalDate ONE_SALE_DAY = LocalDate.of(2026, 3, 2);
+    private static final LocalDate BUSY_DAY = LocalDate.of(2026, 3, 3);
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private PharmacySaleRepository pharmacySaleRepository;
+    
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+    
+    private Statistics statistics;
+    
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        pharmacySaleRepository.save(sale(ONE_SALE_DAY.atTime(10, 0)));
+        for (int i = 0; i < MANY; i++) {
+            pharmacySaleRepository.save(sale(BUSY_DAY.atTime(9, 0).plusMinutes(i)));
+        }
+        prescriptionRepository.save(prescription(1L));
+        for (int i = 0; i < MANY; i++) {
+            prescriptionRepository.save(prescription(2L));
+        }
+    }
+    
+    @Test
+    void salesBetweenDatesLoadItemsInTheSameSelect() {
+        long one = statements(() -> items(pharmacySaleRepository.findByCreatedAtBetween(
+                ONE_SALE_DAY.atStartOfDay(), ONE_SALE_DAY.atTime(23, 59)), PharmacySale::getItems));
+        long many = statements(() -> items(pharmacySaleRepository.findByCreatedAtBetween(
+                BUSY_DAY.atStartOfDay(), BUSY_DAY.atTime(23, 59)), PharmacySale::getItems));
+        
+        assertThat(one).isEqualTo(1);
+        assertThat(many).isEqualTo(one);
+    }
+    
+    @Test
+    void prescriptionsByPatientLoadItemsInTheSameSelect() {
+        long one = statements(() -> items(prescriptionRepository.findByPatientId(1L), Prescription::getItems));
+        long many = statements(() -> items(prescriptionRepository.findByPatientId(2L), Prescription::getItems));
+        
+        assertThat(one).isEqualTo(1);
+        assertThat(many).isEqualTo(one);
+    }
+    
+    @Test
+    void findByIdLoadsItemsInTheSameSelect() {
+        Long id = pharmacySaleRepository.findAll().get(0).getId();
+        
+        long statements = statements(() -> pharmacySaleRepository.findById(id).orElseThrow().getItems().size());
+        
+        assertThat(statements).isEqualTo(1);
+    }
+    
+    @Test
+    void pagesLoadItemsInOneBatchedSelect() {
+        long one = statements(() -> items(page(1).content(), PharmacySale::getItems));
+        long many = statements(() -> items(page(MANY).content(), PharmacySale::getItems));
+        long manyCounted = statements(() -> items(page(MANY, true).content(), PharmacySale::getItems));
+        
+        assertThat(one).isEqualTo(2);
+        assertThat(many).isEqualTo(one);
+        // One COUNT on top, from the Page itself
+        assertThat(manyCounted).isEqualTo(one + 1);
+    }
+    
+    @Test
+    void keysetPagesLoadItemsInOneBatchedSelect() {
+        long one = statements(() -> items(seek(1).content(), Prescription::getItems));
+        long many = statements(() -> items(seek(MANY).content(), Prescription::getItems));
+        
+        assertThat(one).isEqualTo(2);
+        assertThat(many).isEqualTo(one);
+    }
+    
+    private PageResult<PharmacySale> page(int size) {
+        return page(size, false);
+    }
+    
+    private PageResult<PharmacySale> page(int size, boolean withCount) {
+        return new PageQuery(PageRequest.of(0, size, Sort.by("id")), null, null, withCount)
+                .fetch(pharmacySaleRepository, PharmacySale::getId, PharmacySale::getCreatedAt);
+    }
+    
+    private PageResult<Prescription> seek(int size) {
+        return new PageQuery(PageRequest.of(0, size), 0L, null, false)
+                .fetch(prescriptionRepository, Prescription::getId, Prescription::getCreatedAt);
+    }
+    
+    // Statements the work prepares against a cleared persistence context
+    private long statements(Supplier<Integer> work) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        assertThat(work.get()).isPositive();
+        return statistics.getPrepareStatementCount();
+    }
+    
+    // Touches every item so lazily loaded collections are initialized; returns how many there were
+    private static <T> int items(List<T> parents, Function<T, List<?>> itemsOf) {
+        int items = 0;
+        for (T parent : parents) {
+            for (Object item : itemsOf.apply(parent)) {
+                assertThat(item).isNotNull();
+                items++;
+            }
+        }
+        return items;
+    }
+    
+    private static PharmacySale sale(LocalDateTime createdAt) {
+        List<PharmacySaleItem> items = new ArrayList<>();
+        for (long medicineId = 1; medicineId <= 3; medicineId++) {
+            PharmacySaleItem item = new PharmacySaleItem();
+            item.setMedicineId(medicineId);
+            item.setMedicineName("Medicine " + medicineId);
+            item.setQuantity(1);
+            item.setUnitPrice(10.0);
+            item.setTotalPrice(10.0);
+            items.add(item);
+        }
+        PharmacySale sale = new PharmacySale();
+        sale.setCustomerId(1L);
+        sale.setCustomerName("Customer");
+        sale.setCustomerPhone("9000000001");
+        sale.setItems(items);
+        sale.setSubtotal(30.0);
+        sale.setSgst(0.0);
+        sale.setCgst(0.0);
+        sale.setDiscount(0.0);
+        sale.setTotal(30.0);
+        sale.setCreatedAt(createdAt);
+        return sale;
+    }
+    
+    private static Prescription prescription(Long patientId) {
+        List<PrescriptionItem> items = new ArrayList<>();
+        for (long medicineId = 1; medicineId <= 3; medicineId++) {
+            PrescriptionItem item = new PrescriptionItem();
+            item.setMedicineId(medicineId);
+            item.setMedicineName("Medicine " + medicineId);
+            item.setMedicineType("Tablet");
+            item.setDosage("500 mg");
+            item.setFrequency("Twice a day");
+            item.setDuration("5 days");
+            items.add(item);
+        }
+        Prescription prescription = new Prescription();
+        prescription.setPatientId(patientId);
+        prescription.setPatientName("Patient " + patientId);
+        prescription.setAppointmentId(1L);
+        prescription.setDentistId(1L);
+        prescription.setDentistName("Dentist");
+        prescription.setItems(items);
+        prescription.setCreatedAt(LocalDateTime.of(2026, 3, 2, 9, 0));
+        return prescription;
+    }
+}
@@ -0,0 +1,107 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.Appointment;
+import com.dentalcare.repository.AppointmentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("h2")
+class AppointmentServiceTest {
+    private static final long DENTIST = 7;
+    private static final LocalDate DAY = LocalDate.now().plusDays(10);
+    
+    @Autowired
+    private AppointmentService appointmentService;
+    
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @AfterEach
+    void tearDown() {
+        appointmentRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM dentist_day_locks");
+        jdbcTemplate.update("DELETE FROM daily_summary_marks");
+    }
+    
+    @Test
+    void rejectsIntervalsThatDoNotEndAfterStarting() {
+        assertThatThrownBy(() -> appointmentService.createAppointment(appointment(10, 0, 10, 0)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> appointmentService.createAppointment(appointment(11, 0, 10, 30)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(appointmentRepository.count()).isZero();
+    }
+    
+    // Another instance's booking is not in this one's schedule index; the check reloads the day
+    // under the database lock and still finds it
+    @Test
+    void seesBookingsThisInstanceDidNotMake() {
+        appointmentService.createAppointment(appointment(9, 0, 9, 30));
+        Appointment elsewhere = appointmentRepository.save(appointment(10, 0, 11, 0));
+        
+        assertThatThrownBy(() -> appointmentService.createAppointment(appointment(10, 30, 11, 30)))
+                .isInstanceOf(AppointmentConflictException.class)
+                .hasMessageContaining(String.valueOf(elsewhere.getId()));
+    }
+    
+    // A booking that holds the day lock and has not committed yet makes a second booking wait for
+    // it, so the second one checks against the first instead of both passing
+    @Test
+    void bookingWaitsForUncommittedBookingOfSameDay() throws InterruptedException {
+        CountDownLatch locked = new CountDownLatch(1);
+        AtomicReference<Appointment> first = new AtomicReference<>();
+        Thread otherInstance = new Thread(() -> new TransactionTemplate(transactionManager).execute(status -> {
+            appointmentRepository.lockDentistDay(DENTIST, DAY);
+            first.set(appointmentRepository.save(appointment(14, 0, 15, 0)));
+            locked.countDown();
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        otherInstance.start();
+        locked.await();
+        
+        assertThatThrownBy(() -> appointmentService.createAppointment(appointment(14, 30, 15, 30)))
+                .isInstanceOf(AppointmentConflictException.class)
+                .hasMessageContaining(String.valueOf(first.get().getId()));
+        otherInstance.join();
+        assertThat(appointmentRepository.count()).isEqualTo(1);
+    }
+    
+    private static Appointment appointment(int startHour, int startMinute, int endHour, int endMinute) {
+        Appointment appointment = new Appointment();
+        appointment.setPatientId(1L);
+        appointment.setPatientName("Test Patient");
+        appointment.setDentistId(DENTIST);
+        appointment.setDentistName("Dr. Test");
+        appointment.setDate(DAY);
+        appointment.setStartTime(LocalTime.of(startHour, startMinute));
+        appointment.setEndTime(LocalTime.of(endHour, endMinute));
+        appointment.setStatus("scheduled");
+        appointment.setType("checkup");
+        return appointment;
+    }
+}
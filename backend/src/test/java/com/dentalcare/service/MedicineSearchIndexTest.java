@@ -0,0 +1,91 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.Medicine;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MedicineSearchIndexTest {
+    private static final String[] WORDS = {"amoxicillin", "amox", "paracetamol", "para", "ibuprofen", "chlorhexidine",
+        "lidocaine", "articaine", "gel", "mouthwash", "tablet", "syrup", "cipla", "sun", "pharma", "dr"};
+    private static final String[] QUERIES = {"am", "amox", "para", "gel", "chl mouth", "ib ta", "sun", "dr p", "li"};
+    
+    // Writes applied by id answer every query the same as an index rebuilt from the resulting catalog,
+    // across overlay growth and the compactions it triggers
+    @Test
+    void changesByIdMatchAFreshIndex() {
+        SplittableRandom random = new SplittableRandom(11);
+        Map<Long, Medicine> live = new LinkedHashMap<>();
+        for (long id = 1; id <= 2000; id++) {
+            live.put(id, medicine(id, random));
+        }
+        MedicineSearchIndex index = new MedicineSearchIndex(0, new ArrayList<>(live.values()));
+        
+        long nextId = 2001;
+        for (int write = 1; write <= 600; write++) {
+            int kind = random.nextInt(4);
+            if (kind == 0) {
+                Medicine added = medicine(nextId++, random);
+                live.put(added.getId(), added);
+                index = index.withChange(write, added.getId(), added);
+            } else if (kind == 1) {
+                Long id = pick(live, random);
+                live.remove(id);
+                index = index.withChange(write, id, null);
+            } else if (kind == 2) {
+                Medicine renamed = medicine(pick(live, random), random);
+                live.put(renamed.getId(), renamed);
+                index = index.withChange(write, renamed.getId(), renamed);
+            } else {
+                // A price edit keeps the text, so the index is shared as is
+                Medicine repriced = copy(live.get(pick(live, random)));
+                repriced.setPrice(repriced.getPrice() + 1);
+                live.put(repriced.getId(), repriced);
+                index = index.withChange(write, repriced.getId(), repriced);
+            }
+            
+            if (write % 50 == 0) {
+                MedicineSearchIndex fresh = new MedicineSearchIndex(write, new ArrayList<>(live.values()));
+                assertThat(index.size()).isEqualTo(live.size());
+                for (String query : QUERIES) {
+                    assertThat(ids(index.search(query, 10))).as(query).isEqualTo(ids(fresh.search(query, 10)));
+                }
+            }
+        }
+    }
+    
+    private static Long pick(Map<Long, Medicine> live, SplittableRandom random) {
+        List<Long> ids = new ArrayList<>(live.keySet());
+        return ids.get(random.nextInt(ids.size()));
+    }
+    
+    // Names are unique per id, so rank ties cannot reorder equal names between the two indexes
+    private static Medicine medicine(long id, SplittableRandom random) {
+        Medicine medicine = new Medicine();
+        medicine.setId(id);
+        medicine.setName(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + id);
+        medicine.setType(WORDS[random.nextInt(WORDS.length)]);
+        medicine.setManufacturer(WORDS[random.nextInt(WORDS.length)]);
+        medicine.setPrice(10.0);
+        return medicine;
+    }
+    
+    private static Medicine copy(Medicine medicine) {
+        Medicine copy = new Medicine();
+        copy.setId(medicine.getId());
+        copy.setName(medicine.getName());
+        copy.setType(medicine.getType());
+        copy.setManufacturer(medicine.getManufacturer());
+        copy.setPrice(medicine.getPrice());
+        return copy;
+    }
+    
+    private static List<Long> ids(List<Medicine> medicines) {
+        return medicines.stream().map(Medicine::getId).toList();
+    }
+}
@@ -0,0 +1,70 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.Patient;
+import com.dentalcare.repository.PatientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("h2")
+class PatientServiceTest {
+    @Autowired
+    private PatientService patientService;
+    
+    @Autowired
+    private PatientRepository patientRepository;
+    
+    @AfterEach
+    void tearDown() {
+        patientRepository.deleteAll();
+    }
+    
+    // A one-word name search lists surname matches in surname order, then first-name-only matches in
+    // first-name order, each once, across pages and without a count
+    @Test
+    void nameSearchPagesSurnameMatchesThenFirstNameMatches() {
+        Patient amyJones = save("Amy", "Jones");
+        Patient joJohnson = save("Jo", "Johnson");
+        Patient joeBrown = save("Joe", "Brown");
+        Patient bobJordan = save("Bob", "Jordan");
+        Patient joanAdams = save("Joan", "Adams");
+        save("Zed", "Smith");
+        Patient jonSmith = save("Jon", "Smith");
+        
+        List<Long> ids = new ArrayList<>();
+        List<Boolean> hasNext = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            PageResult<Patient> result = patientService.searchPatients("Jo", PageRequest.of(page, 2));
+            result.content().forEach(patient -> ids.add(patient.getId()));
+            hasNext.add(result.hasNext());
+            assertThat(result.totalCount()).isNull();
+        }
+        
+        assertThat(ids).containsExactly(joJohnson.getId(), amyJones.getId(), bobJordan.getId(),
+                joanAdams.getId(), joeBrown.getId(), jonSmith.getId());
+        assertThat(hasNext).containsExactly(true, true, false);
+    }
+    
+    private Patient save(String firstName, String lastName) {
+        Patient patient = new Patient();
+        patient.setFirstName(firstName);
+        patient.setLastName(lastName);
+        patient.setEmail(firstName.toLowerCase() + "." + lastName.toLowerCase() + "@example.com");
+        patient.setPhone("5550100" + patientRepository.count());
+        patient.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        patient.setGender("female");
+        patient.setAddress("1 Main St");
+        patient.setCreatedAt(LocalDateTime.now());
+        return patientRepository.save(patient);
+    }
+}
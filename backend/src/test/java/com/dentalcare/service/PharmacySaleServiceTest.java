@@ -0,0 +1,211 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.Medicine;
+import com.dentalcare.model.PharmacyCustomer;
+import com.dentalcare.model.PharmacySale;
+import com.dentalcare.model.PharmacySaleItem;
+import com.dentalcare.repository.MedicineRepository;
+import com.dentalcare.repository.PharmacyCustomerRepository;
+import com.dentalcare.repository.PharmacySaleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("h2")
+class PharmacySaleServiceTest {
+    private static final String PHONE = "9876500001";
+    private static final int STOCK = 25;
+    
+    @Autowired
+    private PharmacySaleService pharmacySaleService;
+    
+    @Autowired
+    private PharmacyCustomerService pharmacyCustomerService;
+    
+    @Autowired
+    private MedicineService medicineService;
+    
+    @Autowired
+    private MedicineRepository medicineRepository;
+    
+    @Autowired
+    private PharmacySaleRepository pharmacySaleRepository;
+    
+    @Autowired
+    private PharmacyCustomerRepository pharmacyCustomerRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private final List<Medicine> medicines = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        PharmacyCustomer customer = new PharmacyCustomer();
+        customer.setName("Counter customer");
+        customer.setPhone(PHONE);
+        pharmacyCustomerService.createCustomer(customer);
+        for (int i = 1; i <= 4; i++) {
+            medicines.add(medicineRepository.save(medicine("Low stock " + i, STOCK)));
+        }
+    }
+    
+    @AfterEach
+    void tearDown() {
+        pharmacySaleRepository.deleteAll();
+        medicineRepository.deleteAll();
+        pharmacyCustomerRepository.deleteAll();
+    }
+    
+    // Many tills selling the last few units at once: every sale either takes its whole basket or is
+    // refused, stock never goes below zero and what left the shelves is exactly what was sold
+    @Test
+    void concurrentCheckoutsNeverOversell() throws InterruptedException {
+        int threads = 16;
+        int salesPerThread = 15;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger refused = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        List<Thread> tills = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            SplittableRandom random = new SplittableRandom(t);
+            tills.add(new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < salesPerThread; i++) {
+                        try {
+                            pharmacySaleService.createSale(sale(random));
+                        } catch (RuntimeException e) {
+                            if (e.getMessage() == null || !e.getMessage().startsWith("Insufficient stock")) {
+                                throw e;
+                            }
+                            refused.incrementAndGet();
+                        }
+                    }
+                } catch (Throwable e) {
+                    unexpected.add(e);
+                }
+            }));
+        }
+        tills.forEach(Thread::start);
+        start.countDown();
+        for (Thread till : tills) {
+            till.join();
+        }
+        
+        assertThat(unexpected).isEmpty();
+        // Demand is several times the stock, so some sales had to be turned away
+        assertThat(refused.get()).isPositive();
+        Map<Long, Integer> sold = new HashMap<>();
+        jdbcTemplate.query("SELECT medicine_id, SUM(quantity) FROM pharmacy_sale_items GROUP BY medicine_id",
+                row -> {
+                    sold.put(row.getLong(1), row.getInt(2));
+                });
+        for (Medicine medicine : medicines) {
+            Medicine after = medicineRepository.findById(medicine.getId()).orElseThrow();
+            assertThat(after.getStock()).isGreaterThanOrEqualTo(0);
+            assertThat(STOCK - after.getStock()).isEqualTo(sold.getOrDefault(medicine.getId(), 0));
+        }
+    }
+    
+    // A basket with one short line is refused as a whole
+    @Test
+    void refusedSaleLeavesEveryLineInStock() {
+        PharmacySale sale = sale(List.of(item(medicines.get(0), 5), item(medicines.get(1), STOCK + 1)));
+        
+        assertThatThrownBy(() -> pharmacySaleService.createSale(sale))
+                .hasMessageStartingWith("Insufficient stock for " + medicines.get(1).getName());
+        
+        assertThat(medicineRepository.findById(medicines.get(0).getId()).orElseThrow().getStock()).isEqualTo(STOCK);
+        assertThat(medicineRepository.findById(medicines.get(1).getId()).orElseThrow().getStock()).isEqualTo(STOCK);
+        assertThat(pharmacySaleRepository.count()).isZero();
+    }
+    
+    // An edit made from a form loaded before a sale must not put the sold units back on the shelf
+    @Test
+    void editFromStaleFormKeepsSoldStock() {
+        Medicine loaded = medicineRepository.findById(medicines.get(0).getId()).orElseThrow();
+        pharmacySaleService.createSale(sale(List.of(item(loaded, 7))));
+        
+        Medicine edit = medicine("Renamed", loaded.getStock());
+        Medicine saved = medicineService.updateMedicine(loaded.getId(), edit).orElseThrow();
+        
+        assertThat(saved.getName()).isEqualTo("Renamed");
+        assertThat(medicineRepository.findById(loaded.getId()).orElseThrow().getStock()).isEqualTo(STOCK - 7);
+    }
+    
+    @Test
+    void stockAdjustmentsApplyToCurrentLevel() {
+        Long id = medicines.get(0).getId();
+        pharmacySaleService.createSale(sale(List.of(item(medicines.get(0), 5))));
+        
+        assertThat(medicineService.adjustStock(id, 10).orElseThrow().getStock()).isEqualTo(STOCK - 5 + 10);
+        assertThatThrownBy(() -> medicineService.adjustStock(id, -(STOCK + 6)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(medicineRepository.findById(id).orElseThrow().getStock()).isEqualTo(STOCK + 5);
+        assertThat(medicineService.adjustStock(-1L, 1)).isEmpty();
+    }
+    
+    private PharmacySale sale(SplittableRandom random) {
+        List<PharmacySaleItem> items = new ArrayList<>();
+        List<Medicine> shuffled = new ArrayList<>(medicines);
+        for (int line = 1 + random.nextInt(2); line > 0; line--) {
+            Medicine medicine = shuffled.remove(random.nextInt(shuffled.size()));
+            items.add(item(medicine, 1 + random.nextInt(3)));
+        }
+        return sale(items);
+    }
+    
+    private static PharmacySale sale(List<PharmacySaleItem> items) {
+        double subtotal = items.stream().mapToDouble(PharmacySaleItem::getTotalPrice).sum();
+        PharmacySale sale = new PharmacySale();
+        sale.setCustomerName("Counter customer");
+        sale.setCustomerPhone(PHONE);
+        sale.setItems(items);
+        sale.setSubtotal(subtotal);
+        sale.setSgst(0.0);
+        sale.setCgst(0.0);
+        sale.setDiscount(0.0);
+        sale.setTotal(subtotal);
+        return sale;
+    }
+    
+    private static PharmacySaleItem item(Medicine medicine, int quantity) {
+        PharmacySaleItem item = new PharmacySaleItem();
+        item.setMedicineId(medicine.getId());
+        item.setMedicineName(medicine.getName());
+        item.setQuantity(quantity);
+        item.setUnitPrice(medicine.getPrice());
+        item.setTotalPrice(medicine.getPrice() * quantity);
+        return item;
+    }
+    
+    private static Medicine medicine(String name, int stock) {
+        Medicine medicine = new Medicine();
+        medicine.setName(name);
+        medicine.setType("Tablet");
+        medicine.setUnit("strip");
+        medicine.setStock(stock);
+        medicine.setPrice(10.0);
+        medicine.setCreatedAt(LocalDateTime.now());
+        medicine.setUpdatedAt(LocalDateTime.now());
+        return medicine;
+    }
+}
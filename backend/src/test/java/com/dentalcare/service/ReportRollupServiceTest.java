@@ -0,0 +1,121 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.DailySummary;
+import com.dentalcare.model.Patient;
+import com.dentalcare.repository.DailyAppointmentTypeSummaryRepository;
+import com.dentalcare.repository.DailySummaryMarkRepository;
+import com.dentalcare.repository.DailySummaryRepository;
+import com.dentalcare.repository.PatientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "reports.rollup.max-refresh-days=7")
+@ActiveProfiles("h2")
+class ReportRollupServiceTest {
+    private static final LocalDate DAY = LocalDate.now().minusDays(3);
+    
+    @Autowired
+    private ReportRollupService reportRollupService;
+    
+    @Autowired
+    private DailySummaryRepository dailySummaryRepository;
+    
+    @Autowired
+    private DailySummaryMarkRepository markRepository;
+    
+    @Autowired
+    private DailyAppointmentTypeSummaryRepository typeSummaryRepository;
+    
+    @Autowired
+    private PatientRepository patientRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @AfterEach
+    void tearDown() {
+        patientRepository.deleteAll();
+        markRepository.deleteAll();
+        typeSummaryRepository.deleteAll();
+        dailySummaryRepository.deleteAll();
+    }
+    
+    // The mark is a row, so a write made after the day was rolled up is picked up by whichever
+    // instance builds the next report, and the mark goes once that refresh has committed
+    @Test
+    void markedDayIsRebuiltOnNextReport() {
+        assertThat(newPatients(DAY)).isZero();
+        
+        patientRepository.save(patient("first@example.com", DAY));
+        assertThat(newPatients(DAY)).isZero();
+        reportRollupService.markDirty(DAY);
+        assertThat(markRepository.findById(DAY)).isPresent();
+        
+        assertThat(newPatients(DAY)).isEqualTo(1);
+        assertThat(markRepository.findById(DAY)).isEmpty();
+    }
+    
+    // A write that lands while a refresh is running bumps the count the refresh read, so the
+    // refresh leaves the mark for the next one
+    @Test
+    void markMadeDuringRefreshOutlivesIt() {
+        reportRollupService.markDirty(DAY);
+        long seen = markRepository.findById(DAY).orElseThrow().getChanges();
+        reportRollupService.markDirty(DAY);
+        
+        int cleared = new TransactionTemplate(transactionManager).execute(status -> markRepository.clear(DAY, seen));
+        
+        assertThat(cleared).isZero();
+        assertThat(markRepository.findById(DAY).orElseThrow().getChanges()).isEqualTo(seen + 1);
+    }
+    
+    @Test
+    void refreshBuildsLongRangesInChunks() {
+        LocalDate start = DAY.minusDays(60);
+        patientRepository.save(patient("early@example.com", start));
+        patientRepository.save(patient("late@example.com", DAY));
+        
+        List<DailySummary> summaries = reportRollupService.getDailySummaries(start, DAY);
+        
+        assertThat(summaries).hasSize(61);
+        assertThat(summaries.stream().mapToLong(DailySummary::getNewPatients).sum()).isEqualTo(2);
+    }
+    
+    @Test
+    void emptyFutureDaysAreNotStored() {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        
+        assertThat(reportRollupService.getDailySummaries(tomorrow, tomorrow.plusDays(90))).isEmpty();
+        reportRollupService.markDirty(tomorrow);
+        assertThat(reportRollupService.getDailySummaries(tomorrow, tomorrow.plusDays(90))).isEmpty();
+        
+        assertThat(dailySummaryRepository.count()).isZero();
+        assertThat(markRepository.count()).isZero();
+    }
+    
+    private long newPatients(LocalDate day) {
+        return reportRollupService.getDailySummaries(day, day).get(0).getNewPatients();
+    }
+    
+    private static Patient patient(String email, LocalDate createdOn) {
+        Patient patient = new Patient();
+        patient.setFirstName("Rollup");
+        patient.setLastName("Patient");
+        patient.setEmail(email);
+        patient.setPhone("9000000000");
+        patient.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        patient.setGender("female");
+        patient.setAddress("1 Main Street");
+        patient.setCreatedAt(createdOn.atTime(10, 0));
+        return patient;
+    }
+}
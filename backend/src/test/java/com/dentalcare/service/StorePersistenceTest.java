@@ -0,0 +1,214 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.Medicine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Each crash is simulated by copying the store directory while the writing instance is still open,
+// so the copy holds exactly what reached the files, and recovering a fresh set of tables from it
+class StorePersistenceTest {
+    @TempDir
+    Path dir;
+    
+    @Test
+    void recoversFromTheSnapshotPlusTheLogWrittenAfterIt() throws IOException {
+        Path live = dir.resolve("live");
+        Store before = Store.open(live);
+        for (int i = 1; i <= 200; i++) {
+            before.medicines.save(medicine("Medicine " + i, i));
+        }
+        before.persistence.snapshot();
+        Medicine changed = before.medicines.get(10).orElseThrow();
+        changed.setStock(999);
+        before.medicines.save(changed);
+        before.medicines.delete(20);
+        before.medicines.save(medicine("Medicine 201", 201));
+        Map<Long, Integer> expected = stock(before.medicines);
+        
+        Path crashed = crash(live, dir.resolve("crashed"));
+        before.close();
+        assertThat(files(crashed)).containsExactlyInAnyOrder("snapshot-2.dat", "wal-2.log");
+        
+        Store after = Store.open(crashed);
+        try {
+            assertThat(after.recovered).isTrue();
+            assertThat(stock(after.medicines)).isEqualTo(expected);
+            assertThat(after.medicines.get(10).orElseThrow().getVersion()).isEqualTo(1);
+            // Keys continue after the recovered rows
+            assertThat(after.medicines.save(medicine("Medicine 202", 202)).getId()).isEqualTo(202);
+        } finally {
+            after.close();
+        }
+    }
+    
+    // The tail record of the log was cut off mid-write: everything before it survives
+    @Test
+    void recoversUpToATornLogRecord() throws IOException {
+        Path live = dir.resolve("live");
+        Store before = Store.open(live);
+        for (int i = 1; i <= 50; i++) {
+            before.medicines.save(medicine("Medicine " + i, i));
+        }
+        Map<Long, Integer> expected = stock(before.medicines);
+        Path crashed = crash(live, dir.resolve("crashed"));
+        before.close();
+        
+        Path log = crashed.resolve("wal-1.log");
+        long end = WriteAheadLog.HEADER_SIZE;
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer length = ByteBuffer.allocate(4);
+            while (channel.read(length.clear(), end) == 4 && length.getInt(0) > 0) {
+                end += 8 + length.getInt(0);
+            }
+            // Length of a record whose checksum and payload never made it
+            channel.write(ByteBuffer.allocate(4).putInt(0, 64), end);
+        }
+        
+        Store after = Store.open(crashed);
+        try {
+            assertThat(stock(after.medicines)).isEqualTo(expected);
+        } finally {
+            after.close();
+        }
+    }
+    
+    // The new log is open and has writes in it, but the snapshot never finished: the old and new logs
+    // together still hold everything
+    @Test
+    void recoversWhenASnapshotFailsAfterTheLogRotated() throws IOException {
+        Path live = dir.resolve("live");
+        Store before = Store.open(live);
+        for (int i = 1; i <= 100; i++) {
+            before.medicines.save(medicine("Medicine " + i, i));
+        }
+        // A directory in the way of the temporary snapshot file makes the write fail after the rotation
+        Files.createDirectory(live.resolve("snapshot-2.dat.tmp"));
+        assertThatThrownBy(before.persistence::snapshot).isInstanceOf(UncheckedIOException.class);
+        for (int i = 101; i <= 120; i++) {
+            before.medicines.save(medicine("Medicine " + i, i));
+        }
+        before.medicines.delete(5);
+        Map<Long, Integer> expected = stock(before.medicines);
+        
+        Path crashed = crash(live, dir.resolve("crashed"));
+        before.close();
+        Files.delete(crashed.resolve("snapshot-2.dat.tmp"));
+        Files.write(crashed.resolve("snapshot-2.dat.tmp"), new byte[] {1, 2, 3});
+        assertThat(files(crashed)).containsExactlyInAnyOrder("wal-1.log", "wal-2.log", "snapshot-2.dat.tmp");
+        
+        Store after = Store.open(crashed);
+        try {
+            assertThat(stock(after.medicines)).isEqualTo(expected);
+            assertThat(files(crashed)).doesNotContain("snapshot-2.dat.tmp");
+        } finally {
+            after.close();
+        }
+    }
+    
+    // Writers racing a rotation: every save that returned is in the files once the snapshot is done
+    @Test
+    void keepsEveryAcknowledgedWriteAcrossConcurrentSnapshots() throws Exception {
+        Path live = dir.resolve("live");
+        Store before = Store.open(live);
+        List<Thread> writers = Stream.<Thread>generate(() -> new Thread(() -> {
+            for (int i = 0; i < 300; i++) {
+                before.medicines.save(medicine("Medicine", i));
+            }
+        })).limit(4).toList();
+        writers.forEach(Thread::start);
+        for (int i = 0; i < 5; i++) {
+            before.persistence.snapshot();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        Map<Long, Integer> expected = stock(before.medicines);
+        Path crashed = crash(live, dir.resolve("crashed"));
+        before.close();
+        
+        Store after = Store.open(crashed);
+        try {
+            assertThat(expected).hasSize(1200);
+            assertThat(stock(after.medicines)).isEqualTo(expected);
+        } finally {
+            after.close();
+        }
+    }
+    
+    @Test
+    void startsEmptyInAnEmptyDirectory() throws IOException {
+        Store store = Store.open(dir.resolve("empty"));
+        try {
+            assertThat(store.recovered).isFalse();
+            assertThat(store.medicines.size()).isZero();
+        } finally {
+            store.close();
+        }
+    }
+    
+    private static Path crash(Path live, Path copy) throws IOException {
+        Files.createDirectories(copy);
+        try (Stream<Path> files = Files.list(live)) {
+            for (Path file : files.toList()) {
+                if (Files.isRegularFile(file)) {
+                    Files.copy(file, copy.resolve(file.getFileName()));
+                } else {
+                    Files.createDirectory(copy.resolve(file.getFileName()));
+                }
+            }
+        }
+        return copy;
+    }
+    
+    private static List<String> files(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> file.getFileName().toString()).toList();
+        }
+    }
+    
+    private static Map<Long, Integer> stock(StoreTable<Medicine> medicines) {
+        return medicines.all().stream().collect(Collectors.toMap(Medicine::getId, Medicine::getStock, (a, b) -> a, TreeMap::new));
+    }
+    
+    private static Medicine medicine(String name, int stock) {
+        Medicine medicine = new Medicine();
+        medicine.setName(name);
+        medicine.setType("Tablet");
+        medicine.setUnit("strip");
+        medicine.setStock(stock);
+        medicine.setPrice(10.0);
+        medicine.setCreatedAt(LocalDateTime.of(2026, 1, 1, 9, 0));
+        medicine.setUpdatedAt(LocalDateTime.of(2026, 1, 1, 9, 0));
+        return medicine;
+    }
+    
+    private record Store(StoreTable<Medicine> medicines, StorePersistence persistence, boolean recovered) {
+        static Store open(Path dir) {
+            StoreTable<Medicine> medicines = new StoreTable<>(Medicine.class, Medicine::getId, Medicine::setId);
+            StorePersistence persistence = new StorePersistence(dir, List.of(medicines), true, 5, Long.MAX_VALUE);
+            boolean recovered = persistence.recover();
+            medicines.attach(persistence);
+            return new Store(medicines, persistence, recovered);
+        }
+        
+        void close() throws IOException {
+            persistence.close();
+        }
+    }
+}
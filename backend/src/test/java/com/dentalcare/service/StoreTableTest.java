@@ -0,0 +1,135 @@
+package com.dentalcare.service;
+
+import com.dentalcare.model.Medicine;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StoreTableTest {
+    // Saves inside inWriteLock wait for the log once, for the last record, and only after the lock
+    // is free again, so readers are not held up by the sync
+    @Test
+    void saveInsideWriteLockWaitsOnceAfterRelease() {
+        StoreTable<Medicine> medicines = new StoreTable<>(Medicine.class, Medicine::getId, Medicine::setId);
+        RecordingJournal journal = new RecordingJournal(medicines);
+        medicines.attach(journal);
+        
+        medicines.inWriteLock(() -> {
+            for (int i = 1; i <= 10; i++) {
+                medicines.save(medicine("Medicine " + i));
+            }
+            medicines.delete(3);
+            return null;
+        });
+        
+        assertThat(journal.waits).containsExactly(11L);
+        assertThat(journal.readableWhileWaiting).containsExactly(true);
+    }
+    
+    @Test
+    void saveOutsideWriteLockWaitsForItsOwnRecord() {
+        StoreTable<Medicine> medicines = new StoreTable<>(Medicine.class, Medicine::getId, Medicine::setId);
+        RecordingJournal journal = new RecordingJournal(medicines);
+        medicines.attach(journal);
+        
+        medicines.save(medicine("First"));
+        medicines.save(medicine("Second"));
+        
+        assertThat(journal.waits).containsExactly(1L, 2L);
+    }
+    
+    // Offset pages walked along the key order or the createdAt index match a full sort of the rows
+    @Test
+    void sliceWalksIndexesInSortOrder() {
+        StoreTable<Medicine> medicines = new StoreTable<>(Medicine.class, Medicine::getId, Medicine::setId)
+                .sortedIndex("createdAt", Medicine::getCreatedAt);
+        SplittableRandom random = new SplittableRandom(5);
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 9, 0);
+        for (int i = 0; i < 300; i++) {
+            Medicine medicine = medicine("Medicine " + i);
+            // Few distinct times, so many rows share one
+            medicine.setCreatedAt(start.plusMinutes(random.nextInt(40)));
+            medicines.save(medicine);
+        }
+        for (int i = 0; i < 30; i++) {
+            medicines.delete(1 + random.nextInt(300));
+        }
+        
+        List<Sort> sorts = List.of(
+                Sort.unsorted(),
+                Sort.by(Sort.Direction.DESC, "id"),
+                Sort.by("createdAt"),
+                Sort.by(Sort.Direction.DESC, "createdAt"),
+                Sort.by(Sort.Order.asc("createdAt"), Sort.Order.asc("id")),
+                Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id")),
+                Sort.by(Sort.Order.desc("createdAt"), Sort.Order.asc("id")),
+                Sort.by("name"));
+        for (Sort sort : sorts) {
+            List<Medicine> expected = medicines.all();
+            expected.sort(medicines.order(sort));
+            for (int offset : new int[] {0, 7, 100, 265, 400}) {
+                List<Long> page = medicines.slice(sort, offset, 25).stream().map(Medicine::getId).toList();
+                List<Long> wanted = expected.subList(Math.min(offset, expected.size()), Math.min(offset + 25, expected.size()))
+                        .stream().map(Medicine::getId).toList();
+                assertThat(page).as(sort + " from " + offset).isEqualTo(wanted);
+            }
+        }
+    }
+    
+    private static Medicine medicine(String name) {
+        Medicine medicine = new Medicine();
+        medicine.setName(name);
+        medicine.setType("Tablet");
+        medicine.setUnit("strip");
+        medicine.setStock(10);
+        medicine.setPrice(5.0);
+        medicine.setCreatedAt(LocalDateTime.now());
+        medicine.setUpdatedAt(LocalDateTime.now());
+        return medicine;
+    }
+    
+    private static final class RecordingJournal implements StoreTable.Journal {
+        private final StoreTable<?> table;
+        private final AtomicLong sequence = new AtomicLong();
+        private final List<Long> waits = new ArrayList<>();
+        private final List<Boolean> readableWhileWaiting = new ArrayList<>();
+        
+        RecordingJournal(StoreTable<?> table) {
+            this.table = table;
+        }
+        
+        @Override
+        public long put(StoreTable<?> table, long key, Object row) {
+            return sequence.incrementAndGet();
+        }
+        
+        @Override
+        public long delete(StoreTable<?> table, long key) {
+            return sequence.incrementAndGet();
+        }
+        
+        @Override
+        public long clear(StoreTable<?> table) {
+            return sequence.incrementAndGet();
+        }
+        
+        @Override
+        public void awaitDurable(long lsn) {
+            waits.add(lsn);
+            try {
+                CompletableFuture.supplyAsync(table::size).get(1, TimeUnit.SECONDS);
+                readableWhileWaiting.add(true);
+            } catch (Exception e) {
+                readableWhileWaiting.add(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.dentalcare.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteAheadLogTest {
+    private static final byte[] HEADER = "header".getBytes(StandardCharsets.UTF_8);
+    
+    @TempDir
+    Path dir;
+    
+    @Test
+    void readsBackEveryAppendedRecord() throws IOException {
+        Path file = dir.resolve("wal-1.log");
+        try (WriteAheadLog wal = new WriteAheadLog(file, HEADER, 0, true, 10)) {
+            for (int i = 1; i <= 100; i++) {
+                wal.awaitDurable(wal.append(payload(i, i), i));
+            }
+        }
+        
+        List<byte[]> records = new ArrayList<>();
+        List<String> headers = new ArrayList<>();
+        long count = read(file, headers, records);
+        
+        assertThat(count).isEqualTo(100);
+        assertThat(headers).containsExactly("header");
+        for (int i = 1; i <= 100; i++) {
+            assertThat(records.get(i - 1)).isEqualTo(payload(i, i));
+        }
+    }
+    
+    // A crash after the length went in but before the payload and checksum did
+    @Test
+    void stopsAtATornRecordWhosePayloadIsMissing() throws IOException {
+        Path file = dir.resolve("wal-1.log");
+        long end = writeRecords(file, 3, 16);
+        
+        write(file, end, ByteBuffer.allocate(4).putInt(0, 16));
+        
+        assertThat(read(file, new ArrayList<>(), new ArrayList<>())).isEqualTo(3);
+    }
+    
+    @Test
+    void stopsAtATornRecordWhoseChecksumDoesNotMatch() throws IOException {
+        Path file = dir.resolve("wal-1.log");
+        long end = writeRecords(file, 3, 16);
+        
+        ByteBuffer torn = ByteBuffer.allocate(8 + 16);
+        torn.putInt(16).putInt(12345).put(payload(4, 16)).flip();
+        write(file, end, torn);
+        
+        assertThat(read(file, new ArrayList<>(), new ArrayList<>())).isEqualTo(3);
+    }
+    
+    @Test
+    void stopsAtALengthRunningPastTheRegion() throws IOException {
+        Path file = dir.resolve("wal-1.log");
+        long end = writeRecords(file, 2, 16);
+        
+        write(file, end, ByteBuffer.allocate(4).putInt(0, WriteAheadLog.REGION_SIZE));
+        
+        assertThat(read(file, new ArrayList<>(), new ArrayList<>())).isEqualTo(2);
+    }
+    
+    // Records that do not fit in what is left of a region go to the next one behind a PAD marker
+    @Test
+    void continuesPastAPaddedRegionBoundary() throws IOException {
+        Path file = dir.resolve("wal-1.log");
+        int length = 10_000_000;
+        int perRegion = (WriteAheadLog.REGION_SIZE - WriteAheadLog.HEADER_SIZE) / (length + 8);
+        int total = perRegion + 2;
+        try (WriteAheadLog wal = new WriteAheadLog(file, HEADER, 0, true, 10)) {
+            for (int i = 0; i < total; i++) {
+                wal.awaitDurable(wal.append(payload(i, length), length));
+            }
+        }
+        
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer marker = ByteBuffer.allocate(4);
+            channel.read(marker, WriteAheadLog.HEADER_SIZE + (long) perRegion * (length + 8));
+            assertThat(marker.getInt(0)).isEqualTo(-1);
+            assertThat(channel.size()).isEqualTo(2L * WriteAheadLog.REGION_SIZE);
+        }
+        List<byte[]> records = new ArrayList<>();
+        assertThat(read(file, new ArrayList<>(), records)).isEqualTo(total);
+        for (int i = 0; i < total; i++) {
+            assertThat(records.get(i)[0]).isEqualTo((byte) i);
+            assertThat(records.get(i)[length - 1]).isEqualTo((byte) i);
+        }
+    }
+    
+    @Test
+    void sequenceNumbersCarryOnFromTheBase() throws IOException {
+        try (WriteAheadLog wal = new WriteAheadLog(dir.resolve("wal-2.log"), HEADER, 1000, true, 10)) {
+            long lsn = wal.append(payload(1, 10), 10);
+            wal.awaitDurable(lsn);
+            
+            assertThat(lsn).isEqualTo(1000 + 8 + 10);
+            assertThat(wal.size()).isEqualTo(18);
+        }
+    }
+    
+    // Returns the file offset just past the last record
+    private long writeRecords(Path file, int count, int length) throws IOException {
+        try (WriteAheadLog wal = new WriteAheadLog(file, HEADER, 0, true, 10)) {
+            for (int i = 1; i <= count; i++) {
+                wal.awaitDurable(wal.append(payload(i, length), length));
+            }
+        }
+        return WriteAheadLog.HEADER_SIZE + (long) count * (8 + length);
+    }
+    
+    private static void write(Path file, long position, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(bytes, position);
+            channel.force(true);
+        }
+    }
+    
+    private static long read(Path file, List<String> headers, List<byte[]> records) throws IOException {
+        return WriteAheadLog.read(file, header -> {
+            byte[] bytes = new byte[header.remaining()];
+            header.get(bytes);
+            headers.add(new String(bytes, StandardCharsets.UTF_8));
+        }, payload -> {
+            byte[] bytes = new byte[payload.remaining()];
+            payload.get(bytes);
+            records.add(bytes);
+        });
+    }
+    
+    private static byte[] payload(int value, int length) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) value);
+        return bytes;
+    }
+}
@@ -0,0 +1,82 @@
+package com.dentalcare.benchmarks;
+
+import com.dentalcare.model.Appointment;
+import com.dentalcare.service.AppointmentService;
+import com.dentalcare.service.DataStore;
+import com.dentalcare.service.FreeSlot;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Calendar reads the front desk makes all day: a day, a week and a month of appointments, one
+// patient's history and a dentist's free slots for a week
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AppointmentLookupBenchmark {
+    @Param({"100000", "1000000"})
+    private int appointments;
+
+    private ConfigurableApplicationContext context;
+    private AppointmentService appointmentService;
+    private LocalDate day;
+    private LocalDate weekStart;
+
+    @Setup
+    public void setUp() {
+        context = ClinicContext.start();
+        SyntheticClinic.populate(context.getBean(DataStore.class), appointments, 42L);
+        appointmentService = context.getBean(AppointmentService.class);
+        // A Monday, so the clinic is open
+        day = SyntheticClinic.END.minusDays(44);
+        weekStart = day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Appointment> byDate() {
+        return appointmentService.getAppointmentsByDate(day);
+    }
+
+    @Benchmark
+    public List<Appointment> byWeek() {
+        return appointmentService.getAppointmentsByWeek(weekStart);
+    }
+
+    @Benchmark
+    public List<Appointment> byMonth() {
+        return appointmentService.getAppointmentsByMonth(day.getYear(), day.getMonthValue());
+    }
+
+    @Benchmark
+    public List<Appointment> byPatient() {
+        return appointmentService.getAppointmentsByPatientId(42L);
+    }
+
+    @Benchmark
+    public List<FreeSlot> freeSlotsForWeek() {
+        return appointmentService.findFreeSlots(1L, weekStart, weekStart.plusDays(6), 30);
+    }
+}
@@ -0,0 +1,60 @@
+package com.dentalcare.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// JMH's command line with JSON results on by default, so every run leaves a file to diff against
+// another commit's (see CompareResults). The file is target/jmh-results/<label>.json, where the
+// label is -Dbenchmark.label or else the current commit; -rf/-rff on the command line still win.
+public final class BenchmarkMain {
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        boolean informational = jmhArgs.stream().anyMatch(arg -> arg.equals("-h") || arg.equals("-l")
+                || arg.equals("-lp") || arg.equals("-lrf") || arg.equals("-lprof"));
+        if (!informational && !jmhArgs.contains("-rf") && !jmhArgs.contains("-rff")) {
+            Path results = Path.of("target", "jmh-results", label() + ".json");
+            Files.createDirectories(results.getParent());
+            jmhArgs.addAll(0, List.of("-rf", "json", "-rff", results.toString()));
+            System.out.println("Writing results to " + results);
+        }
+        org.openjdk.jmh.Main.main(jmhArgs.toArray(new String[0]));
+    }
+
+    private static String label() {
+        String label = System.getProperty("benchmark.label");
+        if (label != null && !label.isBlank()) {
+            return label;
+        }
+        String commit = git("rev-parse", "--short", "HEAD");
+        if (commit == null) {
+            return "run-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        }
+        String changes = git("status", "--porcelain", "--untracked-files=no");
+        return changes == null || changes.isEmpty() ? commit : commit + "-dirty";
+    }
+
+    private static String git(String... command) {
+        List<String> full = new ArrayList<>(List.of("git"));
+        full.addAll(Arrays.asList(command));
+        try {
+            Process process = new ProcessBuilder(full).redirectErrorStream(true).start();
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            return process.waitFor() == 0 ? output : null;
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.dentalcare.benchmarks;
+
+import com.dentalcare.DentalClinicApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// The backend's beans on the inmemory profile without the web server, so service benchmarks run
+// the same code as the app with DataStore standing in for MySQL. Nothing is seeded or persisted,
+// and the background rollup refresh is pushed out of the measurement window.
+final class ClinicContext {
+    private ClinicContext() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(DentalClinicApplication.class)
+                .profiles("inmemory")
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                // As arguments rather than default properties, which the profile's own files override
+                .run(
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--inmemory.seed-sample-data=false",
+                        "--inmemory.persistence.enabled=false",
+                        "--reports.rollup.refresh-interval-ms=3600000");
+    }
+}
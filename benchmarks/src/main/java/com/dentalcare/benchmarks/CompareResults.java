@@ -0,0 +1,91 @@
+package com.dentalcare.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Lines up two JMH JSON result files by benchmark and parameters and prints the change in score:
+//   java -cp target/benchmarks.jar com.dentalcare.benchmarks.CompareResults base.json head.json [--fail-above=10]
+// With --fail-above, exits 1 when any benchmark got worse by more than that many percent.
+public final class CompareResults {
+    private CompareResults() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<String> files = new ArrayList<>();
+        double failAbove = Double.NaN;
+        for (String arg : args) {
+            if (arg.startsWith("--fail-above=")) {
+                failAbove = Double.parseDouble(arg.substring("--fail-above=".length()));
+            } else {
+                files.add(arg);
+            }
+        }
+        if (files.size() != 2) {
+            System.err.println("usage: CompareResults base.json head.json [--fail-above=<percent>]");
+            System.exit(2);
+        }
+
+        Map<String, Score> base = read(new File(files.get(0)));
+        Map<String, Score> head = read(new File(files.get(1)));
+        System.out.printf("%-90s %14s %14s %-8s %9s%n", "Benchmark", "Base", "Head", "Unit", "Change");
+        int regressions = 0;
+        for (Map.Entry<String, Score> entry : head.entrySet()) {
+            Score now = entry.getValue();
+            Score before = base.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %-8s %9s%n", entry.getKey(), "-", now.score, now.unit, "new");
+                continue;
+            }
+            // Positive means worse: more time per op, or fewer ops per unit of time
+            double change = (now.score - before.score) / before.score * 100;
+            double worse = now.higherIsBetter ? -change : change;
+            boolean regressed = !Double.isNaN(failAbove) && worse > failAbove;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-90s %14.3f %14.3f %-8s %+8.1f%%%s%n", entry.getKey(), before.score, now.score,
+                    now.unit, change, regressed ? "  REGRESSION" : "");
+        }
+        for (String gone : base.keySet()) {
+            if (!head.containsKey(gone)) {
+                System.out.printf("%-90s %14.3f %14s %-8s %9s%n", gone, base.get(gone).score, "-", base.get(gone).unit, "removed");
+            }
+        }
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) regressed by more than " + failAbove + "%");
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Score> read(File file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText().replace("com.dentalcare.benchmarks.", ""));
+            JsonNode params = result.path("params");
+            if (!params.isMissingNode()) {
+                Map<String, String> sorted = new TreeMap<>();
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    sorted.put(field.getKey(), field.getValue().asText());
+                }
+                key.append(' ').append(sorted);
+            }
+            JsonNode metric = result.path("primaryMetric");
+            String mode = result.path("mode").asText();
+            scores.put(key.toString(), new Score(metric.path("score").asDouble(), metric.path("scoreUnit").asText(),
+                    mode.equals("thrpt")));
+        }
+        return scores;
+    }
+
+    private record Score(double score, String unit, boolean higherIsBetter) { }
+}
@@ -0,0 +1,89 @@
+package com.dentalcare.benchmarks;
+
+import com.dentalcare.model.Appointment;
+import com.dentalcare.model.Medicine;
+import com.dentalcare.model.PharmacySale;
+import com.dentalcare.model.PharmacySaleItem;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+// Response bodies of the calendar and sales list endpoints, and reading back the sales list.
+// The mapper is configured the way Spring Boot configures the app's: java.time as ISO strings.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+    @Param({"100", "1000"})
+    private int size;
+
+    private ObjectMapper mapper;
+    private List<Appointment> appointments;
+    private List<PharmacySale> sales;
+    private byte[] salesJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        Random random = new Random(42L);
+        List<Medicine> medicines = SyntheticCatalog.generate(SyntheticClinic.MEDICINES, 42L);
+        appointments = new ArrayList<>(size);
+        sales = new ArrayList<>(size);
+        long itemId = 1;
+        for (int i = 0; i < size; i++) {
+            Appointment appointment = SyntheticClinic.appointment(random, 1000);
+            appointment.setId((long) i + 1);
+            appointments.add(appointment);
+
+            List<Medicine> basket = new ArrayList<>();
+            for (int line = 1 + random.nextInt(5); line > 0; line--) {
+                basket.add(medicines.get(random.nextInt(medicines.size())));
+            }
+            PharmacySale sale = SyntheticClinic.sale(random, basket);
+            sale.setId((long) i + 1);
+            for (PharmacySaleItem item : sale.getItems()) {
+                item.setId(itemId++);
+            }
+            sales.add(sale);
+        }
+        salesJson = mapper.writeValueAsBytes(sales);
+    }
+
+    @Benchmark
+    public byte[] writeAppointments() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(appointments);
+    }
+
+    @Benchmark
+    public byte[] writeSales() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(sales);
+    }
+
+    @Benchmark
+    public List<PharmacySale> readSales() throws IOException {
+        return mapper.readValue(salesJson, new TypeReference<List<PharmacySale>>() { });
+    }
+}
@@ -0,0 +1,56 @@
+package com.dentalcare.benchmarks;
+
+import com.dentalcare.model.Medicine;
+import com.dentalcare.service.MedicineSearchIndex;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// POS typeahead against a 50k item catalog: one-letter, partial-word, multi-term and manufacturer queries
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MedicineSearchBenchmark {
+    @Param({"50000"})
+    private int catalogSize;
+
+    @Param({"a", "ibu", "amox 500", "sun ph", "zzz"})
+    private String query;
+
+    private List<Medicine> catalog;
+    private MedicineSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        catalog = SyntheticCatalog.generate(catalogSize, 42L);
+        index = new MedicineSearchIndex(1L, catalog);
+    }
+
+    @Benchmark
+    public List<Medicine> searchTop10() {
+        return index.search(query, 10);
+    }
+
+    // Baseline: what the POS did on the client before the index existed
+    @Benchmark
+    public List<Medicine> linearScanTop10() {
+        String needle = query.toLowerCase();
+        return catalog.stream()
+                .filter(medicine -> medicine.getName().toLowerCase().contains(needle))
+                .limit(10)
+                .toList();
+    }
+}
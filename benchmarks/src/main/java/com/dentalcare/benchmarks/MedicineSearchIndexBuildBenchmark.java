@@ -0,0 +1,41 @@
+package com.dentalcare.benchmarks;
+
+import com.dentalcare.model.Medicine;
+import com.dentalcare.service.MedicineSearchIndex;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Cost of the rebuild the first search pays after a medicine write or sale
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MedicineSearchIndexBuildBenchmark {
+    @Param({"50000"})
+    private int catalogSize;
+
+    private List<Medicine> catalog;
+
+    @Setup
+    public void setUp() {
+        catalog = SyntheticCatalog.generate(catalogSize, 42L);
+    }
+
+    @Benchmark
+    public MedicineSearchIndex build() {
+        return new MedicineSearchIndex(1L, catalog);
+    }
+}
@@ -0,0 +1,65 @@
+package com.dentalcare.benchmarks;
+
+import com.dentalcare.model.Medicine;
+import com.dentalcare.model.PharmacySale;
+import com.dentalcare.service.DataStore;
+import com.dentalcare.service.PharmacySaleService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// POS checkout: customer lookup, stock decrement for every line, the sale insert, rollup
+// invalidation and the change feed, for a basket of N distinct medicines
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PharmacySaleBenchmark {
+    @Param({"1", "5", "20"})
+    private int items;
+
+    private ConfigurableApplicationContext context;
+    private PharmacySaleService pharmacySaleService;
+    private List<Medicine> medicines;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = ClinicContext.start();
+        DataStore store = context.getBean(DataStore.class);
+        SyntheticClinic.populate(store, 0, 42L);
+        pharmacySaleService = context.getBean(PharmacySaleService.class);
+        medicines = store.getMedicines().all();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PharmacySale createSale() {
+        int start = next++;
+        List<Medicine> basket = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            basket.add(medicines.get((start * items + i) % medicines.size()));
+        }
+        return pharmacySaleService.createSale(
+                SyntheticClinic.sale(SyntheticClinic.customer(start % SyntheticClinic.CUSTOMERS), basket));
+    }
+}
@@ -0,0 +1,87 @@
+package com.dentalcare.benchmarks;
+
+import com.dentalcare.service.DataStore;
+import com.dentalcare.service.ReportService;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// The four report endpoints over a year of data, monthly buckets. Daily rollups are built by the
+// first report over a range, so the plain benchmarks measure the steady state; the ColdRollups
+// variant drops them before every call, which is what a report pays after writes invalidate a year.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ReportServiceBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    private int appointments;
+
+    private ConfigurableApplicationContext context;
+    private DataStore store;
+    private ReportService reportService;
+
+    @Setup
+    public void setUp() {
+        context = ClinicContext.start();
+        store = context.getBean(DataStore.class);
+        reportService = context.getBean(ReportService.class);
+        SyntheticClinic.populate(store, appointments, 42L);
+        reportService.getFinancialStatistics("monthly", SyntheticClinic.START, SyntheticClinic.END);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> patientStatistics() {
+        return reportService.getPatientStatistics("monthly", SyntheticClinic.START, SyntheticClinic.END);
+    }
+
+    @Benchmark
+    public Map<String, Object> appointmentStatistics() {
+        return reportService.getAppointmentStatistics("monthly", SyntheticClinic.START, SyntheticClinic.END);
+    }
+
+    @Benchmark
+    public Map<String, Object> financialStatistics() {
+        return reportService.getFinancialStatistics("monthly", SyntheticClinic.START, SyntheticClinic.END);
+    }
+
+    @Benchmark
+    public Map<String, Object> pharmacyStatistics() {
+        return reportService.getPharmacyStatistics("monthly", SyntheticClinic.START, SyntheticClinic.END);
+    }
+
+    @Benchmark
+    public Map<String, Object> financialStatisticsColdRollups(ColdRollups cold) {
+        return reportService.getFinancialStatistics("monthly", SyntheticClinic.START, SyntheticClinic.END);
+    }
+
+    @State(Scope.Thread)
+    public static class ColdRollups {
+        @Setup(Level.Invocation)
+        public void dropRollups(ReportServiceBenchmark benchmark) {
+            benchmark.store.getDailySummaries().clear();
+            benchmark.store.getAppointmentTypeSummaries().clear();
+        }
+    }
+}
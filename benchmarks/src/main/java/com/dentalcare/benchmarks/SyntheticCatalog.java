@@ -0,0 +1,16 @@
+package com.dentalcare.benchmarks;
+
+import com.dentalcare.model.Medicine;
+import com.dentalcare.service.SyntheticDataGenerator;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Deterministic formulary-like catalog, the same one the synthetic dataset loads
+final class SyntheticCatalog {
+    private SyntheticCatalog() {
+    }
+
+    static List<Medicine> generate(int size, long seed) {
+        return SyntheticDataGenerator.medicines(size, seed, LocalDateTime.of(2026, 1, 1, 0, 0));
+    }
+}
@@ -0,0 +1,129 @@
+package com.dentalcare.benchmarks;
+
+import com.dentalcare.model.Appointment;
+import com.dentalcare.model.Medicine;
+import com.dentalcare.model.PharmacyCustomer;
+import com.dentalcare.model.PharmacySale;
+import com.dentalcare.model.PharmacySaleItem;
+import com.dentalcare.service.DataStore;
+import com.dentalcare.service.DataStoreSyntheticDataSink;
+import com.dentalcare.service.PhoneNumbers;
+import com.dentalcare.service.SyntheticDataGenerator;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+// Deterministic clinic for service benchmarks: the backend's synthetic dataset over the year ending
+// on END, with as many dentists as it takes to book about the requested number of appointments, a
+// patient per ten appointments and a pharmacy sale per ten appointments. The single-row helpers
+// build request bodies for the sale and serialization benchmarks.
+final class SyntheticClinic {
+    static final LocalDate END = LocalDate.of(2025, 12, 31);
+    static final LocalDate START = END.minusDays(364);
+    static final int DENTISTS = 20;
+    static final int MEDICINES = 500;
+    static final int CUSTOMERS = 1000;
+    // A dentist working five days a week at 75% occupancy books about this many appointments a year
+    private static final int APPOINTMENTS_PER_DENTIST = 2300;
+    private static final Set<DayOfWeek> WORKING_DAYS = EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.SATURDAY);
+
+    private static final String[] FIRST_NAMES = {
+        "Aarav", "Priya", "Michael", "Jessica", "David", "Emily", "Robert", "Ananya", "Rahul", "Sara",
+        "James", "Meera", "Daniel", "Olivia", "Vikram", "Sophia", "Arjun", "Isha", "Thomas", "Nisha"
+    };
+    private static final String[] LAST_NAMES = {
+        "Sharma", "Brown", "Miller", "Wilson", "Taylor", "Patel", "Anderson", "Iyer", "Singh", "Davis",
+        "Reddy", "Clark", "Nair", "Lewis", "Gupta", "Walker", "Menon", "Hall", "Kapoor", "Young"
+    };
+    private static final String[] TYPES = {"checkup", "cleaning", "filling", "root canal", "extraction", "whitening"};
+    private static final double[] TYPE_AMOUNTS = {50, 80, 150, 600, 200, 300};
+
+    private SyntheticClinic() {
+    }
+
+    static void populate(DataStore store, int appointments, long seed) {
+        SyntheticDataGenerator.Spec spec = new SyntheticDataGenerator.Spec(seed, END, 364, 0,
+                Math.max(1, appointments / APPOINTMENTS_PER_DENTIST), 0.75, Math.max(100, appointments / 10),
+                MEDICINES, CUSTOMERS, Math.max(1, appointments / 10 / 365), WORKING_DAYS,
+                LocalTime.of(9, 0), LocalTime.of(18, 0));
+        new SyntheticDataGenerator(spec, 0).generate(new DataStoreSyntheticDataSink(store));
+
+        for (Medicine medicine : store.getMedicines().all()) {
+            // Enough stock that the sale benchmark never runs out
+            medicine.setStock(Integer.MAX_VALUE / 2);
+            store.getMedicines().save(medicine);
+        }
+    }
+
+    // Each dentist works 18 half-hour slots a day; booked slots are drawn at random
+    static Appointment appointment(Random random, int patients) {
+        int type = random.nextInt(TYPES.length);
+        int slot = random.nextInt(18);
+        int roll = random.nextInt(100);
+        long dentistId = 1 + random.nextInt(DENTISTS);
+        LocalDate date = START.plusDays(random.nextInt(365));
+        Appointment appointment = new Appointment();
+        appointment.setPatientId(1L + random.nextInt(patients));
+        appointment.setPatientName("Patient " + appointment.getPatientId());
+        appointment.setDentistId(dentistId);
+        appointment.setDentistName("Dentist " + dentistId);
+        appointment.setDate(date);
+        appointment.setStartTime(LocalTime.of(9, 0).plusMinutes(30L * slot));
+        appointment.setEndTime(appointment.getStartTime().plusMinutes(30));
+        appointment.setStatus(roll < 60 ? "completed" : roll < 85 ? "scheduled" : roll < 95 ? "cancelled" : "no-show");
+        appointment.setType(TYPES[type]);
+        appointment.setAmount(TYPE_AMOUNTS[type]);
+        appointment.setCreatedAt(date.minusDays(random.nextInt(30)).atTime(9, 0));
+        return appointment;
+    }
+
+    // A past sale to a random customer on a random day of the year
+    static PharmacySale sale(Random random, List<Medicine> medicines) {
+        PharmacySale sale = sale(customer(random.nextInt(CUSTOMERS)), medicines);
+        sale.setCreatedAt(START.plusDays(random.nextInt(365)).atTime(10 + random.nextInt(8), random.nextInt(60)));
+        return sale;
+    }
+
+    static PharmacyCustomer customer(int index) {
+        PharmacyCustomer customer = new PharmacyCustomer();
+        customer.setId((long) index + 1);
+        customer.setName(FIRST_NAMES[index % FIRST_NAMES.length] + " " + LAST_NAMES[index / FIRST_NAMES.length % LAST_NAMES.length]);
+        customer.setPhone(SyntheticDataGenerator.customerPhone(customer.getId()));
+        customer.setNormalizedPhone(PhoneNumbers.normalize(customer.getPhone(), "91"));
+        customer.setCreatedAt(LocalDateTime.of(2024, 1, 1, 9, 0));
+        return customer;
+    }
+
+    // One unit of each medicine, priced the way the POS sends it
+    static PharmacySale sale(PharmacyCustomer customer, List<Medicine> medicines) {
+        PharmacySale sale = new PharmacySale();
+        sale.setCustomerId(customer.getId());
+        sale.setCustomerName(customer.getName());
+        sale.setCustomerPhone(customer.getPhone());
+        List<PharmacySaleItem> items = new ArrayList<>(medicines.size());
+        double subtotal = 0;
+        for (Medicine medicine : medicines) {
+            PharmacySaleItem item = new PharmacySaleItem();
+            item.setMedicineId(medicine.getId());
+            item.setMedicineName(medicine.getName());
+            item.setQuantity(1);
+            item.setUnitPrice(medicine.getPrice());
+            item.setTotalPrice(medicine.getPrice());
+            items.add(item);
+            subtotal += medicine.getPrice();
+        }
+        sale.setItems(items);
+        sale.setSubtotal(subtotal);
+        sale.setSgst(subtotal * 0.06);
+        sale.setCgst(subtotal * 0.06);
+        sale.setDiscount(0.0);
+        sale.setTotal(subtotal * 1.12);
+        return sale;
+    }
+}
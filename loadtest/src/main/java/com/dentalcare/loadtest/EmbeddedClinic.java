@@ -0,0 +1,78 @@
+package com.dentalcare.loadtest;
+
+import com.dentalcare.DentalClinicApplication;
+import com.dentalcare.model.Medicine;
+import com.dentalcare.service.DataStore;
+import com.dentalcare.service.MedicineService;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// The whole app in this JVM on a random port, loaded with the synthetic-data profile's dataset:
+// on DataStore (store=inmemory), or through JPA on an in-memory H2 database in MySQL mode (store=h2)
+final class EmbeddedClinic {
+    // Shelves stocked past anything a run can sell, so checkouts are measured rather than refused
+    private static final int STOCK = 100_000_000;
+
+    private EmbeddedClinic() {
+    }
+
+    static ConfigurableApplicationContext start(String store, String extraProfiles, List<String> appArgs) {
+        List<String> profiles = new ArrayList<>();
+        List<String> defaults = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--logging.level.com.dentalcare.service.SyntheticDataGenerator=INFO",
+                "--logging.level.com.dentalcare.config.SyntheticDataRunner=INFO"));
+        switch (store) {
+            case "inmemory" -> profiles.add("inmemory");
+            case "h2" -> defaults.addAll(List.of(
+                    "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.datasource.driver-class-name=org.h2.Driver",
+                    "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                    "--spring.jpa.hibernate.ddl-auto=create",
+                    "--spring.jpa.show-sql=false",
+                    "--spring.sql.init.mode=never"));
+            default -> throw new IllegalArgumentException("--store must be inmemory or h2, not " + store);
+        }
+        profiles.add("synthetic-data");
+        if (!extraProfiles.isBlank()) {
+            profiles.addAll(List.of(extraProfiles.split(",")));
+        }
+        // Spring joins repeated options with commas, so command line arguments replace defaults by name
+        Map<String, String> args = new LinkedHashMap<>();
+        for (String arg : defaults) {
+            args.put(arg.substring(0, arg.indexOf('=')), arg);
+        }
+        for (String arg : appArgs) {
+            args.put(arg.contains("=") ? arg.substring(0, arg.indexOf('=')) : arg, arg);
+        }
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DentalClinicApplication.class)
+                .profiles(profiles.toArray(new String[0]))
+                .logStartupInfo(false)
+                .run(args.values().toArray(new String[0]));
+        if (store.equals("inmemory")) {
+            DataStore dataStore = context.getBean(DataStore.class);
+            List<Medicine> medicines = dataStore.getMedicines().all();
+            medicines.forEach(medicine -> medicine.setStock(STOCK));
+            dataStore.getMedicines().saveAll(medicines);
+        } else {
+            context.getBean(JdbcTemplate.class).update("UPDATE medicines SET stock = ?", STOCK);
+        }
+        context.getBean(MedicineService.class).invalidateCatalog();
+        return context;
+    }
+
+    static String baseUrl(ConfigurableApplicationContext context) {
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                + context.getEnvironment().getProperty("server.servlet.context-path", "");
+    }
+}
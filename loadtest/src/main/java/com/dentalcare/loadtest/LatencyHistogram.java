@@ -0,0 +1,72 @@
+package com.dentalcare.loadtest;
+
+// Log-linear latency histogram in microseconds: exact below 128us, then 64 buckets per power of two,
+// so any recorded value is reported within 1.6% of what was measured. Not thread-safe; each worker
+// records into its own and they are merged once the run is over.
+final class LatencyHistogram {
+    private static final int SUB_BUCKETS = 64;
+    private static final int EXACT = 2 * SUB_BUCKETS;
+
+    private final long[] counts = new long[EXACT + (63 - 7) * SUB_BUCKETS];
+    private long total;
+    private long max;
+
+    void record(long micros) {
+        long value = Math.max(0, micros);
+        counts[index(value)]++;
+        total++;
+        max = Math.max(max, value);
+    }
+
+    void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    long count() {
+        return total;
+    }
+
+    long max() {
+        return max;
+    }
+
+    // The highest value in the bucket holding the given percentile (0-100]; 100 is the exact maximum
+    long percentile(double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        if (percentile >= 100) {
+            return max;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    private static int index(long value) {
+        if (value < EXACT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - 6;
+        return EXACT + (shift - 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    private static long highestValue(int index) {
+        if (index < EXACT) {
+            return index;
+        }
+        int shift = (index - EXACT) / SUB_BUCKETS + 1;
+        long mantissa = (index - EXACT) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
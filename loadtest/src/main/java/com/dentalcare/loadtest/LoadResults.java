@@ -0,0 +1,111 @@
+package com.dentalcare.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Per-operation outcome of a run: a latency histogram and a count per HTTP status (-1 for requests
+// that got no response). Workers fill their own and merge them at the end.
+final class LoadResults {
+    static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p999"};
+
+    static final class Stats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final Map<Integer, Long> statuses = new TreeMap<>();
+
+        void record(long micros, int status) {
+            latency.record(micros);
+            statuses.merge(status, 1L, Long::sum);
+        }
+
+        void add(Stats other) {
+            latency.add(other.latency);
+            other.statuses.forEach((status, count) -> statuses.merge(status, count, Long::sum));
+        }
+
+        long errors() {
+            return statuses.entrySet().stream()
+                    .filter(entry -> entry.getKey() < 200 || entry.getKey() >= 300)
+                    .mapToLong(Map.Entry::getValue)
+                    .sum();
+        }
+    }
+
+    private final Map<Operation, Stats> operations = new EnumMap<>(Operation.class);
+    private final double seconds;
+
+    LoadResults(double seconds) {
+        this.seconds = seconds;
+    }
+
+    Stats stats(Operation operation) {
+        return operations.computeIfAbsent(operation, key -> new Stats());
+    }
+
+    void add(Map<Operation, Stats> worker) {
+        worker.forEach((operation, stats) -> stats(operation).add(stats));
+    }
+
+    void print(PrintStream out) {
+        out.printf("%-18s %10s %8s %10s %10s %10s %10s %10s %10s%n",
+                "Operation", "Requests", "Errors", "Req/s", "p50 ms", "p90 ms", "p99 ms", "p999 ms", "max ms");
+        Stats total = new Stats();
+        operations.forEach((operation, stats) -> {
+            print(out, operation.key(), stats);
+            total.add(stats);
+        });
+        print(out, "total", total);
+        operations.forEach((operation, stats) -> {
+            if (stats.errors() > 0) {
+                out.println(operation.key() + " responses by status (-1: no response): " + stats.statuses);
+            }
+        });
+    }
+
+    private void print(PrintStream out, String name, Stats stats) {
+        out.printf("%-18s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f %10.2f%n", name, stats.latency.count(),
+                stats.errors(), stats.latency.count() / seconds,
+                millis(stats.latency.percentile(50)), millis(stats.latency.percentile(90)),
+                millis(stats.latency.percentile(99)), millis(stats.latency.percentile(99.9)),
+                millis(stats.latency.max()));
+    }
+
+    // {"operations": {"calendar-week": {"requests", "errors", "throughput", "p50Ms" .. "maxMs", "statuses"}}}
+    // plus whatever describes the run, so two files can be compared without the console output
+    ObjectNode toJson(ObjectMapper mapper, Map<String, Object> run) {
+        ObjectNode root = mapper.createObjectNode();
+        run.forEach((key, value) -> root.putPOJO(key, value));
+        root.put("measuredSeconds", seconds);
+        ObjectNode byOperation = root.putObject("operations");
+        operations.forEach((operation, stats) -> {
+            ObjectNode node = byOperation.putObject(operation.key());
+            node.put("requests", stats.latency.count());
+            node.put("errors", stats.errors());
+            node.put("throughput", stats.latency.count() / seconds);
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                node.put(PERCENTILE_NAMES[i] + "Ms", millis(stats.latency.percentile(PERCENTILES[i])));
+            }
+            node.put("maxMs", millis(stats.latency.max()));
+            ObjectNode statuses = node.putObject("statuses");
+            stats.statuses.forEach((status, count) -> statuses.put(String.valueOf(status), count));
+        });
+        return root;
+    }
+
+    void write(ObjectMapper mapper, Map<String, Object> run, Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        mapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), toJson(mapper, run));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
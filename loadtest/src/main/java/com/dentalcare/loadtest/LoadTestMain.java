@@ -0,0 +1,263 @@
+package com.dentalcare.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+// Replays a workload against the app over HTTP and reports throughput and latency per operation.
+//   java -jar target/loadtest.jar [options] [--<app property>=<value> ...]
+//     --workload=clinic        bundled workloads/<name>.properties or a file of operation=weight
+//     --concurrency=16         workers, each with one request in flight
+//     --rate=<req/s>           open model: requests are started on a fixed schedule across the workers
+//                              and latency counts from the scheduled start, so a stalled server is
+//                              charged for the requests it held up (default: closed loop, back to back)
+//     --warmup=15s --duration=60s
+//     --store=inmemory|h2      the embedded app's storage; ignored with --url
+//     --profiles=<p1,p2>       extra app profiles, e.g. virtual-threads
+//     --url=<base url>         load a running app instead, e.g. http://localhost:8080/api
+//     --thresholds=<file>      limits to check (default thresholds.properties when present)
+//     --baseline=<results>     earlier results file to compare against (max-increase-percent)
+//     --label=<name>           results file name (default: the current commit)
+//     --seed=42                the request sequence is reproducible for a seed and concurrency
+// Other --key=value arguments go to the embedded app, e.g. --synthetic-data.patients=100000; with
+// --url give the dataset's synthetic-data.today, patients and customers the same way (its shelves are
+// not restocked, so long runs see sales refused for stock). Exits 1 when a threshold is exceeded.
+public final class LoadTestMain {
+    private static final List<String> OPTIONS = List.of("workload", "concurrency", "rate", "warmup", "duration",
+            "store", "profiles", "url", "thresholds", "baseline", "label", "seed");
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            String name = arg.startsWith("--") && arg.contains("=") ? arg.substring(2, arg.indexOf('=')) : null;
+            if (name != null && OPTIONS.contains(name)) {
+                options.put(name, arg.substring(arg.indexOf('=') + 1));
+            } else {
+                appArgs.add(arg);
+            }
+        }
+        Workload workload = Workload.load(options.getOrDefault("workload", "clinic"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "16"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "0"));
+        Duration warmup = duration(options.getOrDefault("warmup", "15s"));
+        Duration measured = duration(options.getOrDefault("duration", "60s"));
+        String store = options.getOrDefault("store", "inmemory");
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        ConfigurableApplicationContext context = null;
+        int exitCode;
+        try {
+            String base;
+            Map<String, String> dataset = new LinkedHashMap<>();
+            if (options.containsKey("url")) {
+                base = options.get("url").replaceAll("/+$", "");
+                for (String arg : appArgs) {
+                    if (arg.startsWith("--synthetic-data.") && arg.contains("=")) {
+                        dataset.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+                    }
+                }
+            } else {
+                context = EmbeddedClinic.start(store, options.getOrDefault("profiles", ""), appArgs);
+                base = EmbeddedClinic.baseUrl(context);
+                Environment environment = context.getEnvironment();
+                for (String key : List.of("synthetic-data.today", "synthetic-data.patients", "synthetic-data.customers")) {
+                    dataset.put(key, environment.getProperty(key));
+                }
+            }
+
+            ObjectMapper mapper = new ObjectMapper();
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            Operation.Traffic traffic = new Operation.Traffic(URI.create(base),
+                    LocalDate.parse(setting(dataset, "synthetic-data.today", "2025-12-31")),
+                    Integer.parseInt(setting(dataset, "synthetic-data.patients", "1000000")),
+                    Integer.parseInt(setting(dataset, "synthetic-data.customers", "200000")),
+                    catalog(client, mapper, base), mapper);
+
+            System.out.printf("Running %s against %s: %d workers, %s, %ds warmup, %ds measured%n", workload.name(), base,
+                    concurrency, rate > 0 ? rate + " req/s" : "closed loop", warmup.toSeconds(), measured.toSeconds());
+            LoadResults results = run(client, traffic, workload, concurrency, rate, warmup, measured, seed);
+            results.print(System.out);
+
+            Map<String, Object> description = new LinkedHashMap<>();
+            description.put("label", label(options.get("label")));
+            description.put("workload", workload.name());
+            description.put("target", options.containsKey("url") ? base : store);
+            description.put("concurrency", concurrency);
+            description.put("rate", rate);
+            description.put("dataset", dataset);
+            Path file = Path.of("target", "loadtest-results", description.get("label") + ".json");
+            results.write(mapper, description, file);
+            System.out.println("Results written to " + file);
+
+            exitCode = check(options, mapper, results.toJson(mapper, description));
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+        System.exit(exitCode);
+    }
+
+    private static LoadResults run(HttpClient client, Operation.Traffic traffic, Workload workload, int concurrency,
+            double rate, Duration warmup, Duration measured, long seed) throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + measured.toNanos();
+        long interval = rate > 0 ? (long) (concurrency * 1e9 / rate) : 0;
+        SplittableRandom seeds = new SplittableRandom(seed);
+        List<Map<Operation, LoadResults.Stats>> perWorker = new ArrayList<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int w = 0; w < concurrency; w++) {
+            SplittableRandom random = seeds.split();
+            Map<Operation, LoadResults.Stats> stats = new EnumMap<>(Operation.class);
+            perWorker.add(stats);
+            // Scheduled workers start staggered across one interval so the rate is spread evenly
+            long firstStart = start + interval * w / concurrency;
+            Thread worker = new Thread(() -> {
+                long scheduled = firstStart;
+                while (true) {
+                    Operation operation = workload.pick(random);
+                    HttpRequest request = operation.request(traffic, random);
+                    if (interval > 0) {
+                        LockSupport.parkNanos(scheduled - System.nanoTime());
+                    }
+                    long sent = System.nanoTime();
+                    if (sent >= end) {
+                        return;
+                    }
+                    int status = send(client, request);
+                    long done = System.nanoTime();
+                    long from = interval > 0 ? scheduled : sent;
+                    if (from >= measureFrom && done <= end) {
+                        stats.computeIfAbsent(operation, key -> new LoadResults.Stats()).record((done - from) / 1000, status);
+                    }
+                    scheduled += interval;
+                }
+            }, "load-" + w);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        LoadResults results = new LoadResults(measured.toNanos() / 1e9);
+        workload.operations().forEach(results::stats);
+        perWorker.forEach(results::add);
+        return results;
+    }
+
+    private static int send(HttpClient client, HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    // Sales are rung up against the real catalog, read once before the run
+    private static List<Operation.Traffic.Medicine> catalog(HttpClient client, ObjectMapper mapper, String base)
+            throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create(base + "/medicines/catalog")).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET /medicines/catalog answered " + response.statusCode());
+        }
+        List<Operation.Traffic.Medicine> medicines = new ArrayList<>();
+        for (JsonNode medicine : mapper.readTree(response.body())) {
+            medicines.add(new Operation.Traffic.Medicine(medicine.path("id").asLong(), medicine.path("name").asText(),
+                    medicine.path("price").asDouble()));
+        }
+        if (medicines.isEmpty()) {
+            throw new IllegalStateException("The medicine catalog is empty; load the synthetic dataset first");
+        }
+        return medicines;
+    }
+
+    private static int check(Map<String, String> options, ObjectMapper mapper, JsonNode results) throws IOException {
+        Path thresholds = Path.of(options.getOrDefault("thresholds", "thresholds.properties"));
+        if (!Files.isRegularFile(thresholds)) {
+            if (options.containsKey("thresholds")) {
+                throw new IllegalArgumentException("No thresholds file " + thresholds);
+            }
+            return 0;
+        }
+        JsonNode baseline = options.containsKey("baseline") ? mapper.readTree(Path.of(options.get("baseline")).toFile()) : null;
+        List<String> violations = Thresholds.load(thresholds).violations(results, baseline);
+        violations.forEach(violation -> System.out.println("THRESHOLD " + violation));
+        System.out.println(violations.isEmpty()
+                ? "Within " + thresholds + (baseline != null ? " and the baseline" : "")
+                : violations.size() + " threshold(s) exceeded");
+        return violations.isEmpty() ? 0 : 1;
+    }
+
+    private static String setting(Map<String, String> dataset, String key, String otherwise) {
+        String value = dataset.get(key);
+        return value == null || value.isBlank() ? otherwise : value;
+    }
+
+    // 90s, 2m or plain seconds
+    private static Duration duration(String value) {
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value.endsWith("s") ? value.substring(0, value.length() - 1) : value));
+    }
+
+    private static String label(String label) {
+        if (label != null && !label.isBlank()) {
+            return label;
+        }
+        String commit = git("rev-parse", "--short", "HEAD");
+        if (commit == null) {
+            return "run-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        }
+        String changes = git("status", "--porcelain", "--untracked-files=no");
+        return changes == null || changes.isEmpty() ? commit : commit + "-dirty";
+    }
+
+    private static String git(String... command) {
+        List<String> full = new ArrayList<>(List.of("git"));
+        full.addAll(Arrays.asList(command));
+        try {
+            Process process = new ProcessBuilder(full).redirectErrorStream(true).start();
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            return process.waitFor() == 0 ? output : null;
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.dentalcare.loadtest;
+
+import com.dentalcare.service.SyntheticDataGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// The requests a workload mixes, named the way workload and threshold files refer to them. Each
+// draws its parameters from the worker's random stream and the synthetic dataset's shape.
+enum Operation {
+    // The front desk calendar polls the current week, now and then paging a few weeks either way
+    CALENDAR_WEEK("calendar-week") {
+        @Override
+        HttpRequest request(Traffic traffic, SplittableRandom random) {
+            LocalDate monday = traffic.today().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            if (random.nextInt(10) >= 7) {
+                monday = monday.plusWeeks(random.nextInt(-4, 5));
+            }
+            return get(traffic, "/appointments/week/" + monday);
+        }
+    },
+    PATIENT_BY_ID("patient-by-id") {
+        @Override
+        HttpRequest request(Traffic traffic, SplittableRandom random) {
+            return get(traffic, "/patients/" + (1 + random.nextInt(traffic.patients())));
+        }
+    },
+    // Half by the start of a name, half by the last four digits of a phone number
+    PATIENT_SEARCH("patient-search") {
+        @Override
+        HttpRequest request(Traffic traffic, SplittableRandom random) {
+            String query = random.nextBoolean()
+                    ? NAME_PREFIXES[random.nextInt(NAME_PREFIXES.length)]
+                    : String.format("%04d", random.nextInt(10_000));
+            return get(traffic, "/patients/search?size=20&q=" + query);
+        }
+    },
+    // POS browsing the medicine list a page at a time
+    MEDICINES("medicines") {
+        @Override
+        HttpRequest request(Traffic traffic, SplittableRandom random) {
+            int pages = Math.max(1, traffic.medicines().size() / 50);
+            return get(traffic, "/medicines?size=50&count=false&page=" + random.nextInt(Math.min(pages, 20)));
+        }
+    },
+    // A checkout of one to five lines for a known customer
+    PHARMACY_SALE("pharmacy-sale") {
+        @Override
+        HttpRequest request(Traffic traffic, SplittableRandom random) {
+            long customerId = 1 + random.nextInt(traffic.customers());
+            List<Map<String, Object>> items = new ArrayList<>();
+            double subtotal = 0;
+            for (int line = 1 + random.nextInt(5); line > 0; line--) {
+                Traffic.Medicine medicine = traffic.medicines().get(random.nextInt(traffic.medicines().size()));
+                int quantity = 1 + random.nextInt(2);
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("medicineId", medicine.id());
+                item.put("medicineName", medicine.name());
+                item.put("quantity", quantity);
+                item.put("unitPrice", medicine.price());
+                item.put("totalPrice", medicine.price() * quantity);
+                items.add(item);
+                subtotal += medicine.price() * quantity;
+            }
+            Map<String, Object> sale = new LinkedHashMap<>();
+            sale.put("customerName", "Customer " + customerId);
+            sale.put("customerPhone", SyntheticDataGenerator.customerPhone(customerId));
+            sale.put("items", items);
+            sale.put("subtotal", subtotal);
+            sale.put("sgst", subtotal * 0.06);
+            sale.put("cgst", subtotal * 0.06);
+            sale.put("discount", 0.0);
+            sale.put("total", subtotal * 1.12);
+            try {
+                return HttpRequest.newBuilder(traffic.uri("/pharmacy-sales"))
+                        .timeout(TIMEOUT)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(traffic.mapper().writeValueAsBytes(sale)))
+                        .build();
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    },
+    // Year to date by month, or one past month by day
+    FINANCIAL_REPORT("financial-report") {
+        @Override
+        HttpRequest request(Traffic traffic, SplittableRandom random) {
+            if (random.nextBoolean()) {
+                return get(traffic, "/reports/financial?period=monthly&startDate=" + traffic.today().minusDays(364)
+                        + "&endDate=" + traffic.today());
+            }
+            LocalDate month = traffic.today().withDayOfMonth(1).minusMonths(1 + random.nextInt(12));
+            return get(traffic, "/reports/financial?period=daily&startDate=" + month
+                    + "&endDate=" + month.plusMonths(1).minusDays(1));
+        }
+    };
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+    private static final String[] NAME_PREFIXES = {
+        "sha", "pat", "bro", "mil", "iye", "sin", "red", "nai", "gup", "kap", "pri", "mic", "ana", "dav", "mee"
+    };
+
+    private final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    String key() {
+        return key;
+    }
+
+    abstract HttpRequest request(Traffic traffic, SplittableRandom random);
+
+    static Operation byKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation " + key);
+    }
+
+    private static HttpRequest get(Traffic traffic, String path) {
+        return HttpRequest.newBuilder(traffic.uri(path)).timeout(TIMEOUT).GET().build();
+    }
+
+    // What the requests are built from: the app's address and the dataset it was loaded with
+    record Traffic(URI base, LocalDate today, int patients, int customers, List<Medicine> medicines,
+            ObjectMapper mapper) {
+        record Medicine(long id, String name, double price) { }
+
+        URI uri(String path) {
+            return URI.create(base + path);
+        }
+    }
+}
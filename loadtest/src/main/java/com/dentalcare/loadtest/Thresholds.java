@@ -0,0 +1,73 @@
+package com.dentalcare.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+// Limits a run has to stay within, from a properties file (see thresholds.properties):
+//   <operation>.<p50|p90|p99|p999>=<ms>   absolute latency limit; "*" stands for every operation
+//                                        without a limit of its own
+//   max-error-rate=<fraction>            share of an operation's requests allowed to fail
+//   max-increase-percent=<percent>       against a baseline results file, the rise allowed in any
+//   min-increase-ms=<ms>                 percentile, ignoring rises smaller than min-increase-ms
+final class Thresholds {
+    private final Properties limits;
+
+    private Thresholds(Properties limits) {
+        this.limits = limits;
+    }
+
+    static Thresholds load(Path file) throws IOException {
+        Properties limits = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            limits.load(reader);
+        }
+        return new Thresholds(limits);
+    }
+
+    // One line per limit exceeded; baseline may be null
+    List<String> violations(JsonNode results, JsonNode baseline) {
+        List<String> violations = new ArrayList<>();
+        double maxErrorRate = number("max-error-rate", Double.NaN);
+        double maxIncrease = number("max-increase-percent", Double.NaN);
+        double minIncreaseMs = number("min-increase-ms", 0);
+        Iterator<Map.Entry<String, JsonNode>> operations = results.path("operations").fields();
+        while (operations.hasNext()) {
+            Map.Entry<String, JsonNode> entry = operations.next();
+            String operation = entry.getKey();
+            JsonNode stats = entry.getValue();
+            double errorRate = stats.path("errors").asDouble() / Math.max(1, stats.path("requests").asLong());
+            if (errorRate > maxErrorRate) {
+                violations.add(String.format("%s: error rate %.4f above %s", operation, errorRate, maxErrorRate));
+            }
+            JsonNode before = baseline == null ? null : baseline.path("operations").get(operation);
+            for (String percentile : LoadResults.PERCENTILE_NAMES) {
+                double ms = stats.path(percentile + "Ms").asDouble();
+                String limit = limits.getProperty(operation + "." + percentile, limits.getProperty("*." + percentile));
+                if (limit != null && ms > Double.parseDouble(limit.trim())) {
+                    violations.add(String.format("%s: %s %.2f ms above the %s ms limit", operation, percentile, ms, limit.trim()));
+                }
+                if (before != null && !Double.isNaN(maxIncrease) && before.has(percentile + "Ms")) {
+                    double was = before.path(percentile + "Ms").asDouble();
+                    if (ms - was > minIncreaseMs && ms > was * (1 + maxIncrease / 100)) {
+                        violations.add(String.format("%s: %s rose from %.2f to %.2f ms (%+.0f%%, allowed %s%%)",
+                                operation, percentile, was, ms, (ms - was) / was * 100, maxIncrease));
+                    }
+                }
+            }
+        }
+        return violations;
+    }
+
+    private double number(String key, double otherwise) {
+        String value = limits.getProperty(key);
+        return value == null ? otherwise : Double.parseDouble(value.trim());
+    }
+}
@@ -0,0 +1,78 @@
+package com.dentalcare.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+// A weighted mix of operations, read from a properties file of operation=weight: one of the
+// bundled workloads/<name>.properties, or a path
+final class Workload {
+    private final String name;
+    private final List<Operation> operations = new ArrayList<>();
+    private final int[] cumulative;
+
+    private Workload(String name, Map<String, Integer> weights) {
+        this.name = name;
+        this.cumulative = new int[weights.size()];
+        int total = 0;
+        for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+            if (weight.getValue() < 0) {
+                throw new IllegalArgumentException("Negative weight for " + weight.getKey() + " in workload " + name);
+            }
+            total += weight.getValue();
+            cumulative[operations.size()] = total;
+            operations.add(Operation.byKey(weight.getKey()));
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Workload " + name + " has no weighted operations");
+        }
+    }
+
+    static Workload load(String nameOrPath) throws IOException {
+        Properties properties = new Properties();
+        Path path = Path.of(nameOrPath);
+        if (Files.isRegularFile(path)) {
+            try (Reader reader = Files.newBufferedReader(path)) {
+                properties.load(reader);
+            }
+        } else {
+            try (InputStream in = Workload.class.getResourceAsStream("/workloads/" + nameOrPath + ".properties")) {
+                if (in == null) {
+                    throw new IllegalArgumentException("No workload file or bundled workload named " + nameOrPath);
+                }
+                properties.load(in);
+            }
+        }
+        Map<String, Integer> weights = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            weights.put(key, Integer.parseInt(properties.getProperty(key).trim()));
+        }
+        return new Workload(nameOrPath, weights);
+    }
+
+    String name() {
+        return name;
+    }
+
+    List<Operation> operations() {
+        return operations;
+    }
+
+    Operation pick(SplittableRandom random) {
+        int roll = random.nextInt(cumulative[cumulative.length - 1]);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (roll < cumulative[i]) {
+                return operations.get(i);
+            }
+        }
+        throw new IllegalStateException();
+    }
+}
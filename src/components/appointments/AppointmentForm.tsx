@@ -1,7 +1,8 @@
 import { useState, useEffect } from 'react';
-import { Appointment } from '../../types';
-import { usePatients, useDentists } from '../../hooks/useApi';
+import { Appointment, Patient } from '../../types';
+import { useDentists } from '../../hooks/useApi';
 import { useAuth } from '../../contexts/AuthContext';
+import api from '../../services/api';
 
 interface AppointmentFormProps {
   appointment?: Partial<Appointment>;
@@ -10,9 +11,25 @@ interface AppointmentFormProps {
 }
 
 const AppointmentForm = ({ appointment, onSubmit, onCancel }: AppointmentFormProps) => {
-  const { data: patients = [], isLoading: isLoadingPatients } = usePatients();
   const { data: dentists = [], isLoading: isLoadingDentists } = useDentists();
   const { user } = useAuth();
+  const [patientQuery, setPatientQuery] = useState('');
+  const [patients, setPatients] = useState<Patient[]>([]);
+
+  // Patients are looked up on the server as the name is typed rather than listed in full
+  useEffect(() => {
+    const query = patientQuery.trim();
+    if (query.length < 2) {
+      setPatients([]);
+      return;
+    }
+    const timer = setTimeout(() => {
+      api.patients.search(query, 0, 20)
+        .then(setPatients)
+        .catch((error) => console.error('Failed to search patients:', error));
+    }, 250);
+    return () => clearTimeout(timer);
+  }, [patientQuery]);
   
   const [formData, setFormData] = useState<Partial<Appointment>>({
     patientId: appointment?.patientId || 0,
@@ -176,7 +193,7 @@ const AppointmentForm = ({ appointment, onSubmit, onCancel }: AppointmentFormPro
     }
   };
 
-  if (isLoadingPatients || isLoadingDentists) {
+  if (isLoadingDentists) {
     return (
       <div className="flex items-center justify-center p-8">
         <p className="text-neutral-500">Loading...</p>
@@ -190,6 +207,14 @@ const AppointmentForm = ({ appointment, onSubmit, onCancel }: AppointmentFormPro
         <label htmlFor="patientId" className="block text-sm font-medium text-neutral-700">
           Patient*
         </label>
+        <input
+          type="text"
+          className="input mt-1 block w-full"
+          placeholder="Search patients by name or phone..."
+          value={patientQuery}
+          onChange={(e) => setPatientQuery(e.target.value)}
+          disabled={isSubmitting}
+        />
         <select
           id="patientId"
           name="patientId"
@@ -199,6 +224,9 @@ const AppointmentForm = ({ appointment, onSubmit, onCancel }: AppointmentFormPro
           disabled={isSubmitting}
         >
           <option value="">Select Patient</option>
+          {formData.patientId && !patients.some((p) => p.id === formData.patientId) && (
+            <option value={formData.patientId}>{formData.patientName}</option>
+          )}
           {patients.map((patient) => (
             <option key={patient.id} value={patient.id}>
               {patient.firstName} {patient.lastName}
@@ -1,5 +1,5 @@
 import { useState, useEffect } from 'react';
-import api from '../services/api';
+import api, { ListPage, PageCursor } from '../services/api';
 
 interface UseApiOptions<T> {
   initialData?: T;
@@ -38,6 +38,47 @@ export function useApi<T>(
   return { data, error, isLoading, refetch: fetchData };
 }
 
+// A list read one cursor page at a time; loadMore appends the next page and refetch starts over
+export function usePagedList<T>(fetchPage: (cursor: PageCursor | null) => Promise<ListPage<T>>) {
+  const [data, setData] = useState<T[]>([]);
+  const [next, setNext] = useState<PageCursor | null>(null);
+  const [error, setError] = useState<Error | null>(null);
+  const [isLoading, setIsLoading] = useState(true);
+  const [isLoadingMore, setIsLoadingMore] = useState(false);
+
+  const load = async (cursor: PageCursor | null) => {
+    try {
+      const page = await fetchPage(cursor);
+      setData((rows) => (cursor ? [...rows, ...page.rows] : page.rows));
+      setNext(page.next);
+      setError(null);
+    } catch (err) {
+      setError(err instanceof Error ? err : new Error('An error occurred'));
+    }
+  };
+
+  const refetch = async () => {
+    setIsLoading(true);
+    await load(null);
+    setIsLoading(false);
+  };
+
+  const loadMore = async () => {
+    if (!next || isLoadingMore) {
+      return;
+    }
+    setIsLoadingMore(true);
+    await load(next);
+    setIsLoadingMore(false);
+  };
+
+  useEffect(() => {
+    refetch();
+  }, []);
+
+  return { data, error, isLoading, isLoadingMore, hasMore: next !== null, loadMore, refetch };
+}
+
 export function useUsers() {
   return useApi(() => api.users.getAll());
 }
@@ -51,7 +92,7 @@ export function useUser(id: number) {
 }
 
 export function usePatients() {
-  return useApi(() => api.patients.getAll());
+  return usePagedList((cursor) => api.patients.getPage(cursor));
 }
 
 export function usePatient(id: number) {
@@ -59,7 +100,7 @@ export function usePatient(id: number) {
 }
 
 export function useAppointments() {
-  return useApi(() => api.appointments.getAll());
+  return usePagedList((cursor) => api.appointments.getPage(cursor));
 }
 
 export function useAppointmentsByDate(date: string) {
@@ -87,7 +128,7 @@ export function useMedicine(id: number) {
 }
 
 export function usePrescriptions() {
-  return useApi(() => api.prescriptions.getAll());
+  return usePagedList((cursor) => api.prescriptions.getPage(cursor));
 }
 
 export function usePrescriptionsByPatient(patientId: number) {
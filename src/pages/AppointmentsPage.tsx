@@ -10,7 +10,7 @@ import api from '../services/api';
 const ITEMS_PER_PAGE = 10;
 
 const AppointmentsPage = () => {
-  const { data: appointments = [], isLoading, error, refetch } = useAppointments();
+  const { data: appointments, isLoading, error, refetch, hasMore, isLoadingMore, loadMore } = useAppointments();
   const [searchTerm, setSearchTerm] = useState('');
   const [statusFilter, setStatusFilter] = useState('all');
   const [showForm, setShowForm] = useState(false);
@@ -18,7 +18,7 @@ const AppointmentsPage = () => {
   const [editingAppointment, setEditingAppointment] = useState<Appointment | null>(null);
 
   // Filter appointments based on search term and status filter
-  const filteredAppointments = appointments.filter((appointment) => {
+  const filteredAppointments = appointments.filter((appointment: Appointment) => {
     const matchesSearch = appointment.patientName.toLowerCase().includes(searchTerm.toLowerCase());
     const matchesStatus = statusFilter === 'all' || appointment.status === statusFilter;
     return matchesSearch && matchesStatus;
@@ -92,7 +92,7 @@ const AppointmentsPage = () => {
         <div>
           <h1 className="text-2xl font-bold text-neutral-900">Appointments</h1>
           <p className="text-sm text-neutral-500">
-            Showing {startIndex + 1} to {Math.min(startIndex + ITEMS_PER_PAGE, sortedAppointments.length)} of {sortedAppointments.length} appointments
+            Showing {startIndex + 1} to {Math.min(startIndex + ITEMS_PER_PAGE, sortedAppointments.length)} of {sortedAppointments.length}{hasMore ? '+' : ''} appointments
           </p>
         </div>
         <div className="flex space-x-3">
@@ -268,6 +268,14 @@ const AppointmentsPage = () => {
         )}
       </div>
 
+      {hasMore && (
+        <div className="mt-4 flex justify-center">
+          <button onClick={loadMore} className="btn-outline" disabled={isLoadingMore}>
+            {isLoadingMore ? 'Loading...' : 'Load more appointments'}
+          </button>
+        </div>
+      )}
+
       {/* Appointment Form Modal */}
       {showForm && (
         <div className="fixed inset-0 z-50 flex items-center justify-center bg-neutral-900 bg-opacity-50">
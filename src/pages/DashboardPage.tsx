@@ -2,36 +2,41 @@ import { useState, useEffect } from 'react';
 import { ArrowRight, Calendar, User, Users } from 'lucide-react';
 import { Link } from 'react-router-dom';
 import { LineChart, Line, BarChart, Bar, XAxis, YAxis, CartesianGrid, Tooltip, ResponsiveContainer, PieChart, Pie, Cell } from 'recharts';
-import { useAppointments, usePatients } from '../hooks/useApi';
-import { DashboardStats } from '../types';
+import { Appointment, DashboardStats } from '../types';
 import api from '../services/api';
 
 const DashboardPage = () => {
-  const { data: appointments = [], isLoading: isLoadingAppointments } = useAppointments();
-  const { data: patients = [], isLoading: isLoadingPatients } = usePatients();
   const [stats, setStats] = useState<DashboardStats | null>(null);
+  const [isLoading, setIsLoading] = useState(true);
   
   const COLORS = ['#0891b2', '#0d9488', '#ffc107', '#f44336', '#9e9e9e'];
 
+  // Totals come from counts and the charts from this month's calendar, so no whole table is loaded
   useEffect(() => {
-    if (!isLoadingAppointments && !isLoadingPatients) {
-      const today = new Date().toISOString().split('T')[0];
+    const loadStats = async () => {
+      const now = new Date();
+      const today = now.toISOString().split('T')[0];
+      const next = new Date(now.getFullYear(), now.getMonth() + 1, 1);
       
-      // Calculate stats from API data
-      const todayAppointments = appointments.filter(a => a.date === today).length;
-      const upcomingAppointments = appointments
-        .filter(a => a.date >= today && (a.status === 'scheduled' || a.status === 'confirmed'))
-        .sort((a, b) => {
+      const [todayList, totalAppointments, totalPatients, recent, thisMonth, nextMonth] = await Promise.all([
+        api.appointments.getByDate(today),
+        api.appointments.count(),
+        api.patients.count(),
+        api.patients.getPage(null, 5),
+        api.appointments.getByMonth(now.getFullYear(), now.getMonth() + 1),
+        api.appointments.getByMonth(next.getFullYear(), next.getMonth() + 1),
+      ]);
+      const appointments: Appointment[] = thisMonth;
+
+      const upcomingAppointments = [...thisMonth, ...nextMonth]
+        .filter((a: Appointment) => a.date >= today && (a.status === 'scheduled' || a.status === 'confirmed'))
+        .sort((a: Appointment, b: Appointment) => {
           const dateA = new Date(`${a.date}T${a.startTime}`);
           const dateB = new Date(`${b.date}T${b.startTime}`);
           return dateA.getTime() - dateB.getTime();
         })
         .slice(0, 5);
 
-      const recentPatients = [...patients]
-        .sort((a, b) => new Date(b.createdAt).getTime() - new Date(a.createdAt).getTime())
-        .slice(0, 5);
-
       // Calculate appointment type stats
       const appointmentTypes = appointments.reduce((acc: { [key: string]: number }, curr) => {
         acc[curr.type] = (acc[curr.type] || 0) + 1;
@@ -55,18 +60,21 @@ const DashboardPage = () => {
       }));
 
       setStats({
-        todayAppointments,
-        totalAppointments: appointments.length,
-        totalPatients: patients.length,
+        todayAppointments: todayList.length,
+        totalAppointments,
+        totalPatients,
         upcomingAppointments,
-        recentPatients,
+        recentPatients: recent.rows,
         appointmentsByType,
         appointmentsByStatus,
       });
-    }
-  }, [appointments, patients, isLoadingAppointments, isLoadingPatients]);
+    };
+    loadStats()
+      .catch((error) => console.error('Failed to load dashboard data:', error))
+      .finally(() => setIsLoading(false));
+  }, []);
 
-  if (isLoadingAppointments || isLoadingPatients) {
+  if (isLoading) {
     return (
       <div className="flex h-64 items-center justify-center">
         <p className="text-lg text-neutral-500">Loading dashboard data...</p>
@@ -292,7 +300,7 @@ const DashboardPage = () => {
       <div className="mb-6 grid grid-cols-1 gap-6 lg:grid-cols-2">
         {/* Appointments by Type */}
         <div className="card">
-          <h2 className="mb-4 text-lg font-semibold text-neutral-900">Appointments by Type</h2>
+          <h2 className="mb-4 text-lg font-semibold text-neutral-900">Appointments by Type This Month</h2>
           <div className="h-64">
             <ResponsiveContainer width="100%" height="100%">
               <PieChart>
@@ -318,7 +326,7 @@ const DashboardPage = () => {
 
         {/* Appointments by Status */}
         <div className="card">
-          <h2 className="mb-4 text-lg font-semibold text-neutral-900">Appointments by Status</h2>
+          <h2 className="mb-4 text-lg font-semibold text-neutral-900">Appointments by Status This Month</h2>
           <div className="h-64">
             <ResponsiveContainer width="100%" height="100%">
               <BarChart
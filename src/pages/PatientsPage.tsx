@@ -1,4 +1,4 @@
-import { useState } from 'react';
+import { useState, useEffect } from 'react';
 import { Link } from 'react-router-dom';
 import { Plus, Search, User } from 'lucide-react';
 import { Patient } from '../types';
@@ -10,20 +10,28 @@ import api from '../services/api';
 const ITEMS_PER_PAGE = 5;
 
 const PatientsPage = () => {
-  const { data: patients = [], isLoading, error, refetch } = usePatients();
+  const { data: patients, isLoading, error, refetch, hasMore, isLoadingMore, loadMore } = usePatients();
   const [searchTerm, setSearchTerm] = useState('');
+  const [searchResults, setSearchResults] = useState<Patient[] | null>(null);
   const [showForm, setShowForm] = useState(false);
   const [currentPage, setCurrentPage] = useState(1);
 
-  // Filter patients based on search term
-  const filteredPatients = patients.filter((patient) => {
-    const fullName = `${patient.firstName} ${patient.lastName}`.toLowerCase();
-    return (
-      fullName.includes(searchTerm.toLowerCase()) ||
-      patient.email.toLowerCase().includes(searchTerm.toLowerCase()) ||
-      patient.phone.includes(searchTerm)
-    );
-  });
+  // Searches go to the server (name, phone or email), since only the pages loaded so far are here
+  useEffect(() => {
+    const query = searchTerm.trim();
+    if (query.length < 2) {
+      setSearchResults(null);
+      return;
+    }
+    const timer = setTimeout(() => {
+      api.patients.search(query, 0, 50)
+        .then(setSearchResults)
+        .catch((error) => console.error('Failed to search patients:', error));
+    }, 250);
+    return () => clearTimeout(timer);
+  }, [searchTerm]);
+
+  const filteredPatients: Patient[] = searchResults ?? patients;
 
   // Calculate pagination
   const totalPages = Math.ceil(filteredPatients.length / ITEMS_PER_PAGE);
@@ -173,6 +181,14 @@ const PatientsPage = () => {
         )}
       </div>
 
+      {!searchResults && hasMore && (
+        <div className="mt-4 flex justify-center">
+          <button onClick={loadMore} className="btn-outline" disabled={isLoadingMore}>
+            {isLoadingMore ? 'Loading...' : 'Load more patients'}
+          </button>
+        </div>
+      )}
+
       {/* Patient Form Modal */}
       {showForm && (
         <div className="fixed inset-0 z-50 flex items-center justify-center bg-neutral-900 bg-opacity-50">
@@ -1,4 +1,4 @@
-import { useState } from 'react';
+import { useState, useEffect } from 'react';
 import { Search, Phone, User } from 'lucide-react';
 import { Medicine, PharmacySale, PharmacySaleItem, PharmacyCustomer } from '../types';
 import { useMedicines } from '../hooks/useApi';
@@ -36,9 +36,31 @@ const PharmacyPOSPage = () => {
   const [customerError, setCustomerError] = useState<string | null>(null);
   const [isSearching, setIsSearching] = useState(false);
 
-  const filteredMedicines = medicines.filter((medicine) =>
-    medicine.name.toLowerCase().includes(searchTerm.toLowerCase())
-  );
+  const [searchResults, setSearchResults] = useState<Medicine[] | null>(null);
+
+  // Typeahead runs on the server; the full catalog is only listed while the search box is empty
+  useEffect(() => {
+    const term = searchTerm.trim();
+    if (!term) {
+      setSearchResults(null);
+      return;
+    }
+    let cancelled = false;
+    const timer = setTimeout(async () => {
+      try {
+        const results = await api.medicines.search(term);
+        if (!cancelled) setSearchResults(results);
+      } catch (error) {
+        console.error('Medicine search failed:', error);
+      }
+    }, 150);
+    return () => {
+      cancelled = true;
+      clearTimeout(timer);
+    };
+  }, [searchTerm]);
+
+  const filteredMedicines = searchResults ?? medicines;
 
   const handlePhoneSearch = async () => {
     if (!phoneSearch.trim()) {
@@ -120,7 +142,7 @@ const PharmacyPOSPage = () => {
   const updateQuantity = (medicineId: number, quantity: number) => {
     if (quantity < 0) return;
     
-    const medicine = medicines.find(m => m.id === medicineId);
+    const medicine = saleItems.find(item => item.medicine.id === medicineId)?.medicine;
     if (medicine && quantity > medicine.stock) {
       alert(`Only ${medicine.stock} units available`);
       return;
@@ -199,6 +221,7 @@ const PharmacyPOSPage = () => {
       setDiscount(0);
       setCustomer(null);
       setPhoneSearch('');
+      setSearchTerm('');
       refetchMedicines();
 
       alert('Sale completed successfully!');
@@ -8,6 +8,49 @@ const api = axios.create({
   withCredentials: true,
 });
 
+// Server-sent change feed; EventSource reconnects on its own and resumes from the last event id
+const openStream = (path: string, from?: string, to?: string) => {
+  const params = new URLSearchParams();
+  if (from) params.set('from', from);
+  if (to) params.set('to', to);
+  return new EventSource(`${api.defaults.baseURL}${path}?${params}`, { withCredentials: true });
+};
+
+// List endpoints answer one page at a time, newest first. The next page is asked for with the
+// created-at/id cursor the previous one returned, so the server neither counts nor skips rows
+export interface PageCursor {
+  afterCreatedAt: string;
+  afterId: string;
+}
+
+export interface ListPage<T = any> {
+  rows: T[];
+  next: PageCursor | null;
+}
+
+const getPage = async (path: string, cursor: PageCursor | null = null, size = 50): Promise<ListPage> => {
+  const params = new URLSearchParams({ size: String(size) });
+  if (cursor) {
+    params.set('afterCreatedAt', cursor.afterCreatedAt);
+    params.set('afterId', cursor.afterId);
+  } else {
+    params.append('sort', 'createdAt,desc');
+    params.append('sort', 'id,desc');
+    params.set('count', 'false');
+  }
+  const response = await api.get(path, { params });
+  const afterCreatedAt = response.headers['x-next-after-created-at'];
+  const afterId = response.headers['x-next-after-id'];
+  const hasNext = response.headers['x-has-next'] === 'true' && afterCreatedAt && afterId;
+  return { rows: response.data, next: hasNext ? { afterCreatedAt, afterId } : null };
+};
+
+// Row count from a one-row offset page, for headline totals
+const getTotal = async (path: string): Promise<number> => {
+  const response = await api.get(path, { params: { size: 1, count: true } });
+  return Number(response.headers['x-total-count'] ?? 0);
+};
+
 // Add request interceptor to handle errors
 api.interceptors.request.use(
   (config) => {
@@ -56,14 +99,16 @@ export const users = {
 };
 
 export const patients = {
-  getAll: async () => {
-    const response = await api.get('/patients');
-    return response.data;
-  },
+  getPage: (cursor?: PageCursor | null, size?: number) => getPage('/patients', cursor, size),
+  count: () => getTotal('/patients'),
   getById: async (id: number) => {
     const response = await api.get(`/patients/${id}`);
     return response.data;
   },
+  search: async (q: string, page = 0, size = 20) => {
+    const response = await api.get('/patients/search', { params: { q, page, size } });
+    return response.data;
+  },
   create: async (patient: any) => {
     const response = await api.post('/patients', patient);
     return response.data;
@@ -78,10 +123,9 @@ export const patients = {
 };
 
 export const appointments = {
-  getAll: async () => {
-    const response = await api.get('/appointments');
-    return response.data;
-  },
+  stream: (from?: string, to?: string) => openStream('/appointments/stream', from, to),
+  getPage: (cursor?: PageCursor | null, size?: number) => getPage('/appointments', cursor, size),
+  count: () => getTotal('/appointments'),
   getByDate: async (date: string) => {
     const response = await api.get(`/appointments/date/${date}`);
     return response.data;
@@ -116,8 +160,17 @@ export const appointments = {
 };
 
 export const medicines = {
+  // The catalog is cached by ETag and carries no stock; current stock comes from its own small list
   getAll: async () => {
-    const response = await api.get('/medicines');
+    const [catalog, stock] = await Promise.all([
+      api.get('/medicines/catalog'),
+      api.get('/medicines/stock'),
+    ]);
+    const stockById = new Map<number, number>(stock.data.map((row: any) => [row.id, row.stock]));
+    return catalog.data.map((medicine: any) => ({ ...medicine, stock: stockById.get(medicine.id) ?? 0 }));
+  },
+  search: async (q: string, limit = 20) => {
+    const response = await api.get('/medicines/search', { params: { q, limit } });
     return response.data;
   },
   getById: async (id: number) => {
@@ -132,16 +185,18 @@ export const medicines = {
     const response = await api.put(`/medicines/${id}`, medicine);
     return response.data;
   },
+  // update leaves stock alone; deliveries and write-offs go through here
+  adjustStock: async (id: number, delta: number) => {
+    const response = await api.post(`/medicines/${id}/stock`, null, { params: { delta } });
+    return response.data;
+  },
   delete: async (id: number) => {
     await api.delete(`/medicines/${id}`);
   },
 };
 
 export const prescriptions = {
-  getAll: async () => {
-    const response = await api.get('/prescriptions');
-    return response.data;
-  },
+  getPage: (cursor?: PageCursor | null, size?: number) => getPage('/prescriptions', cursor, size),
   getByPatientId: async (patientId: number) => {
     const response = await api.get(`/prescriptions/patient/${patientId}`);
     return response.data;
@@ -164,10 +219,8 @@ export const prescriptions = {
 };
 
 export const pharmacySales = {
-  getAll: async () => {
-    const response = await api.get('/pharmacy-sales');
-    return response.data;
-  },
+  stream: (from?: string, to?: string) => openStream('/pharmacy-sales/stream', from, to),
+  getPage: (cursor?: PageCursor | null, size?: number) => getPage('/pharmacy-sales', cursor, size),
   getById: async (id: number) => {
     const response = await api.get(`/pharmacy-sales/${id}`);
     return response.data;
@@ -180,7 +233,7 @@ export const pharmacySales = {
 
 export const pharmacyCustomers = {
   getByPhone: async (phone: string) => {
-    const response = await api.get(`/pharmacy-customers/phone/${phone}`);
+    const response = await api.get(`/pharmacy-customers/phone/${encodeURIComponent(phone)}`);
     return response.data;
   },
   create: async (customer: any) => {
@@ -255,6 +308,25 @@ export const reports = {
     const response = await api.get('/reports/pharmacy', { params });
     return response.data;
   },
+  // Background jobs: createJob returns { id, status }; getJobResult answers 202 until the report is ready
+  createJob: async (type: string, filter: any) => {
+    const params = {
+      type,
+      period: filter.period,
+      startDate: filter.startDate,
+      endDate: filter.endDate
+    };
+    const response = await api.post('/reports/jobs', null, { params });
+    return response.data;
+  },
+  getJob: async (id: string) => {
+    const response = await api.get(`/reports/jobs/${id}`);
+    return response.data;
+  },
+  getJobResult: async (id: string) => {
+    const response = await api.get(`/reports/jobs/${id}/result`);
+    return response;
+  },
 };
 
 const apiService = {